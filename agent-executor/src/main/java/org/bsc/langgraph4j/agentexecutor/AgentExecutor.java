@@ -16,6 +16,7 @@ import org.bsc.langgraph4j.serializer.StateSerializer;
 import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.AppenderChannel;
 import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.WindowChannel;
 import org.bsc.langgraph4j.langchain4j.tool.ToolNode;
 
 import java.util.*;
@@ -38,6 +39,16 @@ public interface AgentExecutor {
                 "intermediate_steps", AppenderChannel.<IntermediateStep>of(ArrayList::new)
         );
 
+        /**
+         * Returns the schema of the state whose intermediate steps are accumulated by the given channel.
+         *
+         * @param intermediateStepsChannel the channel of the intermediate steps
+         * @return the schema
+         */
+        static Map<String, Channel<?>> schema(Channel<List<IntermediateStep>> intermediateStepsChannel) {
+            return Map.of("intermediate_steps", intermediateStepsChannel);
+        }
+
         /**
          * Constructs a new State with the given initialization data.
          *
@@ -112,6 +123,7 @@ public interface AgentExecutor {
         private ChatLanguageModel chatLanguageModel;
         private final ToolNode.Builder toolNodeBuilder = ToolNode.builder();
         private StateSerializer<State> stateSerializer;
+        private Channel<List<IntermediateStep>> intermediateStepsChannel;
 
         /**
          * Sets the chat language model for the graph builder.
@@ -192,6 +204,18 @@ public interface AgentExecutor {
             return this;
         }
 
+        /**
+         * Sets the channel that accumulates the intermediate steps, by default all the steps are kept.
+         * A {@link WindowChannel} keeps only the most recent ones, so a long running session uses a constant memory.
+         *
+         * @param intermediateStepsChannel the intermediate steps channel
+         * @return the updated GraphBuilder instance
+         */
+        public GraphBuilder intermediateStepsChannel(Channel<List<IntermediateStep>> intermediateStepsChannel) {
+            this.intermediateStepsChannel = intermediateStepsChannel;
+            return this;
+        }
+
         /**
          * Builds the state graph.
          *
@@ -227,7 +251,11 @@ public interface AgentExecutor {
                             .map(finish -> "end")
                             .orElse("continue");
 
-            return new StateGraph<>(State.SCHEMA, stateSerializer)
+            final var schema = (intermediateStepsChannel != null) ?
+                    State.schema(intermediateStepsChannel) :
+                    State.SCHEMA;
+
+            return new StateGraph<>(schema, stateSerializer)
                     .addNode("agent", node_async(callAgent))
                     .addNode("action", node_async(executeTools))
                     .addEdge(START, "agent")
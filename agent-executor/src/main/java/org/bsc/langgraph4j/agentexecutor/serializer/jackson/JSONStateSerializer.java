@@ -13,6 +13,7 @@ import org.bsc.langgraph4j.agentexecutor.state.AgentAction;
 import org.bsc.langgraph4j.agentexecutor.state.AgentFinish;
 import org.bsc.langgraph4j.agentexecutor.state.AgentOutcome;
 import org.bsc.langgraph4j.agentexecutor.state.IntermediateStep;
+import org.bsc.langgraph4j.langchain4j.serializer.std.ChatMesssageSerializer;
 import org.bsc.langgraph4j.serializer.plain_text.jackson.JacksonStateSerializer;
 
 import java.io.*;
@@ -38,6 +39,9 @@ public class JSONStateSerializer extends JacksonStateSerializer<AgentExecutor.St
             .addDeserializer(IntermediateStep.class, new IntermediateStepDeserializer())
             .addDeserializer(AgentExecutor.State.class, new StateDeserializer())
         );
+
+        // makes AgentAction and IntermediateStep records immutable too
+        ChatMesssageSerializer.immutableMessages(copiers());
     }
 
     /**
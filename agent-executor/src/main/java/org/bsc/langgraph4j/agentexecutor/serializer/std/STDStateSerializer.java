@@ -6,6 +6,7 @@ import org.bsc.langgraph4j.agentexecutor.state.AgentAction;
 import org.bsc.langgraph4j.agentexecutor.state.AgentFinish;
 import org.bsc.langgraph4j.agentexecutor.state.AgentOutcome;
 import org.bsc.langgraph4j.agentexecutor.state.IntermediateStep;
+import org.bsc.langgraph4j.langchain4j.serializer.std.ChatMesssageSerializer;
 import org.bsc.langgraph4j.langchain4j.serializer.std.ToolExecutionRequestSerializer;
 import org.bsc.langgraph4j.serializer.Serializer;
 import org.bsc.langgraph4j.serializer.std.NullableObjectSerializer;
@@ -36,6 +37,9 @@ public class STDStateSerializer extends ObjectStreamStateSerializer<AgentExecuto
         mapper().register(AgentFinish.class, new AgentFinishSerializer());
         mapper().register(AgentOutcome.class, new AgentOutcomeSerializer());
         mapper().register(IntermediateStep.class, new IntermediateStepSerializer());
+
+        // makes AgentAction and IntermediateStep records immutable too
+        ChatMesssageSerializer.immutableMessages(copiers());
     }
 }
 
@@ -0,0 +1,90 @@
+package org.bsc.langgraph4j.agentexecutor;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.bsc.langgraph4j.CompileConfig;
+import org.bsc.langgraph4j.NodeOutput;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a full agent loop, without a real model, through each of the {@link AgentExecutor.Serializers}
+ */
+public class AgentExecutorSerializersTest {
+
+    /**
+     * requests the test tool once, then answers with its result
+     */
+    static class FakeChatModel implements ChatLanguageModel {
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            return generate(messages, List.of());
+        }
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+            var last = messages.get(messages.size() - 1);
+            if (last instanceof dev.langchain4j.data.message.ToolExecutionResultMessage result) {
+                return Response.from(AiMessage.from(result.text()), new TokenUsage(), FinishReason.STOP);
+            }
+            return Response.from(AiMessage.from(ToolExecutionRequest.builder()
+                    .id("call_1")
+                    .name("execTest")
+                    .arguments("{\"arg0\":\"MY FIRST TEST\"}")
+                    .build()), new TokenUsage(), FinishReason.TOOL_EXECUTION);
+        }
+    }
+
+    private void executeAgent(AgentExecutor.Serializers serializer) throws Exception {
+        var tool = new TestTool();
+        var graph = AgentExecutor.graphBuilder()
+                .chatLanguageModel(new FakeChatModel())
+                .toolSpecification(tool)
+                .stateSerializer(serializer.object())
+                .build();
+
+        var compileConfig = CompileConfig.builder()
+                .checkpointSaver(new MemorySaver())
+                .build();
+        var config = RunnableConfig.builder().threadId("test").build();
+
+        var states = graph.compile(compileConfig)
+                .stream(Map.of("input", "what is the result of test with messages: 'MY FIRST TEST'"), config)
+                .stream()
+                .map(NodeOutput::state)
+                .collect(Collectors.toList());
+
+        var state = states.get(states.size() - 1);
+        assertEquals(1, state.intermediateSteps().size());
+        assertTrue(state.agentOutcome().isPresent());
+        assertNotNull(state.agentOutcome().get().finish());
+        var returnValues = state.agentOutcome().get().finish().returnValues().get("returnValues").toString();
+        assertTrue(returnValues.contains("MY FIRST TEST"));
+        assertEquals(Optional.of("test tool executed: MY FIRST TEST"), tool.lastResult());
+    }
+
+    @Test
+    public void stdSerializerTest() throws Exception {
+        executeAgent(AgentExecutor.Serializers.STD);
+    }
+
+    @Test
+    public void jsonSerializerTest() throws Exception {
+        executeAgent(AgentExecutor.Serializers.JSON);
+    }
+}
@@ -1,10 +1,14 @@
 package org.bsc.langgraph4j;
 
 import org.bsc.langgraph4j.checkpoint.BaseCheckpointSaver;
+import org.bsc.langgraph4j.checkpoint.CheckpointDurability;
 
 import java.util.Collection;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static java.util.Optional.ofNullable;
@@ -19,6 +23,11 @@ public class CompileConfig {
     private BaseCheckpointSaver checkpointSaver;
     private Set<String> interruptsBefore = Set.of();
     private Set<String> interruptsAfter = Set.of();
+    private boolean persistentState = false;
+    private Executor parallelExecutor;
+    private int maxParallelism = 0;
+    private CheckpointDurability checkpointDurability = CheckpointDurability.SYNC;
+    private int checkpointQueueCapacity = 64;
 
     /**
      * Returns the array of interrupts that will occur before the specified node.
@@ -58,6 +67,47 @@ public class CompileConfig {
      */
     public Optional<BaseCheckpointSaver> checkpointSaver() { return ofNullable(checkpointSaver); }
 
+    /**
+     * Returns whether the graph state is held in an immutable, structurally shared representation.
+     * In such case node inputs, outputs and checkpoints share the unchanged data instead of deep-copying it.
+     *
+     * @return {@code true} if the persistent state is enabled
+     * @see org.bsc.langgraph4j.state.PersistentState
+     */
+    public boolean persistentState() { return persistentState; }
+
+    /**
+     * Returns the {@link Executor} used to run the branches of the parallel nodes.
+     * If empty, virtual threads are used when available, otherwise a shared cached thread pool.
+     *
+     * @return an {@link Optional} containing the executor, or an empty {@link Optional} if the default one must be used
+     */
+    public Optional<Executor> parallelExecutor() { return ofNullable(parallelExecutor); }
+
+    /**
+     * Returns the maximum number of parallel branches that can run at the same time within the graph.
+     *
+     * @return an {@link OptionalInt} containing the max parallelism, or an empty {@link OptionalInt} if unbounded
+     */
+    public OptionalInt maxParallelism() {
+        return ( maxParallelism > 0 ) ? OptionalInt.of(maxParallelism) : OptionalInt.empty();
+    }
+
+    /**
+     * Returns when the checkpoints are written to the {@link BaseCheckpointSaver}.
+     *
+     * @return the checkpoint durability mode, {@link CheckpointDurability#SYNC} by default
+     */
+    public CheckpointDurability checkpointDurability() { return checkpointDurability; }
+
+    /**
+     * Returns the max number of pending checkpoint writes in {@link CheckpointDurability#ASYNC} mode.
+     * When the queue is full the graph execution waits for the pending writes.
+     *
+     * @return the checkpoint queue capacity
+     */
+    public int checkpointQueueCapacity() { return checkpointQueueCapacity; }
+
     /**
      * Returns a new {@link Builder} instance with the default {@link CompileConfig}.
      *
@@ -142,6 +192,62 @@ public class CompileConfig {
             this.config.interruptsAfter = interruptsAfter.stream().collect(Collectors.toUnmodifiableSet());;
             return this;
         }
+        /**
+         * Enables the immutable, structurally shared state representation.
+         * When the state contains values that cannot be safely shared, the serialization based clone is used as fallback.
+         *
+         * @param persistentState {@code true} to enable the persistent state
+         * @return The current Builder instance for method chaining
+         * @see org.bsc.langgraph4j.state.PersistentState
+         */
+        public Builder persistentState(boolean persistentState) {
+            this.config.persistentState = persistentState;
+            return this;
+        }
+        /**
+         * Sets the executor used to run the branches of the parallel nodes.
+         *
+         * @param parallelExecutor the executor, {@code null} to use the default one
+         * @return The current Builder instance for method chaining
+         */
+        public Builder parallelExecutor(Executor parallelExecutor) {
+            this.config.parallelExecutor = parallelExecutor;
+            return this;
+        }
+        /**
+         * Sets the maximum number of parallel branches that can run at the same time within the graph.
+         *
+         * @param maxParallelism the max parallelism, a value less than 1 means unbounded
+         * @return The current Builder instance for method chaining
+         */
+        public Builder maxParallelism(int maxParallelism) {
+            this.config.maxParallelism = maxParallelism;
+            return this;
+        }
+        /**
+         * Sets when the checkpoints are written to the checkpoint saver.
+         *
+         * @param checkpointDurability the checkpoint durability mode
+         * @return The current Builder instance for method chaining
+         * @see org.bsc.langgraph4j.checkpoint.AsyncCheckpointSaver
+         */
+        public Builder checkpointDurability(CheckpointDurability checkpointDurability) {
+            this.config.checkpointDurability = Objects.requireNonNull(checkpointDurability, "checkpointDurability cannot be null");
+            return this;
+        }
+        /**
+         * Sets the max number of pending checkpoint writes in {@link CheckpointDurability#ASYNC} mode.
+         *
+         * @param checkpointQueueCapacity the checkpoint queue capacity, must be greater than 0
+         * @return The current Builder instance for method chaining
+         */
+        public Builder checkpointQueueCapacity(int checkpointQueueCapacity) {
+            if( checkpointQueueCapacity < 1 ) {
+                throw new IllegalArgumentException("checkpointQueueCapacity must be greater than 0");
+            }
+            this.config.checkpointQueueCapacity = checkpointQueueCapacity;
+            return this;
+        }
         /**
          * Initializes the compilation configuration and returns it.
          *
@@ -167,6 +273,11 @@ public class CompileConfig {
         this.checkpointSaver = config.checkpointSaver;
         this.interruptsBefore = config.interruptsBefore;
         this.interruptsAfter = config.interruptsAfter;
+        this.persistentState = config.persistentState;
+        this.parallelExecutor = config.parallelExecutor;
+        this.maxParallelism = config.maxParallelism;
+        this.checkpointDurability = config.checkpointDurability;
+        this.checkpointQueueCapacity = config.checkpointQueueCapacity;
     }
 
 }
\ No newline at end of file
@@ -6,19 +6,26 @@ import lombok.extern.slf4j.Slf4j;
 import org.bsc.async.AsyncGenerator;
 import org.bsc.langgraph4j.action.AsyncNodeAction;
 import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
+import org.bsc.langgraph4j.checkpoint.AsyncCheckpointSaver;
 import org.bsc.langgraph4j.checkpoint.BaseCheckpointSaver;
 import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.CheckpointDurability;
 import org.bsc.langgraph4j.internal.edge.Edge;
 import org.bsc.langgraph4j.internal.edge.EdgeValue;
 import org.bsc.langgraph4j.internal.node.ParallelNode;
 import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.PersistentState;
+import org.bsc.langgraph4j.state.StateMerger;
 import org.bsc.langgraph4j.state.StateSnapshot;
+import org.bsc.langgraph4j.state.StateUpdate;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -39,7 +46,11 @@ import static org.bsc.langgraph4j.StateGraph.START;
 public class CompiledGraph<State extends AgentState> {
     public enum StreamMode {
         VALUES,
-        SNAPSHOTS
+        SNAPSHOTS,
+        /**
+         * stream only the keys updated by each node (see {@link StateUpdate})
+         */
+        UPDATES
     }
 
     public final StateGraph<State> stateGraph;
@@ -49,6 +60,14 @@ public class CompiledGraph<State extends AgentState> {
 
     private final ProcessedNodesEdgesAndConfig<State> processedData;
 
+    final DispatchTable<State> dispatchTable;
+
+    // merges the node results into the state, indexed by the channels of the schema
+    private final StateMerger stateMerger;
+
+    // always the same instance, so the persistent lists of the state don't check again the elements already checked
+    private final Predicate<Class<?>> immutableTypes;
+
     private int maxIterations = 25;
 
     public final CompileConfig compileConfig;
@@ -60,6 +79,7 @@ public class CompiledGraph<State extends AgentState> {
      */
     protected CompiledGraph(StateGraph<State> stateGraph, CompileConfig compileConfig ) throws GraphStateException {
         this.stateGraph = stateGraph;
+        this.immutableTypes = stateGraph.getStateSerializer().copiers()::isImmutable;
 
         this.processedData = ProcessedNodesEdgesAndConfig.process( stateGraph, compileConfig );
 
@@ -79,6 +99,9 @@ public class CompiledGraph<State extends AgentState> {
         this.compileConfig = CompileConfig.builder(compileConfig)
                                 .interruptsBefore(processedData.interruptsBefore())
                                 .interruptsAfter(processedData.interruptsAfter())
+                                .checkpointSaver(compileConfig.checkpointSaver()
+                                        .map( saver -> checkpointSaverOf( saver, compileConfig ) )
+                                        .orElse(null) )
                                 .build();
 
         // EVALUATES NODES
@@ -88,6 +111,14 @@ public class CompiledGraph<State extends AgentState> {
             nodes.put(n.id(), factory.apply(compileConfig));
         }
 
+        // SHARED BY ALL PARALLEL NODES TO APPLY THE MAX PARALLELISM GRAPH-WIDE
+        final var parallelExecutor = ParallelNode.executorOf(compileConfig);
+
+        final Map<String, Edge<State>> edgesBySourceId = new HashMap<>();
+        for( var e : processedData.edges().elements ) {
+            edgesBySourceId.putIfAbsent( e.sourceId(), e );
+        }
+
         // EVALUATE EDGES
         for( var e : processedData.edges().elements ) {
             var targets = e.targets();
@@ -99,10 +130,8 @@ public class CompiledGraph<State extends AgentState> {
                         targets.stream().filter( target -> nodes.containsKey(target.id()) );
 
                 var parallelNodeEdges = parallelNodeStream.get()
-                        .map( target -> new Edge<State>(target.id()))
-                        .filter( ee -> processedData.edges().elements.contains( ee ) )
-                        .map(  ee -> processedData.edges().elements.indexOf( ee ) )
-                        .map( index -> processedData.edges().elements.get(index) )
+                        .map( target -> edgesBySourceId.get(target.id()) )
+                        .filter( Objects::nonNull )
                         .toList();
 
                 var  parallelNodeTargets = parallelNodeEdges.stream()
@@ -127,7 +156,7 @@ public class CompiledGraph<State extends AgentState> {
                                     .map( target -> nodes.get(target.id()) )
                                     .toList();
 
-                var parallelNode = new ParallelNode<>( e.sourceId(), actions, stateGraph.getChannels() );
+                var parallelNode = new ParallelNode<>( e.sourceId(), actions, stateGraph.getChannels(), parallelExecutor );
 
                 nodes.put( parallelNode.id(), parallelNode.actionFactory().apply(compileConfig) );
 
@@ -138,9 +167,54 @@ public class CompiledGraph<State extends AgentState> {
             }
 
         }
+
+        // COMPILE THE INDEXED FORM USED AT RUNTIME
+        this.dispatchTable = new DispatchTable<>( nodes,
+                                                    edges,
+                                                    this.compileConfig.interruptsBefore(),
+                                                    this.compileConfig.interruptsAfter() );
+        this.stateMerger = new StateMerger( stateGraph.getChannels() );
     }
 
 
+    /**
+     * Wraps the given saver according to the checkpoint durability mode
+     */
+    private static BaseCheckpointSaver checkpointSaverOf( BaseCheckpointSaver saver, CompileConfig config ) {
+        if( config.checkpointDurability() == CheckpointDurability.SYNC || saver instanceof AsyncCheckpointSaver ) {
+            return saver;
+        }
+        return new AsyncCheckpointSaver( saver, config.checkpointDurability(), config.checkpointQueueCapacity() );
+    }
+
+    /**
+     * Waits for the pending checkpoint writes of the given thread.
+     * Required only if the {@link CheckpointDurability} is not {@link CheckpointDurability#SYNC} and the
+     * checkpoint saver is accessed directly. The methods of this class already wait for them.
+     *
+     * @param config the config that identifies the thread
+     * @return a future completed when all the checkpoints of the thread have been written
+     */
+    public CompletableFuture<Void> flushCheckpoints( RunnableConfig config ) {
+        return compileConfig.checkpointSaver()
+                .filter( saver -> saver instanceof AsyncCheckpointSaver )
+                .map( saver -> ((AsyncCheckpointSaver)saver).flush(config) )
+                .orElseGet( () -> completedFuture(null) );
+    }
+
+    /**
+     * Waits for the pending checkpoint writes of all the threads.
+     *
+     * @return a future completed when all the checkpoints have been written
+     * @see #flushCheckpoints(RunnableConfig)
+     */
+    public CompletableFuture<Void> flushCheckpoints() {
+        return compileConfig.checkpointSaver()
+                .filter( saver -> saver instanceof AsyncCheckpointSaver )
+                .map( saver -> ((AsyncCheckpointSaver)saver).flush() )
+                .orElseGet( () -> completedFuture(null) );
+    }
+
     public Collection<StateSnapshot<State>> getStateHistory( RunnableConfig config ) {
         BaseCheckpointSaver saver = compileConfig.checkpointSaver().orElseThrow( () -> (new IllegalStateException("Missing CheckpointSaver!")) );
 
@@ -199,7 +273,11 @@ public class CompiledGraph<State extends AgentState> {
 
         String nextNodeId = null;
         if( asNode != null ) {
-            nextNodeId = nextNodeId( asNode, branchCheckpoint.getState() );
+            int asNodeIndex = dispatchTable.indexOf( asNode );
+            if( asNodeIndex == DispatchTable.NONE ) {
+                throw StateGraph.RunnableErrors.missingEdge.exception(asNode);
+            }
+            nextNodeId = dispatchTable.id( nextNode( asNodeIndex, branchCheckpoint.getState() ) );
         }
         // update checkpoint in saver
         RunnableConfig newConfig = saver.put( config, branchCheckpoint );
@@ -235,64 +313,79 @@ public class CompiledGraph<State extends AgentState> {
         this.maxIterations = maxIterations;
     }
 
-    private String nextNodeId( EdgeValue<State> route , Map<String,Object> state, String nodeId ) throws Exception {
-
-        if( route == null ) {
-            throw StateGraph.RunnableErrors.missingEdge.exception(nodeId);
-        }
-        if( route.id() != null ) {
-            return route.id();
-        }
-        if( route.value() != null ) {
-            State derefState = stateGraph.getStateFactory().apply(state);
-            org.bsc.langgraph4j.action.AsyncEdgeAction<State> condition = route.value().action();
-            String newRoute = condition.apply(derefState).get();
-            String result = route.value().mappings().get(newRoute);
-            if( result == null ) {
-                throw StateGraph.RunnableErrors.missingNodeInEdgeMapping.exception(nodeId, newRoute);
-            }
-            return result;
-        }
-        throw StateGraph.RunnableErrors.executionError.exception( format("invalid edge value for nodeId: [%s] !", nodeId) );
+    /**
+     * Returns the id of the given node to use in the error messages
+     */
+    private String sourceIdOf( int nodeIndex ) {
+        return ( nodeIndex == DispatchTable.START_INDEX ) ? "entryPoint" : dispatchTable.id(nodeIndex);
     }
 
     /**
-     * Determines the next node ID based on the current node ID and state.
+     * Determines the next node index based on the current node index and state.
      *
-     * @param nodeId the current node ID
+     * @param nodeIndex the current node index
      * @param state the current state
-     * @return the next node ID
-     * @throws Exception if there is an error determining the next node ID
+     * @return the next node index
+     * @throws Exception if there is an error determining the next node
      */
-    private String nextNodeId(String nodeId, Map<String,Object> state) throws Exception {
-        return nextNodeId(edges.get(nodeId), state, nodeId);
-
+    private int nextNode( int nodeIndex, Map<String,Object> state ) throws Exception {
+        final int successor = dispatchTable.successor(nodeIndex);
+        if( successor != DispatchTable.NONE ) {
+            return successor;
+        }
+        final var condition = dispatchTable.condition(nodeIndex);
+        if( condition == null ) {
+            throw StateGraph.RunnableErrors.missingEdge.exception(sourceIdOf(nodeIndex));
+        }
+        State derefState = stateGraph.getStateFactory().apply(state);
+        String newRoute = condition.action().apply(derefState).get();
+        int result = condition.target(newRoute);
+        if( result == DispatchTable.NONE ) {
+            throw StateGraph.RunnableErrors.missingNodeInEdgeMapping.exception(sourceIdOf(nodeIndex), newRoute);
+        }
+        return result;
     }
 
-    private String getEntryPoint( Map<String,Object> state ) throws Exception {
-        var entryPoint = this.edges.get(START);
-        return nextNodeId(entryPoint, state, "entryPoint");
+    /**
+     * Same of {@link #nextNode(int, Map)} but the conditional edge is chained as continuation
+     * instead of waiting for its result.
+     */
+    private CompletableFuture<Integer> nextNodeAsync( int nodeIndex, Map<String,Object> state ) {
+        final int successor = dispatchTable.successor(nodeIndex);
+        if( successor != DispatchTable.NONE ) {
+            return completedFuture( successor );
+        }
+        final var condition = dispatchTable.condition(nodeIndex);
+        if( condition == null ) {
+            return CompletableFuture.failedFuture( StateGraph.RunnableErrors.missingEdge.exception(sourceIdOf(nodeIndex)) );
+        }
+        State derefState = stateGraph.getStateFactory().apply(state);
+        return condition.action().apply(derefState).thenApply( newRoute -> {
+            int result = condition.target(newRoute);
+            if( result == DispatchTable.NONE ) {
+                throw new CompletionException( StateGraph.RunnableErrors.missingNodeInEdgeMapping.exception(sourceIdOf(nodeIndex), newRoute) );
+            }
+            return result;
+        });
     }
 
-    private boolean shouldInterruptBefore(@NonNull String nodeId, String previousNodeId ) {
-        if( previousNodeId == null ) { // FIX RESUME ERROR
+    private boolean shouldInterruptBefore( int nodeIndex, int previousNodeIndex ) {
+        if( previousNodeIndex == DispatchTable.NONE ) { // FIX RESUME ERROR
             return false;
         }
-        return compileConfig.interruptsBefore().contains(nodeId);
+        return dispatchTable.isInterruptBefore(nodeIndex);
     }
 
-    private boolean shouldInterruptAfter(String nodeId, String previousNodeId ) {
-        if( nodeId == null ) { // FIX RESUME ERROR
-            return false;
-        }
-        return compileConfig.interruptsAfter().contains(nodeId);
+    private boolean shouldInterruptAfter( int nodeIndex, int previousNodeIndex ) {
+        // FIX RESUME ERROR: no interruption if nodeIndex is NONE
+        return dispatchTable.isInterruptAfter(nodeIndex);
     }
 
     private Optional<Checkpoint> addCheckpoint( RunnableConfig config, String nodeId, Map<String,Object> state, String nextNodeId ) throws Exception {
         if( compileConfig.checkpointSaver().isPresent() ) {
             var cp =  Checkpoint.builder()
                                 .nodeId( nodeId )
-                                .state( cloneState(state) )
+                                .state( snapshotState(state) )
                                 .nextNodeId( nextNodeId )
                                 .build();
             compileConfig.checkpointSaver().get().put( config, cp );
@@ -302,6 +395,30 @@ public class CompiledGraph<State extends AgentState> {
 
     }
 
+    /**
+     * Writes the checkpoint through {@link BaseCheckpointSaver#putAsync(RunnableConfig, Checkpoint)}, so the caller
+     * is not blocked by the saver
+     *
+     * @return a future completed with the checkpoint, if any, once it has been written
+     */
+    private CompletableFuture<Optional<Checkpoint>> addCheckpointAsync( RunnableConfig config, String nodeId, Map<String,Object> state, String nextNodeId ) {
+        if( compileConfig.checkpointSaver().isEmpty() ) {
+            return completedFuture( Optional.empty() );
+        }
+        final Checkpoint cp;
+        try {
+            cp = Checkpoint.builder()
+                    .nodeId( nodeId )
+                    .state( snapshotState(state) )
+                    .nextNodeId( nextNodeId )
+                    .build();
+        }
+        catch( Exception ex ) {
+            return CompletableFuture.failedFuture( ex );
+        }
+        return compileConfig.checkpointSaver().get().putAsync( config, cp ).thenApply( v -> Optional.of(cp) );
+    }
+
     Map<String,Object> getInitialStateFromSchema() {
         return  stateGraph.getChannels().entrySet().stream()
                 .filter( c -> c.getValue().getDefault().isPresent() )
@@ -314,12 +431,54 @@ public class CompiledGraph<State extends AgentState> {
 
         return compileConfig.checkpointSaver()
                 .flatMap( saver -> saver.get( config ) )
-                .map( cp -> AgentState.updateState( cp.getState(), inputs, stateGraph.getChannels() ))
-                .orElseGet( () -> AgentState.updateState(getInitialStateFromSchema(), inputs, stateGraph.getChannels() ));
+                .map( cp -> updateState( cp.getState(), inputs ))
+                .orElseGet( () -> updateState(getInitialStateFromSchema(), inputs ));
+    }
+
+    /**
+     * Updates the given state with the partial state, using the persistent representation if enabled.
+     * Otherwise the state is updated in place by the {@link StateMerger}, once it holds its own copy,
+     * so the given state must not be shared.
+     *
+     * @param state the current state
+     * @param partialState the partial state to update from
+     * @return the updated state
+     */
+    private Map<String,Object> updateState( Map<String,Object> state, Map<String,Object> partialState ) {
+        if( compileConfig.persistentState() ) {
+            return PersistentState.updateState( state, partialState, stateGraph.getChannels() );
+        }
+        return stateMerger.merge( state, partialState );
+    }
+
+    /**
+     * @return true if the persistent state is enabled and the given data holds only immutable values, the ones
+     * registered in the copiers of the state serializer included
+     */
+    private boolean isShareable( Map<String,Object> data ) {
+        return compileConfig.persistentState() && PersistentState.isShareable( data, immutableTypes );
     }
 
     State cloneState( Map<String,Object> data ) throws IOException, ClassNotFoundException, InstantiationException, IllegalAccessException {
-        return stateGraph.getStateSerializer().cloneObject(data);
+        if( isShareable(data) ) {
+            // share unchanged data instead of deep-copying it
+            return stateGraph.getStateFactory().apply( PersistentState.of(data) );
+        }
+        // immutable values are shared, serialization only for the unknown types
+        return stateGraph.getStateSerializer().copyState(data);
+    }
+
+    /**
+     * Returns an immutable copy of the given state suitable to be stored in a checkpoint.
+     *
+     * @param data the state data
+     * @return the state data to store
+     */
+    private Map<String,Object> snapshotState( Map<String,Object> data ) throws IOException, ClassNotFoundException, InstantiationException, IllegalAccessException {
+        if( isShareable(data) ) {
+            return PersistentState.of(data);
+        }
+        return cloneState(data).data();
     }
 
 
@@ -355,11 +514,18 @@ public class CompiledGraph<State extends AgentState> {
      */
     public Optional<State> invoke(Map<String,Object> inputs, RunnableConfig config ) {
 
-       return stream(inputs, config).stream()
+       return stream(inputs, valuesModeOf(config)).stream()
                                         .reduce((a, b) -> b)
                                         .map( NodeOutput::state);
     }
 
+    /**
+     * The invocations return the state of the last output, so the {@link StreamMode#UPDATES} cannot be used.
+     */
+    private RunnableConfig valuesModeOf( RunnableConfig config ) {
+        return ( config.streamMode() == StreamMode.UPDATES ) ? config.withStreamMode(StreamMode.VALUES) : config;
+    }
+
     /**
      * Invokes the graph execution with the provided inputs and returns the final state.
      *
@@ -370,6 +536,42 @@ public class CompiledGraph<State extends AgentState> {
         return this.invoke( inputs, RunnableConfig.builder().build() );
     }
 
+    /**
+     * Invokes the graph execution with the provided inputs without blocking the caller thread.
+     * <p>
+     * Node actions, conditional edges and checkpoint writes are chained as continuations of each other,
+     * so no thread is parked while waiting for a node result and a small pool can drive many concurrent executions.
+     * The continuations run on the threads that complete the node futures.
+     * Note that the outputs of the embedded (compiled) subgraphs are not streamed, their execution is only awaited.
+     *
+     * @param inputs the input map, {@code null} to resume from the last checkpoint
+     * @param config the invoke configuration
+     * @return a future completed with the final state if present, otherwise an empty Optional
+     */
+    public CompletableFuture<Optional<State>> invokeAsync(Map<String,Object> inputs, RunnableConfig config ) {
+        Objects.requireNonNull(config, "config cannot be null");
+        final CompletableFuture<Optional<State>> result = new CompletableFuture<>();
+        try {
+            final AsyncNodeGenerator<NodeOutput<State>> generator = new AsyncNodeGenerator<>( inputs, valuesModeOf(config) );
+            generator.runAsync( null, result );
+        }
+        catch( Exception e ) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Invokes the graph execution with the provided inputs without blocking the caller thread.
+     *
+     * @param inputs the input map
+     * @return a future completed with the final state if present, otherwise an empty Optional
+     * @see #invokeAsync(Map, RunnableConfig)
+     */
+    public CompletableFuture<Optional<State>> invokeAsync(Map<String,Object> inputs ) {
+        return this.invokeAsync( inputs, RunnableConfig.builder().build() );
+    }
+
     /**
      * Creates an AsyncGenerator stream of NodeOutput based on the provided inputs.
      *
@@ -433,11 +635,14 @@ public class CompiledGraph<State extends AgentState> {
     public class AsyncNodeGenerator<Output extends NodeOutput<State>> implements AsyncGenerator<Output> {
 
         Map<String,Object> currentState;
-        String currentNodeId;
-        String nextNodeId;
+        int currentNode = DispatchTable.NONE;
+        int nextNode = DispatchTable.NONE;
         int iteration = 0;
         RunnableConfig config;
         boolean resumedFromEmbed = false;
+        // keys updated by the last step, tracked only in UPDATES mode
+        Set<String> updatedKeys = Set.of();
+        Set<String> changedKeys = Set.of();
 
         protected AsyncNodeGenerator(Map<String,Object> inputs, RunnableConfig config )  {
             final boolean isResumeRequest =  (inputs == null);
@@ -451,14 +656,19 @@ public class CompiledGraph<State extends AgentState> {
                 Checkpoint startCheckpoint = saver.get( config )
                         .orElseThrow( () -> (new IllegalStateException("Resume request without a saved checkpoint!")) );
 
-                this.currentState = startCheckpoint.getState();
+                this.currentState = compileConfig.persistentState() ?
+                                        PersistentState.of(startCheckpoint.getState()) :
+                                        startCheckpoint.getState();
 
                 // Reset checkpoint id
                 this.config = config.withCheckPointId( null );
 
 
-                this.nextNodeId = startCheckpoint.getNextNodeId();
-                this.currentNodeId = null;
+                this.nextNode = dispatchTable.indexOf( startCheckpoint.getNextNodeId() );
+                if( nextNode == DispatchTable.NONE && startCheckpoint.getNextNodeId() != null ) {
+                    throw new IllegalStateException( format("Resume request with a not existent next node '%s'!", startCheckpoint.getNextNodeId()) );
+                }
+                this.currentNode = DispatchTable.NONE;
                 log.trace( "RESUME FROM {}", startCheckpoint.getNodeId() );
             }
             else {
@@ -468,18 +678,73 @@ public class CompiledGraph<State extends AgentState> {
                 Map<String,Object> initState = getInitialState(inputs, config );
                 // patch for backward support of AppendableValue
                 State initializedState = stateGraph.getStateFactory().apply(initState);
-                this.currentState = initializedState.data();
-                this.nextNodeId = null;
-                this.currentNodeId = START;
+                this.currentState = compileConfig.persistentState() ?
+                                        PersistentState.of(initializedState.data()) :
+                                        initializedState.data();
+                this.nextNode = DispatchTable.NONE;
+                this.currentNode = DispatchTable.START_INDEX;
                 this.config = config;
+                if( config.streamMode() == StreamMode.UPDATES ) {
+                    this.updatedKeys = Set.copyOf(currentState.keySet());
+                    this.changedKeys = this.updatedKeys;
+                }
             }
         }
 
         @SuppressWarnings("unchecked")
         protected Output buildNodeOutput(String nodeId ) throws Exception {
+            if( config.streamMode() == StreamMode.UPDATES ) {
+                return buildStateUpdate( nodeId );
+            }
             return  (Output)NodeOutput.of( nodeId, cloneState(currentState) );
         }
 
+        /**
+         * Builds the output containing only the keys updated by the last step, so the whole state is not cloned
+         */
+        @SuppressWarnings("unchecked")
+        protected Output buildStateUpdate(String nodeId ) throws Exception {
+            final Map<String,Object> update = new HashMap<>( updatedKeys.size() );
+            for( String key : updatedKeys ) {
+                if( currentState.containsKey(key) ) {
+                    update.put( key, currentState.get(key) );
+                }
+            }
+            return (Output)StateUpdate.of( nodeId, cloneState(update), changedKeys );
+        }
+
+        /**
+         * Updates the current state with the given partial state
+         *
+         * @param baseState the state to update
+         * @param partialState the partial state
+         */
+        private void applyPartialState( Map<String,Object> baseState, Map<String,Object> partialState ) {
+            if( config.streamMode() != StreamMode.UPDATES ) {
+                currentState = updateState( baseState, partialState );
+                return;
+            }
+            // the state can be updated in place, so the previous values are saved before
+            final Map<String,Object> previousValues = new HashMap<>( partialState.size() );
+            for( String key : partialState.keySet() ) {
+                if( currentState.containsKey(key) ) {
+                    previousValues.put( key, currentState.get(key) );
+                }
+            }
+            currentState = updateState( baseState, partialState );
+
+            updatedKeys = Set.copyOf( partialState.keySet() );
+            changedKeys = updatedKeys.stream()
+                    .filter( key -> previousValues.containsKey(key) != currentState.containsKey(key) ||
+                                    !Objects.equals( previousValues.get(key), currentState.get(key) ) )
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+
+        private void clearUpdatedKeys() {
+            updatedKeys = Set.of();
+            changedKeys = Set.of();
+        }
+
         @SuppressWarnings("unchecked")
         protected Output buildStateSnapshot( Checkpoint checkpoint ) throws Exception {
             return (Output)StateSnapshot.of( checkpoint, config, stateGraph.getStateFactory() ) ;
@@ -498,14 +763,14 @@ public class CompiledGraph<State extends AgentState> {
 
                                 if (data instanceof Map<?,?>) {
                                     // Assume that subgraph return complete state
-                                    currentState = AgentState.updateState( new HashMap<>(), (Map<String,Object>)data, stateGraph.getChannels() );
+                                    applyPartialState( new HashMap<>(), (Map<String,Object>)data );
                                 }
                                 else {
                                     throw new IllegalArgumentException("Embedded generator must return a Map");
                                 }
                             }
 
-                            nextNodeId = nextNodeId(currentNodeId, currentState);
+                            nextNode = nextNode(currentNode, currentState);
                             resumedFromEmbed = true;
                         });
                     })
@@ -522,8 +787,8 @@ public class CompiledGraph<State extends AgentState> {
                             return embed.get();
                         }
 
-                        currentState = AgentState.updateState(currentState, partialState, stateGraph.getChannels());
-                        nextNodeId   = nextNodeId(currentNodeId, currentState);
+                        applyPartialState(currentState, partialState);
+                        nextNode     = nextNode(currentNode, currentState);
 
                         return Data.of( getNodeOutput() );
                     }
@@ -541,13 +806,13 @@ public class CompiledGraph<State extends AgentState> {
 
             return action.apply( withState ).thenApply(  partialState -> {
                 try {
-                    currentState = AgentState.updateState(currentState, partialState, stateGraph.getChannels());
-                    nextNodeId = nextNodeId(currentNodeId, currentState);
+                    applyPartialState(currentState, partialState);
+                    nextNode = nextNode(currentNode, currentState);
 
-                    Optional<Checkpoint>  cp = addCheckpoint(config, currentNodeId, currentState, nextNodeId);
+                    Optional<Checkpoint>  cp = addCheckpoint(config, dispatchTable.id(currentNode), currentState, dispatchTable.id(nextNode));
                     return ( cp.isPresent() && config.streamMode() == StreamMode.SNAPSHOTS) ?
                         buildStateSnapshot(cp.get()) :
-                        buildNodeOutput( currentNodeId )
+                        buildNodeOutput( dispatchTable.id(currentNode) )
                             ;
 
                 }
@@ -559,15 +824,57 @@ public class CompiledGraph<State extends AgentState> {
         }
 
         private CompletableFuture<Output> getNodeOutput() throws Exception {
-            Optional<Checkpoint>  cp = addCheckpoint(config, currentNodeId, currentState, nextNodeId);
+            Optional<Checkpoint>  cp = addCheckpoint(config, dispatchTable.id(currentNode), currentState, dispatchTable.id(nextNode));
             return completedFuture(( cp.isPresent() && config.streamMode() == StreamMode.SNAPSHOTS) ?
                     buildStateSnapshot(cp.get()) :
-                    buildNodeOutput( currentNodeId ))
+                    buildNodeOutput( dispatchTable.id(currentNode) ))
                     ;
         }
 
+        /**
+         * As {@link #getNodeOutput()}, the output is chained on the checkpoint write instead of waiting for it
+         */
+        private CompletableFuture<Output> getNodeOutputAsync() {
+            final String nodeId = dispatchTable.id(currentNode);
+            return addCheckpointAsync(config, nodeId, currentState, dispatchTable.id(nextNode))
+                    .thenApply( cp -> {
+                        try {
+                            return ( cp.isPresent() && config.streamMode() == StreamMode.SNAPSHOTS) ?
+                                    buildStateSnapshot(cp.get()) :
+                                    buildNodeOutput( nodeId );
+                        }
+                        catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    });
+        }
+
+        /**
+         * Writes the checkpoints retained until the execution exit, according to the {@link CheckpointDurability#EXIT} mode
+         */
+        private CompletableFuture<Void> flushOnExit() {
+            if( compileConfig.checkpointDurability() == CheckpointDurability.EXIT ) {
+                return flushCheckpoints( config );
+            }
+            return completedFuture(null);
+        }
+
         @Override
         public Data<Output> next() {
+            final Data<Output> result = evaluateNext();
+            if( result.isDone() ) {
+                try {
+                    flushOnExit().join();
+                }
+                catch( CompletionException ex ) {
+                    log.error( ex.getMessage(), ex );
+                    return Data.error( unwrap(ex) );
+                }
+            }
+            return result;
+        }
+
+        private Data<Output> evaluateNext() {
             // GUARD: CHECK MAX ITERATION REACHED
             if( ++iteration > maxIterations ) {
                 log.warn( "Maximum number of iterations ({}) reached!", maxIterations);
@@ -575,7 +882,7 @@ public class CompiledGraph<State extends AgentState> {
             }
 
             // GUARD: CHECK IF IT IS END
-            if( nextNodeId == null &&  currentNodeId == null  ) return Data.done(currentState);
+            if( nextNode == DispatchTable.NONE &&  currentNode == DispatchTable.NONE  ) return Data.done(currentState);
 
             try {
                 // IS IT A RESUME FROM EMBED ?
@@ -585,40 +892,206 @@ public class CompiledGraph<State extends AgentState> {
                     return Data.of( future );
                 }
 
-                if( START.equals(currentNodeId) ) {
-                    nextNodeId = getEntryPoint( currentState );
-                    currentNodeId = nextNodeId;
-                    addCheckpoint( config, START, currentState, nextNodeId );
+                if( currentNode == DispatchTable.START_INDEX ) {
+                    nextNode = nextNode( DispatchTable.START_INDEX, currentState );
+                    currentNode = nextNode;
+                    addCheckpoint( config, START, currentState, dispatchTable.id(nextNode) );
                     return Data.of( buildNodeOutput( START ) );
                 }
 
-                if( END.equals(nextNodeId) ) {
-                    nextNodeId = null;
-                    currentNodeId = null;
+                if( nextNode == DispatchTable.END_INDEX ) {
+                    nextNode = DispatchTable.NONE;
+                    currentNode = DispatchTable.NONE;
+                    clearUpdatedKeys();
                     return Data.of( buildNodeOutput( END ) );
                 }
 
                 // check on previous node
-                if( shouldInterruptAfter( currentNodeId, nextNodeId )) return Data.done();
+                if( shouldInterruptAfter( currentNode, nextNode )) return Data.done();
 
-                if( shouldInterruptBefore( nextNodeId, currentNodeId ) ) return Data.done();
+                if( shouldInterruptBefore( nextNode, currentNode ) ) return Data.done();
 
-                currentNodeId = nextNodeId;
+                currentNode = nextNode;
 
-                AsyncNodeActionWithConfig<State> action = nodes.get(currentNodeId);
+                AsyncNodeActionWithConfig<State> action = dispatchTable.action(currentNode);
 
                 if (action == null)
-                    throw StateGraph.RunnableErrors.missingNode.exception(currentNodeId);
+                    throw StateGraph.RunnableErrors.missingNode.exception(dispatchTable.id(currentNode));
 
                 return evaluateAction(action, cloneState(currentState) ).get();
             }
             catch( Exception e ) {
                 log.error( e.getMessage(), e );
+                flushOnExit().exceptionally( ex -> {
+                    log.error( ex.getMessage(), ex );
+                    return null;
+                });
                 return Data.error(e);
             }
 
 
         }
+
+        /**
+         * Evaluates the next step without blocking: the node action, the edge condition and the checkpoint
+         * are chained on the node result.
+         *
+         * @return a future completed with the step output, or an empty Optional if the execution is terminated
+         */
+        CompletableFuture<Optional<Output>> nextAsync() {
+            // GUARD: CHECK MAX ITERATION REACHED
+            if( ++iteration > maxIterations ) {
+                log.warn( "Maximum number of iterations ({}) reached!", maxIterations);
+                return completedFuture(Optional.empty());
+            }
+
+            // GUARD: CHECK IF IT IS END
+            if( nextNode == DispatchTable.NONE &&  currentNode == DispatchTable.NONE  ) return completedFuture(Optional.empty());
+
+            try {
+                if( currentNode == DispatchTable.START_INDEX ) {
+                    return nextNodeAsync( DispatchTable.START_INDEX, currentState ).thenCompose( entryPoint -> {
+                        nextNode = entryPoint;
+                        currentNode = entryPoint;
+                        return addCheckpointAsync( config, START, currentState, dispatchTable.id(nextNode) );
+                    }).thenApply( cp -> {
+                        try {
+                            return Optional.of( buildNodeOutput( START ) );
+                        }
+                        catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    });
+                }
+
+                if( nextNode == DispatchTable.END_INDEX ) {
+                    nextNode = DispatchTable.NONE;
+                    currentNode = DispatchTable.NONE;
+                    clearUpdatedKeys();
+                    return completedFuture( Optional.of( buildNodeOutput( END ) ) );
+                }
+
+                // check on previous node
+                if( shouldInterruptAfter( currentNode, nextNode )) return completedFuture(Optional.empty());
+
+                if( shouldInterruptBefore( nextNode, currentNode ) ) return completedFuture(Optional.empty());
+
+                currentNode = nextNode;
+
+                AsyncNodeActionWithConfig<State> action = dispatchTable.action(currentNode);
+
+                if (action == null)
+                    throw StateGraph.RunnableErrors.missingNode.exception(dispatchTable.id(currentNode));
+
+                return action.apply( cloneState(currentState), config )
+                        .thenCompose( this::applyPartialStateAsync )
+                        .thenCompose( v -> nextNodeAsync( currentNode, currentState ) )
+                        .thenCompose( index -> {
+                            nextNode = index;
+                            return getNodeOutputAsync();
+                        })
+                        .thenApply( Optional::of );
+            }
+            catch( Exception e ) {
+                log.error( e.getMessage(), e );
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        /**
+         * Updates the current state with the given partial state.
+         * If the partial state contains an embedded generator (ie. compiled subgraph), waits for its completion
+         * and replace the current state with the returned one.
+         */
+        @SuppressWarnings("unchecked")
+        private CompletableFuture<Void> applyPartialStateAsync( Map<String,Object> partialState ) {
+            var generator = partialState.values().stream()
+                    .filter( value -> value instanceof AsyncGenerator )
+                    .map( value -> (AsyncGenerator<Output>) value )
+                    .findFirst();
+
+            if( generator.isEmpty() ) {
+                applyPartialState( currentState, partialState );
+                return completedFuture(null);
+            }
+            return generator.get().toCompletableFuture().thenAccept( data -> {
+                if( data == null ) {
+                    applyPartialState( currentState, Map.of() );
+                }
+                else if (data instanceof Map<?,?>) {
+                    // Assume that subgraph return complete state
+                    applyPartialState( new HashMap<>(), (Map<String,Object>)data );
+                }
+                else {
+                    throw new IllegalArgumentException("Embedded generator must return a Map");
+                }
+            });
+        }
+
+        /**
+         * Runs the remaining steps completing the result with the state of the last output.
+         * The steps already completed are evaluated in loop, so the stack doesn't grow with the number of steps.
+         *
+         * @param lastOutput the last evaluated output
+         * @param result the future to complete
+         */
+        void runAsync( Output lastOutput, CompletableFuture<Optional<State>> result ) {
+            Output last = lastOutput;
+            while( true ) {
+                final CompletableFuture<Optional<Output>> step = nextAsync();
+
+                if( !step.isDone() ) {
+                    final Output previous = last;
+                    step.whenComplete( ( output, ex ) -> {
+                        if( ex != null ) {
+                            complete( result, null, ex );
+                        }
+                        else if( output.isEmpty() ) {
+                            complete( result, previous, null );
+                        }
+                        else {
+                            runAsync( output.get(), result );
+                        }
+                    });
+                    return;
+                }
+
+                final Optional<Output> output;
+                try {
+                    output = step.join();
+                }
+                catch( CompletionException | CancellationException ex ) {
+                    complete( result, null, ex );
+                    return;
+                }
+                if( output.isEmpty() ) {
+                    complete( result, last, null );
+                    return;
+                }
+                last = output.get();
+            }
+        }
+
+        /**
+         * Completes the result, once the checkpoints retained until the exit have been written
+         */
+        private void complete( CompletableFuture<Optional<State>> result, Output lastOutput, Throwable error ) {
+            flushOnExit().whenComplete( ( v, flushError ) -> {
+                if( error != null ) {
+                    result.completeExceptionally( unwrap(error) );
+                }
+                else if( flushError != null ) {
+                    result.completeExceptionally( unwrap(flushError) );
+                }
+                else {
+                    result.complete( Optional.ofNullable(lastOutput).map(NodeOutput::state) );
+                }
+            });
+        }
+
+        private Throwable unwrap( Throwable ex ) {
+            return ( ex instanceof CompletionException && ex.getCause() != null ) ? ex.getCause() : ex;
+        }
     }
 
 }
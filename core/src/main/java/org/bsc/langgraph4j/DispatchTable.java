@@ -0,0 +1,176 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.action.AsyncEdgeAction;
+import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
+import org.bsc.langgraph4j.internal.edge.EdgeValue;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+
+/**
+ * Int-indexed form of the compiled graph used by the execution loop.
+ * <p>
+ * Every node (including {@link StateGraph#START} and {@link StateGraph#END}) is assigned a dense index, the edges
+ * are resolved to array based successor tables, the conditional edge mappings to target indexes and the interruptions
+ * to bitsets. So a step doesn't need any hashing or string comparison, except for resolving the label returned by a
+ * conditional edge.
+ *
+ * @param <State> the type of the state associated with the graph
+ */
+final class DispatchTable<State extends AgentState> {
+
+    static final int NONE = -1;
+    static final int START_INDEX = 0;
+    static final int END_INDEX = 1;
+
+    /**
+     * Conditional edge with the mappings resolved to node indexes
+     *
+     * @param action the edge action returning the route label
+     * @param routes the node index for each route label
+     */
+    record ConditionalRoute<State extends AgentState>( AsyncEdgeAction<State> action, Map<String,Integer> routes ) {
+
+        int target( String label ) {
+            final Integer result = routes.get(label);
+            return ( result == null ) ? NONE : result;
+        }
+    }
+
+    private final Map<String,Integer> indexes;
+    private final String[] ids;
+    private final AsyncNodeActionWithConfig<State>[] actions;
+    private final int[] successors;
+    private final ConditionalRoute<State>[] conditions;
+    private final BitSet interruptsBefore;
+    private final BitSet interruptsAfter;
+
+    @SuppressWarnings("unchecked")
+    DispatchTable( Map<String, AsyncNodeActionWithConfig<State>> nodes,
+                   Map<String, EdgeValue<State>> edges,
+                   Set<String> interruptsBefore,
+                   Set<String> interruptsAfter ) throws GraphStateException {
+
+        final int size = nodes.size() + 2;
+
+        indexes = new HashMap<>( size * 2 );
+        ids = new String[size];
+        actions = (AsyncNodeActionWithConfig<State>[]) new AsyncNodeActionWithConfig<?>[size];
+        successors = new int[size];
+        conditions = (ConditionalRoute<State>[]) new ConditionalRoute<?>[size];
+
+        ids[START_INDEX] = START;
+        ids[END_INDEX] = END;
+        indexes.put( START, START_INDEX );
+        indexes.put( END, END_INDEX );
+
+        int index = END_INDEX;
+        for( var entry : nodes.entrySet() ) {
+            ++index;
+            ids[index] = entry.getKey();
+            actions[index] = entry.getValue();
+            indexes.put( entry.getKey(), index );
+        }
+
+        for( int i = 0; i < size; ++i ) {
+            successors[i] = NONE;
+            final EdgeValue<State> route = edges.get( ids[i] );
+            if( route == null ) {
+                continue;
+            }
+            if( route.id() != null ) {
+                successors[i] = resolve( ids[i], route.id() );
+            }
+            else if( route.value() != null ) {
+                final var routes = new HashMap<String,Integer>();
+                for( var mapping : route.value().mappings().entrySet() ) {
+                    routes.put( mapping.getKey(), resolve( ids[i], mapping.getValue() ) );
+                }
+                conditions[i] = new ConditionalRoute<>( route.value().action(), Map.copyOf(routes) );
+            }
+        }
+
+        this.interruptsBefore = bitSetOf( interruptsBefore );
+        this.interruptsAfter = bitSetOf( interruptsAfter );
+    }
+
+    private int resolve( String sourceId, String targetId ) throws GraphStateException {
+        final Integer result = indexes.get( targetId );
+        if( result == null ) {
+            throw new GraphStateException( format( "edge from '%s' refers to undefined node '%s'!", sourceId, targetId) );
+        }
+        return result;
+    }
+
+    private BitSet bitSetOf( Set<String> nodeIds ) {
+        final var result = new BitSet( ids.length );
+        for( String id : nodeIds ) {
+            final Integer index = indexes.get(id);
+            if( index != null ) {
+                result.set( index );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the given node id. Intended to be used only to enter the table (ie. resume from a checkpoint).
+     *
+     * @param nodeId the node id
+     * @return the node index or {@link #NONE} if nodeId is null or doesn't exist
+     */
+    int indexOf( String nodeId ) {
+        if( nodeId == null ) {
+            return NONE;
+        }
+        final Integer result = indexes.get(nodeId);
+        return ( result == null ) ? NONE : result;
+    }
+
+    /**
+     * @param index the node index
+     * @return the node id or null if index is {@link #NONE}
+     */
+    String id( int index ) {
+        return ( index == NONE ) ? null : ids[index];
+    }
+
+    /**
+     * @param index the node index
+     * @return the node action or null if index is {@link #NONE}, {@link #START_INDEX} or {@link #END_INDEX}
+     */
+    AsyncNodeActionWithConfig<State> action( int index ) {
+        return ( index == NONE ) ? null : actions[index];
+    }
+
+    /**
+     * @param index the source node index
+     * @return the target index of the fixed edge or {@link #NONE} if the edge is conditional or missing
+     */
+    int successor( int index ) {
+        return successors[index];
+    }
+
+    /**
+     * @param index the source node index
+     * @return the conditional edge or null if the edge is fixed or missing
+     */
+    ConditionalRoute<State> condition( int index ) {
+        return conditions[index];
+    }
+
+    boolean isInterruptBefore( int index ) {
+        return index != NONE && interruptsBefore.get(index);
+    }
+
+    boolean isInterruptAfter( int index ) {
+        return index != NONE && interruptsAfter.get(index);
+    }
+}
@@ -0,0 +1,357 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.RunnableConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BaseCheckpointSaver} decorator that moves the writes out of the graph execution path.
+ * <p>
+ * The checkpoints are written to the delegate saver by a background writer that preserves their order for each thread.
+ * Reads ({@link #get(RunnableConfig)} and {@link #list(RunnableConfig)}) wait for the pending writes of the requested
+ * thread, so they always see consistent data. The {@link #flush(RunnableConfig)} and {@link #flush()} methods allow
+ * to explicitly wait for the pending writes.
+ * <p>
+ * The writes that fail are logged and reported by the next flush (or read) of the same thread.
+ *
+ * @see CheckpointDurability
+ */
+@Slf4j
+public class AsyncCheckpointSaver implements BaseCheckpointSaver {
+
+    private static final String DEFAULT_THREAD_ID = "$default";
+
+    /**
+     * Lazy holder of the default executor, a cached pool of daemon threads
+     */
+    private static final class DefaultExecutorHolder {
+        static final Executor INSTANCE = Executors.newCachedThreadPool( new java.util.concurrent.ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                var thread = new Thread(runnable, format("langgraph4j-checkpoint-%d", count.incrementAndGet()));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Ordered write queue of a thread.
+     * Its state is changed only within {@link ConcurrentHashMap#compute} of its key, so the accesses are serialized.
+     */
+    private final class ThreadWriter {
+        private final String threadId;
+        private final List<Checkpoint> buffered = new ArrayList<>();
+        private final List<RunnableConfig> bufferedConfigs = new ArrayList<>();
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private volatile Throwable failure;
+
+        ThreadWriter( String threadId ) {
+            this.threadId = threadId;
+        }
+
+        void enqueue( RunnableConfig config, Checkpoint checkpoint, boolean acquired ) {
+            final CompletableFuture<Void> write = tail.thenRunAsync( () -> {
+                try {
+                    delegate.put( config, checkpoint );
+                }
+                catch( Exception ex ) {
+                    log.error( "error writing checkpoint {}", checkpoint.getId(), ex );
+                    synchronized (this) {
+                        if( failure == null ) {
+                            failure = ex;
+                        }
+                    }
+                }
+                finally {
+                    if( acquired ) {
+                        releasePermit();
+                    }
+                }
+            }, executor );
+            tail = write;
+            // remove the writer once it has no more pending writes.
+            // async because it must not run within the compute of the same key
+            write.whenCompleteAsync( ( v, ex ) ->
+                writers.computeIfPresent( threadId, ( k, writer ) -> writer.isIdle(write) ? null : writer ), executor );
+        }
+
+        void buffer( RunnableConfig config, Checkpoint checkpoint ) {
+            buffered.add( checkpoint );
+            bufferedConfigs.add( config );
+        }
+
+        void enqueueBuffered() {
+            for( int i = 0; i < buffered.size(); ++i ) {
+                enqueue( bufferedConfigs.get(i), buffered.get(i), false );
+            }
+            buffered.clear();
+            bufferedConfigs.clear();
+        }
+
+        synchronized Throwable takeFailure() {
+            final Throwable result = failure;
+            failure = null;
+            return result;
+        }
+
+        boolean isIdle( CompletableFuture<Void> completed ) {
+            return tail == completed && buffered.isEmpty() && failure == null;
+        }
+    }
+
+    private final BaseCheckpointSaver delegate;
+    private final CheckpointDurability durability;
+    private final Executor executor;
+    private final Semaphore permits;
+    /**
+     * the {@link #putAsync(RunnableConfig, Checkpoint)} waiting for a permit, that is handed over by {@link #releasePermit()}
+     */
+    private final Queue<CompletableFuture<Void>> permitWaiters = new ConcurrentLinkedQueue<>();
+    private final Map<String, ThreadWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the executor used by default to write the checkpoints: a shared pool of daemon threads,
+     * suitable for blocking I/O.
+     *
+     * @return the default executor
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Creates a new instance that writes on a shared pool of daemon threads.
+     *
+     * @param delegate the saver where the checkpoints are written
+     * @param durability either {@link CheckpointDurability#ASYNC} or {@link CheckpointDurability#EXIT}
+     * @param queueCapacity the max number of pending writes in {@link CheckpointDurability#ASYNC} mode
+     */
+    public AsyncCheckpointSaver( BaseCheckpointSaver delegate, CheckpointDurability durability, int queueCapacity ) {
+        this( delegate, durability, queueCapacity, DefaultExecutorHolder.INSTANCE );
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate the saver where the checkpoints are written
+     * @param durability either {@link CheckpointDurability#ASYNC} or {@link CheckpointDurability#EXIT}
+     * @param queueCapacity the max number of pending writes in {@link CheckpointDurability#ASYNC} mode
+     * @param executor the executor that runs the writes
+     */
+    public AsyncCheckpointSaver( BaseCheckpointSaver delegate, CheckpointDurability durability, int queueCapacity, Executor executor ) {
+        this.delegate = requireNonNull( delegate, "delegate cannot be null" );
+        this.durability = requireNonNull( durability, "durability cannot be null" );
+        this.executor = requireNonNull( executor, "executor cannot be null" );
+        if( durability == CheckpointDurability.SYNC ) {
+            throw new IllegalArgumentException( "durability SYNC doesn't require an AsyncCheckpointSaver" );
+        }
+        if( queueCapacity < 1 ) {
+            throw new IllegalArgumentException( "queueCapacity must be greater than 0" );
+        }
+        this.permits = new Semaphore( queueCapacity );
+    }
+
+    /**
+     * @return the saver where the checkpoints are written
+     */
+    public BaseCheckpointSaver delegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the durability mode
+     */
+    public CheckpointDurability durability() {
+        return durability;
+    }
+
+    private static String threadIdOf( RunnableConfig config ) {
+        return config.threadId().orElse( DEFAULT_THREAD_ID );
+    }
+
+    /**
+     * Enqueues the checkpoint and returns immediately, unless the queue is full.
+     * The returned config is the same that would be returned by a synchronous write.
+     */
+    @Override
+    public RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception {
+        requireNonNull( checkpoint, "checkpoint cannot be null" );
+
+        if( durability == CheckpointDurability.ASYNC ) {
+            permits.acquire(); // backpressure
+        }
+        return enqueue( config, checkpoint );
+    }
+
+    /**
+     * Enqueues the checkpoint. If the queue is full the returned future completes once a pending write
+     * releases its slot, without blocking the caller.
+     */
+    @Override
+    public CompletableFuture<RunnableConfig> putAsync( RunnableConfig config, Checkpoint checkpoint ) {
+        requireNonNull( checkpoint, "checkpoint cannot be null" );
+
+        if( durability == CheckpointDurability.ASYNC ) {
+            return acquirePermit().thenApply( v -> enqueue( config, checkpoint ) );
+        }
+        return CompletableFuture.completedFuture( enqueue( config, checkpoint ) );
+    }
+
+    private RunnableConfig enqueue( RunnableConfig config, Checkpoint checkpoint ) {
+        if( durability == CheckpointDurability.ASYNC ) {
+            writers.compute( threadIdOf(config), ( k, writer ) -> {
+                final var result = ( writer == null ) ? new ThreadWriter(k) : writer;
+                result.enqueue( config, checkpoint, true );
+                return result;
+            });
+        }
+        else {
+            writers.compute( threadIdOf(config), ( k, writer ) -> {
+                final var result = ( writer == null ) ? new ThreadWriter(k) : writer;
+                result.buffer( config, checkpoint );
+                return result;
+            });
+        }
+
+        if( config.checkPointId().isPresent() ) { // Replace Checkpoint
+            return config;
+        }
+        return RunnableConfig.builder(config)
+                .checkPointId(checkpoint.getId())
+                .build();
+    }
+
+    /**
+     * @return a future completed once a permit has been acquired
+     */
+    private CompletableFuture<Void> acquirePermit() {
+        if( permits.tryAcquire() ) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final CompletableFuture<Void> waiter = new CompletableFuture<>();
+        permitWaiters.add( waiter );
+        // a permit released before the waiter was queued has not been handed over
+        if( permits.tryAcquire() ) {
+            if( permitWaiters.remove( waiter ) ) {
+                return CompletableFuture.completedFuture(null);
+            }
+            // the waiter has been handed a permit meanwhile
+            releasePermit();
+        }
+        return waiter;
+    }
+
+    /**
+     * Releases a permit, handing it over to a waiting {@link #putAsync(RunnableConfig, Checkpoint)} if any.
+     * The waiter is completed on the executor, so it doesn't run on the writer thread.
+     */
+    private void releasePermit() {
+        permits.release();
+        while( !permitWaiters.isEmpty() && permits.tryAcquire() ) {
+            final CompletableFuture<Void> waiter = permitWaiters.poll();
+            if( waiter == null ) {
+                permits.release();
+            }
+            else {
+                executor.execute( () -> waiter.complete(null) );
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered checkpoints (if any) and waits for the pending writes of the given thread.
+     *
+     * @param config the config that identifies the thread
+     * @return a future completed when all the checkpoints of the thread have been written, or exceptionally if a write is failed
+     */
+    public CompletableFuture<Void> flush( RunnableConfig config ) {
+        final String threadId = threadIdOf(config);
+        final List<CompletableFuture<Void>> tail = new ArrayList<>(1);
+        final List<ThreadWriter> current = new ArrayList<>(1);
+
+        writers.computeIfPresent( threadId, ( k, writer ) -> {
+            writer.enqueueBuffered();
+            tail.add( writer.tail );
+            current.add( writer );
+            return writer;
+        });
+
+        if( current.isEmpty() ) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final ThreadWriter writer = current.get(0);
+        final CompletableFuture<Void> pending = tail.get(0);
+        return pending.thenRun( () -> {
+            final Throwable failure = writer.takeFailure();
+            if( failure != null ) {
+                writers.computeIfPresent( threadId, ( k, w ) -> w.isIdle(pending) ? null : w );
+                throw new CompletionException( failure );
+            }
+        });
+    }
+
+    /**
+     * Writes the buffered checkpoints (if any) and waits for the pending writes of all the threads.
+     *
+     * @return a future completed when all the checkpoints have been written, or exceptionally if a write is failed
+     */
+    public CompletableFuture<Void> flush() {
+        final var futures = writers.keySet().stream()
+                .map( threadId -> flush( RunnableConfig.builder().threadId(threadId).build() ) )
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf( futures );
+    }
+
+    private void awaitPendingWrites( RunnableConfig config ) {
+        try {
+            flush( config ).join();
+        }
+        catch( CompletionException ex ) {
+            throw new IllegalStateException( "error writing checkpoints", ex.getCause() );
+        }
+    }
+
+    @Override
+    public Collection<Checkpoint> list( RunnableConfig config ) {
+        awaitPendingWrites( config );
+        return delegate.list( config );
+    }
+
+    @Override
+    public Optional<Checkpoint> get( RunnableConfig config ) {
+        awaitPendingWrites( config );
+        return delegate.get( config );
+    }
+
+    @Override
+    public boolean remove( RunnableConfig config ) throws Exception {
+        awaitPendingWrites( config );
+        return delegate.remove( config );
+    }
+
+    @Override
+    public boolean clear( RunnableConfig config ) {
+        awaitPendingWrites( config );
+        return delegate.clear( config );
+    }
+}
@@ -4,10 +4,53 @@ import org.bsc.langgraph4j.RunnableConfig;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static java.lang.String.format;
 
 public interface BaseCheckpointSaver {
 
     Collection<Checkpoint> list( RunnableConfig config );
     Optional<Checkpoint> get( RunnableConfig config );
     RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception;
+
+    /**
+     * Stores the checkpoint as {@link #put(RunnableConfig, Checkpoint)} does, without blocking the caller.
+     * By default the checkpoint is stored on the caller thread, the savers that block (ie. on I/O) override it.
+     *
+     * @param config the RunnableConfig that identifies the thread and, optionally, the checkpoint to replace
+     * @param checkpoint the checkpoint to store
+     * @return a future completed with the config returned by put, once the checkpoint has been stored
+     */
+    default CompletableFuture<RunnableConfig> putAsync( RunnableConfig config, Checkpoint checkpoint ) {
+        try {
+            return CompletableFuture.completedFuture( put( config, checkpoint ) );
+        }
+        catch( Exception ex ) {
+            return CompletableFuture.failedFuture( ex );
+        }
+    }
+
+    /**
+     * Removes the checkpoint identified by the checkPointId of the given RunnableConfig.
+     *
+     * @param config the RunnableConfig that identifies the thread and the checkpoint
+     * @return true if the checkpoint existed and has been removed, false otherwise
+     * @throws IllegalArgumentException if the config doesn't have a checkPointId
+     * @throws UnsupportedOperationException if the saver doesn't support the removal
+     */
+    default boolean remove( RunnableConfig config ) throws Exception {
+        throw new UnsupportedOperationException( format("%s doesn't support checkpoint removal", getClass().getName()) );
+    }
+
+    /**
+     * Removes all the checkpoints of the thread associated with the given RunnableConfig.
+     *
+     * @param config the RunnableConfig that identifies the thread
+     * @return true if the thread had checkpoints that have been removed, false otherwise
+     * @throws UnsupportedOperationException if the saver doesn't support the removal
+     */
+    default boolean clear( RunnableConfig config ) {
+        throw new UnsupportedOperationException( format("%s doesn't support thread removal", getClass().getName()) );
+    }
 }
@@ -0,0 +1,231 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.lang.String.format;
+
+/**
+ * Compression of the checkpoint state payloads written by the savers, based on the JDK {@link Deflater}.
+ * <p>
+ * A saver configured with a codec other than {@link #none()} writes each checkpoint with a format header that
+ * records the codec and, if any, the id (ie. Adler-32 checksum) of the preset dictionary. The records written
+ * without compression keep the original layout, so old and new records coexist and can be read by any saver,
+ * provided that the records compressed with a dictionary are read with the same dictionary.
+ * <p>
+ * A preset dictionary helps when each state is small but the states share a lot of content (ie. prompts,
+ * tool descriptions, serialization metadata). It can be built from sample states with {@link #trainDictionary(Collection, int)}.
+ */
+public final class CheckpointCompression {
+
+    public enum Codec {
+        NONE(0),
+        DEFLATE(1),
+        DEFLATE_DICTIONARY(2);
+
+        final int id;
+
+        Codec( int id ) {
+            this.id = id;
+        }
+
+        static Codec of( int id ) throws IOException {
+            for( Codec codec : values() ) {
+                if( codec.id == id ) {
+                    return codec;
+                }
+            }
+            throw new StreamCorruptedException( format( "unsupported checkpoint codec %d", id ) );
+        }
+    }
+
+    private static final CheckpointCompression NONE = new CheckpointCompression( Codec.NONE, 0, null );
+
+    private final Codec codec;
+    private final int level;
+    private final byte[] dictionary;
+    private final int dictionaryId;
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial( Inflater::new );
+
+    private CheckpointCompression( Codec codec, int level, byte[] dictionary ) {
+        this.codec = codec;
+        this.level = level;
+        this.dictionary = dictionary;
+        this.dictionaryId = ( dictionary != null ) ? adler32( dictionary ) : 0;
+        this.deflaters = ThreadLocal.withInitial( () -> new Deflater( level ) );
+    }
+
+    private static int adler32( byte[] bytes ) {
+        Adler32 adler = new Adler32();
+        adler.update( bytes );
+        return (int) adler.getValue();
+    }
+
+    private static void checkLevel( int level ) {
+        if( level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION ) {
+            throw new IllegalArgumentException( format( "compression level must be in [%d,%d]", Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION ) );
+        }
+    }
+
+    /**
+     * @return the compression that writes the payloads as they are, in the original record layout
+     */
+    public static CheckpointCompression none() {
+        return NONE;
+    }
+
+    /**
+     * @param level the deflate level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     * @return the deflate compression at the given level
+     */
+    public static CheckpointCompression deflate( int level ) {
+        checkLevel( level );
+        return new CheckpointCompression( Codec.DEFLATE, level, null );
+    }
+
+    /**
+     * @param level the deflate level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     * @param dictionary the preset dictionary, it is needed to read the records back
+     * @return the deflate compression at the given level with a preset dictionary
+     */
+    public static CheckpointCompression deflate( int level, @NonNull byte[] dictionary ) {
+        checkLevel( level );
+        if( dictionary.length == 0 ) {
+            throw new IllegalArgumentException( "dictionary cannot be empty" );
+        }
+        return new CheckpointCompression( Codec.DEFLATE_DICTIONARY, level, dictionary.clone() );
+    }
+
+    public Codec codec() {
+        return codec;
+    }
+
+    public int level() {
+        return level;
+    }
+
+    public Optional<byte[]> dictionary() {
+        return Optional.ofNullable( dictionary ).map( byte[]::clone );
+    }
+
+    public int dictionaryId() {
+        return dictionaryId;
+    }
+
+    /**
+     * @param payload the bytes to compress
+     * @return the compressed bytes
+     */
+    public byte[] compress( byte[] payload ) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        if( dictionary != null ) {
+            deflater.setDictionary( dictionary );
+        }
+        deflater.setInput( payload );
+        deflater.finish();
+        byte[] result = new byte[ Math.max( 64, payload.length / 2 ) ];
+        int size = 0;
+        while( !deflater.finished() ) {
+            if( size == result.length ) {
+                result = Arrays.copyOf( result, result.length << 1 );
+            }
+            size += deflater.deflate( result, size, result.length - size );
+        }
+        return Arrays.copyOf( result, size );
+    }
+
+    /**
+     * @param codec the codec of the record
+     * @param dictionaryId the dictionary id of the record, if the codec uses a dictionary
+     * @param compressed the compressed bytes
+     * @param length the length of the uncompressed payload
+     * @return the uncompressed payload
+     * @throws IOException if the record cannot be decompressed by this instance
+     */
+    public byte[] decompress( Codec codec, int dictionaryId, byte[] compressed, int length ) throws IOException {
+        if( codec == Codec.DEFLATE_DICTIONARY && ( dictionary == null || dictionaryId != this.dictionaryId ) ) {
+            throw new IOException( format( "checkpoint compressed with an unknown dictionary %08x", dictionaryId ) );
+        }
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput( compressed );
+        byte[] result = new byte[ length ];
+        try {
+            int size = 0;
+            while( size < length ) {
+                int n = inflater.inflate( result, size, length - size );
+                if( n == 0 ) {
+                    if( inflater.needsDictionary() && dictionary != null ) {
+                        inflater.setDictionary( dictionary );
+                    }
+                    else if( inflater.finished() || inflater.needsInput() || inflater.needsDictionary() ) {
+                        throw new StreamCorruptedException( "truncated checkpoint payload" );
+                    }
+                }
+                size += n;
+            }
+        }
+        catch( DataFormatException e ) {
+            throw new StreamCorruptedException( format( "invalid checkpoint payload: %s", e.getMessage() ) );
+        }
+        return result;
+    }
+
+    /**
+     * Builds a preset dictionary from sample payloads (ie. serialized states) keeping the byte sequences
+     * that occur in most of the samples. The most frequent sequences are placed at the end of the dictionary,
+     * where deflate references them with shorter distances.
+     *
+     * @param samples the sample payloads
+     * @param maxSize the max size of the dictionary, deflate only uses the last 32KB
+     * @return the dictionary
+     */
+    public static byte[] trainDictionary( @NonNull Collection<byte[]> samples, int maxSize ) {
+        if( maxSize <= 0 ) {
+            throw new IllegalArgumentException( "maxSize must be positive" );
+        }
+        final int gram = 16;
+        final int step = 4;
+
+        // number of samples containing each sequence
+        Map<ByteBuffer,int[]> frequencies = new HashMap<>();
+        for( byte[] sample : samples ) {
+            Set<ByteBuffer> seen = new HashSet<>();
+            for( int i = 0; i + gram <= sample.length; i += step ) {
+                ByteBuffer key = ByteBuffer.wrap( sample, i, gram ).slice();
+                if( seen.add( key ) ) {
+                    frequencies.computeIfAbsent( key, k -> new int[1] )[0]++;
+                }
+            }
+        }
+
+        List<Map.Entry<ByteBuffer,int[]>> ranked = new ArrayList<>( frequencies.entrySet() );
+        ranked.removeIf( e -> samples.size() > 1 && e.getValue()[0] < 2 );
+        ranked.sort( Comparator.<Map.Entry<ByteBuffer,int[]>>comparingInt( e -> e.getValue()[0] ).reversed() );
+
+        int count = Math.min( ranked.size(), maxSize / gram );
+        byte[] result = new byte[ count * gram ];
+        // the most frequent last
+        for( int i = 0; i < count; ++i ) {
+            ranked.get(i).getKey().duplicate().get( result, result.length - ( i + 1 ) * gram, gram );
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return ( codec == Codec.NONE ) ? "CheckpointCompression{NONE}" :
+                format( "CheckpointCompression{%s, level=%d%s}", codec, level,
+                        ( dictionary != null ) ? format( ", dictionary=%08x", dictionaryId ) : "" );
+    }
+}
@@ -0,0 +1,22 @@
+package org.bsc.langgraph4j.checkpoint;
+
+/**
+ * Defines when the checkpoints produced by a graph execution are written to the {@link BaseCheckpointSaver}.
+ *
+ * @see AsyncCheckpointSaver
+ */
+public enum CheckpointDurability {
+    /**
+     * each checkpoint is written before the execution moves to the next node (default)
+     */
+    SYNC,
+    /**
+     * checkpoints are handed to a background writer that preserves the order for each thread.
+     * The queue is bounded: when it is full the execution waits for the pending writes (backpressure)
+     */
+    ASYNC,
+    /**
+     * checkpoints are kept in memory and written only when the execution is interrupted or completed
+     */
+    EXIT
+}
@@ -0,0 +1,198 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.RunnableConfig;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * An in-memory CheckpointSaver designed for many concurrent threads.
+ *
+ * <p>
+ *     Unlike {@link MemorySaver}, that guards all the threads with a single lock, each thread has its own lock
+ *     so the runs on different threads never contend. Each thread also keeps an index from checkpoint id to checkpoint,
+ *     so getting, replacing or removing a checkpoint by id is O(1) regardless of the history length.
+ * </p>
+ * <p>
+ *     {@link #list(RunnableConfig)} returns a snapshot of the thread history, last checkpoint first.
+ * </p>
+ */
+public class ConcurrentMemorySaver implements BaseCheckpointSaver {
+
+    private static final String DEFAULT_THREAD_ID = "$default";
+
+    /**
+     * Checkpoints of a thread, oldest first.
+     * They are held in a doubly linked list indexed by checkpoint id, so adding, replacing and removing a checkpoint
+     * are O(1).
+     */
+    private static final class ThreadCheckpoints {
+
+        private static final class Node {
+            Checkpoint checkpoint;
+            Node prev;
+            Node next;
+
+            Node( Checkpoint checkpoint ) {
+                this.checkpoint = checkpoint;
+            }
+        }
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String,Node> nodes = new HashMap<>();
+        private Node head; // oldest
+        private Node tail; // last
+
+        List<Checkpoint> list() {
+            lock.readLock().lock();
+            try {
+                final var result = new ArrayList<Checkpoint>( nodes.size() );
+                for( Node node = tail; node != null; node = node.prev ) {
+                    result.add( node.checkpoint );
+                }
+                return unmodifiableList( result );
+            }
+            finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Optional<Checkpoint> get( Optional<String> checkpointId ) {
+            lock.readLock().lock();
+            try {
+                final Node node = checkpointId.isPresent() ? nodes.get( checkpointId.get() ) : tail;
+                return ( node == null ) ? Optional.empty() : Optional.of( node.checkpoint );
+            }
+            finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void add( Checkpoint checkpoint ) {
+            lock.writeLock().lock();
+            try {
+                final var node = new Node( checkpoint );
+                nodes.put( checkpoint.getId(), node );
+                node.prev = tail;
+                if( tail == null ) {
+                    head = node;
+                }
+                else {
+                    tail.next = node;
+                }
+                tail = node;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void unlink( Node node ) {
+            if( node.prev == null ) {
+                head = node.next;
+            }
+            else {
+                node.prev.next = node.next;
+            }
+            if( node.next == null ) {
+                tail = node.prev;
+            }
+            else {
+                node.next.prev = node.prev;
+            }
+            node.prev = node.next = null;
+        }
+
+        boolean remove( String checkpointId ) {
+            lock.writeLock().lock();
+            try {
+                final Node node = nodes.remove( checkpointId );
+                if( node == null ) {
+                    return false;
+                }
+                unlink( node );
+                return true;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean isEmpty() {
+            lock.readLock().lock();
+            try {
+                return nodes.isEmpty();
+            }
+            finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void replace( String checkpointId, Checkpoint checkpoint ) {
+            lock.writeLock().lock();
+            try {
+                final Node node = nodes.remove( checkpointId );
+                if( node == null ) {
+                    throw new NoSuchElementException( format("Checkpoint with id %s not found!", checkpointId) );
+                }
+                node.checkpoint = checkpoint;
+                nodes.put( checkpoint.getId(), node );
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private final Map<String, ThreadCheckpoints> checkpointsByThread = new ConcurrentHashMap<>();
+
+    public ConcurrentMemorySaver() {
+    }
+
+    private ThreadCheckpoints getCheckpoints( RunnableConfig config ) {
+        return checkpointsByThread.computeIfAbsent( config.threadId().orElse( DEFAULT_THREAD_ID ), k -> new ThreadCheckpoints() );
+    }
+
+    @Override
+    public Collection<Checkpoint> list( RunnableConfig config ) {
+        return getCheckpoints(config).list();
+    }
+
+    @Override
+    public Optional<Checkpoint> get( RunnableConfig config ) {
+        return getCheckpoints(config).get( config.checkPointId() );
+    }
+
+    @Override
+    public RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception {
+        Objects.requireNonNull( checkpoint, "checkpoint cannot be null" );
+
+        if( config.checkPointId().isPresent() ) { // Replace Checkpoint
+            getCheckpoints(config).replace( config.checkPointId().get(), checkpoint );
+            return config;
+        }
+
+        getCheckpoints(config).add( checkpoint ); // Add Checkpoint
+
+        return RunnableConfig.builder(config)
+                .checkPointId(checkpoint.getId())
+                .build();
+    }
+
+    @Override
+    public boolean remove( RunnableConfig config ) {
+        final String checkPointId = config.checkPointId()
+                .orElseThrow( () -> new IllegalArgumentException("checkPointId cannot be null") );
+        return getCheckpoints(config).remove( checkPointId );
+    }
+
+    @Override
+    public boolean clear( RunnableConfig config ) {
+        final var removed = checkpointsByThread.remove( config.threadId().orElse( DEFAULT_THREAD_ID ) );
+        return removed != null && !removed.isEmpty();
+    }
+}
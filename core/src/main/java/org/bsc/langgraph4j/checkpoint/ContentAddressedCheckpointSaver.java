@@ -0,0 +1,373 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BaseCheckpointSaver} decorator that stores each large state value once in a {@link ValueStore},
+ * so the checkpoints that hold the same value (ie. an unchanged document list, the image bytes) share it.
+ *
+ * <p>
+ *     A value is large if its serialized size is at least {@code threshold} bytes. It is identified by the SHA-256
+ *     digest of its serialized form and the checkpoint stored by the delegate saver holds
+ *     {@value #REFERENCE_KEY_PREFIX}<i>key</i> with the digest in place of the value.
+ *     The values are reference counted: replacing, removing (ie. through a {@link RetentionCheckpointSaver})
+ *     or clearing the checkpoints releases their values and the store deletes the ones no longer referenced.
+ * </p>
+ * <p>
+ *     The state keys must not start with "$cas:". Since a value is stored as a whole, a list that grows at each step
+ *     is stored again whenever it changes: wrap the saver in a {@link DeltaCheckpointSaver} to store only the appended values.
+ * </p>
+ * <p>
+ *     The values are serialized on their own, through a value {@link Serializer}. Given a {@link StateSerializer},
+ *     each value is serialized as a state holding only the "value" key: a state serializer that expects a specific
+ *     state shape (ie. requires some keys) cannot read it back, and it is rejected by the constructor.
+ * </p>
+ * <pre>{@code
+ * var saver = new ContentAddressedCheckpointSaver( new FileSystemSaver( folder, stateSerializer ),
+ *                                                  new FileSystemValueStore( valuesFolder ),
+ *                                                  stateSerializer );
+ * }</pre>
+ */
+@Slf4j
+public class ContentAddressedCheckpointSaver implements BaseCheckpointSaver {
+
+    public static final String REFERENCE_KEY_PREFIX = "$cas:";
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    private static final String VALUE_KEY = "value";
+
+    private final BaseCheckpointSaver delegate;
+    private final ValueStore valueStore;
+    private final Serializer<Object> valueSerializer;
+    private final int threshold;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates a new instance that stores in the value store the values of at least {@value #DEFAULT_THRESHOLD} bytes.
+     *
+     * @param delegate the saver where the checkpoints are stored
+     * @param valueStore the store of the large values
+     * @param stateSerializer the serializer of the values, as single entry states
+     * @throws IllegalArgumentException if the state serializer cannot read back a single entry state
+     */
+    public ContentAddressedCheckpointSaver( BaseCheckpointSaver delegate,
+                                            ValueStore valueStore,
+                                            StateSerializer<? extends AgentState> stateSerializer ) {
+        this( delegate, valueStore, stateSerializer, DEFAULT_THRESHOLD );
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate the saver where the checkpoints are stored
+     * @param valueStore the store of the large values
+     * @param stateSerializer the serializer of the values, as single entry states
+     * @param threshold the min serialized size, in bytes, of the values kept in the value store
+     * @throws IllegalArgumentException if the state serializer cannot read back a single entry state
+     */
+    public ContentAddressedCheckpointSaver( BaseCheckpointSaver delegate,
+                                            ValueStore valueStore,
+                                            StateSerializer<? extends AgentState> stateSerializer,
+                                            int threshold ) {
+        this( delegate, valueStore, singleValueSerializer( requireNonNull( stateSerializer, "stateSerializer cannot be null" ) ), threshold );
+    }
+
+    /**
+     * Creates a new instance that serializes the values through the given value serializer.
+     *
+     * @param delegate the saver where the checkpoints are stored
+     * @param valueStore the store of the large values
+     * @param valueSerializer the serializer of the values
+     * @param threshold the min serialized size, in bytes, of the values kept in the value store
+     */
+    public ContentAddressedCheckpointSaver( BaseCheckpointSaver delegate,
+                                            ValueStore valueStore,
+                                            Serializer<Object> valueSerializer,
+                                            int threshold ) {
+        this.delegate = requireNonNull( delegate, "delegate cannot be null" );
+        this.valueStore = requireNonNull( valueStore, "valueStore cannot be null" );
+        this.valueSerializer = requireNonNull( valueSerializer, "valueSerializer cannot be null" );
+        if( threshold < 1 ) {
+            throw new IllegalArgumentException( "threshold must be greater than 0" );
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * Adapts the state serializer to serialize each value as a state holding only the {@link #VALUE_KEY},
+     * checking that it reads such a state back
+     */
+    private static <State extends AgentState> Serializer<Object> singleValueSerializer( StateSerializer<State> stateSerializer ) {
+        final Serializer<Object> result = new Serializer<>() {
+            @Override
+            public void write( Object object, ObjectOutput out ) throws IOException {
+                stateSerializer.write( stateSerializer.stateOf( Collections.singletonMap( VALUE_KEY, object ) ), out );
+            }
+
+            @Override
+            public Object read( ObjectInput in ) throws IOException, ClassNotFoundException {
+                return stateSerializer.read( in ).data().get( VALUE_KEY );
+            }
+        };
+        Object probe;
+        try {
+            probe = result.readObject( result.writeObject( VALUE_KEY ) );
+        }
+        catch( Exception e ) {
+            throw new IllegalArgumentException( format( "state serializer %s cannot serialize a single value state, use a value serializer",
+                    stateSerializer.getClass().getName() ), e );
+        }
+        if( !VALUE_KEY.equals( probe ) ) {
+            throw new IllegalArgumentException( format( "state serializer %s doesn't preserve a single value state, use a value serializer",
+                    stateSerializer.getClass().getName() ) );
+        }
+        return result;
+    }
+
+    /**
+     * @return the saver where the checkpoints are stored
+     */
+    public BaseCheckpointSaver delegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the store of the large values
+     */
+    public ValueStore valueStore() {
+        return valueStore;
+    }
+
+    /**
+     * @return the min serialized size of the values kept in the value store
+     */
+    public int threshold() {
+        return threshold;
+    }
+
+    private static RunnableConfig threadConfigOf( RunnableConfig config ) {
+        return config.threadId()
+                .map( threadId -> RunnableConfig.builder().threadId( threadId ).build() )
+                .orElseGet( () -> RunnableConfig.builder().build() );
+    }
+
+    private static String digestOf( byte[] bytes ) {
+        try {
+            return HexFormat.of().formatHex( MessageDigest.getInstance( "SHA-256" ).digest( bytes ) );
+        }
+        catch( NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e ); // SHA-256 is required in every JDK
+        }
+    }
+
+    /**
+     * @return true if the value is certainly smaller than the threshold, so it doesn't need to be serialized
+     */
+    private boolean isSmall( Object value ) {
+        return value == null ||
+                value instanceof Number ||
+                value instanceof Boolean ||
+                value instanceof Character ||
+                value instanceof Enum<?> ||
+                ( value instanceof String s && s.length() * 3 < threshold );
+    }
+
+    /**
+     * @param checkpoint the stored checkpoint
+     * @return the digests referenced by the stored checkpoint
+     */
+    public static Collection<String> referencesOf( Checkpoint checkpoint ) {
+        final var result = new ArrayList<String>();
+        for( var entry : checkpoint.getState().entrySet() ) {
+            if( entry.getKey().startsWith( REFERENCE_KEY_PREFIX ) ) {
+                result.add( String.valueOf( entry.getValue() ) );
+            }
+        }
+        return result;
+    }
+
+    private static Checkpoint withState( Checkpoint checkpoint, Map<String,Object> state ) {
+        return Checkpoint.builder()
+                .id( checkpoint.getId() )
+                .nodeId( checkpoint.getNodeId() )
+                .nextNodeId( checkpoint.getNextNodeId() )
+                .state( state )
+                .build();
+    }
+
+    /**
+     * Replaces the large values of the checkpoint with their digests, retaining them in the value store
+     *
+     * @param checkpoint the checkpoint to store
+     * @param retained the digests retained, to release them if the checkpoint cannot be stored
+     * @return the checkpoint to store in the delegate
+     */
+    private Checkpoint encode( Checkpoint checkpoint, List<String> retained ) throws IOException {
+        Map<String,Object> result = null;
+        for( var entry : checkpoint.getState().entrySet() ) {
+            final Object value = entry.getValue();
+            if( isSmall( value ) ) {
+                continue;
+            }
+            final byte[] bytes = valueSerializer.writeObject( value );
+            if( bytes.length < threshold ) {
+                continue;
+            }
+            final String digest = digestOf( bytes );
+            valueStore.retain( digest, bytes );
+            retained.add( digest );
+            if( result == null ) {
+                result = new HashMap<>( checkpoint.getState() );
+            }
+            result.remove( entry.getKey() );
+            result.put( REFERENCE_KEY_PREFIX + entry.getKey(), digest );
+        }
+        return ( result != null ) ? withState( checkpoint, result ) : checkpoint;
+    }
+
+    /**
+     * Replaces the digests of the stored checkpoint with their values
+     *
+     * @param stored the stored checkpoint
+     * @param values the values already loaded, by digest
+     * @return the checkpoint with its values
+     */
+    private Checkpoint decode( Checkpoint stored, Map<String,Object> values ) {
+        final Map<String,Object> state = stored.getState();
+        if( state.keySet().stream().noneMatch( key -> key.startsWith( REFERENCE_KEY_PREFIX ) ) ) {
+            return stored;
+        }
+        final var result = new HashMap<String,Object>( state.size() );
+        for( var entry : state.entrySet() ) {
+            final String key = entry.getKey();
+            if( !key.startsWith( REFERENCE_KEY_PREFIX ) ) {
+                result.put( key, entry.getValue() );
+                continue;
+            }
+            final String digest = String.valueOf( entry.getValue() );
+            Object value = values.get( digest );
+            if( value == null && !values.containsKey( digest ) ) {
+                value = load( digest );
+                values.put( digest, value );
+            }
+            result.put( key.substring( REFERENCE_KEY_PREFIX.length() ), value );
+        }
+        return withState( stored, result );
+    }
+
+    private Object load( String digest ) {
+        try {
+            final byte[] bytes = valueStore.get( digest )
+                    .orElseThrow( () -> new IllegalStateException( format( "value %s not found!", digest ) ) );
+            return valueSerializer.readObject( bytes );
+        }
+        catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        catch( ClassNotFoundException e ) {
+            throw new IllegalStateException( format( "value %s cannot be deserialized", digest ), e );
+        }
+    }
+
+    private void release( Collection<String> digests ) throws IOException {
+        for( String digest : digests ) {
+            valueStore.release( digest );
+        }
+    }
+
+    @Override
+    public Collection<Checkpoint> list( RunnableConfig config ) {
+        final var values = new HashMap<String,Object>(); // checkpoints share the values loaded once
+        final var result = new ArrayList<Checkpoint>();
+        for( Checkpoint stored : delegate.list( config ) ) {
+            result.add( decode( stored, values ) );
+        }
+        return unmodifiableList( result );
+    }
+
+    @Override
+    public Optional<Checkpoint> get( RunnableConfig config ) {
+        return delegate.get( config ).map( stored -> decode( stored, new HashMap<>() ) );
+    }
+
+    @Override
+    public RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception {
+        requireNonNull( checkpoint, "checkpoint cannot be null" );
+        lock.lock();
+        try {
+            final Optional<Checkpoint> replaced = config.checkPointId().isPresent() ? delegate.get( config ) : Optional.empty();
+
+            final var retained = new ArrayList<String>();
+            final RunnableConfig result;
+            try {
+                result = delegate.put( config, encode( checkpoint, retained ) );
+            }
+            catch( Exception e ) {
+                release( retained );
+                throw e;
+            }
+            if( replaced.isPresent() ) {
+                release( referencesOf( replaced.get() ) );
+            }
+            return result;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove( RunnableConfig config ) throws Exception {
+        config.checkPointId().orElseThrow( () -> new IllegalArgumentException("checkPointId cannot be null") );
+        lock.lock();
+        try {
+            final Optional<Checkpoint> removed = delegate.get( config );
+            if( !delegate.remove( config ) ) {
+                return false;
+            }
+            if( removed.isPresent() ) {
+                release( referencesOf( removed.get() ) );
+            }
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean clear( RunnableConfig config ) {
+        lock.lock();
+        try {
+            final var removed = new ArrayList<>( delegate.list( threadConfigOf(config) ) );
+            final boolean result = delegate.clear( config );
+            for( Checkpoint checkpoint : removed ) {
+                release( referencesOf( checkpoint ) );
+            }
+            return result;
+        }
+        catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
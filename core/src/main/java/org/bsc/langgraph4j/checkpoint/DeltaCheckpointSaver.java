@@ -0,0 +1,400 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.RunnableConfig;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BaseCheckpointSaver} decorator that stores in the delegate saver only the difference between a checkpoint
+ * and the previous one of the same thread, with a full snapshot (ie. keyframe) every {@code keyframeInterval} checkpoints.
+ *
+ * <p>
+ *     The delta is encoded in the checkpoint state, so it is transparent for the delegate saver and its serializer:
+ * </p>
+ * <ul>
+ *     <li>{@value #BASE_KEY} the id of the previous checkpoint, present only in the deltas</li>
+ *     <li>the keys whose value changed, with the new value</li>
+ *     <li>{@value #APPEND_KEY_PREFIX}<i>key</i> the values appended to a list (ie. an {@link org.bsc.langgraph4j.state.AppenderChannel}),
+ *     when the previous list is a prefix of the new one</li>
+ *     <li>{@value #REMOVED_KEY} the removed keys, if any</li>
+ * </ul>
+ * <p>
+ *     The checkpoints returned by {@link #get(RunnableConfig)} and {@link #list(RunnableConfig)} are rebuilt replaying the
+ *     deltas from the nearest keyframe. The last checkpoint written for each thread is kept in memory, so the encoding and
+ *     the resume from the last checkpoint don't need any replay.
+ *     Replacing or removing a checkpoint turns its successor into a keyframe, so the following deltas stay valid.
+ *     The successor is looked up in an in-memory index, built from the stored checkpoints on the first replace or remove
+ *     of the thread.
+ * </p>
+ * <p>
+ *     The state serializer of the delegate must be able to write the appended values as a {@link List}
+ *     (eg. {@link org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer}) and the state keys must not start with "$delta:".
+ * </p>
+ */
+@Slf4j
+public class DeltaCheckpointSaver implements BaseCheckpointSaver {
+
+    public static final String BASE_KEY = "$delta:base";
+    public static final String REMOVED_KEY = "$delta:removed";
+    public static final String APPEND_KEY_PREFIX = "$delta:append:";
+
+    private static final String DEFAULT_THREAD_ID = "$default";
+
+    /**
+     * Last checkpoint written for a thread, with its full state
+     *
+     * @param id the checkpoint id
+     * @param state the full state
+     * @param depth the distance from the nearest keyframe
+     */
+    private record Materialized( String id, Map<String,Object> state, int depth ) {}
+
+    /**
+     * Links between the deltas of a thread and their base checkpoints, in both directions
+     */
+    private static final class SuccessorIndex {
+        final Map<String,String> successors = new ConcurrentHashMap<>(); // base id -> delta id
+        final Map<String,String> bases = new ConcurrentHashMap<>(); // delta id -> base id
+
+        void link( String baseId, String id ) {
+            successors.put( baseId, id );
+            bases.put( id, baseId );
+        }
+
+        /**
+         * Removes the link of the given checkpoint to its base, if it is a delta
+         */
+        void unlinkBase( String id ) {
+            final String baseId = bases.remove( id );
+            if( baseId != null ) {
+                successors.remove( baseId, id );
+            }
+        }
+    }
+
+    private final BaseCheckpointSaver delegate;
+    private final int keyframeInterval;
+    private final Map<String,Materialized> lastByThread = new ConcurrentHashMap<>();
+    private final Map<String,SuccessorIndex> successorsByThread = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate the saver where the encoded checkpoints are stored
+     * @param keyframeInterval the number of checkpoints between two full snapshots, greater than 0
+     */
+    public DeltaCheckpointSaver( BaseCheckpointSaver delegate, int keyframeInterval ) {
+        this.delegate = requireNonNull( delegate, "delegate cannot be null" );
+        if( keyframeInterval < 1 ) {
+            throw new IllegalArgumentException( "keyframeInterval must be greater than 0" );
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * @return the saver where the encoded checkpoints are stored
+     */
+    public BaseCheckpointSaver delegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the number of checkpoints between two full snapshots
+     */
+    public int keyframeInterval() {
+        return keyframeInterval;
+    }
+
+    private static String threadIdOf( RunnableConfig config ) {
+        return config.threadId().orElse( DEFAULT_THREAD_ID );
+    }
+
+    private static RunnableConfig threadConfigOf( RunnableConfig config ) {
+        return config.threadId()
+                .map( threadId -> RunnableConfig.builder().threadId( threadId ).build() )
+                .orElseGet( () -> RunnableConfig.builder().build() );
+    }
+
+    /**
+     * @param checkpoint the stored checkpoint
+     * @return true if the stored checkpoint is a delta
+     */
+    public static boolean isDelta( Checkpoint checkpoint ) {
+        return checkpoint.getState().containsKey( BASE_KEY );
+    }
+
+    private static Checkpoint withState( Checkpoint checkpoint, Map<String,Object> state ) {
+        return Checkpoint.builder()
+                .id( checkpoint.getId() )
+                .nodeId( checkpoint.getNodeId() )
+                .nextNodeId( checkpoint.getNextNodeId() )
+                .state( state )
+                .build();
+    }
+
+    /**
+     * Computes the delta between two states
+     *
+     * @param baseId the id of the base checkpoint
+     * @param base the base state
+     * @param state the new state
+     * @return the encoded delta
+     */
+    public static Map<String,Object> diff( String baseId, Map<String,Object> base, Map<String,Object> state ) {
+        final var result = new HashMap<String,Object>();
+        result.put( BASE_KEY, baseId );
+
+        for( var entry : state.entrySet() ) {
+            final String key = entry.getKey();
+            final Object value = entry.getValue();
+            if( !base.containsKey( key ) ) {
+                result.put( key, value );
+                continue;
+            }
+            final Object baseValue = base.get( key );
+            if( baseValue == value ) {
+                continue;
+            }
+            if( baseValue instanceof List<?> baseList && value instanceof List<?> list ) {
+                final int prefix = commonPrefix( baseList, list );
+                if( prefix == baseList.size() ) {
+                    if( list.size() > prefix ) {
+                        result.put( APPEND_KEY_PREFIX + key, new ArrayList<>( list.subList( prefix, list.size() ) ) );
+                    }
+                    continue;
+                }
+            }
+            else if( Objects.equals( baseValue, value ) ) {
+                continue;
+            }
+            result.put( key, value );
+        }
+
+        final var removed = new ArrayList<String>();
+        for( String key : base.keySet() ) {
+            if( !state.containsKey( key ) ) {
+                removed.add( key );
+            }
+        }
+        if( !removed.isEmpty() ) {
+            result.put( REMOVED_KEY, removed );
+        }
+        return result;
+    }
+
+    private static int commonPrefix( List<?> base, List<?> list ) {
+        final int size = Math.min( base.size(), list.size() );
+        int i = 0;
+        for( ; i < size; ++i ) {
+            if( !Objects.equals( base.get(i), list.get(i) ) ) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Applies a delta to a state
+     *
+     * @param base the base state
+     * @param delta the encoded delta
+     * @return the new state
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String,Object> apply( Map<String,Object> base, Map<String,Object> delta ) {
+        final var result = new HashMap<>( base );
+        for( var entry : delta.entrySet() ) {
+            final String key = entry.getKey();
+            if( BASE_KEY.equals( key ) ) {
+                continue;
+            }
+            if( REMOVED_KEY.equals( key ) ) {
+                for( Object removed : (Collection<Object>)entry.getValue() ) {
+                    result.remove( String.valueOf(removed) );
+                }
+                continue;
+            }
+            if( key.startsWith( APPEND_KEY_PREFIX ) ) {
+                final String listKey = key.substring( APPEND_KEY_PREFIX.length() );
+                final var baseList = (List<Object>)result.get( listKey );
+                final var list = new ArrayList<Object>( baseList != null ? baseList : List.of() );
+                list.addAll( (Collection<Object>)entry.getValue() );
+                result.put( listKey, list );
+                continue;
+            }
+            result.put( key, entry.getValue() );
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds the full state of a stored checkpoint replaying the deltas from the nearest keyframe
+     */
+    private Materialized materialize( RunnableConfig config, Checkpoint stored ) {
+        final Deque<Checkpoint> deltas = new ArrayDeque<>();
+        Checkpoint current = stored;
+        while( isDelta( current ) ) {
+            deltas.push( current );
+            final String baseId = String.valueOf( current.getState().get( BASE_KEY ) );
+            final Materialized last = lastByThread.get( threadIdOf(config) );
+            if( last != null && last.id().equals( baseId ) ) {
+                return replay( last.state(), last.depth(), stored.getId(), deltas );
+            }
+            current = delegate.get( RunnableConfig.builder( threadConfigOf(config) ).checkPointId( baseId ).build() )
+                    .orElseThrow( () -> new IllegalStateException( format("base checkpoint %s not found!", baseId) ) );
+        }
+        return replay( current.getState(), 0, stored.getId(), deltas );
+    }
+
+    private static Materialized replay( Map<String,Object> keyframe, int depth, String id, Deque<Checkpoint> deltas ) {
+        Map<String,Object> state = keyframe;
+        int result = depth;
+        while( !deltas.isEmpty() ) {
+            state = apply( state, deltas.pop().getState() );
+            ++result;
+        }
+        return new Materialized( id, state, result );
+    }
+
+    private Checkpoint decode( RunnableConfig config, Checkpoint stored ) {
+        if( !isDelta( stored ) ) {
+            return stored;
+        }
+        final Materialized last = lastByThread.get( threadIdOf(config) );
+        if( last != null && last.id().equals( stored.getId() ) ) {
+            return withState( stored, last.state() );
+        }
+        return withState( stored, materialize( config, stored ).state() );
+    }
+
+    /**
+     * Returns the last checkpoint of the thread with its full state
+     */
+    private Optional<Materialized> last( RunnableConfig config ) {
+        final Materialized last = lastByThread.get( threadIdOf(config) );
+        if( last != null ) {
+            return Optional.of( last );
+        }
+        return delegate.get( threadConfigOf(config) ).map( stored -> materialize( config, stored ) );
+    }
+
+    @Override
+    public Collection<Checkpoint> list( RunnableConfig config ) {
+        final var stored = new ArrayList<>( delegate.list( config ) );
+        final var states = new HashMap<String,Map<String,Object>>();
+        final var result = new ArrayList<Checkpoint>( stored.size() );
+
+        for( int i = stored.size() - 1; i >= 0; --i ) { // oldest first
+            final Checkpoint checkpoint = stored.get(i);
+            Map<String,Object> state = checkpoint.getState();
+            if( isDelta( checkpoint ) ) {
+                final var base = states.get( String.valueOf( state.get( BASE_KEY ) ) );
+                state = ( base != null ) ? apply( base, state ) : materialize( config, checkpoint ).state();
+            }
+            states.put( checkpoint.getId(), state );
+            result.add( withState( checkpoint, state ) );
+        }
+        Collections.reverse( result ); // last first
+        return unmodifiableList( result );
+    }
+
+    @Override
+    public Optional<Checkpoint> get( RunnableConfig config ) {
+        return delegate.get( config ).map( stored -> decode( config, stored ) );
+    }
+
+    @Override
+    public RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception {
+        requireNonNull( checkpoint, "checkpoint cannot be null" );
+        final String threadId = threadIdOf(config);
+
+        if( config.checkPointId().isPresent() ) { // Replace Checkpoint
+            final String replacedId = config.checkPointId().get();
+            detachSuccessor( config, replacedId );
+            lastByThread.remove( threadId );
+            return delegate.put( config, checkpoint ); // stored as keyframe
+        }
+
+        final Optional<Materialized> last = last( config );
+        final Materialized current;
+        final Checkpoint encoded;
+        if( last.isEmpty() || last.get().depth() + 1 >= keyframeInterval ) {
+            current = new Materialized( checkpoint.getId(), checkpoint.getState(), 0 );
+            encoded = checkpoint;
+        }
+        else {
+            current = new Materialized( checkpoint.getId(), checkpoint.getState(), last.get().depth() + 1 );
+            encoded = withState( checkpoint, diff( last.get().id(), last.get().state(), checkpoint.getState() ) );
+        }
+
+        final RunnableConfig result = delegate.put( config, encoded );
+        lastByThread.put( threadId, current );
+        if( encoded != checkpoint ) {
+            // if the index isn't built yet, it will be built from the stored delta
+            final SuccessorIndex index = successorsByThread.get( threadId );
+            if( index != null ) {
+                index.link( last.get().id(), checkpoint.getId() );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the successor index of the thread, building it from the stored checkpoints on the first call
+     */
+    private SuccessorIndex successorIndex( RunnableConfig config ) {
+        return successorsByThread.computeIfAbsent( threadIdOf(config), k -> {
+            final var result = new SuccessorIndex();
+            for( Checkpoint stored : delegate.list( threadConfigOf(config) ) ) {
+                if( isDelta( stored ) ) {
+                    result.link( String.valueOf( stored.getState().get( BASE_KEY ) ), stored.getId() );
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Stores as keyframe the checkpoint whose delta is based on the given one, if any, and removes the link of the
+     * given checkpoint to its base since it is going to be replaced by a keyframe or removed
+     */
+    private void detachSuccessor( RunnableConfig config, String checkpointId ) throws Exception {
+        final SuccessorIndex index = successorIndex( config );
+        index.unlinkBase( checkpointId );
+        final String successorId = index.successors.get( checkpointId );
+        if( successorId == null ) {
+            return;
+        }
+        final var successorConfig = RunnableConfig.builder( threadConfigOf(config) ).checkPointId( successorId ).build();
+        final Optional<Checkpoint> stored = delegate.get( successorConfig );
+        if( stored.isPresent() && isDelta( stored.get() ) ) {
+            final Materialized successor = materialize( config, stored.get() );
+            delegate.put( successorConfig, withState( stored.get(), successor.state() ) );
+            lastByThread.computeIfPresent( threadIdOf(config), ( k, last ) ->
+                            last.id().equals( successorId ) ? new Materialized( last.id(), last.state(), 0 ) : last );
+        }
+        index.unlinkBase( successorId );
+    }
+
+    @Override
+    public boolean remove( RunnableConfig config ) throws Exception {
+        final String checkPointId = config.checkPointId()
+                .orElseThrow( () -> new IllegalArgumentException("checkPointId cannot be null") );
+        detachSuccessor( config, checkPointId );
+        lastByThread.computeIfPresent( threadIdOf(config), ( k, last ) -> last.id().equals( checkPointId ) ? null : last );
+        return delegate.remove( config );
+    }
+
+    @Override
+    public boolean clear( RunnableConfig config ) {
+        lastByThread.remove( threadIdOf(config) );
+        successorsByThread.remove( threadIdOf(config) );
+        return delegate.clear( config );
+    }
+}
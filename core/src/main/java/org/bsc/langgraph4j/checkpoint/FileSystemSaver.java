@@ -13,6 +13,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static java.lang.String.format;
 
@@ -25,6 +27,11 @@ import static java.lang.String.format;
  *     The file is named "thread-<i>threadId</i>.saver" if the RunnableConfig has a
  *     threadId, or "thread-$default.saver" if it doesn't.
  * </p>
+ * <p>
+ *     Loading a file deserializes all of its checkpoints: use a
+ *     {@link org.bsc.langgraph4j.serializer.LazyStateSerializer} to decode the state values only when they are accessed.
+ *     The checkpoint states can be compressed through a {@link CheckpointCompression}.
+ * </p>
  *
  */
 @Slf4j
@@ -33,8 +40,21 @@ public class FileSystemSaver extends MemorySaver {
     private final Path targetFolder;
     private final Serializer<Checkpoint> serializer;
 
-    @SuppressWarnings("unchecked")
     public FileSystemSaver( @NonNull Path targetFolder, @NonNull StateSerializer<? extends AgentState> stateSerializer) {
+        this( targetFolder, stateSerializer, CheckpointCompression.none() );
+    }
+
+    /**
+     * Creates a new instance that compresses the checkpoint states.
+     *
+     * @param targetFolder the folder where the files are stored
+     * @param stateSerializer the serializer of the checkpoint state
+     * @param compression the compression of the checkpoint states
+     */
+    @SuppressWarnings("unchecked")
+    public FileSystemSaver( @NonNull Path targetFolder,
+                            @NonNull StateSerializer<? extends AgentState> stateSerializer,
+                            @NonNull CheckpointCompression compression ) {
         File targetFolderAsFile = targetFolder.toFile();
 
         if( targetFolderAsFile.exists() ) {
@@ -49,7 +69,7 @@ public class FileSystemSaver extends MemorySaver {
         }
 
         this.targetFolder = targetFolder;
-        this.serializer = new CheckPointSerializer( (StateSerializer<AgentState>) stateSerializer );
+        this.serializer = new CheckPointSerializer( (StateSerializer<AgentState>) stateSerializer, compression );
     }
 
     private File getFile(RunnableConfig config) {
@@ -103,7 +123,9 @@ public class FileSystemSaver extends MemorySaver {
      * @param config the RunnableConfig for which the checkpoint file should be cleared
      * @return true if the file existed and was successfully deleted, false otherwise
      */
+    @Override
     public boolean clear(RunnableConfig config) {
+        super.clear(config);
         File targetFile = getFile(config);
         return targetFile.exists() && targetFile.delete();
     }
@@ -127,32 +149,109 @@ public class FileSystemSaver extends MemorySaver {
         return result;
     }
 
+    /**
+     * Writes the checkpoint on the {@link AsyncCheckpointSaver#defaultExecutor()}, since the write blocks on the file I/O
+     */
+    @Override
+    public CompletableFuture<RunnableConfig> putAsync(RunnableConfig config, Checkpoint checkpoint) {
+        return CompletableFuture.supplyAsync( () -> {
+            try {
+                return put( config, checkpoint );
+            }
+            catch( Exception ex ) {
+                throw new CompletionException( ex );
+            }
+        }, AsyncCheckpointSaver.defaultExecutor() );
+    }
+
+    @Override
+    public boolean remove(RunnableConfig config) throws Exception {
+        final LinkedList<Checkpoint> checkpoints = getCheckpoints(config); // ensure that the file has been loaded
+        if( !super.remove(config) ) {
+            return false;
+        }
+        serialize( checkpoints, getFile(config) );
+        return true;
+    }
+
 
 }
 
+/**
+ * Serializer of the checkpoints shared by the savers.
+ * <p>
+ * Without compression a record is {@code [UTF id][nullable UTF nodeId][nullable UTF nextNodeId][state]}.
+ * With compression the id is followed by a format header that cannot be mistaken for the nullable flag
+ * of the nodeId: {@code [UTF id][byte FORMAT][byte codec][int dictionaryId, only with dictionary]
+ * [nullable UTF nodeId][nullable UTF nextNodeId][int length][int compressed length][compressed state]},
+ * so both kinds of record can be read whatever the configured compression.
+ */
 class CheckPointSerializer implements NullableObjectSerializer<Checkpoint> {
+    static final int FORMAT = 2;
+
     final StateSerializer<AgentState> stateSerializer;
+    final CheckpointCompression compression;
 
     public CheckPointSerializer(StateSerializer<AgentState> stateSerializer) {
+        this( stateSerializer, CheckpointCompression.none() );
+    }
+
+    public CheckPointSerializer(StateSerializer<AgentState> stateSerializer, @NonNull CheckpointCompression compression) {
         this.stateSerializer = stateSerializer;
+        this.compression = compression;
     }
 
     @Override
     public void write(Checkpoint object, ObjectOutput out) throws IOException {
         out.writeUTF( object.getId() );
+        AgentState state = stateSerializer.stateFactory().apply(object.getState());
+        if( compression.codec() == CheckpointCompression.Codec.NONE ) {
+            writeNullableUTF(object.getNodeId(), out);
+            writeNullableUTF(object.getNextNodeId(), out);
+            stateSerializer.write( state, out);
+            return;
+        }
+        out.writeByte( FORMAT );
+        out.writeByte( compression.codec().id );
+        if( compression.codec() == CheckpointCompression.Codec.DEFLATE_DICTIONARY ) {
+            out.writeInt( compression.dictionaryId() );
+        }
         writeNullableUTF(object.getNodeId(), out);
         writeNullableUTF(object.getNextNodeId(), out);
-        AgentState state = stateSerializer.stateFactory().apply(object.getState());
-        stateSerializer.write( state, out);
+        byte[] payload = stateSerializer.writeObject( state );
+        byte[] compressed = compression.compress( payload );
+        out.writeInt( payload.length );
+        out.writeInt( compressed.length );
+        out.write( compressed );
     }
 
     @Override
     public Checkpoint read(ObjectInput in) throws IOException, ClassNotFoundException {
+        String id = in.readUTF();
+        int flag = in.readByte();
+        if( flag != FORMAT ) {
+            return Checkpoint.builder()
+                    .id( id )
+                    .nodeId( ( flag == 0 ) ? null : in.readUTF() )
+                    .nextNodeId( readNullableUTF(in).orElse(null) )
+                    .state( stateSerializer.read(in) )
+                    .build();
+        }
+        CheckpointCompression.Codec codec = CheckpointCompression.Codec.of( in.readByte() );
+        int dictionaryId = ( codec == CheckpointCompression.Codec.DEFLATE_DICTIONARY ) ? in.readInt() : 0;
+        String nodeId = readNullableUTF(in).orElse(null);
+        String nextNodeId = readNullableUTF(in).orElse(null);
+        int length = in.readInt();
+        byte[] compressed = new byte[ in.readInt() ];
+        in.readFully( compressed );
+        byte[] payload = ( codec == CheckpointCompression.Codec.NONE ) ?
+                compressed :
+                compression.decompress( codec, dictionaryId, compressed, length );
         return Checkpoint.builder()
-                .id( in.readUTF() )
-                .nextNodeId( readNullableUTF(in).orElse(null) )
-                .nodeId( readNullableUTF(in).orElse(null) )
-                .state( stateSerializer.read(in) )
+                .id( id )
+                .nodeId( nodeId )
+                .nextNodeId( nextNodeId )
+                .state( stateSerializer.readObject( payload ) )
                 .build();
     }
 
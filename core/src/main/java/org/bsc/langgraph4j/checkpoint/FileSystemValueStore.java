@@ -0,0 +1,117 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link ValueStore} that keeps each value in a file of the provided folder, to be used with the {@link FileSystemSaver}.
+ * <p>
+ * The file is named "<i>digest</i>.value" and holds the number of references followed by the serialized value,
+ * so that adding or removing a reference only rewrites its first four bytes.
+ */
+public class FileSystemValueStore implements ValueStore {
+
+    private static final String EXTENSION = ".value";
+
+    private final Path targetFolder;
+
+    public FileSystemValueStore( @NonNull Path targetFolder ) {
+        File targetFolderAsFile = targetFolder.toFile();
+
+        if( targetFolderAsFile.exists() ) {
+            if (targetFolderAsFile.isFile()) {
+                throw new IllegalArgumentException( format("targetFolder '%s' must be a folder", targetFolder) );
+            }
+        }
+        else {
+            if( !targetFolderAsFile.mkdirs() ) {
+                throw new IllegalArgumentException( format("targetFolder '%s' cannot be created", targetFolder) );
+            }
+        }
+        this.targetFolder = targetFolder;
+    }
+
+    private Path getPath( String digest ) {
+        return targetFolder.resolve( digest + EXTENSION );
+    }
+
+    @Override
+    public synchronized void retain( @NonNull String digest, @NonNull byte[] bytes ) throws IOException {
+        final File file = getPath( digest ).toFile();
+        try( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) ) {
+            if( raf.length() >= Integer.BYTES ) {
+                final int references = raf.readInt();
+                raf.seek( 0 );
+                raf.writeInt( references + 1 );
+                return;
+            }
+            raf.writeInt( 1 );
+            raf.write( bytes );
+        }
+    }
+
+    @Override
+    public synchronized boolean release( @NonNull String digest ) throws IOException {
+        final File file = getPath( digest ).toFile();
+        if( !file.exists() ) {
+            return false;
+        }
+        try( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) ) {
+            final int references = raf.readInt() - 1;
+            if( references > 0 ) {
+                raf.seek( 0 );
+                raf.writeInt( references );
+                return false;
+            }
+        }
+        Files.delete( file.toPath() );
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<byte[]> get( @NonNull String digest ) throws IOException {
+        try {
+            final byte[] content = Files.readAllBytes( getPath( digest ) );
+            final byte[] result = new byte[ content.length - Integer.BYTES ];
+            System.arraycopy( content, Integer.BYTES, result, 0, result.length );
+            return Optional.of( result );
+        }
+        catch( NoSuchFileException e ) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public synchronized int references( @NonNull String digest ) throws IOException {
+        final File file = getPath( digest ).toFile();
+        if( !file.exists() ) {
+            return 0;
+        }
+        try( RandomAccessFile raf = new RandomAccessFile( file, "r" ) ) {
+            return raf.readInt();
+        }
+    }
+
+    @Override
+    public synchronized Set<String> digests() {
+        final Set<String> result = new HashSet<>();
+        final File[] files = targetFolder.toFile().listFiles( ( dir, name ) -> name.endsWith( EXTENSION ) );
+        if( files != null ) {
+            for( File file : files ) {
+                result.add( file.getName().substring( 0, file.getName().length() - EXTENSION.length() ) );
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,761 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.serializer.ByteBufferOutput;
+import org.bsc.langgraph4j.serializer.ByteBufferSerializer;
+import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A CheckpointSaver that appends the checkpoints to a log file (ie. segment) in the filesystem.
+ *
+ * <p>
+ *     Each thread is associated with a segment in the provided targetFolder, named "thread-<i>threadId</i>.log"
+ *     or "thread-$default.log" if the RunnableConfig doesn't have a threadId.
+ *     Every put appends a single length-prefixed record, so the write cost doesn't depend on the history length.
+ *     An in-memory index maps each checkpoint id to the offset of its record and {@link #get(RunnableConfig)} and
+ *     {@link #list(RunnableConfig)} read the checkpoints from the segment on demand. The index is rebuilt scanning
+ *     the segment the first time a thread is accessed.
+ * </p>
+ * <p>
+ *     A checkpoint replaced (ie. by {@code CompiledGraph.updateState}) or removed leaves its old record in the segment.
+ *     When these records exceed the compaction ratio of the segment size, the segment is rewritten in
+ *     background keeping only the live records.
+ * </p>
+ * <p>
+ *     Record layout: {@code [int length][int crc32][byte type][UTF id][UTF replacedId, only for REPLACE][checkpoint]}
+ *     where length and crc32 refer to the bytes that follow them. A DELETE record has no checkpoint.
+ *     A truncated or corrupted tail (ie. crash during a write) is discarded when the segment is opened.
+ * </p>
+ * <p>
+ *     Each record is encoded, checkpoint included, into a thread local direct buffer through a {@link ByteBufferSerializer}
+ *     and written to the segment with a single channel write, without intermediate {@code byte[]} copies.
+ *     With a {@link org.bsc.langgraph4j.serializer.LazyStateSerializer} the state values of the checkpoints read
+ *     back are decoded only when they are accessed.
+ * </p>
+ */
+@Slf4j
+public class LogStructuredSaver implements BaseCheckpointSaver, AutoCloseable {
+
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REPLACE = 2;
+    private static final byte RECORD_DELETE = 3;
+    private static final int RECORD_PREFIX_SIZE = Integer.BYTES * 2;
+    private static final int RECORD_BUFFER_CAPACITY = 8 * 1024;
+    private static final int MAX_RETAINED_RECORD_BUFFER_CAPACITY = 1024 * 1024;
+
+    /**
+     * Writes the payload of a record
+     */
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write( ByteBufferOutput out ) throws IOException;
+    }
+
+    /**
+     * Index entry: the position of a checkpoint record in the segment
+     *
+     * @param id the checkpoint id
+     * @param offset the offset of the record
+     * @param length the length of the record, prefix included
+     * @param payloadOffset the offset of the serialized checkpoint
+     * @param payloadLength the length of the serialized checkpoint
+     */
+    private record Entry( String id, long offset, int length, long payloadOffset, int payloadLength ) {}
+
+    /**
+     * Segment and index of a thread
+     */
+    private final class ThreadLog {
+        private final Path file;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicBoolean compacting = new AtomicBoolean(false);
+        private final List<Entry> entries = new ArrayList<>(); // oldest first
+        private final Map<String,Integer> positions = new HashMap<>();
+        private FileChannel channel;
+        private long size;
+        private long garbage;
+        private boolean closed;
+
+        ThreadLog( Path file ) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open( file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE );
+            scan();
+        }
+
+        private void scan() throws IOException {
+            final long fileSize = channel.size();
+            long offset = 0;
+            try( var in = new DataInputStream( new BufferedInputStream( Files.newInputStream(file) ) ) ) {
+                while( fileSize - offset >= RECORD_PREFIX_SIZE ) {
+                    final int length = in.readInt();
+                    final int crc = in.readInt();
+                    if( length <= 0 || length > fileSize - offset - RECORD_PREFIX_SIZE ) {
+                        break;
+                    }
+                    final byte[] body = in.readNBytes( length );
+                    if( crc != crcOf( body, 0, body.length ) ) {
+                        break;
+                    }
+                    final byte type;
+                    final String id;
+                    final String replacedId;
+                    final int headerLength;
+                    try {
+                        final var header = new DataInputStream( new ByteArrayInputStream( body ) );
+                        type = header.readByte();
+                        id = header.readUTF();
+                        replacedId = ( type == RECORD_REPLACE ) ? header.readUTF() : null;
+                        headerLength = body.length - header.available();
+                    }
+                    catch( EOFException ex ) {
+                        // the checksum matches, so it isn't a torn write
+                        throw new IOException( format("invalid record at offset %d of segment '%s'", offset, file), ex );
+                    }
+                    final var entry = new Entry( id, offset, RECORD_PREFIX_SIZE + length,
+                                                    offset + RECORD_PREFIX_SIZE + headerLength, length - headerLength );
+                    if( type == RECORD_DELETE ) {
+                        if( !delete( id, entry.length() ) ) {
+                            garbage += entry.length();
+                        }
+                    }
+                    else if( replacedId != null ) {
+                        if( positions.containsKey( replacedId ) ) {
+                            replace( replacedId, entry );
+                        }
+                        else {
+                            log.warn( "skipped record at offset {} of segment '{}': replaced checkpoint {} not found", offset, file, replacedId );
+                            garbage += entry.length();
+                        }
+                    }
+                    else {
+                        append( entry );
+                    }
+                    offset += entry.length();
+                }
+            }
+            // only a torn tail (ie. length or checksum mismatch) is discarded
+            if( offset < fileSize ) {
+                log.warn( "segment '{}' has been truncated from {} to {} bytes", file, fileSize, offset );
+                channel.truncate( offset );
+            }
+            size = offset;
+        }
+
+        private void append( Entry entry ) {
+            positions.put( entry.id(), entries.size() );
+            entries.add( entry );
+        }
+
+        private void replace( String replacedId, Entry entry ) {
+            final Integer position = positions.remove( replacedId );
+            if( position == null ) {
+                throw new NoSuchElementException( format("Checkpoint with id %s not found!", replacedId) );
+            }
+            garbage += entries.get( position ).length();
+            entries.set( position, entry );
+            positions.put( entry.id(), position );
+        }
+
+        private boolean delete( String id, int recordLength ) {
+            final Integer position = positions.remove( id );
+            if( position == null ) {
+                return false;
+            }
+            garbage += entries.remove( (int)position ).length() + recordLength;
+            for( int i = position; i < entries.size(); ++i ) {
+                positions.put( entries.get(i).id(), i );
+            }
+            return true;
+        }
+
+        /**
+         * Writes an encoded record at the given offset
+         *
+         * @param record the record encoded by {@link #encodeRecord}
+         * @param headerLength the length of the record header
+         * @return the index entry of the record
+         */
+        private Entry write( FileChannel target, long offset, String id, ByteBufferOutput record, int headerLength ) throws IOException {
+            final var buffer = record.content();
+            final int length = buffer.remaining();
+            long position = offset;
+            while( buffer.hasRemaining() ) {
+                position += target.write( buffer, position );
+            }
+            return new Entry( id, offset, length, offset + RECORD_PREFIX_SIZE + headerLength, length - RECORD_PREFIX_SIZE - headerLength );
+        }
+
+        private ByteBuffer read( FileChannel source, Entry entry ) throws IOException {
+            final var buffer = ByteBuffer.allocate( entry.payloadLength() );
+            long position = entry.payloadOffset();
+            while( buffer.hasRemaining() ) {
+                int n = source.read( buffer, position );
+                if( n < 0 ) {
+                    throw new EOFException( format("unexpected end of segment '%s' reading checkpoint %s", file, entry.id()) );
+                }
+                position += n;
+            }
+            return buffer.flip();
+        }
+
+        /**
+         * Copies a live record as a PUT record
+         */
+        private Entry copy( FileChannel source, FileChannel target, long offset, Entry entry, ByteBufferOutput record ) throws IOException {
+            return copy( source, target, offset, RECORD_PUT, entry, null, record );
+        }
+
+        /**
+         * Copies a live record as a record of the given type
+         */
+        private Entry copy( FileChannel source, FileChannel target, long offset, byte type, Entry entry, String replacedId, ByteBufferOutput record ) throws IOException {
+            final var payload = read( source, entry );
+            final int headerLength = encodeRecord( record, type, entry.id(), replacedId, out -> out.write( payload ) );
+            return write( target, offset, entry.id(), record, headerLength );
+        }
+
+        /**
+         * @return the copy of a record that is no longer live
+         * @throws IllegalStateException if the record is still live, ie. the checkpoints are not in the order of the copy
+         */
+        private Entry deleted( Entry entry, Set<Entry> live, Map<Entry,Entry> copied ) {
+            if( live.contains( entry ) ) {
+                throw new IllegalStateException( format("checkpoint %s out of order in segment '%s'", entry.id(), file) );
+            }
+            return copied.get( entry );
+        }
+
+        private Entry writeDelete( FileChannel target, long offset, String id, ByteBufferOutput record ) throws IOException {
+            final int headerLength = encodeRecord( record, RECORD_DELETE, id, null, null );
+            return write( target, offset, id, record, headerLength );
+        }
+
+        private Checkpoint decode( Entry entry ) {
+            try {
+                return serializer.read( read( channel, entry ) );
+            }
+            catch( IOException | ClassNotFoundException ex ) {
+                throw new RuntimeException( format("error reading checkpoint %s from segment '%s'", entry.id(), file), ex );
+            }
+        }
+
+        Optional<Checkpoint> get( Optional<String> checkpointId ) {
+            lock.readLock().lock();
+            try {
+                ensureOpen();
+                if( checkpointId.isPresent() ) {
+                    final Integer position = positions.get( checkpointId.get() );
+                    return ( position == null ) ? Optional.empty() : Optional.of( decode( entries.get(position) ) );
+                }
+                return entries.isEmpty() ? Optional.empty() : Optional.of( decode( entries.get( entries.size() - 1 ) ) );
+            }
+            finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Checkpoint> list() {
+            lock.readLock().lock();
+            try {
+                ensureOpen();
+                final var result = new ArrayList<Checkpoint>( entries.size() );
+                for( int i = entries.size() - 1; i >= 0; --i ) { // last first
+                    result.add( decode( entries.get(i) ) );
+                }
+                return unmodifiableList( result );
+            }
+            finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put( Optional<String> replacedId, Checkpoint checkpoint, ByteBufferOutput record, int headerLength ) throws IOException {
+            lock.writeLock().lock();
+            try {
+                ensureOpen();
+                if( replacedId.isPresent() ) {
+                    if( !positions.containsKey( replacedId.get() ) ) {
+                        throw new NoSuchElementException( format("Checkpoint with id %s not found!", replacedId.get()) );
+                    }
+                    final var entry = write( channel, size, checkpoint.getId(), record, headerLength );
+                    size += entry.length();
+                    replace( replacedId.get(), entry );
+                }
+                else {
+                    final var entry = write( channel, size, checkpoint.getId(), record, headerLength );
+                    size += entry.length();
+                    append( entry );
+                }
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean remove( String checkpointId ) throws IOException {
+            final var record = recordBuffer();
+            try {
+                final int headerLength = encodeRecord( record, RECORD_DELETE, checkpointId, null, null );
+                lock.writeLock().lock();
+                try {
+                    ensureOpen();
+                    if( !positions.containsKey( checkpointId ) ) {
+                        return false;
+                    }
+                    final var entry = write( channel, size, checkpointId, record, headerLength );
+                    size += entry.length();
+                    return delete( checkpointId, entry.length() );
+                }
+                finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            finally {
+                releaseRecordBuffer( record );
+            }
+        }
+
+        boolean needsCompaction() {
+            lock.readLock().lock();
+            try {
+                return !closed && garbage > 0 && garbage >= size * compactionRatio;
+            }
+            finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Rewrites the segment with the live records only.
+         * The bulk of the copy doesn't hold the lock since the records already written are immutable. Holding the write
+         * lock, the changes made in the meanwhile are appended to the copy as the log would record them: a DELETE for each
+         * copied record that has been removed, a REPLACE for each one that has been replaced and a PUT for each new one,
+         * so the order of the checkpoints is preserved on reopen. Then the segments are swapped.
+         */
+        void compact() throws IOException {
+            if( !compacting.compareAndSet( false, true ) ) {
+                return;
+            }
+            // a unique file, since a compaction of a closed instance may still be running on the same segment
+            final Path compactFile;
+            try {
+                compactFile = Files.createTempFile( file.getParent(), file.getFileName().toString(), ".compact" );
+            }
+            catch( IOException ex ) {
+                compacting.set( false );
+                throw ex;
+            }
+            final var record = recordBuffer();
+            try( var target = FileChannel.open( compactFile, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) ) {
+                final List<Entry> snapshot;
+                final FileChannel source;
+                lock.readLock().lock();
+                try {
+                    if( closed ) {
+                        return;
+                    }
+                    snapshot = List.copyOf( entries );
+                    source = channel;
+                }
+                finally {
+                    lock.readLock().unlock();
+                }
+
+                final var copied = new HashMap<Entry,Entry>( snapshot.size() * 2 );
+                long offset = 0;
+                for( Entry entry : snapshot ) {
+                    final Entry result = copy( source, target, offset, entry, record );
+                    copied.put( entry, result );
+                    offset += result.length();
+                }
+
+                lock.writeLock().lock();
+                try {
+                    if( closed ) {
+                        return;
+                    }
+                    final var live = new HashSet<>( entries );
+                    long dropped = 0;
+                    int s = 0; // next copied record
+                    for( int i = 0; i < entries.size(); ++i ) {
+                        final Entry entry = entries.get(i);
+                        final Entry result;
+                        if( copied.containsKey( entry ) ) {
+                            // the copied records before this one are no longer live
+                            for( ; snapshot.get(s) != entry; ++s ) {
+                                final Entry removed = deleted( snapshot.get(s), live, copied );
+                                final Entry delete = writeDelete( target, offset, removed.id(), record );
+                                offset += delete.length();
+                                dropped += removed.length() + delete.length();
+                            }
+                            ++s;
+                            result = copied.get( entry );
+                        }
+                        else if( s < snapshot.size() ) {
+                            // a new record before a copied one has replaced it, possibly more than once
+                            final Entry replaced = deleted( snapshot.get(s++), live, copied );
+                            result = copy( channel, target, offset, RECORD_REPLACE, entry, replaced.id(), record );
+                            offset += result.length();
+                            dropped += replaced.length();
+                        }
+                        else {
+                            result = copy( channel, target, offset, RECORD_PUT, entry, null, record );
+                            offset += result.length();
+                        }
+                        entries.set( i, result );
+                    }
+                    for( ; s < snapshot.size(); ++s ) {
+                        final Entry removed = deleted( snapshot.get(s), live, copied );
+                        final Entry delete = writeDelete( target, offset, removed.id(), record );
+                        offset += delete.length();
+                        dropped += removed.length() + delete.length();
+                    }
+                    target.force( true );
+                    channel.close();
+                    Files.move( compactFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+                    channel = FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.WRITE );
+                    log.debug( "segment '{}' compacted from {} to {} bytes", file, size, offset );
+                    size = offset;
+                    garbage = dropped;
+                }
+                finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            finally {
+                releaseRecordBuffer( record );
+                Files.deleteIfExists( compactFile );
+                compacting.set( false );
+            }
+        }
+
+        void close() throws IOException {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+                channel.close();
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void ensureOpen() {
+            if( closed ) {
+                throw new IllegalStateException( format("segment '%s' has been closed", file) );
+            }
+        }
+    }
+
+    private final Path targetFolder;
+    private final ByteBufferSerializer<Checkpoint> serializer;
+    private final ThreadLocal<ByteBufferOutput> recordBuffers = new ThreadLocal<>();
+    private final double compactionRatio;
+    private final Executor compactionExecutor;
+    private final Map<String,ThreadLog> threads = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance that compacts a segment when half of it contains replaced records.
+     * The compaction runs on the common pool.
+     *
+     * @param targetFolder the folder where the segments are stored
+     * @param stateSerializer the serializer of the checkpoint state
+     */
+    public LogStructuredSaver( @NonNull Path targetFolder, @NonNull StateSerializer<? extends AgentState> stateSerializer ) {
+        this( targetFolder, stateSerializer, CheckpointCompression.none() );
+    }
+
+    /**
+     * Creates a new instance that compresses the checkpoint states and compacts a segment when half of it
+     * contains replaced records. The compaction runs on the common pool.
+     *
+     * @param targetFolder the folder where the segments are stored
+     * @param stateSerializer the serializer of the checkpoint state
+     * @param compression the compression of the checkpoint states
+     */
+    public LogStructuredSaver( @NonNull Path targetFolder,
+                               @NonNull StateSerializer<? extends AgentState> stateSerializer,
+                               @NonNull CheckpointCompression compression ) {
+        this( targetFolder, stateSerializer, compression, 0.5, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param targetFolder the folder where the segments are stored
+     * @param stateSerializer the serializer of the checkpoint state
+     * @param compactionRatio the ratio of the segment size occupied by replaced records that triggers the compaction, in (0,1]
+     * @param compactionExecutor the executor that runs the compaction
+     */
+    public LogStructuredSaver( @NonNull Path targetFolder,
+                               @NonNull StateSerializer<? extends AgentState> stateSerializer,
+                               double compactionRatio,
+                               @NonNull Executor compactionExecutor ) {
+        this( targetFolder, stateSerializer, CheckpointCompression.none(), compactionRatio, compactionExecutor );
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param targetFolder the folder where the segments are stored
+     * @param stateSerializer the serializer of the checkpoint state
+     * @param compression the compression of the checkpoint states
+     * @param compactionRatio the ratio of the segment size occupied by replaced records that triggers the compaction, in (0,1]
+     * @param compactionExecutor the executor that runs the compaction
+     */
+    @SuppressWarnings("unchecked")
+    public LogStructuredSaver( @NonNull Path targetFolder,
+                               @NonNull StateSerializer<? extends AgentState> stateSerializer,
+                               @NonNull CheckpointCompression compression,
+                               double compactionRatio,
+                               @NonNull Executor compactionExecutor ) {
+        File targetFolderAsFile = targetFolder.toFile();
+
+        if( targetFolderAsFile.exists() ) {
+            if (targetFolderAsFile.isFile()) {
+                throw new IllegalArgumentException( format("targetFolder '%s' must be a folder", targetFolder) );
+            }
+        }
+        else {
+            if( !targetFolderAsFile.mkdirs() ) {
+                throw new IllegalArgumentException( format("targetFolder '%s' cannot be created", targetFolder) );
+            }
+        }
+        if( compactionRatio <= 0 || compactionRatio > 1 ) {
+            throw new IllegalArgumentException( "compactionRatio must be in (0,1]" );
+        }
+
+        this.targetFolder = targetFolder;
+        this.serializer = ByteBufferSerializer.of( new CheckPointSerializer( (StateSerializer<AgentState>) stateSerializer, compression ) );
+        this.compactionRatio = compactionRatio;
+        this.compactionExecutor = compactionExecutor;
+    }
+
+    private ByteBufferOutput recordBuffer() {
+        final var result = recordBuffers.get();
+        if( result == null ) {
+            return ByteBufferOutput.allocateDirect( RECORD_BUFFER_CAPACITY );
+        }
+        recordBuffers.remove();
+        return result.clear();
+    }
+
+    private void releaseRecordBuffer( ByteBufferOutput record ) {
+        if( record.capacity() <= MAX_RETAINED_RECORD_BUFFER_CAPACITY ) {
+            recordBuffers.set( record );
+        }
+    }
+
+    /**
+     * Encodes a whole record, prefix included, into the given output
+     *
+     * @param payload writes the payload of the record, null if the record has no payload
+     * @return the length of the record header
+     */
+    private static int encodeRecord( ByteBufferOutput out, byte type, String id, String replacedId, PayloadWriter payload ) throws IOException {
+        out.clear();
+        out.ensureRemaining( RECORD_PREFIX_SIZE ).putLong( 0 ); // placeholder of length and crc
+        final var header = new DataOutputStream( out.asOutputStream() );
+        header.writeByte( type );
+        header.writeUTF( id );
+        if( replacedId != null ) {
+            header.writeUTF( replacedId );
+        }
+        header.flush();
+        final int headerLength = out.size() - RECORD_PREFIX_SIZE;
+        if( payload != null ) {
+            payload.write( out );
+        }
+
+        final var body = out.content().position( RECORD_PREFIX_SIZE );
+        final var crc = new CRC32();
+        crc.update( body );
+        out.buffer()
+                .putInt( 0, out.size() - RECORD_PREFIX_SIZE )
+                .putInt( Integer.BYTES, (int) crc.getValue() );
+        return headerLength;
+    }
+
+    private String threadIdOf( RunnableConfig config ) {
+        return config.threadId().orElse( "$default" );
+    }
+
+    private Path getFile( String threadId ) {
+        return targetFolder.resolve( format( "thread-%s.log", threadId ) );
+    }
+
+    private ThreadLog getThreadLog( RunnableConfig config ) {
+        return threads.computeIfAbsent( threadIdOf(config), threadId -> {
+            try {
+                return new ThreadLog( getFile(threadId) );
+            }
+            catch( IOException ex ) {
+                throw new UncheckedIOException( format("error opening segment of thread '%s'", threadId), ex );
+            }
+        });
+    }
+
+    @Override
+    public Collection<Checkpoint> list( RunnableConfig config ) {
+        return getThreadLog(config).list();
+    }
+
+    @Override
+    public Optional<Checkpoint> get( RunnableConfig config ) {
+        return getThreadLog(config).get( config.checkPointId() );
+    }
+
+    @Override
+    public RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception {
+        final ThreadLog threadLog = getThreadLog(config);
+        final var record = recordBuffer();
+        try {
+            final byte type = config.checkPointId().isPresent() ? RECORD_REPLACE : RECORD_PUT;
+            final int headerLength = encodeRecord( record, type, checkpoint.getId(), config.checkPointId().orElse(null),
+                                                    out -> serializer.write( checkpoint, out ) );
+            threadLog.put( config.checkPointId(), checkpoint, record, headerLength );
+        }
+        finally {
+            releaseRecordBuffer( record );
+        }
+
+        if( config.checkPointId().isPresent() ) { // Replace Checkpoint
+            if( threadLog.needsCompaction() ) {
+                compact( config );
+            }
+            return config;
+        }
+        return RunnableConfig.builder(config)
+                .checkPointId(checkpoint.getId())
+                .build();
+    }
+
+    /**
+     * Writes the checkpoint on the {@link AsyncCheckpointSaver#defaultExecutor()}, since the write blocks on the file I/O
+     */
+    @Override
+    public CompletableFuture<RunnableConfig> putAsync( RunnableConfig config, Checkpoint checkpoint ) {
+        return CompletableFuture.supplyAsync( () -> {
+            try {
+                return put( config, checkpoint );
+            }
+            catch( Exception ex ) {
+                throw new CompletionException( ex );
+            }
+        }, AsyncCheckpointSaver.defaultExecutor() );
+    }
+
+    @Override
+    public boolean remove( RunnableConfig config ) throws Exception {
+        final String checkPointId = config.checkPointId()
+                .orElseThrow( () -> new IllegalArgumentException("checkPointId cannot be null") );
+        final ThreadLog threadLog = getThreadLog(config);
+        if( !threadLog.remove( checkPointId ) ) {
+            return false;
+        }
+        if( threadLog.needsCompaction() ) {
+            compact( config );
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites in background the segment associated with the given RunnableConfig, discarding the replaced records.
+     *
+     * @param config the RunnableConfig that identifies the thread
+     * @return a future completed when the compaction is done
+     */
+    public CompletableFuture<Void> compact( RunnableConfig config ) {
+        final ThreadLog threadLog = getThreadLog(config);
+        return CompletableFuture.runAsync( () -> {
+            try {
+                threadLog.compact();
+            }
+            catch( IOException ex ) {
+                log.error( "error compacting segment '{}'", threadLog.file, ex );
+                throw new UncheckedIOException( ex );
+            }
+        }, compactionExecutor );
+    }
+
+    /**
+     * Returns the size in bytes of the segment associated with the given RunnableConfig
+     *
+     * @param config the RunnableConfig that identifies the thread
+     * @return the segment size
+     */
+    public long segmentSize( RunnableConfig config ) {
+        final ThreadLog threadLog = getThreadLog(config);
+        threadLog.lock.readLock().lock();
+        try {
+            return threadLog.size;
+        }
+        finally {
+            threadLog.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Clears the segment associated with the given RunnableConfig.
+     *
+     * @param config the RunnableConfig for which the segment should be cleared
+     * @return true if the segment existed and was successfully deleted, false otherwise
+     */
+    @Override
+    public boolean clear( RunnableConfig config ) {
+        final String threadId = threadIdOf(config);
+        final ThreadLog threadLog = threads.remove( threadId );
+        try {
+            if( threadLog != null ) {
+                threadLog.close();
+            }
+            return Files.deleteIfExists( getFile(threadId) );
+        }
+        catch( IOException ex ) {
+            log.warn( "error clearing segment of thread '{}'", threadId, ex );
+            return false;
+        }
+    }
+
+    /**
+     * Closes all the open segments
+     */
+    @Override
+    public void close() throws IOException {
+        for( var threadId : List.copyOf( threads.keySet() ) ) {
+            final ThreadLog threadLog = threads.remove( threadId );
+            if( threadLog != null ) {
+                threadLog.close();
+            }
+        }
+    }
+
+    private static int crcOf( byte[] bytes, int offset, int length ) {
+        final var crc = new CRC32();
+        crc.update( bytes, offset, length );
+        return (int) crc.getValue();
+    }
+}
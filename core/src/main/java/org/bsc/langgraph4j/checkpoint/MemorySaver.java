@@ -3,6 +3,7 @@ package org.bsc.langgraph4j.checkpoint;
 import org.bsc.langgraph4j.RunnableConfig;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.IntStream;
@@ -12,7 +13,7 @@ import static java.util.Collections.unmodifiableCollection;
 import static java.util.Optional.ofNullable;
 
 public class MemorySaver implements BaseCheckpointSaver {
-    private final Map<String, LinkedList<Checkpoint>> _checkpointsByThread = new HashMap<>();
+    private final Map<String, LinkedList<Checkpoint>> _checkpointsByThread = new ConcurrentHashMap<>();
     private final LinkedList<Checkpoint> _defaultCheckpoints = new LinkedList<>();
     private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
     private final Lock r = rwl.readLock();
@@ -87,4 +88,37 @@ public class MemorySaver implements BaseCheckpointSaver {
         }
     }
 
+    @Override
+    public boolean remove(RunnableConfig config) throws Exception {
+        final String checkPointId = config.checkPointId()
+                .orElseThrow( () -> new IllegalArgumentException("checkPointId cannot be null") );
+        final LinkedList<Checkpoint> checkpoints = getCheckpoints(config);
+
+        w.lock();
+        try {
+            return checkpoints.removeIf( checkpoint -> checkpoint.getId().equals(checkPointId) );
+        }
+        finally {
+            w.unlock();
+        }
+    }
+
+    @Override
+    public boolean clear(RunnableConfig config) {
+        w.lock();
+        try {
+            final LinkedList<Checkpoint> checkpoints = config.threadId()
+                    .map( _checkpointsByThread::remove )
+                    .orElse( _defaultCheckpoints );
+            if( checkpoints == null || checkpoints.isEmpty() ) {
+                return false;
+            }
+            checkpoints.clear();
+            return true;
+        }
+        finally {
+            w.unlock();
+        }
+    }
+
 }
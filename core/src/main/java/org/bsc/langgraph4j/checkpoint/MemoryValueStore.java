@@ -0,0 +1,56 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link ValueStore} that keeps the values in memory, to be used with the {@link MemorySaver}.
+ */
+public class MemoryValueStore implements ValueStore {
+
+    private static final class Entry {
+        final byte[] bytes;
+        int references;
+
+        Entry( byte[] bytes ) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final Map<String,Entry> _values = new HashMap<>();
+
+    @Override
+    public synchronized void retain( @NonNull String digest, @NonNull byte[] bytes ) {
+        _values.computeIfAbsent( digest, k -> new Entry( bytes ) ).references++;
+    }
+
+    @Override
+    public synchronized boolean release( @NonNull String digest ) {
+        final Entry entry = _values.get( digest );
+        if( entry == null || --entry.references > 0 ) {
+            return false;
+        }
+        _values.remove( digest );
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<byte[]> get( @NonNull String digest ) {
+        return Optional.ofNullable( _values.get( digest ) ).map( entry -> entry.bytes );
+    }
+
+    @Override
+    public synchronized int references( @NonNull String digest ) {
+        final Entry entry = _values.get( digest );
+        return ( entry != null ) ? entry.references : 0;
+    }
+
+    @Override
+    public synchronized Set<String> digests() {
+        return Set.copyOf( _values.keySet() );
+    }
+}
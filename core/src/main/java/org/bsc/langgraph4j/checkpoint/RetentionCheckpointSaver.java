@@ -0,0 +1,492 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.RunnableConfig;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BaseCheckpointSaver} decorator that bounds the checkpoints stored by the delegate saver,
+ * according to a {@link RetentionPolicy}.
+ * <p>
+ * The evictions are evaluated on each {@link #put(RunnableConfig, Checkpoint)} and performed through
+ * {@link BaseCheckpointSaver#remove(RunnableConfig)} and {@link BaseCheckpointSaver#clear(RunnableConfig)}
+ * of the delegate, so it must support them.
+ * The bookkeeping of a thread already stored by the delegate (ie. a persistent saver) is loaded the first time
+ * the thread is accessed.
+ * <p>
+ * The checkpoints tagged through {@link #tag(RunnableConfig)} are kept regardless of the per thread limit,
+ * they are removed only with their thread.
+ */
+@Slf4j
+public class RetentionCheckpointSaver implements BaseCheckpointSaver {
+
+    private static final String DEFAULT_THREAD_ID = "$default";
+
+    /**
+     * Bookkeeping of a thread
+     */
+    private static final class ThreadInfo {
+        final RunnableConfig config;
+        LinkedHashMap<String,Long> sizes = new LinkedHashMap<>(); // oldest first
+        final Set<String> tagged = new HashSet<>();
+        long bytes;
+        long lastAccess;
+
+        ThreadInfo( RunnableConfig config ) {
+            this.config = config;
+        }
+
+        String latest() {
+            String result = null;
+            for( String id : sizes.keySet() ) {
+                result = id;
+            }
+            return result;
+        }
+
+        /**
+         * @return the oldest checkpoint id that is neither tagged nor the latest, or null
+         */
+        String oldestEvictable() {
+            final String latest = latest();
+            for( String id : sizes.keySet() ) {
+                if( !tagged.contains(id) && !id.equals(latest) ) {
+                    return id;
+                }
+            }
+            return null;
+        }
+
+        long removeCheckpoint( String id ) {
+            final Long size = sizes.remove( id );
+            tagged.remove( id );
+            if( size == null ) {
+                return 0;
+            }
+            bytes -= size;
+            return size;
+        }
+    }
+
+    private final BaseCheckpointSaver delegate;
+    private final RetentionPolicy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String,ThreadInfo> threads = new LinkedHashMap<>( 16, 0.75f, true ); // access order
+    private long totalBytes;
+    private long evictedCheckpoints;
+    private long evictedThreads;
+    private long expiredThreads;
+    private long memoryEvictedCheckpoints;
+    private long memoryEvictedThreads;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate the saver where the checkpoints are stored, it must support the removals
+     * @param policy the retention policy
+     */
+    public RetentionCheckpointSaver( BaseCheckpointSaver delegate, RetentionPolicy policy ) {
+        this.delegate = requireNonNull( delegate, "delegate cannot be null" );
+        this.policy = requireNonNull( policy, "policy cannot be null" );
+    }
+
+    /**
+     * @return the saver where the checkpoints are stored
+     */
+    public BaseCheckpointSaver delegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the retention policy
+     */
+    public RetentionPolicy policy() {
+        return policy;
+    }
+
+    private static String threadIdOf( RunnableConfig config ) {
+        return config.threadId().orElse( DEFAULT_THREAD_ID );
+    }
+
+    private static RunnableConfig threadConfigOf( RunnableConfig config ) {
+        return config.threadId()
+                .map( threadId -> RunnableConfig.builder().threadId( threadId ).build() )
+                .orElseGet( () -> RunnableConfig.builder().build() );
+    }
+
+    private long now() {
+        return policy.clock().millis();
+    }
+
+    /**
+     * Returns the bookkeeping of the thread, loading it from the delegate if it is not tracked yet.
+     * Must be called holding the lock.
+     */
+    private ThreadInfo track( RunnableConfig config, Collection<Checkpoint> stored ) {
+        final String threadId = threadIdOf(config);
+        ThreadInfo info = threads.get( threadId );
+        if( info == null ) {
+            info = new ThreadInfo( threadConfigOf(config) );
+            final var checkpoints = new ArrayList<>( stored );
+            for( int i = checkpoints.size() - 1; i >= 0; --i ) { // oldest first
+                final var checkpoint = checkpoints.get(i);
+                final long size = policy.maxBytes().isPresent() ? policy.sizeEstimator().applyAsLong( checkpoint ) : 0L;
+                info.sizes.put( checkpoint.getId(), size );
+                info.bytes += size;
+            }
+            totalBytes += info.bytes;
+            threads.put( threadId, info );
+        }
+        info.lastAccess = now();
+        return info;
+    }
+
+    /**
+     * Ensures that the thread is tracked, loading the stored checkpoints from the delegate out of the lock
+     */
+    private void ensureTracked( RunnableConfig config ) {
+        lock.lock();
+        try {
+            if( threads.containsKey( threadIdOf(config) ) ) {
+                return;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        final Collection<Checkpoint> stored = delegate.list( threadConfigOf(config) );
+        lock.lock();
+        try {
+            track( config, stored );
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void touch( RunnableConfig config ) {
+        lock.lock();
+        try {
+            final ThreadInfo info = threads.get( threadIdOf(config) );
+            if( info != null ) {
+                info.lastAccess = now();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Checkpoint> list( RunnableConfig config ) {
+        touch( config );
+        return delegate.list( config );
+    }
+
+    @Override
+    public Optional<Checkpoint> get( RunnableConfig config ) {
+        touch( config );
+        return delegate.get( config );
+    }
+
+    @Override
+    public RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception {
+        requireNonNull( checkpoint, "checkpoint cannot be null" );
+        ensureTracked( config );
+
+        final RunnableConfig result = delegate.put( config, checkpoint );
+        final long size = policy.maxBytes().isPresent() ? policy.sizeEstimator().applyAsLong( checkpoint ) : 0L;
+
+        final List<RunnableConfig> evictedCheckpointConfigs = new ArrayList<>();
+        final List<RunnableConfig> evictedThreadConfigs = new ArrayList<>();
+
+        lock.lock();
+        try {
+            final ThreadInfo info = track( config, List.of() );
+
+            if( config.checkPointId().isPresent() ) { // Replace Checkpoint
+                replace( info, config.checkPointId().get(), checkpoint.getId(), size );
+            }
+            else {
+                info.sizes.put( checkpoint.getId(), size );
+            }
+            info.bytes += size;
+            totalBytes += size;
+
+            evict( info, evictedCheckpointConfigs, evictedThreadConfigs );
+        }
+        finally {
+            lock.unlock();
+        }
+
+        removeFromDelegate( evictedCheckpointConfigs, evictedThreadConfigs );
+        return result;
+    }
+
+    private void replace( ThreadInfo info, String replacedId, String newId, long size ) {
+        if( replacedId.equals( newId ) ) {
+            final Long replacedSize = info.sizes.put( newId, size );
+            if( replacedSize != null ) {
+                info.bytes -= replacedSize;
+                totalBytes -= replacedSize;
+            }
+            return;
+        }
+        // keep the position of the replaced checkpoint
+        final boolean wasTagged = info.tagged.contains( replacedId );
+        final var sizes = new LinkedHashMap<String,Long>();
+        for( var entry : info.sizes.entrySet() ) {
+            if( entry.getKey().equals( replacedId ) ) {
+                info.bytes -= entry.getValue();
+                totalBytes -= entry.getValue();
+                sizes.put( newId, size );
+            }
+            else {
+                sizes.put( entry.getKey(), entry.getValue() );
+            }
+        }
+        info.sizes = sizes;
+        info.tagged.remove( replacedId );
+        if( wasTagged ) {
+            info.tagged.add( newId );
+        }
+    }
+
+    /**
+     * Selects and removes from the bookkeeping the checkpoints and the threads to evict.
+     * Must be called holding the lock.
+     */
+    private void evict( ThreadInfo current, List<RunnableConfig> checkpointConfigs, List<RunnableConfig> threadConfigs ) {
+        // per thread limit
+        if( policy.maxCheckpointsPerThread().isPresent() ) {
+            final int max = policy.maxCheckpointsPerThread().getAsInt();
+            while( current.sizes.size() - current.tagged.size() > max ) {
+                final String id = current.oldestEvictable();
+                if( id == null ) {
+                    break;
+                }
+                totalBytes -= current.removeCheckpoint( id );
+                checkpointConfigs.add( RunnableConfig.builder( current.config ).checkPointId( id ).build() );
+                ++evictedCheckpoints;
+            }
+        }
+
+        // idle threads
+        if( policy.threadTtl().isPresent() ) {
+            final long expiration = now() - policy.threadTtl().get().toMillis();
+            final var iterator = threads.values().iterator(); // least recently accessed first
+            while( iterator.hasNext() ) {
+                final ThreadInfo info = iterator.next();
+                if( info == current || info.lastAccess > expiration ) {
+                    break;
+                }
+                iterator.remove();
+                totalBytes -= info.bytes;
+                threadConfigs.add( info.config );
+                ++expiredThreads;
+            }
+        }
+
+        // least recently used threads
+        if( policy.maxThreads().isPresent() ) {
+            final int max = policy.maxThreads().getAsInt();
+            final var iterator = threads.values().iterator();
+            while( threads.size() > max && iterator.hasNext() ) {
+                final ThreadInfo info = iterator.next();
+                if( info == current ) {
+                    continue;
+                }
+                iterator.remove();
+                totalBytes -= info.bytes;
+                threadConfigs.add( info.config );
+                ++evictedThreads;
+            }
+        }
+
+        // memory
+        if( policy.maxBytes().isPresent() ) {
+            final long max = policy.maxBytes().getAsLong();
+            final var iterator = threads.values().iterator();
+            while( totalBytes > max && iterator.hasNext() ) {
+                final ThreadInfo info = iterator.next();
+                if( info == current ) {
+                    continue;
+                }
+                iterator.remove();
+                totalBytes -= info.bytes;
+                threadConfigs.add( info.config );
+                ++memoryEvictedThreads;
+            }
+            while( totalBytes > max ) {
+                final String id = current.oldestEvictable();
+                if( id == null ) {
+                    log.warn( "the checkpoints of thread '{}' exceed the max size of {} bytes", threadIdOf( current.config ), max );
+                    break;
+                }
+                totalBytes -= current.removeCheckpoint( id );
+                checkpointConfigs.add( RunnableConfig.builder( current.config ).checkPointId( id ).build() );
+                ++memoryEvictedCheckpoints;
+            }
+        }
+    }
+
+    private void removeFromDelegate( List<RunnableConfig> checkpointConfigs, List<RunnableConfig> threadConfigs ) {
+        for( var config : checkpointConfigs ) {
+            try {
+                delegate.remove( config );
+            }
+            catch( Exception ex ) {
+                log.error( "error evicting checkpoint {} of thread '{}'", config.checkPointId().orElse(null), threadIdOf(config), ex );
+            }
+        }
+        for( var config : threadConfigs ) {
+            try {
+                delegate.clear( config );
+            }
+            catch( Exception ex ) {
+                log.error( "error evicting thread '{}'", threadIdOf(config), ex );
+            }
+        }
+    }
+
+    /**
+     * Evicts the threads that exceeded the time to live. It is called on each put, but it may be also
+     * scheduled to reclaim the threads when there are no writes.
+     *
+     * @return the number of evicted threads
+     */
+    public int evictExpired() {
+        if( policy.threadTtl().isEmpty() ) {
+            return 0;
+        }
+        final List<RunnableConfig> threadConfigs = new ArrayList<>();
+        lock.lock();
+        try {
+            final long expiration = now() - policy.threadTtl().get().toMillis();
+            final var iterator = threads.values().iterator();
+            while( iterator.hasNext() ) {
+                final ThreadInfo info = iterator.next();
+                if( info.lastAccess > expiration ) {
+                    break;
+                }
+                iterator.remove();
+                totalBytes -= info.bytes;
+                threadConfigs.add( info.config );
+                ++expiredThreads;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        removeFromDelegate( List.of(), threadConfigs );
+        return threadConfigs.size();
+    }
+
+    /**
+     * Tags the checkpoint identified by the checkPointId of the given RunnableConfig, so it is kept
+     * regardless of the per thread limit.
+     *
+     * @param config the RunnableConfig that identifies the thread and the checkpoint
+     * @return true if the checkpoint exists, false otherwise
+     */
+    public boolean tag( RunnableConfig config ) {
+        final String checkPointId = config.checkPointId()
+                .orElseThrow( () -> new IllegalArgumentException("checkPointId cannot be null") );
+        ensureTracked( config );
+        lock.lock();
+        try {
+            final ThreadInfo info = track( config, List.of() );
+            if( !info.sizes.containsKey( checkPointId ) ) {
+                return false;
+            }
+            info.tagged.add( checkPointId );
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the tag from the checkpoint identified by the checkPointId of the given RunnableConfig.
+     * The checkpoint will be evicted by the next put, if it exceeds the per thread limit.
+     *
+     * @param config the RunnableConfig that identifies the thread and the checkpoint
+     * @return true if the checkpoint was tagged, false otherwise
+     */
+    public boolean untag( RunnableConfig config ) {
+        final String checkPointId = config.checkPointId()
+                .orElseThrow( () -> new IllegalArgumentException("checkPointId cannot be null") );
+        lock.lock();
+        try {
+            final ThreadInfo info = threads.get( threadIdOf(config) );
+            return info != null && info.tagged.remove( checkPointId );
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove( RunnableConfig config ) throws Exception {
+        final String checkPointId = config.checkPointId()
+                .orElseThrow( () -> new IllegalArgumentException("checkPointId cannot be null") );
+        lock.lock();
+        try {
+            final ThreadInfo info = threads.get( threadIdOf(config) );
+            if( info != null ) {
+                totalBytes -= info.removeCheckpoint( checkPointId );
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return delegate.remove( config );
+    }
+
+    @Override
+    public boolean clear( RunnableConfig config ) {
+        lock.lock();
+        try {
+            final ThreadInfo info = threads.remove( threadIdOf(config) );
+            if( info != null ) {
+                totalBytes -= info.bytes;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return delegate.clear( config );
+    }
+
+    /**
+     * @return a snapshot of the occupancy and eviction statistics
+     */
+    public RetentionStats stats() {
+        lock.lock();
+        try {
+            long checkpoints = 0;
+            long tagged = 0;
+            for( ThreadInfo info : threads.values() ) {
+                checkpoints += info.sizes.size();
+                tagged += info.tagged.size();
+            }
+            return new RetentionStats( threads.size(),
+                    checkpoints,
+                    tagged,
+                    totalBytes,
+                    evictedCheckpoints,
+                    evictedThreads,
+                    expiredThreads,
+                    memoryEvictedCheckpoints,
+                    memoryEvictedThreads );
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable limits applied by {@link RetentionCheckpointSaver} to the stored checkpoints.
+ * Every limit is disabled by default.
+ */
+public final class RetentionPolicy {
+
+    /**
+     * max number of sizes memoized by {@link #serializedSize(StateSerializer)}
+     */
+    private static final int SIZE_CACHE_CAPACITY = 10_000;
+
+    private final int maxCheckpointsPerThread;
+    private final int maxThreads;
+    private final Duration threadTtl;
+    private final long maxBytes;
+    private final ToLongFunction<Checkpoint> sizeEstimator;
+    private final Clock clock;
+
+    /**
+     * Returns the max number of checkpoints kept for each thread, excluding the tagged ones.
+     * The latest checkpoint of a thread is never evicted.
+     *
+     * @return an optional max number of checkpoints
+     */
+    public OptionalInt maxCheckpointsPerThread() {
+        return ( maxCheckpointsPerThread > 0 ) ? OptionalInt.of(maxCheckpointsPerThread) : OptionalInt.empty();
+    }
+
+    /**
+     * Returns the max number of threads kept, the least recently used ones are evicted first.
+     *
+     * @return an optional max number of threads
+     */
+    public OptionalInt maxThreads() {
+        return ( maxThreads > 0 ) ? OptionalInt.of(maxThreads) : OptionalInt.empty();
+    }
+
+    /**
+     * Returns the time after which a thread not accessed is evicted.
+     *
+     * @return an optional time to live
+     */
+    public Optional<Duration> threadTtl() {
+        return Optional.ofNullable(threadTtl);
+    }
+
+    /**
+     * Returns the max estimated size in bytes of all the checkpoints.
+     * When it is exceeded the least recently used threads are evicted first, then the oldest checkpoints
+     * of the thread being written.
+     *
+     * @return an optional max size in bytes
+     */
+    public OptionalLong maxBytes() {
+        return ( maxBytes > 0 ) ? OptionalLong.of(maxBytes) : OptionalLong.empty();
+    }
+
+    /**
+     * Returns the function that estimates the size in bytes of a checkpoint
+     *
+     * @return the size estimator, it returns 0 if {@link #maxBytes()} is not set
+     */
+    public ToLongFunction<Checkpoint> sizeEstimator() {
+        return ( sizeEstimator != null ) ? sizeEstimator : checkpoint -> 0L;
+    }
+
+    /**
+     * @return the clock used to evaluate the thread time to live
+     */
+    public Clock clock() {
+        return clock;
+    }
+
+    /**
+     * Returns a size estimator that measures the serialized size of the checkpoints.
+     * The size is memoized per checkpoint id, for the most recently measured checkpoints, and measured again when
+     * a checkpoint with the same id holds another state (ie. it has been replaced).
+     *
+     * @param stateSerializer the serializer of the checkpoint state
+     * @return the size estimator
+     */
+    @SuppressWarnings("unchecked")
+    public static ToLongFunction<Checkpoint> serializedSize( StateSerializer<? extends AgentState> stateSerializer ) {
+        final Serializer<Checkpoint> serializer = new CheckPointSerializer( (StateSerializer<AgentState>) stateSerializer );
+        final Map<String,MeasuredSize> sizes = Collections.synchronizedMap( new LinkedHashMap<>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String,MeasuredSize> eldest ) {
+                return size() > SIZE_CACHE_CAPACITY;
+            }
+        });
+        return checkpoint -> {
+            final MeasuredSize measured = sizes.get( checkpoint.getId() );
+            if( measured != null && measured.state().get() == checkpoint.getState() ) {
+                return measured.size();
+            }
+            final long size;
+            try {
+                size = serializer.writeObject( checkpoint ).length;
+            }
+            catch( IOException ex ) {
+                throw new UncheckedIOException( ex );
+            }
+            sizes.put( checkpoint.getId(), new MeasuredSize( new WeakReference<>( checkpoint.getState() ), size ) );
+            return size;
+        };
+    }
+
+    /**
+     * @param state the measured state, weakly referenced to tell if a checkpoint with the same id has been replaced
+     * @param size the serialized size of the checkpoint
+     */
+    private record MeasuredSize( WeakReference<Map<String,Object>> state, long size ) {}
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxCheckpointsPerThread = 0;
+        private int maxThreads = 0;
+        private Duration threadTtl = null;
+        private long maxBytes = 0;
+        private ToLongFunction<Checkpoint> sizeEstimator = null;
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Sets the max number of checkpoints kept for each thread, excluding the tagged ones
+         *
+         * @param maxCheckpointsPerThread the max number of checkpoints, greater than 0
+         * @return this builder
+         */
+        public Builder maxCheckpointsPerThread( int maxCheckpointsPerThread ) {
+            if( maxCheckpointsPerThread < 1 ) {
+                throw new IllegalArgumentException( "maxCheckpointsPerThread must be greater than 0" );
+            }
+            this.maxCheckpointsPerThread = maxCheckpointsPerThread;
+            return this;
+        }
+
+        /**
+         * Sets the max number of threads kept
+         *
+         * @param maxThreads the max number of threads, greater than 0
+         * @return this builder
+         */
+        public Builder maxThreads( int maxThreads ) {
+            if( maxThreads < 1 ) {
+                throw new IllegalArgumentException( "maxThreads must be greater than 0" );
+            }
+            this.maxThreads = maxThreads;
+            return this;
+        }
+
+        /**
+         * Sets the time after which a thread not accessed is evicted
+         *
+         * @param threadTtl the time to live, positive
+         * @return this builder
+         */
+        public Builder threadTtl( Duration threadTtl ) {
+            Objects.requireNonNull( threadTtl, "threadTtl cannot be null" );
+            if( threadTtl.isZero() || threadTtl.isNegative() ) {
+                throw new IllegalArgumentException( "threadTtl must be positive" );
+            }
+            this.threadTtl = threadTtl;
+            return this;
+        }
+
+        /**
+         * Sets the max estimated size in bytes of all the checkpoints
+         *
+         * @param maxBytes the max size in bytes, greater than 0
+         * @param sizeEstimator the function that estimates the size of a checkpoint
+         * @return this builder
+         * @see #serializedSize(StateSerializer)
+         */
+        public Builder maxBytes( long maxBytes, ToLongFunction<Checkpoint> sizeEstimator ) {
+            if( maxBytes < 1 ) {
+                throw new IllegalArgumentException( "maxBytes must be greater than 0" );
+            }
+            this.maxBytes = maxBytes;
+            this.sizeEstimator = Objects.requireNonNull( sizeEstimator, "sizeEstimator cannot be null" );
+            return this;
+        }
+
+        /**
+         * Sets the clock used to evaluate the thread time to live
+         *
+         * @param clock the clock
+         * @return this builder
+         */
+        public Builder clock( Clock clock ) {
+            this.clock = Objects.requireNonNull( clock, "clock cannot be null" );
+            return this;
+        }
+
+        /**
+         * @return a new policy with the current settings, later changes of this builder don't affect it
+         */
+        public RetentionPolicy build() {
+            return new RetentionPolicy( this );
+        }
+    }
+
+    private RetentionPolicy( Builder builder ) {
+        this.maxCheckpointsPerThread = builder.maxCheckpointsPerThread;
+        this.maxThreads = builder.maxThreads;
+        this.threadTtl = builder.threadTtl;
+        this.maxBytes = builder.maxBytes;
+        this.sizeEstimator = builder.sizeEstimator;
+        this.clock = builder.clock;
+    }
+}
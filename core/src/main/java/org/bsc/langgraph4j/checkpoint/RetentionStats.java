@@ -0,0 +1,25 @@
+package org.bsc.langgraph4j.checkpoint;
+
+/**
+ * Occupancy and eviction statistics of a {@link RetentionCheckpointSaver}
+ *
+ * @param threads the number of threads currently stored
+ * @param checkpoints the number of checkpoints currently stored
+ * @param taggedCheckpoints the number of tagged checkpoints currently stored
+ * @param bytes the estimated size in bytes of the stored checkpoints
+ * @param evictedCheckpoints the number of checkpoints evicted because they exceeded the per thread limit
+ * @param evictedThreads the number of threads evicted because they exceeded the max number of threads
+ * @param expiredThreads the number of threads evicted because they exceeded the time to live
+ * @param memoryEvictedCheckpoints the number of checkpoints evicted because they exceeded the max size
+ * @param memoryEvictedThreads the number of threads evicted because they exceeded the max size
+ */
+public record RetentionStats( int threads,
+                              long checkpoints,
+                              long taggedCheckpoints,
+                              long bytes,
+                              long evictedCheckpoints,
+                              long evictedThreads,
+                              long expiredThreads,
+                              long memoryEvictedCheckpoints,
+                              long memoryEvictedThreads ) {
+}
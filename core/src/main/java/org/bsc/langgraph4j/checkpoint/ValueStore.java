@@ -0,0 +1,54 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A content-addressed store of the serialized state values shared by the checkpoints,
+ * used by the {@link ContentAddressedCheckpointSaver}.
+ * <p>
+ * Each value is identified by the digest of its bytes and holds the number of checkpoints that reference it:
+ * it is stored by the first {@link #retain(String, byte[])} and deleted by the {@link #release(String)}
+ * that drops the last reference.
+ */
+public interface ValueStore {
+
+    /**
+     * Adds a reference to the value, storing it if it is not present yet.
+     *
+     * @param digest the digest of the value
+     * @param bytes the serialized value
+     * @throws IOException if the value cannot be stored
+     */
+    void retain( String digest, byte[] bytes ) throws IOException;
+
+    /**
+     * Removes a reference to the value, deleting it when there are no more references.
+     *
+     * @param digest the digest of the value
+     * @return true if the value has been deleted
+     * @throws IOException if the value cannot be updated
+     */
+    boolean release( String digest ) throws IOException;
+
+    /**
+     * @param digest the digest of the value
+     * @return the serialized value, if present
+     * @throws IOException if the value cannot be read
+     */
+    Optional<byte[]> get( String digest ) throws IOException;
+
+    /**
+     * @param digest the digest of the value
+     * @return the number of references to the value, 0 if it is not present
+     * @throws IOException if the value cannot be read
+     */
+    int references( String digest ) throws IOException;
+
+    /**
+     * @return the digests of the stored values
+     * @throws IOException if the store cannot be read
+     */
+    Set<String> digests() throws IOException;
+}
@@ -1,45 +1,167 @@
 package org.bsc.langgraph4j.internal.node;
 
+import org.bsc.langgraph4j.CompileConfig;
 import org.bsc.langgraph4j.RunnableConfig;
 import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
 import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.CommutativeChannel;
+import org.bsc.langgraph4j.utils.LimitedExecutor;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static java.lang.String.format;
 
 public class ParallelNode<State extends AgentState> extends Node<State> {
     public static final String PARALLEL_PREFIX = "__PARALLEL__";
 
+    /**
+     * Lazy holder of the default executor: virtual threads when the runtime supports them (JDK 21+),
+     * otherwise a cached pool of daemon threads.
+     */
+    private static final class DefaultExecutorHolder {
+        static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) method.invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                final var count = new AtomicInteger();
+                final ThreadFactory factory = runnable -> {
+                    var thread = new Thread(runnable, format("langgraph4j-parallel-%d", count.incrementAndGet()));
+                    thread.setDaemon(true);
+                    return thread;
+                };
+                return Executors.newCachedThreadPool(factory);
+            }
+        }
+    }
+
+    /**
+     * Returns the executor used by default to run the parallel branches.
+     *
+     * @return the default executor
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the executor to use to run the parallel branches according to the given configuration.
+     * The returned executor should be shared by all the parallel nodes of a graph so that the max parallelism
+     * is applied graph-wide.
+     *
+     * @param config the compile configuration
+     * @return the executor to use
+     */
+    public static Executor executorOf(CompileConfig config) {
+        final var executor = config.parallelExecutor().orElseGet(ParallelNode::defaultExecutor);
+        final var maxParallelism = config.maxParallelism();
+        if( maxParallelism.isPresent() ) {
+            return new LimitedExecutor(executor, maxParallelism.getAsInt());
+        }
+        return executor;
+    }
+
     record AsyncParallelNodeAction<State extends AgentState>(
             List<AsyncNodeActionWithConfig<State>> actions,
-            Map<String, Channel<?>> channels ) implements AsyncNodeActionWithConfig<State> {
+            Map<String, Channel<?>> channels,
+            Executor executor ) implements AsyncNodeActionWithConfig<State> {
+
+        /**
+         * Creates the accumulators of the commutative channels, if any
+         */
+        private Map<String, CommutativeChannel.Accumulator> newAccumulators() {
+            Map<String, CommutativeChannel.Accumulator> result = null;
+            if( channels != null ) {
+                for( var entry : channels.entrySet() ) {
+                    if( entry.getValue() instanceof CommutativeChannel<?> channel ) {
+                        if( result == null ) {
+                            result = new HashMap<>();
+                        }
+                        result.put( entry.getKey(), channel.newAccumulator( actions.size() ) );
+                    }
+                }
+            }
+            return ( result != null ) ? result : Map.of();
+        }
+
+        /**
+         * Accumulates the updates of the commutative channels as soon as the branch completes
+         *
+         * @return the other updates of the branch
+         */
+        private static Map<String, Object> accumulate( int branch, Map<String, Object> partialState,
+                                                       Map<String, CommutativeChannel.Accumulator> accumulators ) {
+            if( accumulators.isEmpty() || partialState == null ) {
+                return partialState;
+            }
+            Map<String, Object> result = partialState;
+            for( var entry : partialState.entrySet() ) {
+                final var accumulator = accumulators.get( entry.getKey() );
+                if( accumulator != null ) {
+                    accumulator.accumulate( branch, entry.getValue() );
+                    if( result == partialState ) {
+                        result = new HashMap<>( partialState );
+                    }
+                    result.remove( entry.getKey() );
+                }
+            }
+            return result;
+        }
 
         @Override
+        @SuppressWarnings("unchecked")
         public CompletableFuture<Map<String, Object>> apply(State state, RunnableConfig config) {
-            final var partialMergedStates = new HashMap<String, Object>();
-            var futures = actions.stream()
-                    .map(action ->
-                            action.apply(state, config).thenApply(partialState -> {
-                                var updatedState = AgentState.updateState( partialMergedStates, partialState, channels);
-                                partialMergedStates.putAll(updatedState);
-                                return action;
-                            }) )
-                    //.map( future -> supplyAsync(future::join) )
-                    .toList()
-                    .toArray(new CompletableFuture[0]);
+            final var accumulators = newAccumulators();
+            final CompletableFuture<Map<String, Object>>[] futures = new CompletableFuture[ actions.size() ];
+            for( int i = 0; i < futures.length; ++i ) {
+                final int branch = i;
+                final var action = actions.get(i);
+                // a limited executor holds the branch slot until its future completes
+                final CompletableFuture<Map<String, Object>> branchFuture = ( executor instanceof LimitedExecutor limited ) ?
+                        limited.supplyAsync(() -> action.apply(state, config)) :
+                        CompletableFuture.supplyAsync(() -> action.apply(state, config), executor)
+                                .thenCompose(Function.identity());
+                futures[i] = branchFuture.thenApply( partialState -> accumulate( branch, partialState, accumulators ) );
+            }
+
             return CompletableFuture.allOf(futures)
-                    .thenApply((p) -> partialMergedStates);
+                    .thenApply( v -> {
+                        // merge in branch order, so the result doesn't depend on the completion order
+                        Map<String, Object> partialMergedStates = new HashMap<>();
+                        for( var future : futures ) {
+                            partialMergedStates = AgentState.updateState( partialMergedStates, future.join(), channels);
+                        }
+                        // the commutative channels have been accumulated by the branches
+                        for( var entry : accumulators.entrySet() ) {
+                            final Object result = entry.getValue().result();
+                            if( result != null ) {
+                                partialMergedStates.put( entry.getKey(), result );
+                            }
+                        }
+                        return partialMergedStates;
+                    });
         }
 
     }
 
     public ParallelNode(String id, List<AsyncNodeActionWithConfig<State>> actions, Map<String, Channel<?>> channels) {
-        super(format( "%s(%s)", PARALLEL_PREFIX, id), (config ) -> new AsyncParallelNodeAction<>( actions, channels ));
+        super(format( "%s(%s)", PARALLEL_PREFIX, id), (config ) -> new AsyncParallelNodeAction<>( actions, channels, executorOf(config) ));
+    }
+
+    public ParallelNode(String id, List<AsyncNodeActionWithConfig<State>> actions, Map<String, Channel<?>> channels, Executor executor) {
+        super(format( "%s(%s)", PARALLEL_PREFIX, id), (config ) -> new AsyncParallelNodeAction<>( actions, channels, executor ));
     }
 
     @Override
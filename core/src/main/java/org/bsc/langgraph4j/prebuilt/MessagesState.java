@@ -1,25 +1,41 @@
 package org.bsc.langgraph4j.prebuilt;
 
 import org.bsc.langgraph4j.state.AgentState;
-import org.bsc.langgraph4j.state.AppenderChannel;
 import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.PersistentAppenderChannel;
+import org.bsc.langgraph4j.state.WindowChannel;
 
 import java.util.List;
-import java.util.ArrayList;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Represents the agent's state as a collection of messages
+ * <p>
+ * The messages are accumulated by a {@link PersistentAppenderChannel}, so appending a message doesn't copy
+ * the previous ones and the returned list is immutable.
  *
  * @param <T> the type of messages stored in this state
  */
 public class MessagesState<T> extends AgentState {
 
     public static final Map<String, Channel<?>> SCHEMA = Map.of(
-            "messages", AppenderChannel.of(ArrayList::new)
+            "messages", PersistentAppenderChannel.of()
     );
 
+    /**
+     * Returns the schema of a messages state whose messages are accumulated by the given channel
+     * (ie. a {@link WindowChannel} that keeps only the most recent messages).
+     *
+     * @param messagesChannel the channel of the "messages" key
+     * @param <T> the type of messages
+     * @return the schema
+     */
+    public static <T> Map<String, Channel<?>> schema( Channel<List<T>> messagesChannel ) {
+        return Map.of( "messages", Objects.requireNonNull( messagesChannel, "messagesChannel cannot be null" ) );
+    }
+
     /**
      * Constructs a new instance of MessagesState with the provided initial data.
      *
@@ -2,6 +2,10 @@ package org.bsc.langgraph4j.prebuilt;
 
 import org.bsc.langgraph4j.StateGraph;
 import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.WindowChannel;
+
+import java.util.List;
 
 /**
  * Represents a state graph with messages for generic type T.
@@ -20,6 +24,25 @@ public class MessagesStateGraph<T> extends StateGraph< MessagesState<T>> {
         super(MessagesState.SCHEMA, stateSerializer);
     }
 
+    /**
+     * Constructs a new instance of {@code MessagesStateGraph} whose messages are accumulated by the given channel.
+     *
+     * @param messagesChannel the channel of the messages (ie. a {@link WindowChannel} to bound the history)
+     * @param stateSerializer the serializer for messages states, must not be null
+     */
+    public MessagesStateGraph( Channel<List<T>> messagesChannel, StateSerializer<MessagesState<T>> stateSerializer) {
+        super(MessagesState.schema(messagesChannel), stateSerializer);
+    }
+
+    /**
+     * Constructs a new instance of {@code MessagesStateGraph} whose messages are accumulated by the given channel.
+     *
+     * @param messagesChannel the channel of the messages (ie. a {@link WindowChannel} to bound the history)
+     */
+    public MessagesStateGraph( Channel<List<T>> messagesChannel ) {
+        super(MessagesState.schema(messagesChannel), MessagesState::new);
+    }
+
     /**
      * Default constructor that initializes a new instance of {@link MessagesStateGraph}.
      * This constructor uses the default schema and constructor from the base class.
@@ -0,0 +1,135 @@
+package org.bsc.langgraph4j.serializer;
+
+import lombok.NonNull;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Growable {@link ByteBuffer}, heap or direct, written by a {@link ByteBufferSerializer}.
+ * <p>
+ * The content is the range {@code [0, size())} of the underlying buffer, whose position is kept at the end
+ * of the content. The instance can be reused after {@link #clear()}. It is not thread safe.
+ */
+public final class ByteBufferOutput {
+
+    private final boolean direct;
+    private ByteBuffer buffer;
+    private OutputStream stream;
+
+    private ByteBufferOutput( ByteBuffer buffer ) {
+        this.buffer = buffer;
+        this.direct = buffer.isDirect();
+    }
+
+    /**
+     * @param capacity the initial capacity
+     * @return a new output backed by a heap buffer
+     */
+    public static ByteBufferOutput allocate( int capacity ) {
+        return new ByteBufferOutput( ByteBuffer.allocate( capacity ) );
+    }
+
+    /**
+     * @param capacity the initial capacity
+     * @return a new output backed by a direct buffer, suitable to be written to a channel without further copies
+     */
+    public static ByteBufferOutput allocateDirect( int capacity ) {
+        return new ByteBufferOutput( ByteBuffer.allocateDirect( capacity ) );
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * @return the size of the content
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns the underlying buffer, positioned at the end of the content, making room for at least the given bytes.
+     * The buffer can be replaced by a larger one, so it must not be retained across calls.
+     *
+     * @param bytes the number of bytes to be written
+     * @return the underlying buffer
+     */
+    public ByteBuffer ensureRemaining( int bytes ) {
+        if( buffer.remaining() < bytes ) {
+            final long required = (long)buffer.position() + bytes;
+            if( required > Integer.MAX_VALUE ) {
+                throw new IllegalStateException( "buffer size exceeds the max capacity" );
+            }
+            final int capacity = (int)Math.min( Integer.MAX_VALUE, Math.max( required, (long)buffer.capacity() << 1 ) );
+            final ByteBuffer larger = direct ? ByteBuffer.allocateDirect( capacity ) : ByteBuffer.allocate( capacity );
+            larger.put( buffer.flip() );
+            buffer = larger;
+        }
+        return buffer;
+    }
+
+    /**
+     * @return the underlying buffer, positioned at the end of the content
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public ByteBufferOutput write( int b ) {
+        ensureRemaining( 1 ).put( (byte)b );
+        return this;
+    }
+
+    public ByteBufferOutput write( @NonNull byte[] b, int off, int len ) {
+        ensureRemaining( len ).put( b, off, len );
+        return this;
+    }
+
+    public ByteBufferOutput write( @NonNull ByteBuffer src ) {
+        ensureRemaining( src.remaining() ).put( src );
+        return this;
+    }
+
+    /**
+     * @return a view of the content, from position 0 to {@link #size()}, sharing the underlying buffer
+     */
+    public ByteBuffer content() {
+        return buffer.duplicate().flip();
+    }
+
+    /**
+     * Discards the content, retaining the capacity
+     *
+     * @return this output
+     */
+    public ByteBufferOutput clear() {
+        buffer.clear();
+        return this;
+    }
+
+    /**
+     * @return an output stream appending to this output
+     */
+    public OutputStream asOutputStream() {
+        if( stream == null ) {
+            stream = new OutputStream() {
+                @Override
+                public void write( int b ) {
+                    ByteBufferOutput.this.write( b );
+                }
+
+                @Override
+                public void write( byte[] b, int off, int len ) {
+                    ByteBufferOutput.this.write( b, off, len );
+                }
+            };
+        }
+        return stream;
+    }
+}
@@ -0,0 +1,102 @@
+package org.bsc.langgraph4j.serializer;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Serialization contract based on {@link ByteBuffer}, parallel to the stream based {@link Serializer}.
+ * It allows to write the serialized form directly into a heap, direct or memory mapped buffer
+ * and to read it back from a slice, without intermediate {@code byte[]} copies.
+ *
+ * @param <T> the type of the serialized objects
+ */
+public interface ByteBufferSerializer<T> {
+
+    /**
+     * Appends the serialized object to the given output
+     *
+     * @param object the object to serialize
+     * @param out the output
+     * @throws IOException if an I/O error occurs
+     */
+    void write( T object, ByteBufferOutput out ) throws IOException;
+
+    /**
+     * Reads an object from the remaining bytes of the given buffer, which must contain exactly one serialized object.
+     * The position of the buffer after the call is unspecified.
+     *
+     * @param in the buffer to read from
+     * @return the deserialized object
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
+     */
+    T read( ByteBuffer in ) throws IOException, ClassNotFoundException;
+
+    /**
+     * Adapts a stream based serializer. The serialized form is the same produced by {@link Serializer#writeObject(Object)},
+     * so the bytes written by one can be read by the other.
+     *
+     * @param serializer the serializer to adapt
+     * @param <T> the type of the serialized objects
+     * @return the given serializer, if it already implements this contract, otherwise an adapter
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ByteBufferSerializer<T> of( @NonNull Serializer<T> serializer ) {
+        if( serializer instanceof ByteBufferSerializer<?> bufferSerializer ) {
+            return (ByteBufferSerializer<T>) bufferSerializer;
+        }
+        return new ByteBufferSerializer<>() {
+            @Override
+            public void write( T object, ByteBufferOutput out ) throws IOException {
+                ObjectStreamBuffers.writeObject( serializer, object, out.asOutputStream() );
+            }
+
+            @Override
+            public T read( ByteBuffer in ) throws IOException, ClassNotFoundException {
+                return serializer.read( new ObjectInputStream( inputStreamOf( in ) ) );
+            }
+        };
+    }
+
+    /**
+     * @param buffer the buffer to read from
+     * @return an input stream reading the remaining bytes of the given buffer, advancing its position
+     */
+    static InputStream inputStreamOf( @NonNull ByteBuffer buffer ) {
+        return new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read( byte[] b, int off, int len ) {
+                if( len == 0 ) {
+                    return 0;
+                }
+                if( !buffer.hasRemaining() ) {
+                    return -1;
+                }
+                final int n = Math.min( len, buffer.remaining() );
+                buffer.get( b, off, n );
+                return n;
+            }
+
+            @Override
+            public long skip( long n ) {
+                final int skipped = (int)Math.max( 0, Math.min( n, buffer.remaining() ) );
+                buffer.position( buffer.position() + skipped );
+                return skipped;
+            }
+
+            @Override
+            public int available() {
+                return buffer.remaining();
+            }
+        };
+    }
+}
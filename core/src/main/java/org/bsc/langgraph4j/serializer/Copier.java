@@ -0,0 +1,37 @@
+package org.bsc.langgraph4j.serializer;
+
+import java.io.IOException;
+
+/**
+ * Deep copies a value of a given type without going through its serialization.
+ *
+ * @param <T> the type of the value
+ * @see CopierMapper
+ */
+@FunctionalInterface
+public interface Copier<T> {
+
+    /**
+     * Copier of the immutable values, that are shared by reference
+     */
+    Copier<Object> IDENTITY = ( value, context ) -> value;
+
+    /**
+     * Copies the nested values (ie. the elements of a collection) resolving their copier,
+     * serialization included, from the same registry
+     */
+    @FunctionalInterface
+    interface Context {
+        Object copy( Object value ) throws IOException, ClassNotFoundException;
+    }
+
+    /**
+     * @param value the value to copy, never null
+     * @param context the context used to copy the nested values
+     * @return the copy of the value
+     * @throws IOException if a nested value is copied through its serialization and it fails
+     * @throws ClassNotFoundException if a nested value is copied through its serialization and it fails
+     */
+    T copy( T value, Context context ) throws IOException, ClassNotFoundException;
+
+}
@@ -0,0 +1,312 @@
+package org.bsc.langgraph4j.serializer;
+
+import lombok.NonNull;
+import org.bsc.langgraph4j.state.KeyedList;
+import org.bsc.langgraph4j.state.WindowList;
+import org.bsc.langgraph4j.utils.PersistentList;
+
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.*;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Registry of the {@link Copier}s used to deep copy the state values without serializing them.
+ * <p>
+ * A type can be declared immutable, and its values are shared by reference, or be associated with a hand-written copier.
+ * Out of the box the registry knows the primitive wrappers, {@code String}, enums, the {@code java.time} values and
+ * the other common immutable JDK types, and copies the standard {@code java.util} lists, sets and maps element by element
+ * (their subclasses excluded).
+ * A record is immutable when all its components are of primitive or immutable types.
+ * <p>
+ * The copier of a type is resolved as in {@link org.bsc.langgraph4j.serializer.std.SerializerMapper}: a registration
+ * for the type itself wins, otherwise the nearest registered supertype is chosen. The resolution is cached per class.
+ * A value without a copier must be copied through its serialization.
+ *
+ * @see StateSerializer#copyState(Map)
+ */
+public class CopierMapper {
+
+    private final Map<Class<?>, Copier<Object>> _copiers = new HashMap<>();
+    /**
+     * built-in collection copiers, that apply to the exact class only (ie. not to a subclass of {@code ArrayList})
+     */
+    private final Map<Class<?>, Copier<Object>> _collectionCopiers = new HashMap<>();
+
+    /**
+     * memoizes the resolved copier, or its absence, per concrete class.
+     * It is replaced on every registration change.
+     */
+    private volatile ClassValue<Optional<Copier<Object>>> _resolved = newResolutionCache();
+
+    public CopierMapper() {
+        immutable( String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+                Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class,
+                URI.class, Locale.class, Class.class, Enum.class,
+                Instant.class, LocalDate.class, LocalTime.class, LocalDateTime.class, ZonedDateTime.class,
+                OffsetDateTime.class, OffsetTime.class, Duration.class, Period.class, Year.class,
+                YearMonth.class, MonthDay.class, ZoneId.class );
+
+        collection( ArrayList.class, collectionCopier( ArrayList::new ) );
+        collection( LinkedList.class, collectionCopier( size -> new LinkedList<>() ) );
+        collection( HashSet.class, collectionCopier( size -> new HashSet<>( capacityOf(size) ) ) );
+        collection( LinkedHashSet.class, collectionCopier( size -> new LinkedHashSet<>( capacityOf(size) ) ) );
+        collection( TreeSet.class, ( value, context ) -> copyAll( value, new TreeSet<>( ((TreeSet<Object>)value).comparator() ), context ) );
+        collection( HashMap.class, mapCopier( size -> new HashMap<>( capacityOf(size) ) ) );
+        collection( LinkedHashMap.class, mapCopier( size -> new LinkedHashMap<>( capacityOf(size) ) ) );
+        collection( TreeMap.class, ( value, context ) -> copyAll( value, new TreeMap<>( ((TreeMap<Object,Object>)value).comparator() ), context ) );
+
+        // immutable collections are shared when all their elements are
+        for( List<?> list : List.of( List.of(), List.of(1), List.of(1, 2, 3), Collections.emptyList(), Collections.singletonList(1) ) ) {
+            collection( list.getClass(), immutableListCopier( false ) );
+        }
+        for( Set<?> set : List.of( Set.of(), Set.of(1), Set.of(1, 2, 3), Collections.emptySet(), Collections.singleton(1) ) ) {
+            collection( set.getClass(), immutableSetCopier( false ) );
+        }
+        for( Map<?,?> map : List.of( Map.of(), Map.of(1, 1), Map.of(1, 1, 2, 2), Collections.emptyMap(), Collections.singletonMap(1, 1) ) ) {
+            collection( map.getClass(), immutableMapCopier( false ) );
+        }
+        collection( PersistentList.class, ( value, context ) -> {
+            PersistentList<?> source = (PersistentList<?>) value;
+            List<Object> copy = copyAll( source, new ArrayList<>( source.size() ), context );
+            return sameElements( source, copy ) ? source : PersistentList.copyOf( copy );
+        });
+        collection( WindowList.class, ( value, context ) -> {
+            WindowList<?> source = (WindowList<?>) value;
+            List<Object> copy = copyAll( source, new ArrayList<>( source.size() ), context );
+            return sameElements( source, copy ) ? source : source.withElements( copy );
+        });
+        collection( KeyedList.class, ( value, context ) -> {
+            KeyedList<?,?> source = (KeyedList<?,?>) value;
+            List<Object> copy = copyAll( source, new ArrayList<>( source.size() ), context );
+            return sameElements( source, copy ) ? source : source.withElements( copy );
+        });
+        // unmodifiable views are always copied since the wrapped collection could change
+        collection( Collections.unmodifiableList( new ArrayList<>() ).getClass(), immutableListCopier( true ) );
+        collection( Collections.unmodifiableList( new LinkedList<>() ).getClass(), immutableListCopier( true ) );
+        collection( Collections.unmodifiableSet( new HashSet<>() ).getClass(), immutableSetCopier( true ) );
+        collection( Collections.unmodifiableMap( new HashMap<>() ).getClass(), immutableMapCopier( true ) );
+    }
+
+    private ClassValue<Optional<Copier<Object>>> newResolutionCache() {
+        return new ClassValue<>() {
+            @Override
+            protected Optional<Copier<Object>> computeValue(Class<?> type) {
+                return resolve(type);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collection( Class<?> type, Copier<?> copier ) {
+        _collectionCopiers.put( type, (Copier<Object>) copier );
+    }
+
+    private static int capacityOf( int size ) {
+        return (int)(size / 0.75f) + 1;
+    }
+
+    /**
+     * Declares the given types, and their subtypes, immutable. Their values are shared by reference.
+     *
+     * @param types the immutable types
+     * @return this mapper
+     */
+    public CopierMapper immutable( @NonNull Class<?>... types ) {
+        synchronized( _copiers ) {
+            for( Class<?> type : types ) {
+                _copiers.put( Objects.requireNonNull( type, "type cannot be null" ), Copier.IDENTITY );
+            }
+            _resolved = newResolutionCache();
+        }
+        return this;
+    }
+
+    /**
+     * Registers the copier of the given type, and its subtypes. It takes precedence over the built-in collection copiers.
+     *
+     * @param type the type
+     * @param copier the copier of the type values
+     * @param <T> the type
+     * @return this mapper
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CopierMapper register( @NonNull Class<T> type, @NonNull Copier<? super T> copier ) {
+        synchronized( _copiers ) {
+            _copiers.put( type, (Copier<Object>) copier );
+            _resolved = newResolutionCache();
+        }
+        return this;
+    }
+
+    public boolean unregister( @NonNull Class<?> type ) {
+        synchronized( _copiers ) {
+            Copier<Object> copier = _copiers.remove( type );
+            _resolved = newResolutionCache();
+            return copier != null;
+        }
+    }
+
+    /**
+     * Returns the copier of the given class. The resolution is cached per class, including the absence of a copier.
+     *
+     * @param type the class of the value to copy
+     * @return the copier of the given class, {@link Copier#IDENTITY} for the immutable ones, if any
+     */
+    public Optional<Copier<Object>> getCopier( @NonNull Class<?> type ) {
+        return _resolved.get( type );
+    }
+
+    /**
+     * @param type the class of the value
+     * @return true if the values of the given class are shared by reference
+     */
+    public boolean isImmutable( @NonNull Class<?> type ) {
+        return getCopier( type ).filter( copier -> copier == Copier.IDENTITY ).isPresent();
+    }
+
+    private Optional<Copier<Object>> resolve( Class<?> type ) {
+        synchronized( _copiers ) {
+            Optional<Copier<Object>> result = registered( type );
+            if( result.isEmpty() ) {
+                result = Optional.ofNullable( _collectionCopiers.get( type ) );
+            }
+            if( result.isEmpty() && type.isRecord() && isImmutableRecord( type, new HashSet<>() ) ) {
+                return Optional.of( Copier.IDENTITY );
+            }
+            return result;
+        }
+    }
+
+    /**
+     * looks for the type itself, then for the nearest registered supertype, breadth first over superclass and interfaces
+     */
+    private Optional<Copier<Object>> registered( Class<?> type ) {
+        Set<Class<?>> visited = new HashSet<>();
+        List<Class<?>> level = List.of( type );
+        while( !level.isEmpty() ) {
+            Optional<Class<?>> match = level.stream()
+                    .filter( _copiers::containsKey )
+                    .min( Comparator.comparing( Class::getName ) );
+            if( match.isPresent() ) {
+                return Optional.of( _copiers.get( match.get() ) );
+            }
+            List<Class<?>> next = new ArrayList<>();
+            for( Class<?> t : level ) {
+                if( t.getSuperclass() != null ) {
+                    next.add( t.getSuperclass() );
+                }
+                next.addAll( Arrays.asList( t.getInterfaces() ) );
+            }
+            next.removeIf( t -> !visited.add( t ) );
+            level = next;
+        }
+        return Optional.empty();
+    }
+
+    private boolean isImmutableRecord( Class<?> type, Set<Class<?>> visiting ) {
+        if( !visiting.add( type ) ) {
+            return true;
+        }
+        for( RecordComponent component : type.getRecordComponents() ) {
+            Class<?> componentType = component.getType();
+            if( componentType.isPrimitive() ) {
+                continue;
+            }
+            boolean immutable = registered( componentType )
+                    .map( copier -> copier == Copier.IDENTITY )
+                    .orElseGet( () -> componentType.isRecord() && isImmutableRecord( componentType, visiting ) );
+            if( !immutable ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C extends Collection<Object>> Copier<Object> collectionCopier( IntFunction<C> factory ) {
+        return ( value, context ) -> {
+            Collection<Object> source = (Collection<Object>) value;
+            return copyAll( source, factory.apply( source.size() ), context );
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <M extends Map<Object,Object>> Copier<Object> mapCopier( IntFunction<M> factory ) {
+        return ( value, context ) -> {
+            Map<Object,Object> source = (Map<Object,Object>) value;
+            return copyAll( source, factory.apply( source.size() ), context );
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C extends Collection<Object>> C copyAll( Object source, C target, Copier.Context context ) throws IOException, ClassNotFoundException {
+        for( Object element : (Collection<Object>) source ) {
+            target.add( context.copy( element ) );
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <M extends Map<Object,Object>> M copyAll( Object source, M target, Copier.Context context ) throws IOException, ClassNotFoundException {
+        for( Map.Entry<Object,Object> e : ((Map<Object,Object>) source).entrySet() ) {
+            target.put( context.copy( e.getKey() ), context.copy( e.getValue() ) );
+        }
+        return target;
+    }
+
+    /**
+     * @return true if each element of the copy is the same instance of the source one
+     */
+    private static boolean sameElements( Collection<?> source, Collection<?> copy ) {
+        Iterator<?> i = copy.iterator();
+        for( Object element : source ) {
+            if( element != i.next() ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Copier<Object> immutableListCopier( boolean view ) {
+        return ( value, context ) -> {
+            List<?> source = (List<?>) value;
+            List<Object> copy = copyAll( source, new ArrayList<>( source.size() ), context );
+            return ( !view && sameElements( source, copy ) ) ? source : Collections.unmodifiableList( copy );
+        };
+    }
+
+    private static Copier<Object> immutableSetCopier( boolean view ) {
+        return ( value, context ) -> {
+            Set<?> source = (Set<?>) value;
+            Set<Object> copy = copyAll( source, new LinkedHashSet<>( capacityOf( source.size() ) ), context );
+            return ( !view && sameElements( source, copy ) ) ? source : Collections.unmodifiableSet( copy );
+        };
+    }
+
+    private static Copier<Object> immutableMapCopier( boolean view ) {
+        return ( value, context ) -> {
+            Map<?,?> source = (Map<?,?>) value;
+            Map<Object,Object> copy = copyAll( source, new LinkedHashMap<>( capacityOf( source.size() ) ), context );
+            boolean same = !view && sameElements( source.keySet(), copy.keySet() ) && sameElements( source.values(), copy.values() );
+            return same ? source : Collections.unmodifiableMap( copy );
+        };
+    }
+
+    @Override
+    public String toString() {
+        List<String> typeNames;
+        synchronized( _copiers ) {
+            typeNames = _copiers.keySet().stream().map(Class::getName).collect(Collectors.toList());
+        }
+        return format( "CopierMapper: \n%s", String.join("\n", typeNames) );
+    }
+
+}
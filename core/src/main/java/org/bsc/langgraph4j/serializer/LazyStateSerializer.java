@@ -0,0 +1,117 @@
+package org.bsc.langgraph4j.serializer;
+
+import lombok.NonNull;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.LazyStateMap;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * StateSerializer that encodes each value of the state independently, through the given serializer,
+ * and reads the state back as a {@link LazyStateMap} that decodes a value only when it is accessed.
+ * <p>
+ * It is meant for the checkpoint savers, where loading a thread otherwise deserializes every value
+ * of every checkpoint even if the caller only looks at some of them:
+ * <pre>{@code
+ * var saver = new FileSystemSaver( folder, new LazyStateSerializer<>( stateSerializer ) );
+ * }</pre>
+ * Writing a state that has been read by this serializer reuses the encoded bytes of its values.
+ * <p>
+ * Since each value carries its own encoding the output is larger than the one of the given serializer,
+ * and the two formats are not interchangeable.
+ * <p>
+ * Each value is encoded as a state holding only its key, so the given serializer must not expect a specific
+ * state shape (ie. require some keys, as the {@code JSONStateSerializer} of the agent executor does):
+ * the constructor rejects a serializer that cannot read back a single entry state.
+ *
+ * @param <State> the type of the state
+ */
+public class LazyStateSerializer<State extends AgentState> extends StateSerializer<State> {
+
+    static final int VERSION = 1;
+
+    private final StateSerializer<State> valueSerializer;
+
+    /**
+     * @param valueSerializer the serializer used to encode each value, as a single entry state
+     * @throws IllegalArgumentException if the serializer cannot read back a single entry state
+     */
+    public LazyStateSerializer( @NonNull StateSerializer<State> valueSerializer ) {
+        super( valueSerializer.stateFactory() );
+        this.valueSerializer = valueSerializer;
+        requireSingleEntryStates();
+    }
+
+    private void requireSingleEntryStates() {
+        final String key = "value";
+        Object probe;
+        try {
+            probe = decode( key, valueSerializer.writeObject( valueSerializer.stateOf( Collections.singletonMap( key, key ) ) ) );
+        }
+        catch( Exception e ) {
+            throw new IllegalArgumentException( format( "state serializer %s cannot serialize a single entry state",
+                    valueSerializer.getClass().getName() ), e );
+        }
+        if( !key.equals( probe ) ) {
+            throw new IllegalArgumentException( format( "state serializer %s doesn't preserve a single entry state",
+                    valueSerializer.getClass().getName() ) );
+        }
+    }
+
+    public StateSerializer<State> valueSerializer() {
+        return valueSerializer;
+    }
+
+    private byte[] encode( Map<String,Object> data, String key ) throws IOException {
+        if( data instanceof LazyStateMap lazy ) {
+            var encoded = lazy.encoded( key );
+            if( encoded.isPresent() ) {
+                return encoded.get();
+            }
+        }
+        return valueSerializer.writeObject( valueSerializer.stateOf( Collections.singletonMap( key, data.get(key) ) ) );
+    }
+
+    private Object decode( String key, byte[] bytes ) throws IOException, ClassNotFoundException {
+        return valueSerializer.readObject( bytes ).data().get( key );
+    }
+
+    @Override
+    public void write( State object, ObjectOutput out ) throws IOException {
+        Map<String,Object> data = object.data();
+        out.writeByte( VERSION );
+        out.writeInt( data.size() );
+        for( String key : data.keySet() ) {
+            byte[] bytes = encode( data, key );
+            out.writeUTF( key );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+    }
+
+    @Override
+    public State read( ObjectInput in ) throws IOException, ClassNotFoundException {
+        int version = in.readByte();
+        if( version != VERSION ) {
+            throw new StreamCorruptedException( format( "unsupported lazy state version %d", version ) );
+        }
+        int size = in.readInt();
+        Map<String,byte[]> encoded = new LinkedHashMap<>( (int)(size / 0.75f) + 1 );
+        for( int i = 0; i < size; ++i ) {
+            String key = in.readUTF();
+            byte[] bytes = new byte[ in.readInt() ];
+            in.readFully( bytes );
+            encoded.put( key, bytes );
+        }
+        return stateOf( new LazyStateMap( encoded, this::decode ) );
+    }
+
+}
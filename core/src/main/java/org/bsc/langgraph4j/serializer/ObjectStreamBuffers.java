@@ -0,0 +1,158 @@
+package org.bsc.langgraph4j.serializer;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pooled, reusable {@link ObjectOutputStream} and byte buffer used by the {@link Serializer} default methods.
+ * <p>
+ * An {@link ObjectOutputStream} cannot be bound to another stream, so it writes to a sink that is redirected
+ * to the target of each use (by default the internal buffer). Before each use the stream is
+ * {@link ObjectOutputStream#reset() reset} and the stream header is written to the target:
+ * the bytes produced are the same as the ones of a newly created stream.
+ * An {@link ObjectInputStream} cannot be reused in the same way, since it reads ahead and keeps its handles,
+ * so on the read side only the intermediate copies are avoided.
+ * <p>
+ * The instances are shared by all the threads through a bounded pool, rather than held by a thread local,
+ * so they are reused also by short lived (ie. virtual) threads, and no more than {@link #MAX_POOLED} are retained.
+ * An instance is taken from the pool for the duration of a use, so nested uses (ie. a serializer calling
+ * {@code writeObject} from its {@code write}) and concurrent ones get distinct instances, created when the pool
+ * is empty. Buffers grown beyond {@link #MAX_RETAINED_CAPACITY} and instances whose stream failed are not
+ * given back to the pool.
+ */
+final class ObjectStreamBuffers {
+
+    static final int INITIAL_CAPACITY = 1024;
+    static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    static final int MAX_POOLED = Math.max( 4, 2 * Runtime.getRuntime().availableProcessors() );
+
+    private static final BlockingQueue<ObjectStreamBuffers> POOL = new ArrayBlockingQueue<>( MAX_POOLED );
+
+    /**
+     * {@link ByteArrayOutputStream} exposing its buffer
+     */
+    private static class Buffer extends ByteArrayOutputStream {
+
+        Buffer( int size ) {
+            super( size );
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+
+    /**
+     * output stream forwarding to the current target
+     */
+    private static class Sink extends OutputStream {
+        OutputStream target = OutputStream.nullOutputStream();
+
+        @Override
+        public void write( int b ) throws IOException {
+            target.write( b );
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException {
+            target.write( b, off, len );
+        }
+    }
+
+    private final Buffer buffer = new Buffer( INITIAL_CAPACITY );
+    private final Sink sink = new Sink();
+    private final ObjectOutputStream out;
+    private final byte[] header;
+
+    private ObjectStreamBuffers() throws IOException {
+        sink.target = buffer;
+        out = new ObjectOutputStream( sink );
+        out.flush();
+        header = buffer.toByteArray();
+        sink.target = OutputStream.nullOutputStream();
+    }
+
+    private static ObjectStreamBuffers acquire() throws IOException {
+        var result = POOL.poll();
+        return ( result != null ) ? result : new ObjectStreamBuffers();
+    }
+
+    private void release( boolean failed ) {
+        sink.target = OutputStream.nullOutputStream();
+        if( !failed && buffer.capacity() <= MAX_RETAINED_CAPACITY ) {
+            // dropped if the pool is full
+            POOL.offer( this );
+        }
+    }
+
+    private <T> void write( Serializer<T> serializer, T object, OutputStream target ) throws IOException {
+        // the reset marker goes to the null target
+        out.reset();
+        out.flush();
+        sink.target = target;
+        target.write( header );
+        serializer.write( object, out );
+        out.flush();
+    }
+
+    private ObjectInputStream input() throws IOException {
+        return new ObjectInputStream( new ByteArrayInputStream( buffer.array(), 0, buffer.size() ) );
+    }
+
+    static <T> byte[] writeObject( Serializer<T> serializer, T object ) throws IOException {
+        var buffers = acquire();
+        boolean failed = true;
+        try {
+            buffers.buffer.reset();
+            buffers.write( serializer, object, buffers.buffer );
+            byte[] result = Arrays.copyOf( buffers.buffer.array(), buffers.buffer.size() );
+            failed = false;
+            return result;
+        }
+        finally {
+            buffers.release( failed );
+        }
+    }
+
+    /**
+     * writes the object, as {@link #writeObject(Serializer, Object)} would, directly to the given target
+     */
+    static <T> void writeObject( Serializer<T> serializer, T object, OutputStream target ) throws IOException {
+        var buffers = acquire();
+        boolean failed = true;
+        try {
+            buffers.write( serializer, object, target );
+            failed = false;
+        }
+        finally {
+            buffers.release( failed );
+        }
+    }
+
+    static <T> T readObject( Serializer<T> serializer, byte[] bytes ) throws IOException, ClassNotFoundException {
+        return serializer.read( new ObjectInputStream( new ByteArrayInputStream( bytes ) ) );
+    }
+
+    /**
+     * writes the object and reads it back directly from the pooled buffer, without copying the serialized bytes
+     */
+    static <T> T cloneObject( Serializer<T> serializer, T object ) throws IOException, ClassNotFoundException {
+        var buffers = acquire();
+        boolean failed = true;
+        try {
+            buffers.buffer.reset();
+            buffers.write( serializer, object, buffers.buffer );
+            failed = false;
+            return serializer.read( buffers.input() );
+        }
+        finally {
+            buffers.release( failed );
+        }
+    }
+}
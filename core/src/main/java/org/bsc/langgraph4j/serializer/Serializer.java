@@ -12,14 +12,16 @@ public interface Serializer<T> {
         return "application/octet-stream";
     }
 
+    /**
+     * Serializes the object through a pooled, reusable {@link ObjectOutputStream}, shared by all the threads.
+     *
+     * @param object the object to serialize
+     * @return the serialized bytes
+     * @throws IOException if an I/O error occurs
+     */
     default byte[] writeObject(T object) throws IOException {
         Objects.requireNonNull( object, "object cannot be null" );
-        try( ByteArrayOutputStream stream = new ByteArrayOutputStream() ) {
-            ObjectOutputStream oas = new ObjectOutputStream(stream);
-            write(object, oas);
-            oas.flush();
-            return stream.toByteArray();
-        }
+        return ObjectStreamBuffers.writeObject( this, object );
     }
 
     default T readObject(byte[] bytes) throws IOException, ClassNotFoundException {
@@ -27,15 +29,21 @@ public interface Serializer<T> {
         if( bytes.length == 0 ) {
             throw new IllegalArgumentException("bytes cannot be empty");
         }
-        try( ByteArrayInputStream stream = new ByteArrayInputStream( bytes ) ) {
-            ObjectInputStream ois = new ObjectInputStream(stream);
-            return read(ois);
-        }
+        return ObjectStreamBuffers.readObject( this, bytes );
     }
 
+    /**
+     * Deep copies the object by serializing it and reading it back from the same reusable buffer.
+     * Implementations overriding {@link #writeObject(Object)} and {@link #readObject(byte[])} should override this too.
+     *
+     * @param object the object to clone
+     * @return the cloned object
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
+     */
     default T cloneObject(T object) throws IOException, ClassNotFoundException {
         Objects.requireNonNull( object, "object cannot be null" );
-        return readObject(writeObject(object));
+        return ObjectStreamBuffers.cloneObject( this, object );
     }
 
 
@@ -5,16 +5,27 @@ import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.AgentStateFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 public abstract class StateSerializer<State extends AgentState> implements Serializer<State> {
 
     private final AgentStateFactory<State> stateFactory;
+    private final CopierMapper copiers = new CopierMapper();
 
     protected StateSerializer( @NonNull  AgentStateFactory<State> stateFactory) {
         this.stateFactory = stateFactory;
     }
 
+    /**
+     * Returns the registry of the copiers used by {@link #copyState(Map)}
+     *
+     * @return the copier registry
+     */
+    public final CopierMapper copiers() {
+        return copiers;
+    }
+
     public final AgentStateFactory<State> stateFactory() {
         return stateFactory;
     }
@@ -27,4 +38,53 @@ public abstract class StateSerializer<State extends AgentState> implements Seria
         return cloneObject( stateFactory().apply(data) );
     }
 
+    /**
+     * Deep copies the state data through the {@link #copiers()}: immutable values are shared and the values with
+     * a registered copier are copied by it.
+     * If a value of an unknown type is found, top level or nested, the whole state is cloned through
+     * {@link #cloneObject(Map)} instead: the serializer could expect a specific state shape, so the unknown values
+     * are never serialized apart from their state.
+     * <p>
+     * Unlike the serialization, the copy doesn't preserve the references shared between different values.
+     *
+     * @param data the state data
+     * @return the state holding the copied data
+     * @throws IOException if the serialization of the state fails
+     * @throws ClassNotFoundException if the serialization of the state fails
+     */
+    public final State copyState( @NonNull Map<String,Object> data ) throws IOException, ClassNotFoundException {
+        final Map<String,Object> result = new HashMap<>( (int)(data.size() / 0.75f) + 1 );
+        try {
+            for( Map.Entry<String,Object> e : data.entrySet() ) {
+                result.put( e.getKey(), copyValue( e.getValue() ) );
+            }
+        }
+        catch( UnknownValueException ex ) {
+            return cloneObject( data );
+        }
+        return stateOf( result );
+    }
+
+    /**
+     * signals a value without copier, it is thrown through the copiers so it carries no stack trace
+     */
+    private static final class UnknownValueException extends RuntimeException {
+        static final UnknownValueException INSTANCE = new UnknownValueException();
+
+        private UnknownValueException() {
+            super( null, null, false, false );
+        }
+    }
+
+    private Object copyValue( Object value ) throws IOException, ClassNotFoundException {
+        if( value == null ) {
+            return null;
+        }
+        var copier = copiers.getCopier( value.getClass() );
+        if( copier.isEmpty() ) {
+            throw UnknownValueException.INSTANCE;
+        }
+        return copier.get().copy( value, this::copyValue );
+    }
+
 }
@@ -0,0 +1,297 @@
+package org.bsc.langgraph4j.serializer.binary;
+
+import lombok.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.util.*;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.bsc.langgraph4j.serializer.binary.BinaryStateSerializer.*;
+
+/**
+ * {@link ObjectInput} over a byte array that decodes values written by {@link BinaryOutput}.
+ */
+class BinaryInput implements ObjectInput {
+
+    private final BinaryStateSerializer<?> serializer;
+    private final List<String> strings = new ArrayList<>();
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    BinaryInput(@NonNull BinaryStateSerializer<?> serializer, byte[] buffer, int offset, int length) {
+        this.serializer = serializer;
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    private void require(int n) throws EOFException {
+        if (limit - position < n) {
+            throw new EOFException();
+        }
+    }
+
+    int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("malformed varint");
+    }
+
+    long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("malformed varint");
+    }
+
+    private String readString(int tag) throws IOException {
+        if (tag == STRING_REF) {
+            int index = readVarInt();
+            if (index < 0 || index >= strings.size()) {
+                throw new StreamCorruptedException(format("invalid string reference %d", index));
+            }
+            return strings.get(index);
+        }
+        int length = readVarInt();
+        require(length);
+        String value = new String(buffer, position, length, UTF_8);
+        position += length;
+        strings.add(value);
+        return value;
+    }
+
+    @Override
+    public Object readObject() throws ClassNotFoundException, IOException {
+        int tag = readUnsignedByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT: {
+                int value = readVarInt();
+                return (value >>> 1) ^ -(value & 1);
+            }
+            case LONG: {
+                long value = readVarLong();
+                return (value >>> 1) ^ -(value & 1);
+            }
+            case DOUBLE:
+                return readDouble();
+            case FLOAT:
+                return readFloat();
+            case SHORT:
+                return readShort();
+            case BYTE:
+                return readByte();
+            case CHAR:
+                return readChar();
+            case STRING:
+            case STRING_REF:
+                return readString(tag);
+            case BYTES: {
+                byte[] value = new byte[readVarInt()];
+                readFully(value);
+                return value;
+            }
+            case LIST: {
+                int size = readVarInt();
+                List<Object> result = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i) {
+                    result.add(readObject());
+                }
+                return result;
+            }
+            case SET: {
+                int size = readVarInt();
+                Set<Object> result = new LinkedHashSet<>();
+                for (int i = 0; i < size; ++i) {
+                    result.add(readObject());
+                }
+                return result;
+            }
+            case MAP:
+                return readMapBody();
+            case CUSTOM: {
+                int typeId = readVarInt();
+                var registration = serializer.registrationOf(typeId)
+                        .orElseThrow(() -> new StreamCorruptedException(format("type id %d is not registered", typeId)));
+                return registration.serializer().read(this);
+            }
+            case SERIALIZABLE: {
+                int length = readVarInt();
+                require(length);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(buffer, position, length))) {
+                    position += length;
+                    return ois.readObject();
+                }
+            }
+            default:
+                throw new StreamCorruptedException(format("invalid tag %d", tag));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String,Object> readMap() throws IOException, ClassNotFoundException {
+        int tag = readUnsignedByte();
+        if (tag != MAP) {
+            throw new StreamCorruptedException(format("expected map tag but found %d", tag));
+        }
+        return (Map<String,Object>) (Map<?,?>) readMapBody();
+    }
+
+    private Map<Object,Object> readMapBody() throws IOException, ClassNotFoundException {
+        int size = readVarInt();
+        Map<Object,Object> result = new HashMap<>(Math.max(4, (int) (size / .75f) + 1));
+        for (int i = 0; i < size; ++i) {
+            Object key = readObject();
+            result.put(key, readObject());
+        }
+        return result;
+    }
+
+    @Override
+    public int read() {
+        return (position < limit) ? buffer[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b) {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (position >= limit) {
+            return -1;
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, limit - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        require(len);
+        System.arraycopy(buffer, position, b, off, len);
+        position += len;
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        return (int) skip(n);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readUnsignedByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer[position++];
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) readUnsignedShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        require(2);
+        return ((buffer[position++] & 0xFF) << 8) | (buffer[position++] & 0xFF);
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) readUnsignedShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(4);
+        return ((buffer[position++] & 0xFF) << 24)
+                | ((buffer[position++] & 0xFF) << 16)
+                | ((buffer[position++] & 0xFF) << 8)
+                | (buffer[position++] & 0xFF);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() {
+        throw new UnsupportedOperationException("readLine is not supported");
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        int tag = readUnsignedByte();
+        if (tag != STRING && tag != STRING_REF) {
+            throw new StreamCorruptedException(format("expected string tag but found %d", tag));
+        }
+        return readString(tag);
+    }
+}
@@ -0,0 +1,263 @@
+package org.bsc.langgraph4j.serializer.binary;
+
+import lombok.NonNull;
+import org.bsc.langgraph4j.serializer.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.bsc.langgraph4j.serializer.binary.BinaryStateSerializer.*;
+
+/**
+ * {@link ObjectOutput} over a growable byte array that encodes values in the compact binary format.
+ * Strings are written once and then referenced by their index in the in-stream string table.
+ */
+class BinaryOutput implements ObjectOutput {
+
+    private final BinaryStateSerializer<?> serializer;
+    private final Map<String,Integer> strings = new HashMap<>();
+    private byte[] buffer;
+    private int size;
+
+    BinaryOutput(@NonNull BinaryStateSerializer<?> serializer, int initialCapacity) {
+        this.serializer = serializer;
+        this.buffer = new byte[initialCapacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        int required = size + extra;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length << 1));
+        }
+    }
+
+    void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    void writeString(String value) {
+        Integer index = strings.get(value);
+        if (index != null) {
+            write(STRING_REF);
+            writeVarInt(index);
+            return;
+        }
+        strings.put(value, strings.size());
+        byte[] bytes = value.getBytes(UTF_8);
+        write(STRING);
+        writeVarInt(bytes.length);
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes a tagged value: primitive wrappers, strings and common collections are encoded natively,
+     * registered types as their type id followed by the output of their serializer.
+     */
+    @Override
+    public void writeObject(Object obj) throws IOException {
+        if (obj == null) {
+            write(NULL);
+        } else if (obj instanceof String value) {
+            writeString(value);
+        } else if (obj instanceof Integer value) {
+            write(INT);
+            writeVarInt((value << 1) ^ (value >> 31));
+        } else if (obj instanceof Long value) {
+            write(LONG);
+            writeVarLong((value << 1) ^ (value >> 63));
+        } else if (obj instanceof Boolean value) {
+            write(value ? TRUE : FALSE);
+        } else if (obj instanceof Double value) {
+            write(DOUBLE);
+            writeLong(Double.doubleToLongBits(value));
+        } else if (obj instanceof Float value) {
+            write(FLOAT);
+            writeInt(Float.floatToIntBits(value));
+        } else if (obj instanceof Short value) {
+            write(SHORT);
+            writeShort(value);
+        } else if (obj instanceof Byte value) {
+            write(BYTE);
+            write(value);
+        } else if (obj instanceof Character value) {
+            write(CHAR);
+            writeChar(value);
+        } else if (obj instanceof byte[] value) {
+            write(BYTES);
+            writeVarInt(value.length);
+            write(value);
+        } else {
+            var registration = serializer.registrationOf(obj.getClass());
+            if (registration.isPresent()) {
+                write(CUSTOM);
+                writeVarInt(registration.get().typeId());
+                registration.get().serializer().write(obj, this);
+            } else if (obj instanceof Map<?, ?> map) {
+                writeMap(map);
+            } else if (obj instanceof Set<?> set) {
+                write(SET);
+                writeVarInt(set.size());
+                for (Object value : set) {
+                    writeObject(value);
+                }
+            } else if (obj instanceof Collection<?> collection) {
+                write(LIST);
+                writeVarInt(collection.size());
+                for (Object value : collection) {
+                    writeObject(value);
+                }
+            } else {
+                writeSerializable(obj);
+            }
+        }
+    }
+
+    void writeMap(Map<?, ?> map) throws IOException {
+        write(MAP);
+        writeVarInt(map.size());
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            writeObject(e.getKey());
+            writeObject(e.getValue());
+        }
+    }
+
+    private void writeSerializable(Object obj) throws IOException {
+        serializer.warnJavaSerialization(obj.getClass());
+        try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+            ObjectOutputStream oas = new ObjectOutputStream(stream);
+            oas.writeObject(obj);
+            oas.flush();
+            write(SERIALIZABLE);
+            writeVarInt(stream.size());
+            write(stream.toByteArray());
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buffer, size, len);
+        size += len;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+        write(v ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(int v) {
+        write(v);
+    }
+
+    @Override
+    public void writeShort(int v) {
+        ensureCapacity(2);
+        buffer[size++] = (byte) (v >>> 8);
+        buffer[size++] = (byte) v;
+    }
+
+    @Override
+    public void writeChar(int v) {
+        writeShort(v);
+    }
+
+    @Override
+    public void writeInt(int v) {
+        ensureCapacity(4);
+        buffer[size++] = (byte) (v >>> 24);
+        buffer[size++] = (byte) (v >>> 16);
+        buffer[size++] = (byte) (v >>> 8);
+        buffer[size++] = (byte) v;
+    }
+
+    @Override
+    public void writeLong(long v) {
+        writeInt((int) (v >>> 32));
+        writeInt((int) v);
+    }
+
+    @Override
+    public void writeFloat(float v) {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(double v) {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    @Override
+    public void writeBytes(String s) {
+        int len = s.length();
+        ensureCapacity(len);
+        for (int i = 0; i < len; ++i) {
+            buffer[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    @Override
+    public void writeChars(String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            writeChar(s.charAt(i));
+        }
+    }
+
+    /**
+     * Unlike {@link java.io.DataOutput#writeUTF(String)} the string goes through the string table and has no length limit.
+     */
+    @Override
+    public void writeUTF(String s) {
+        writeString(Objects.requireNonNull(s, "string cannot be null"));
+    }
+
+}
@@ -0,0 +1,198 @@
+package org.bsc.langgraph4j.serializer.binary;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.AgentStateFactory;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.lang.String.format;
+
+/**
+ * Compact binary {@link StateSerializer}.
+ * <p>
+ * Values are written as a one byte tag followed by their payload:
+ * <ul>
+ *     <li>primitive wrappers are encoded natively, integers and longs as zig-zag varints</li>
+ *     <li>strings are written once as length prefixed UTF-8 and then referenced through an in-stream string table</li>
+ *     <li>{@link List}, {@link Set}, {@link Collection} and {@link Map} are encoded natively</li>
+ *     <li>registered types are written as their small integer type id followed by the output of their {@link Serializer}</li>
+ * </ul>
+ * Unlike {@link org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer} neither class descriptors nor
+ * an {@link java.io.ObjectOutputStream} are involved. Only values that are neither native nor registered
+ * fall back to java serialization.
+ * <p>
+ * The type ids are part of the stored format, so they must not change between the writer and the reader.
+ *
+ * @param <State> the type of the agent state
+ */
+@Slf4j
+public class BinaryStateSerializer<State extends AgentState> extends StateSerializer<State> {
+
+    static final int NULL = 0;
+    static final int TRUE = 1;
+    static final int FALSE = 2;
+    static final int INT = 3;
+    static final int LONG = 4;
+    static final int DOUBLE = 5;
+    static final int FLOAT = 6;
+    static final int SHORT = 7;
+    static final int BYTE = 8;
+    static final int CHAR = 9;
+    static final int STRING = 10;
+    static final int STRING_REF = 11;
+    static final int BYTES = 12;
+    static final int LIST = 13;
+    static final int SET = 14;
+    static final int MAP = 15;
+    static final int CUSTOM = 16;
+    static final int SERIALIZABLE = 17;
+
+    static final int VERSION = 1;
+
+    /**
+     * A type registered with its id and serializer
+     *
+     * @param typeId the id written in place of the type
+     * @param type the registered type
+     * @param serializer the serializer of the type's values
+     */
+    record Registration( int typeId, Class<?> type, Serializer<Object> serializer ) {}
+
+    private final Map<Integer, Registration> registrationsById = new ConcurrentHashMap<>();
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, Optional<Registration>> resolved = new ConcurrentHashMap<>();
+    private final Set<Class<?>> javaSerialized = ConcurrentHashMap.newKeySet();
+
+    public BinaryStateSerializer( @NonNull AgentStateFactory<State> stateFactory ) {
+        super(stateFactory);
+    }
+
+    /**
+     * Registers a serializer for the given type. Subtypes of the type are written through the same serializer
+     * when they are not registered themselves.
+     *
+     * @param typeId the non-negative id written in place of the type, it must be stable across releases
+     * @param type the type to register
+     * @param serializer the serializer of the type's values
+     * @param <T> the type to register
+     * @return this serializer
+     * @throws IllegalArgumentException if the id is negative or already registered for another type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> BinaryStateSerializer<State> register( int typeId, @NonNull Class<T> type, @NonNull Serializer<? super T> serializer ) {
+        if( typeId < 0 ) {
+            throw new IllegalArgumentException( format("type id %d cannot be negative", typeId) );
+        }
+        var registration = new Registration( typeId, type, (Serializer<Object>)serializer );
+        var previous = registrationsById.putIfAbsent( typeId, registration );
+        if( previous != null && !previous.type().equals(type) ) {
+            throw new IllegalArgumentException( format("type id %d is already registered for '%s'", typeId, previous.type().getName()) );
+        }
+        registrationsById.put( typeId, registration );
+        registrations.removeIf( r -> r.type().equals(type) );
+        registrations.add( registration );
+        resolved.clear();
+        return this;
+    }
+
+    /**
+     * Resolves the registration for a concrete class: an exact match wins, otherwise the first registered supertype.
+     */
+    Optional<Registration> registrationOf( Class<?> type ) {
+        var result = resolved.get( type );
+        if( result == null ) {
+            result = registrations.stream()
+                        .filter( r -> r.type().equals(type) )
+                        .findFirst()
+                        .or( () -> registrations.stream().filter( r -> r.type().isAssignableFrom(type) ).findFirst() );
+            resolved.put( type, result );
+        }
+        return result;
+    }
+
+    Optional<Registration> registrationOf( int typeId ) {
+        return Optional.ofNullable( registrationsById.get( typeId ) );
+    }
+
+    void warnJavaSerialization( Class<?> type ) {
+        if( javaSerialized.add( type ) ) {
+            log.warn( "type '{}' is not registered, it will be written using java serialization", type.getName() );
+        }
+    }
+
+    private BinaryOutput encode( State object ) throws IOException {
+        var out = new BinaryOutput( this, 256 );
+        out.write( VERSION );
+        out.writeMap( object.data() );
+        return out;
+    }
+
+    private State decode( byte[] bytes, int offset, int length ) throws IOException, ClassNotFoundException {
+        var in = new BinaryInput( this, bytes, offset, length );
+        int version = in.readUnsignedByte();
+        if( version != VERSION ) {
+            throw new StreamCorruptedException( format("unsupported binary state version %d", version) );
+        }
+        return stateOf( in.readMap() );
+    }
+
+    /**
+     * Writes the state as a length prefixed binary block, or inline when the output is itself a binary output.
+     */
+    @Override
+    public void write( State object, ObjectOutput out ) throws IOException {
+        if( out instanceof BinaryOutput binaryOut ) {
+            binaryOut.writeMap( object.data() );
+            return;
+        }
+        byte[] bytes = encode( object ).toByteArray();
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+    @Override
+    public State read( ObjectInput in ) throws IOException, ClassNotFoundException {
+        if( in instanceof BinaryInput binaryIn ) {
+            return stateOf( binaryIn.readMap() );
+        }
+        byte[] bytes = new byte[ in.readInt() ];
+        in.readFully( bytes );
+        return decode( bytes, 0, bytes.length );
+    }
+
+    @Override
+    public byte[] writeObject( State object ) throws IOException {
+        Objects.requireNonNull( object, "object cannot be null" );
+        return encode( object ).toByteArray();
+    }
+
+    @Override
+    public State readObject( byte[] bytes ) throws IOException, ClassNotFoundException {
+        Objects.requireNonNull( bytes, "bytes cannot be null" );
+        if( bytes.length == 0 ) {
+            throw new IllegalArgumentException("bytes cannot be empty");
+        }
+        return decode( bytes, 0, bytes.length );
+    }
+
+    /**
+     * decodes the state directly from the encoding buffer, without copying it
+     */
+    @Override
+    public State cloneObject( State object ) throws IOException, ClassNotFoundException {
+        Objects.requireNonNull( object, "object cannot be null" );
+        var out = encode( object );
+        return decode( out.buffer(), 0, out.size() );
+    }
+
+}
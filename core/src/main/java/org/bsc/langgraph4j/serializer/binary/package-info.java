@@ -0,0 +1,7 @@
+/**
+ * This package contains a compact binary implementation of the {@link org.bsc.langgraph4j.serializer.StateSerializer}
+ * that uses a type id registry in place of class descriptors and an in-stream string table.
+ *
+ * @see org.bsc.langgraph4j.serializer.binary.BinaryStateSerializer
+ */
+package org.bsc.langgraph4j.serializer.binary;
@@ -11,6 +11,8 @@ import java.lang.reflect.Type;
 
 public abstract class PlainTextStateSerializer<State extends AgentState> extends StateSerializer<State> {
 
+    static final int CHUNK_SIZE = 8 * 1024;
+
     protected PlainTextStateSerializer(@NonNull AgentStateFactory<State> stateFactory) {
         super(stateFactory);
     }
@@ -48,6 +50,143 @@ public abstract class PlainTextStateSerializer<State extends AgentState> extends
 
     }
 
+    /**
+     * Returns an output stream that writes its content to the given output as a sequence of length prefixed chunks.
+     * Closing the stream writes the terminating empty chunk, without closing the given output.
+     * It allows to write a text of unbounded size, with bounded extra memory, without knowing its length in advance.
+     *
+     * @param out the output to write the chunks to
+     * @return the chunked output stream
+     */
+    protected static OutputStream chunkedOutputStream( @NonNull ObjectOutput out ) {
+        return new ChunkedOutputStream( out, CHUNK_SIZE );
+    }
+
+    /**
+     * Returns an input stream that reads the content written by {@link #chunkedOutputStream(ObjectOutput)}.
+     * Closing the stream skips the remaining chunks, without closing the given input.
+     *
+     * @param in the input to read the chunks from
+     * @return the chunked input stream
+     */
+    protected static InputStream chunkedInputStream( @NonNull ObjectInput in ) {
+        return new ChunkedInputStream( in );
+    }
+
+    private static class ChunkedOutputStream extends OutputStream {
+        private final ObjectOutput out;
+        private final byte[] buffer;
+        private int count;
+        private boolean closed;
+
+        ChunkedOutputStream( ObjectOutput out, int chunkSize ) {
+            this.out = out;
+            this.buffer = new byte[chunkSize];
+        }
+
+        private void writeChunk() throws IOException {
+            if( count > 0 ) {
+                out.writeInt( count );
+                out.write( buffer, 0, count );
+                count = 0;
+            }
+        }
+
+        @Override
+        public void write( int b ) throws IOException {
+            if( count == buffer.length ) {
+                writeChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException {
+            while( len > 0 ) {
+                if( count == buffer.length ) {
+                    writeChunk();
+                }
+                int n = Math.min( len, buffer.length - count );
+                System.arraycopy( b, off, buffer, count, n );
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeChunk();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if( !closed ) {
+                closed = true;
+                writeChunk();
+                out.writeInt( 0 );
+                out.flush();
+            }
+        }
+    }
+
+    private static class ChunkedInputStream extends InputStream {
+        private final ObjectInput in;
+        private int remaining;
+        private boolean eof;
+
+        ChunkedInputStream( ObjectInput in ) {
+            this.in = in;
+        }
+
+        private boolean nextChunk() throws IOException {
+            while( !eof && remaining == 0 ) {
+                remaining = in.readInt();
+                if( remaining < 0 ) {
+                    throw new StreamCorruptedException( "invalid chunk length " + remaining );
+                }
+                eof = ( remaining == 0 );
+            }
+            return !eof;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if( !nextChunk() ) {
+                return -1;
+            }
+            --remaining;
+            return in.readUnsignedByte();
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) throws IOException {
+            if( len == 0 ) {
+                return 0;
+            }
+            if( !nextChunk() ) {
+                return -1;
+            }
+            int n = Math.min( len, remaining );
+            in.readFully( b, off, n );
+            remaining -= n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            while( nextChunk() ) {
+                int n = in.skipBytes( remaining );
+                if( n <= 0 ) {
+                    in.readByte();
+                    n = 1;
+                }
+                remaining -= n;
+            }
+        }
+    }
+
     public State read( Reader reader ) throws IOException, ClassNotFoundException {
         StringBuilder sb = new StringBuilder();
         try (BufferedReader bufferedReader = new BufferedReader(reader)) {
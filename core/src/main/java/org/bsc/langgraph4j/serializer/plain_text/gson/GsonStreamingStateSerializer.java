@@ -0,0 +1,70 @@
+package org.bsc.langgraph4j.serializer.plain_text.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import lombok.NonNull;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.AgentStateFactory;
+
+import java.io.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streaming variant of {@link GsonStateSerializer}.
+ * The state is written by a {@link JsonWriter} directly over the underlying output, as a sequence of
+ * length prefixed chunks, and read back incrementally by a {@link JsonReader}. Neither an intermediate
+ * {@link String} nor the 64KB limit of {@link DataOutput#writeUTF(String)} are involved.
+ * <p>
+ * Note: the stored format is not compatible with the one of {@link GsonStateSerializer}.
+ *
+ * @param <State> The type of the agent state to be serialized/deserialized.
+ */
+public abstract class GsonStreamingStateSerializer<State extends AgentState> extends GsonStateSerializer<State> {
+
+    protected GsonStreamingStateSerializer( @NonNull AgentStateFactory<State> stateFactory, Gson gson ) {
+        super( stateFactory, gson );
+    }
+
+    protected GsonStreamingStateSerializer( @NonNull AgentStateFactory<State> stateFactory ) {
+        super( stateFactory );
+    }
+
+    @Override
+    public void write( State object, ObjectOutput out ) throws IOException {
+        try( JsonWriter writer = gson.newJsonWriter( new BufferedWriter( new OutputStreamWriter( chunkedOutputStream( out ), UTF_8 ) ) ) ) {
+            gson.toJson( object, getStateType(), writer );
+        }
+        catch( JsonIOException ex ) {
+            throw new IOException( ex );
+        }
+    }
+
+    @Override
+    public State read( ObjectInput in ) throws IOException, ClassNotFoundException {
+        try( JsonReader reader = gson.newJsonReader( new InputStreamReader( chunkedInputStream( in ), UTF_8 ) ) ) {
+            return gson.fromJson( reader, getStateType() );
+        }
+        catch( JsonIOException | JsonSyntaxException ex ) {
+            throw new IOException( ex );
+        }
+    }
+
+    @Override
+    public State read( String data ) throws IOException, ClassNotFoundException {
+        return read( new StringReader( data ) );
+    }
+
+    @Override
+    public State read( Reader reader ) throws IOException, ClassNotFoundException {
+        try( JsonReader jsonReader = gson.newJsonReader( reader ) ) {
+            return gson.fromJson( jsonReader, getStateType() );
+        }
+        catch( JsonIOException | JsonSyntaxException ex ) {
+            throw new IOException( ex );
+        }
+    }
+}
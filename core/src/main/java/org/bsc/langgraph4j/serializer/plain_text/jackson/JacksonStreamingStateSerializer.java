@@ -0,0 +1,62 @@
+package org.bsc.langgraph4j.serializer.plain_text.jackson;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.AgentStateFactory;
+
+import java.io.*;
+
+/**
+ * Streaming variant of {@link JacksonStateSerializer}.
+ * The state is written by a {@link JsonGenerator} directly over the underlying output, as a sequence of
+ * length prefixed chunks, and read back incrementally by a {@link JsonParser}. Neither an intermediate
+ * {@link String} nor the 64KB limit of {@link DataOutput#writeUTF(String)} are involved.
+ * <p>
+ * Note: the stored format is not compatible with the one of {@link JacksonStateSerializer}.
+ *
+ * @param <State> The type of the agent state to be serialized/deserialized.
+ */
+public abstract class JacksonStreamingStateSerializer<State extends AgentState> extends JacksonStateSerializer<State> {
+
+    protected JacksonStreamingStateSerializer( AgentStateFactory<State> stateFactory ) {
+        super( stateFactory );
+    }
+
+    protected JacksonStreamingStateSerializer( @NonNull AgentStateFactory<State> stateFactory, @NonNull ObjectMapper objectMapper ) {
+        super( stateFactory, objectMapper );
+    }
+
+    @Override
+    public void write( State object, ObjectOutput out ) throws IOException {
+        try( OutputStream stream = chunkedOutputStream( out );
+             JsonGenerator generator = objectMapper.getFactory().createGenerator( stream, JsonEncoding.UTF8 ) ) {
+            generator.disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
+            objectMapper.writeValue( generator, object );
+        }
+    }
+
+    @Override
+    public State read( ObjectInput in ) throws IOException, ClassNotFoundException {
+        try( InputStream stream = chunkedInputStream( in );
+             JsonParser parser = objectMapper.getFactory().createParser( stream ) ) {
+            parser.disable( JsonParser.Feature.AUTO_CLOSE_SOURCE );
+            return objectMapper.readValue( parser, getStateType() );
+        }
+    }
+
+    @Override
+    public State read( String data ) throws IOException, ClassNotFoundException {
+        return objectMapper.readValue( data, getStateType() );
+    }
+
+    @Override
+    public State read( Reader reader ) throws IOException, ClassNotFoundException {
+        try( reader ) {
+            return objectMapper.readValue( reader, getStateType() );
+        }
+    }
+}
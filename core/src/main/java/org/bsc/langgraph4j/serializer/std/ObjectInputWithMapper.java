@@ -27,13 +27,9 @@ public class ObjectInputWithMapper implements ObjectInput {
         if( object instanceof Class ) {
             Class<?> type = (Class<?>) object;
 
+            // the resolution already matches by class name, so there is no need of a further lookup
             Optional<Serializer<Object>> optSerializer = mapper.getSerializer(type);
 
-            if( !optSerializer.isPresent() ) {
-                optSerializer = mapper.getSerializer(type.getName());
-            }
-
-
             Serializer<Object> serializer = optSerializer.orElseGet( () -> {
                 log.warn( "No serializer found for class {} in {}", type.getName(), mapper );
                 return mapper.getDefaultSerializer();
@@ -51,7 +51,9 @@ public class SerializerMapper {
 
         @Override
         public boolean equals(Object o) {
-            return Objects.equals( o, _className );
+            if( this == o ) return true;
+            if( !(o instanceof Key) ) return false;
+            return Objects.equals( ((Key)o)._className, _className );
         }
 
         @Override
@@ -61,36 +63,112 @@ public class SerializerMapper {
     }
     private final Map<Key, Serializer<?>> _serializers = new HashMap<>();
 
+    /**
+     * memoizes the resolved serializer, or its absence, per concrete class.
+     * It is replaced on every registration change.
+     */
+    private volatile ClassValue<Optional<Serializer<Object>>> _resolved = newResolutionCache();
+
+    private ClassValue<Optional<Serializer<Object>>> newResolutionCache() {
+        return new ClassValue<>() {
+            @Override
+            protected Optional<Serializer<Object>> computeValue(Class<?> type) {
+                return resolve(type);
+            }
+        };
+    }
+
     public SerializerMapper register(@NonNull  Class<?> clazz, @NonNull  Serializer<?> serializer ) {
-        _serializers.put( Key.of(clazz), serializer);
+        synchronized( _serializers ) {
+            _serializers.put( Key.of(clazz), serializer);
+            _resolved = newResolutionCache();
+        }
         return this;
     }
 
     public boolean unregister( @NonNull  Class<? extends Serializer<?>> clazz ) {
         Objects.requireNonNull( clazz, "Serializer's class cannot be null" );
-        Serializer<?> serializer = _serializers.remove( Key.of(clazz) );
-        return serializer != null;
+        synchronized( _serializers ) {
+            Serializer<?> serializer = _serializers.remove( Key.of(clazz) );
+            _resolved = newResolutionCache();
+            return serializer != null;
+        }
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the serializer of the given class. The resolution is cached per class, including the absence of a serializer.
+     * <p>
+     * A serializer registered for the class itself wins. Otherwise, among the registered supertypes, the most specific
+     * ones are retained (those that are not a supertype of another candidate) and the nearest one in the type hierarchy
+     * is chosen, ties being broken by type name.
+     *
+     * @param clazz the class of the value to serialize
+     * @return the serializer of the given class, if any
+     */
     public Optional<Serializer<Object>> getSerializer( @NonNull Class<?> clazz ) {
-        Serializer<?> ser = _serializers.get( Key.of(clazz) );
-
-        return ( ser != null ) ?
-
-            Optional.of((Serializer<Object>)ser) :
+        return _resolved.get( clazz );
+    }
 
-            _serializers.entrySet().stream()
-                    .filter( e -> e.getKey().getType().isAssignableFrom(clazz) )
-                    .findFirst()
-                    .map( e -> (Serializer<Object>)e.getValue() )
-                ;
+    @SuppressWarnings("unchecked")
+    private Optional<Serializer<Object>> resolve( Class<?> clazz ) {
+        synchronized( _serializers ) {
+            Serializer<?> ser = _serializers.get( Key.of(clazz) );
+            if( ser != null ) {
+                return Optional.of((Serializer<Object>)ser);
+            }
+
+            List<Key> candidates = _serializers.keySet().stream()
+                    .filter( key -> key.getType() != null && key.getType().isAssignableFrom(clazz) )
+                    .collect(Collectors.toList());
+
+            candidates.removeIf( key -> candidates.stream()
+                    .anyMatch( other -> other != key && key.getType().isAssignableFrom(other.getType()) ) );
+
+            if( candidates.isEmpty() ) {
+                return Optional.empty();
+            }
+
+            Map<Class<?>,Integer> distances = distances(clazz);
+
+            return candidates.stream()
+                    .min( Comparator.<Key>comparingInt( key -> distances.getOrDefault( key.getType(), Integer.MAX_VALUE ) )
+                            .thenComparing( Key::getTypeName ) )
+                    .map( key -> (Serializer<Object>)_serializers.get(key) );
+        }
+    }
 
+    /**
+     * computes the distance of every supertype of the given class, breadth first over superclass and interfaces
+     */
+    private static Map<Class<?>,Integer> distances( Class<?> clazz ) {
+        Map<Class<?>,Integer> result = new HashMap<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        result.put( clazz, 0 );
+        queue.add( clazz );
+        while( !queue.isEmpty() ) {
+            Class<?> type = queue.poll();
+            int distance = result.get(type) + 1;
+            List<Class<?>> supertypes = new ArrayList<>( Arrays.asList( type.getInterfaces() ) );
+            if( type.getSuperclass() != null ) {
+                supertypes.add( 0, type.getSuperclass() );
+            }
+            else if( type.isInterface() ) {
+                supertypes.add( Object.class );
+            }
+            for( Class<?> supertype : supertypes ) {
+                if( result.putIfAbsent( supertype, distance ) == null ) {
+                    queue.add( supertype );
+                }
+            }
+        }
+        return result;
     }
 
     @SuppressWarnings("unchecked")
     public Optional<Serializer<Object>> getSerializer( @NonNull String className ) {
-        return Optional.ofNullable((Serializer<Object>)_serializers.get( Key.of(className) ));
+        synchronized( _serializers ) {
+            return Optional.ofNullable((Serializer<Object>)_serializers.get( Key.of(className) ));
+        }
     }
 
     public Serializer<Object> getDefaultSerializer() {
@@ -124,7 +202,10 @@ public class SerializerMapper {
 
     @Override
     public String toString() {
-        List<String> typeNames = _serializers.keySet().stream().map(Key::getTypeName).collect(Collectors.toList());
+        List<String> typeNames;
+        synchronized( _serializers ) {
+            typeNames = _serializers.keySet().stream().map(Key::getTypeName).collect(Collectors.toList());
+        }
         return format( "SerializerMapper: \n%s", String.join("\n", typeNames) );
 
     }
@@ -2,8 +2,6 @@ package org.bsc.langgraph4j.state;
 
 import java.util.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Optional.ofNullable;
@@ -13,15 +11,17 @@ import static java.util.Optional.ofNullable;
  */
 public class AgentState {
 
-    private final java.util.Map<String,Object> data;
+    private java.util.Map<String,Object> data;
 
     /**
      * Constructs an AgentState with the given initial data.
+     * The data is copied, unless it is a {@link LazyStateMap} that is unmodifiable and is kept as is
+     * to not decode its values (the deprecated {@link #appendableValue(String)} replaces it with a modifiable copy).
      *
      * @param initData the initial data for the agent state
      */
     public AgentState(Map<String,Object> initData) {
-        this.data = new HashMap<>(initData);
+        this.data = ( initData instanceof LazyStateMap ) ? initData : new HashMap<>(initData);
     }
 
     /**
@@ -30,7 +30,7 @@ public class AgentState {
      * @return an unmodifiable map of the data
      */
     public final java.util.Map<String,Object> data() {
-        return unmodifiableMap(data);
+        return ( data instanceof LazyStateMap ) ? data : unmodifiableMap(data);
     }
 
 
@@ -54,33 +54,10 @@ public class AgentState {
         return data.toString();
     }
 
-    /**
-     * Updates the partial state from a schema using channels.
-     *
-     * @param state        The current state as a map of key-value pairs.
-     * @param partialState The partial state to be updated.
-     * @param channels     A map of channel names to their implementations.
-     * @return An updated version of the partial state after applying the schema and channels.
-     */
-    private static Map<String,Object> updatePartialStateFromSchema(  Map<String,Object> state, Map<String,Object> partialState, Map<String, Channel<?>> channels ) {
-        if( channels == null || channels.isEmpty() ) {
-            return partialState;
-        }
-        return partialState.entrySet().stream().map( entry -> {
-
-            Channel<?> channel = channels.get(entry.getKey());
-            if (channel != null) {
-                Object newValue = channel.update( entry.getKey(), state.get(entry.getKey()), entry.getValue());
-                return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), newValue);
-            }
-
-            return entry;
-        }).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-    }
-
     /**
      * Updates a state with the provided partial state.
      * The merge function is used to merge the current state value with the new value.
+     * The given state is not modified, see {@link StateMerger} to update a state in place.
      *
      * @param state the current state
      * @param partialState the partial state to update from
@@ -94,13 +71,21 @@ public class AgentState {
             return state;
         }
 
-        Map<String, Object> updatedPartialState = updatePartialStateFromSchema(state, partialState, channels);
-
-        return Stream.concat(state.entrySet().stream(), updatedPartialState.entrySet().stream())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        AgentState::mergeFunction));
+        final Map<String,Object> result = new HashMap<>( (int)((state.size() + partialState.size()) / 0.75f) + 1 );
+        result.putAll( state );
+        for( Map.Entry<String,Object> entry : partialState.entrySet() ) {
+            final String key = entry.getKey();
+            Object newValue = entry.getValue();
+
+            final Channel<?> channel = ( channels != null ) ? channels.get(key) : null;
+            if( channel != null ) {
+                final Object oldValue = state.get(key);
+                newValue = channel.update( key, oldValue, newValue );
+                result.putAll( channel.derivedUpdates( key, oldValue, newValue, result ) );
+            }
+            result.put( key, state.containsKey(key) ? mergeFunction( state.get(key), newValue ) : newValue );
+        }
+        return result;
     }
 
     /**
@@ -180,6 +165,10 @@ public class AgentState {
         if (value != null) {
             rw.append(value);
         }
+        if (this.data instanceof LazyStateMap) {
+            // the lazy map is unmodifiable, it is decoded into a modifiable copy
+            this.data = new HashMap<>(this.data);
+        }
         this.data.put(key, rw);
         return rw;
     }
@@ -211,7 +211,8 @@ public class AppenderChannel<T> implements Channel<List<T>> {
             // this is to allow single value other than List or Array
             try {
                 T typedValue = (T)newValue;
-                return Channel.super.update(key, oldValue, List.of(typedValue));
+                // go through the list path to never update the old value in place
+                return update(key, oldValue, List.of(typedValue));
             } catch (ClassCastException e) {
                 log.error("Unsupported content type: {}", newValue.getClass());
                 throw e;
@@ -1,5 +1,6 @@
 package org.bsc.langgraph4j.state;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -137,4 +138,19 @@ public interface Channel<T> {
 
         return getReducer().map( reducer -> reducer.apply( _old, _new)).orElse(_new);
     }
+
+    /**
+     * Returns the updates of other state properties that follow the update of this one
+     * (ie. the summary of the values evicted by a {@link WindowChannel}).
+     * They are applied as they are, without going through their channels.
+     *
+     * @param key the key of the state property that has been updated
+     * @param oldValue the value passed to {@link #update(String, Object, Object)}
+     * @param newValue the value returned by {@link #update(String, Object, Object)}
+     * @param state the state being updated
+     * @return the values of the other state properties to update, by default none
+     */
+    default Map<String,Object> derivedUpdates(String key, Object oldValue, Object newValue, Map<String,Object> state) {
+        return Map.of();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package org.bsc.langgraph4j.state;
+
+/**
+ * A {@link Channel} whose updates are commutative and associative: applying the updates of several nodes
+ * gives the same value whatever their order, and they can be combined before being applied.
+ * <p>
+ * A parallel node accumulates the updates of its branches to such a channel as soon as each branch completes,
+ * concurrently and without locks, through an {@link Accumulator}. At the join the accumulated result is applied to
+ * the state as a single update, instead of merging the branch results one after the other.
+ * <p>
+ * The old value passed to {@link #update(String, Object, Object)} may be shared (ie. by a checkpoint),
+ * so it must never be updated in place.
+ *
+ * @param <T> the type of the state property
+ * @see CounterChannel
+ * @see MinMaxChannel
+ * @see SetUnionChannel
+ * @see ConcurrentAppenderChannel
+ */
+public interface CommutativeChannel<T> extends Channel<T> {
+
+    /**
+     * Combines the updates of the branches of a parallel node. It is used by a single join, so it's never reset.
+     */
+    interface Accumulator {
+
+        /**
+         * Adds the update of a branch. It may be called concurrently by all the branches, without blocking.
+         *
+         * @param branch the index of the branch, from 0
+         * @param value the value returned by the branch for the channel key
+         */
+        void accumulate( int branch, Object value );
+
+        /**
+         * Returns the combined update, to be passed to {@link Channel#update(String, Object, Object)}.
+         * It must be called once all the branches have been accumulated.
+         *
+         * @return the combined update, or null if no branch has updated the channel
+         */
+        Object result();
+    }
+
+    /**
+     * Creates the accumulator of the updates of a parallel node
+     *
+     * @param branches the number of branches of the parallel node
+     * @return a new accumulator
+     */
+    Accumulator newAccumulator( int branches );
+
+}
@@ -0,0 +1,123 @@
+package org.bsc.langgraph4j.state;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * ConcurrentAppenderChannel is a {@link CommutativeChannel} that accumulates a list of values, as the {@link AppenderChannel}.
+ * <p>
+ * Each branch of a parallel node stores its values in its own slot, without contention, and at the join the values
+ * are appended in branch order, so the result doesn't depend on the completion order of the branches.
+ * Since the removals are not commutative, the {@link AppenderChannel.RemoveIdentifier}s are not supported.
+ * <p>
+ * The value of the channel is an immutable list.
+ *
+ * @param <T> the type of the values being accumulated
+ */
+public class ConcurrentAppenderChannel<T> implements CommutativeChannel<List<T>> {
+
+    /**
+     * Creates an instance of `ConcurrentAppenderChannel` whose default value is the empty list.
+     *
+     * @param <T> the type of elements in the list
+     * @return a new instance of `ConcurrentAppenderChannel`
+     */
+    public static <T> ConcurrentAppenderChannel<T> of() {
+        return new ConcurrentAppenderChannel<>();
+    }
+
+    private ConcurrentAppenderChannel() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> valuesOf( Object value ) {
+        final List<Object> result;
+        if( value instanceof List<?> list ) {
+            result = (List<Object>) list;
+        }
+        else if( value.getClass().isArray() ) {
+            result = Arrays.asList( (Object[]) value );
+        }
+        else {
+            result = Collections.singletonList( value );
+        }
+        for( Object element : result ) {
+            if( element instanceof AppenderChannel.RemoveIdentifier<?> ) {
+                throw new IllegalArgumentException( "ConcurrentAppenderChannel doesn't support RemoveIdentifier" );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The values are appended by {@link #update(String, Object, Object)}, no reducer is needed
+     *
+     * @return an empty {@code Optional}
+     */
+    @Override
+    public Optional<Reducer<List<T>>> getReducer() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return an {@code Optional} containing the provider of the empty list
+     */
+    @Override
+    public Optional<Supplier<List<T>>> getDefault() {
+        return Optional.of( List::of );
+    }
+
+    /**
+     * Appends the new values to the old list
+     *
+     * @param key the key of the state property to be updated
+     * @param oldValue the current list
+     * @param newValue a value, a {@code List} or an array of values. If null, or empty, the old value is returned.
+     * @return the new list
+     */
+    @Override
+    public Object update( String key, Object oldValue, Object newValue ) {
+        if( newValue == null ) {
+            return oldValue;
+        }
+        final List<Object> values = valuesOf( newValue );
+        if( values.isEmpty() ) {
+            return oldValue;
+        }
+        final Collection<?> old = ( oldValue instanceof Collection<?> collection ) ? collection : List.of();
+        final List<Object> result = new ArrayList<>( old.size() + values.size() );
+        result.addAll( old );
+        result.addAll( values );
+        return Collections.unmodifiableList( result );
+    }
+
+    @Override
+    public Accumulator newAccumulator( int branches ) {
+        return new Accumulator() {
+            final AtomicReferenceArray<List<Object>> slots = new AtomicReferenceArray<>( branches );
+
+            @Override
+            public void accumulate( int branch, Object value ) {
+                if( value != null ) {
+                    slots.set( branch, valuesOf( value ) );
+                }
+            }
+
+            @Override
+            public Object result() {
+                List<Object> result = null;
+                for( int i = 0; i < slots.length(); ++i ) {
+                    final List<Object> values = slots.get( i );
+                    if( values != null && !values.isEmpty() ) {
+                        if( result == null ) {
+                            result = new ArrayList<>();
+                        }
+                        result.addAll( values );
+                    }
+                }
+                return result;
+            }
+        };
+    }
+}
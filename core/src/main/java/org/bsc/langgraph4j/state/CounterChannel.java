@@ -0,0 +1,85 @@
+package org.bsc.langgraph4j.state;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * CounterChannel is a {@link CommutativeChannel} that sums the numbers it is updated with, as a {@code Long}.
+ * <p>
+ * The updates of the branches of a parallel node are summed on a {@link LongAdder}, so concurrent branches don't contend.
+ */
+public class CounterChannel implements CommutativeChannel<Long> {
+
+    private static final CounterChannel INSTANCE = new CounterChannel();
+
+    /**
+     * @return the counter channel, whose default value is 0
+     */
+    public static CounterChannel of() {
+        return INSTANCE;
+    }
+
+    private CounterChannel() {
+    }
+
+    private static long longOf( Object value ) {
+        if( value instanceof Number number ) {
+            return number.longValue();
+        }
+        throw new IllegalArgumentException( "Unsupported counter value type: " + value.getClass() );
+    }
+
+    /**
+     * @return an {@code Optional} containing the reducer that sums the values
+     */
+    @Override
+    public Optional<Reducer<Long>> getReducer() {
+        return Optional.of( ( left, right ) -> ( left == null ) ? right : Long.valueOf( left + right ) );
+    }
+
+    /**
+     * @return an {@code Optional} containing the provider of 0
+     */
+    @Override
+    public Optional<Supplier<Long>> getDefault() {
+        return Optional.of( () -> 0L );
+    }
+
+    /**
+     * Adds the new value to the old one
+     *
+     * @param key the key of the state property to be updated
+     * @param oldValue the current count
+     * @param newValue the number to add. If null, the old value is returned.
+     * @return the new count
+     */
+    @Override
+    public Object update( String key, Object oldValue, Object newValue ) {
+        if( newValue == null ) {
+            return oldValue;
+        }
+        return ( ( oldValue != null ) ? longOf( oldValue ) : 0L ) + longOf( newValue );
+    }
+
+    @Override
+    public Accumulator newAccumulator( int branches ) {
+        return new Accumulator() {
+            final LongAdder sum = new LongAdder();
+            volatile boolean updated;
+
+            @Override
+            public void accumulate( int branch, Object value ) {
+                if( value != null ) {
+                    sum.add( longOf( value ) );
+                    updated = true;
+                }
+            }
+
+            @Override
+            public Object result() {
+                return updated ? sum.sum() : null;
+            }
+        };
+    }
+}
@@ -0,0 +1,250 @@
+package org.bsc.langgraph4j.state;
+
+import org.bsc.langgraph4j.utils.PersistentList;
+import org.bsc.langgraph4j.utils.PersistentMap;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * KeyedAppenderChannel is a {@link Channel} that accumulates a list of values, as the {@link AppenderChannel},
+ * identifying each value by a key (ie. the id of a message).
+ * <p>
+ * The value of the channel is a {@link KeyedList} that indexes the position of each key, so:
+ * <ul>
+ * <li>a new value whose key is already in the list replaces the old one in place,</li>
+ * <li>a {@link RemoveByKey} (see {@link #removeByKey(Object)}) removes the value with its key in {@code O(1)} expected time.</li>
+ * </ul>
+ * All the removals of an update are applied to the old list before the new values are appended: they leave
+ * tombstones that are compacted in a single pass once they exceed 32. The values are held in a {@link PersistentList},
+ * so an update copies only the chunks it changes, not the whole list. The other {@link AppenderChannel.RemoveIdentifier}s
+ * (ie. {@link RemoveByHash}) are still supported, through a scan of the list. The values with a null key are always appended.
+ * <p>
+ * The list is immutable: an old value of another type (ie. a list read from a checkpoint) is indexed on its first update.
+ *
+ * @param <K> the type of the keys
+ * @param <T> the type of the values being accumulated
+ * @see AppenderChannel
+ */
+public class KeyedAppenderChannel<K,T> implements Channel<List<T>> {
+
+    /**
+     * Removes the value with the given key from a {@link KeyedAppenderChannel}.
+     * Used with another channel, it removes the first element whose key is equal to the given one.
+     *
+     * @param key the key of the value to remove
+     * @param keyExtractor the key extractor of the channel
+     * @param <K> the type of the keys
+     * @param <T> the type of the values
+     */
+    public record RemoveByKey<K,T>( K key, Function<? super T, ? extends K> keyExtractor ) implements AppenderChannel.RemoveIdentifier<T> {
+
+        @Override
+        public int compareTo( T element, int atIndex ) {
+            return Objects.equals( key, keyExtractor.apply( element ) ) ? 0 : 1;
+        }
+    }
+
+    private static final int[] NO_TOMBSTONES = new int[0];
+
+    private final Function<? super T, ? extends K> keyExtractor;
+
+    /**
+     * Creates an instance of `KeyedAppenderChannel` whose default value is the empty list.
+     *
+     * @param keyExtractor the function that returns the key of a value
+     * @param <K> the type of the keys
+     * @param <T> the type of elements in the list
+     * @return a new instance of `KeyedAppenderChannel`
+     */
+    public static <K,T> KeyedAppenderChannel<K,T> of( Function<? super T, ? extends K> keyExtractor ) {
+        return new KeyedAppenderChannel<>( keyExtractor );
+    }
+
+    private KeyedAppenderChannel( Function<? super T, ? extends K> keyExtractor ) {
+        this.keyExtractor = requireNonNull( keyExtractor, "keyExtractor cannot be null" );
+    }
+
+    /**
+     * @param key the key of the value to remove
+     * @return the identifier that removes the value with the given key
+     */
+    public RemoveByKey<K,T> removeByKey( K key ) {
+        return new RemoveByKey<>( key, keyExtractor );
+    }
+
+    /**
+     * The values are appended by {@link #update(String, Object, Object)}, no reducer is needed
+     *
+     * @return an empty {@code Optional}
+     */
+    @Override
+    public Optional<Reducer<List<T>>> getReducer() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return an {@code Optional} containing the provider of the empty list
+     */
+    @Override
+    public Optional<Supplier<List<T>>> getDefault() {
+        return Optional.of( KeyedList::empty );
+    }
+
+    @SuppressWarnings("unchecked")
+    private KeyedList<K,T> keyedListOf( Object value ) {
+        if( value == null ) {
+            return KeyedList.empty();
+        }
+        if( value instanceof KeyedList<?,?> list ) {
+            return (KeyedList<K,T>) list;
+        }
+        if( value instanceof Collection<?> collection ) {
+            return indexed( collection );
+        }
+        throw new IllegalArgumentException( "Unsupported channel value type: " + value.getClass() );
+    }
+
+    /**
+     * Builds a list without tombstones from the given elements, in a single pass.
+     * A later element with the same key replaces the earlier one.
+     */
+    @SuppressWarnings("unchecked")
+    private KeyedList<K,T> indexed( Collection<?> elements ) {
+        final List<Object> slots = new ArrayList<>( elements.size() );
+        PersistentMap<K,Integer> index = PersistentMap.empty();
+        for( Object element : elements ) {
+            final K key = keyExtractor.apply( (T) element );
+            final Integer slot = ( key != null ) ? index.get( key ) : null;
+            if( slot != null ) {
+                slots.set( slot, element );
+                continue;
+            }
+            if( key != null ) {
+                index = index.with( key, slots.size() );
+            }
+            slots.add( element );
+        }
+        return new KeyedList<>( PersistentList.copyOf( slots ), NO_TOMBSTONES, index );
+    }
+
+    /**
+     * Looks for the element matched by a generic identifier, scanning the live slots
+     *
+     * @return the slot of the matched element, or -1 if none matched
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> int find( PersistentList<Object> slots, int[] tombstones, AppenderChannel.RemoveIdentifier<T> removeIdentifier ) {
+        int atIndex = 0;
+        int tombstone = 0;
+        int slot = 0;
+        for( Object element : slots ) {
+            if( tombstone < tombstones.length && tombstones[tombstone] == slot ) {
+                ++tombstone;
+            }
+            else if( removeIdentifier.compareTo( (T) element, atIndex++ ) == 0 ) {
+                return slot;
+            }
+            ++slot;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the sorted tombstones with the given slot inserted
+     */
+    private static int[] withTombstone( int[] tombstones, int slot ) {
+        final int position = -( Arrays.binarySearch( tombstones, slot ) + 1 );
+        final int[] result = new int[ tombstones.length + 1 ];
+        System.arraycopy( tombstones, 0, result, 0, position );
+        result[position] = slot;
+        System.arraycopy( tombstones, position, result, position + 1, tombstones.length - position );
+        return result;
+    }
+
+    /**
+     * Removes the values matched by the {@link AppenderChannel.RemoveIdentifier}s among the new values from the old list,
+     * then appends the other new values, replacing the ones with the same key.
+     *
+     * @param key the key of the state property to be updated
+     * @param oldValue the current list
+     * @param newValue a value, a {@code List} or an array of values. If null, or empty, the old value is returned.
+     * @return the new list
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object update( String key, Object oldValue, Object newValue ) {
+        if( newValue == null ) {
+            return oldValue;
+        }
+        final Collection<Object> values;
+        if( newValue instanceof List<?> list ) {
+            values = (Collection<Object>) list;
+        }
+        else if( newValue.getClass().isArray() ) {
+            values = Arrays.asList( (Object[]) newValue );
+        }
+        else {
+            values = Collections.singletonList( newValue );
+        }
+        if( values.isEmpty() ) {
+            return oldValue;
+        }
+
+        final KeyedList<K,T> old = keyedListOf( oldValue );
+        PersistentList<Object> slots = old.slots();
+        PersistentMap<K,Integer> index = old.index();
+        int[] tombstones = old.tombstones();
+
+        // the removals are applied to the old values first, each one leaves a tombstone
+        boolean removed = false;
+        for( Object value : values ) {
+            int slot = -1;
+            if( value instanceof RemoveByKey<?,?> removeByKey && removeByKey.keyExtractor() == keyExtractor ) {
+                final Integer keySlot = index.get( removeByKey.key() );
+                if( keySlot != null ) {
+                    slot = keySlot;
+                }
+            }
+            else if( value instanceof AppenderChannel.RemoveIdentifier<?> removeIdentifier ) {
+                slot = find( slots, tombstones, (AppenderChannel.RemoveIdentifier<T>) removeIdentifier );
+            }
+            if( slot >= 0 ) {
+                final K removedKey = keyExtractor.apply( (T) slots.get( slot ) );
+                if( removedKey != null ) {
+                    index = index.without( removedKey );
+                }
+                slots = slots.with( slot, null );
+                tombstones = withTombstone( tombstones, slot );
+                removed = true;
+            }
+        }
+        if( removed && tombstones.length > KeyedList.MAX_TOMBSTONES ) {
+            // single compaction pass, the positions of the following values change so the index is rebuilt
+            final KeyedList<K,T> compacted = indexed( new KeyedList<>( slots, tombstones, index ) );
+            slots = compacted.slots();
+            tombstones = NO_TOMBSTONES;
+            index = compacted.index();
+        }
+
+        for( Object value : values ) {
+            if( value instanceof AppenderChannel.RemoveIdentifier<?> ) {
+                continue;
+            }
+            final K valueKey = keyExtractor.apply( (T) value );
+            final Integer slot = ( valueKey != null ) ? index.get( valueKey ) : null;
+            if( slot != null ) {
+                slots = slots.with( slot, value );
+                continue;
+            }
+            if( valueKey != null ) {
+                index = index.with( valueKey, slots.size() );
+            }
+            slots = slots.with( value );
+        }
+        return new KeyedList<>( slots, tombstones, index );
+    }
+}
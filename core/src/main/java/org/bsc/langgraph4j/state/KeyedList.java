@@ -0,0 +1,139 @@
+package org.bsc.langgraph4j.state;
+
+import org.bsc.langgraph4j.utils.PersistentList;
+import org.bsc.langgraph4j.utils.PersistentMap;
+
+import java.util.*;
+
+/**
+ * The immutable value of a {@link KeyedAppenderChannel}: a list of values with an index from the key of each value
+ * to its position.
+ * <p>
+ * The values are held in slots. A removed value leaves a tombstone in its slot, so the index of the other values
+ * doesn't change, and the tombstones are compacted once they exceed 32. The slots are a {@link PersistentList} and
+ * the index is a {@link PersistentMap}, both shared by the lists derived from this one.
+ * <p>
+ * All the {@link List} mutators throw {@link UnsupportedOperationException}.
+ *
+ * @param <K> the type of keys
+ * @param <E> the type of elements
+ */
+public final class KeyedList<K,E> extends AbstractList<E> implements RandomAccess {
+
+    static final int MAX_TOMBSTONES = 32;
+
+    private static final int[] NO_TOMBSTONES = new int[0];
+
+    private static final KeyedList<?,?> EMPTY = new KeyedList<>( PersistentList.empty(), NO_TOMBSTONES, PersistentMap.empty() );
+
+    private final PersistentList<Object> slots; // tombstones included, as null
+    private final int[] tombstones; // sorted slots of the removed elements
+    private final PersistentMap<K,Integer> index; // key -> slot
+
+    KeyedList( PersistentList<Object> slots, int[] tombstones, PersistentMap<K,Integer> index ) {
+        this.slots = slots;
+        this.tombstones = tombstones;
+        this.index = index;
+    }
+
+    /**
+     * Returns the empty list.
+     *
+     * @param <K> the type of keys
+     * @param <E> the type of elements
+     * @return the empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <K,E> KeyedList<K,E> empty() {
+        return (KeyedList<K,E>) EMPTY;
+    }
+
+    /**
+     * @return the slot of the element at the given index, skipping the tombstones
+     */
+    private int slotOf( int index ) {
+        int result = index;
+        for( int tombstone : tombstones ) {
+            if( tombstone > result ) {
+                break;
+            }
+            ++result;
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get( int index ) {
+        Objects.checkIndex( index, size() );
+        return (E) slots.get( slotOf( index ) );
+    }
+
+    @Override
+    public int size() {
+        return slots.size() - tombstones.length;
+    }
+
+    /**
+     * @param key the key of the element
+     * @return the position of the element with the given key, or -1 if there is none
+     */
+    public int indexOfKey( Object key ) {
+        final Integer slot = index.get( key );
+        if( slot == null ) {
+            return -1;
+        }
+        // a live slot is never a tombstone, so the insertion point is the number of tombstones before it
+        return slot + Arrays.binarySearch( tombstones, slot ) + 1;
+    }
+
+    /**
+     * @param key the key of the element
+     * @return the element with the given key, if present
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<E> getByKey( Object key ) {
+        final Integer slot = index.get( key );
+        return ( slot == null ) ? Optional.empty() : Optional.of( (E) slots.get( slot ) );
+    }
+
+    /**
+     * Returns a list holding the given elements (ie. copies of these ones) at the same positions,
+     * their keys are supposed to be equal to the ones of the original elements.
+     *
+     * @param elements the elements, as many as the ones of this list
+     * @param <R> the type of elements
+     * @return the new list
+     */
+    public <R> KeyedList<K,R> withElements( List<R> elements ) {
+        if( elements.size() != size() ) {
+            throw new IllegalArgumentException( "elements must be as many as the ones of the list" );
+        }
+        final List<Object> newSlots = new ArrayList<>( slots.size() );
+        final Iterator<R> i = elements.iterator();
+        int tombstone = 0;
+        for( int slot = 0; slot < slots.size(); ++slot ) {
+            if( tombstone < tombstones.length && tombstones[tombstone] == slot ) {
+                ++tombstone;
+                newSlots.add( null );
+            }
+            else {
+                newSlots.add( i.next() );
+            }
+        }
+        return new KeyedList<>( PersistentList.copyOf( newSlots ), tombstones, index );
+    }
+
+    PersistentList<Object> slots() {
+        return slots;
+    }
+
+    int[] tombstones() {
+        return tombstones;
+    }
+
+    PersistentMap<K,Integer> index() {
+        return index;
+    }
+
+}
@@ -0,0 +1,185 @@
+package org.bsc.langgraph4j.state;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Unmodifiable state map that keeps the encoded bytes of each value and decodes a key only on its first access.
+ * <p>
+ * It is produced by {@link org.bsc.langgraph4j.serializer.LazyStateSerializer} when checkpoints are loaded,
+ * so that browsing a long history (ie. {@code node()}/{@code next()} of each snapshot, or a single key)
+ * doesn't deserialize values that are never read.
+ * Keys, {@link #size()} and {@link #containsKey(Object)} never decode, while {@link #get(Object)} decodes
+ * the requested value only. Iterating over the values or comparing maps decodes everything.
+ * <p>
+ * The encoded bytes are retained after decoding, so the map can be written again without encoding its values.
+ * {@link AgentState} keeps this map as is, instead of copying it.
+ */
+public final class LazyStateMap extends AbstractMap<String,Object> {
+
+    /**
+     * Decodes the value of a key from its encoded bytes
+     */
+    @FunctionalInterface
+    public interface Decoder {
+        Object decode( String key, byte[] bytes ) throws IOException, ClassNotFoundException;
+    }
+
+    private static final Object UNDECODED = new Object();
+
+    private static final class Slot {
+        final byte[] bytes;
+        volatile Object value = UNDECODED;
+
+        Slot( byte[] bytes ) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final Map<String,Slot> slots;
+    private final Decoder decoder;
+    private Set<Entry<String,Object>> entrySet;
+
+    /**
+     * @param encoded the encoded bytes of each value, by key. The arrays are not copied.
+     * @param decoder the decoder of a single value
+     */
+    public LazyStateMap( @NonNull Map<String,byte[]> encoded, @NonNull Decoder decoder ) {
+        this.slots = new LinkedHashMap<>( (int)(encoded.size() / 0.75f) + 1 );
+        encoded.forEach( (key, bytes) -> slots.put( key, new Slot( Objects.requireNonNull(bytes, "encoded value cannot be null") ) ) );
+        this.decoder = decoder;
+    }
+
+    private Object decode( String key, Slot slot ) {
+        Object value = slot.value;
+        if( value != UNDECODED ) {
+            return value;
+        }
+        synchronized (slot) {
+            value = slot.value;
+            if( value == UNDECODED ) {
+                try {
+                    value = decoder.decode( key, slot.bytes );
+                }
+                catch( IOException e ) {
+                    throw new UncheckedIOException( String.format( "error decoding state value '%s'", key), e );
+                }
+                catch( ClassNotFoundException e ) {
+                    throw new IllegalStateException( String.format( "error decoding state value '%s'", key), e );
+                }
+                slot.value = value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param key the key
+     * @return the encoded bytes of the value of the given key, if present. The array must not be modified.
+     */
+    public Optional<byte[]> encoded( String key ) {
+        return Optional.ofNullable( slots.get(key) ).map( slot -> slot.bytes );
+    }
+
+    /**
+     * @param key the key
+     * @return true if the value of the given key has already been decoded
+     */
+    public boolean isDecoded( String key ) {
+        Slot slot = slots.get(key);
+        return slot != null && slot.value != UNDECODED;
+    }
+
+    @Override
+    public Object get( Object key ) {
+        Slot slot = slots.get(key);
+        return ( slot == null ) ? null : decode( (String)key, slot );
+    }
+
+    @Override
+    public boolean containsKey( Object key ) {
+        return slots.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet( slots.keySet() );
+    }
+
+    @Override
+    public Set<Entry<String,Object>> entrySet() {
+        if( entrySet == null ) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String,Object>> iterator() {
+                    final Iterator<Entry<String,Slot>> i = slots.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return i.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String,Object> next() {
+                            final Entry<String,Slot> e = i.next();
+                            // the value is decoded when it is read
+                            return new Entry<>() {
+                                @Override
+                                public String getKey() {
+                                    return e.getKey();
+                                }
+
+                                @Override
+                                public Object getValue() {
+                                    return decode( e.getKey(), e.getValue() );
+                                }
+
+                                @Override
+                                public Object setValue(Object value) {
+                                    throw new UnsupportedOperationException();
+                                }
+
+                                @Override
+                                public boolean equals(Object o) {
+                                    return o instanceof Entry<?,?> other &&
+                                            Objects.equals( getKey(), other.getKey() ) &&
+                                            Objects.equals( getValue(), other.getValue() );
+                                }
+
+                                @Override
+                                public int hashCode() {
+                                    return Objects.hashCode( getKey() ) ^ Objects.hashCode( getValue() );
+                                }
+
+                                @Override
+                                public String toString() {
+                                    return getKey() + "=" + getValue();
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return slots.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+}
@@ -0,0 +1,151 @@
+package org.bsc.langgraph4j.state;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Supplier;
+
+/**
+ * MinMaxChannel is a {@link CommutativeChannel} that keeps the minimum, or the maximum, of the values it is updated with.
+ * <p>
+ * The updates of the branches of a parallel node are combined on a {@link LongAccumulator} for the {@code Long}
+ * channels (see {@link #minLong()} and {@link #maxLong()}), otherwise on an {@link AtomicReference} updated
+ * by compare-and-set.
+ *
+ * @param <T> the type of the values
+ */
+public class MinMaxChannel<T> implements CommutativeChannel<T> {
+
+    private final Comparator<? super T> comparator; // the kept value is the greatest one
+    private final Supplier<LongAccumulator> longAccumulator; // null if the values are not longs
+
+    /**
+     * @param comparator the comparator of the values
+     * @param <T> the type of the values
+     * @return the channel that keeps the minimum value
+     */
+    public static <T> MinMaxChannel<T> min( Comparator<? super T> comparator ) {
+        return new MinMaxChannel<>( Objects.requireNonNull( comparator, "comparator cannot be null" ).reversed(), null );
+    }
+
+    /**
+     * @param comparator the comparator of the values
+     * @param <T> the type of the values
+     * @return the channel that keeps the maximum value
+     */
+    public static <T> MinMaxChannel<T> max( Comparator<? super T> comparator ) {
+        return new MinMaxChannel<>( Objects.requireNonNull( comparator, "comparator cannot be null" ), null );
+    }
+
+    /**
+     * @return the channel that keeps the minimum number, as a {@code Long}
+     */
+    public static MinMaxChannel<Long> minLong() {
+        return new MinMaxChannel<>( Comparator.<Long>naturalOrder().reversed(), () -> new LongAccumulator( Math::min, Long.MAX_VALUE ) );
+    }
+
+    /**
+     * @return the channel that keeps the maximum number, as a {@code Long}
+     */
+    public static MinMaxChannel<Long> maxLong() {
+        return new MinMaxChannel<>( Comparator.<Long>naturalOrder(), () -> new LongAccumulator( Math::max, Long.MIN_VALUE ) );
+    }
+
+    private MinMaxChannel( Comparator<? super T> comparator, Supplier<LongAccumulator> longAccumulator ) {
+        this.comparator = comparator;
+        this.longAccumulator = longAccumulator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T valueOf( Object value ) {
+        if( longAccumulator == null ) {
+            return (T) value;
+        }
+        if( value instanceof Number number ) {
+            return (T) Long.valueOf( number.longValue() );
+        }
+        throw new IllegalArgumentException( "Unsupported value type: " + value.getClass() );
+    }
+
+    private T select( T left, T right ) {
+        if( left == null ) {
+            return right;
+        }
+        return ( comparator.compare( left, right ) >= 0 ) ? left : right;
+    }
+
+    /**
+     * @return an {@code Optional} containing the reducer that keeps the min, or max, value
+     */
+    @Override
+    public Optional<Reducer<T>> getReducer() {
+        return Optional.of( this::select );
+    }
+
+    /**
+     * There is no min, or max, of no values
+     *
+     * @return an empty {@code Optional}
+     */
+    @Override
+    public Optional<Supplier<T>> getDefault() {
+        return Optional.empty();
+    }
+
+    /**
+     * Keeps the min, or max, of the old and new values
+     *
+     * @param key the key of the state property to be updated
+     * @param oldValue the current value
+     * @param newValue the new value. If null, the old value is returned.
+     * @return the new value
+     */
+    @Override
+    public Object update( String key, Object oldValue, Object newValue ) {
+        if( newValue == null ) {
+            return oldValue;
+        }
+        return select( ( oldValue != null ) ? valueOf( oldValue ) : null, valueOf( newValue ) );
+    }
+
+    @Override
+    public Accumulator newAccumulator( int branches ) {
+        if( longAccumulator != null ) {
+            return new Accumulator() {
+                final LongAccumulator accumulator = longAccumulator.get();
+                volatile boolean updated;
+
+                @Override
+                public void accumulate( int branch, Object value ) {
+                    if( value != null ) {
+                        accumulator.accumulate( (Long) valueOf( value ) );
+                        updated = true;
+                    }
+                }
+
+                @Override
+                public Object result() {
+                    return updated ? accumulator.get() : null;
+                }
+            };
+        }
+        return new Accumulator() {
+            final AtomicReference<T> selected = new AtomicReference<>();
+
+            @Override
+            public void accumulate( int branch, Object value ) {
+                if( value != null ) {
+                    final T candidate = valueOf( value );
+                    selected.accumulateAndGet( candidate, MinMaxChannel.this::select );
+                }
+            }
+
+            @Override
+            public Object result() {
+                return selected.get();
+            }
+        };
+    }
+}
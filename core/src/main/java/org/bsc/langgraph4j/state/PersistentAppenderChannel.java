@@ -0,0 +1,120 @@
+package org.bsc.langgraph4j.state;
+
+import org.bsc.langgraph4j.utils.PersistentList;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * PersistentAppenderChannel is a {@link Channel} that accumulates a list of values, as the {@link AppenderChannel},
+ * in a {@link PersistentList}.
+ * <p>
+ * Each update returns a new list that shares the previous elements with the old one, so appending a value costs
+ * {@code O(1)} regardless of the size of the list, and the old list can be kept (ie. by a checkpoint) without copying it.
+ * The {@link AppenderChannel.RemoveIdentifier}s are supported as in {@link AppenderChannel}: they remove the
+ * first matching element of the old list before the new values are appended.
+ * <p>
+ * The value of the channel is an immutable list: an old value of another type (ie. a list read from a checkpoint)
+ * is copied into a {@code PersistentList} on its first update.
+ *
+ * @param <T> the type of the values being accumulated
+ * @see AppenderChannel
+ */
+public class PersistentAppenderChannel<T> implements Channel<List<T>> {
+
+    /**
+     * Creates an instance of `PersistentAppenderChannel` whose default value is the empty list.
+     *
+     * @param <T> the type of elements in the list
+     * @return a new instance of `PersistentAppenderChannel`
+     */
+    public static <T> PersistentAppenderChannel<T> of() {
+        return new PersistentAppenderChannel<>();
+    }
+
+    private PersistentAppenderChannel() {
+    }
+
+    /**
+     * The values are appended by {@link #update(String, Object, Object)}, no reducer is needed
+     *
+     * @return an empty {@code Optional}
+     */
+    @Override
+    public Optional<Reducer<List<T>>> getReducer() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return an {@code Optional} containing the provider of the empty list
+     */
+    @Override
+    public Optional<Supplier<List<T>>> getDefault() {
+        return Optional.of( PersistentList::empty );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PersistentList<T> persistentListOf( Object value ) {
+        if( value == null ) {
+            return PersistentList.empty();
+        }
+        if( value instanceof Collection<?> collection ) {
+            return PersistentList.copyOf( (Collection<T>) collection );
+        }
+        throw new IllegalArgumentException( "Unsupported channel value type: " + value.getClass() );
+    }
+
+    private static <T> PersistentList<T> remove( PersistentList<T> list, AppenderChannel.RemoveIdentifier<T> removeIdentifier ) {
+        int index = 0;
+        for( T element : list ) {
+            if( removeIdentifier.compareTo( element, index ) == 0 ) {
+                return list.without( index );
+            }
+            ++index;
+        }
+        return list;
+    }
+
+    /**
+     * Appends the new values to the old list, after removing the elements matched by the
+     * {@link AppenderChannel.RemoveIdentifier}s among the new values.
+     *
+     * @param key the key of the state property to be updated
+     * @param oldValue the current list
+     * @param newValue a value, a {@code List} or an array of values. If null, or empty, the old value is returned.
+     * @return the new list
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object update( String key, Object oldValue, Object newValue ) {
+        if( newValue == null ) {
+            return oldValue;
+        }
+        final Collection<Object> values;
+        if( newValue instanceof List<?> list ) {
+            values = (Collection<Object>) list;
+        }
+        else if( newValue.getClass().isArray() ) {
+            values = Arrays.asList( (Object[]) newValue );
+        }
+        else {
+            values = Collections.singletonList( newValue );
+        }
+        if( values.isEmpty() ) {
+            return oldValue;
+        }
+
+        PersistentList<T> result = persistentListOf( oldValue );
+        for( Object value : values ) {
+            if( value instanceof AppenderChannel.RemoveIdentifier<?> removeIdentifier ) {
+                result = remove( result, (AppenderChannel.RemoveIdentifier<T>) removeIdentifier );
+            }
+        }
+        for( Object value : values ) {
+            if( !( value instanceof AppenderChannel.RemoveIdentifier<?> ) ) {
+                result = result.with( (T) value );
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,241 @@
+package org.bsc.langgraph4j.state;
+
+import org.bsc.langgraph4j.utils.PersistentList;
+import org.bsc.langgraph4j.utils.PersistentMap;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, structurally shared representation of the graph state.
+ * <p>
+ * The state is held in a {@link PersistentMap} so that each update shares all the untouched channel values
+ * with the previous state. Collection values are exposed through read-only views and are copied only when
+ * a channel writes on them (copy-on-write), this allows node inputs, outputs and checkpoints to reference
+ * the same data instead of cloning it at every step.
+ * <p>
+ * Only the known immutable types, and the collections and maps whose elements (recursively) are of such types,
+ * can be safely shared: for a state holding any other value (ie. a mutable object or an array, even nested in a list)
+ * the caller must fallback to a deep copy (see {@link #isShareable(Map, Predicate)}).
+ */
+public final class PersistentState {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+            String.class,
+            Boolean.class,
+            Character.class,
+            Byte.class,
+            Short.class,
+            Integer.class,
+            Long.class,
+            Float.class,
+            Double.class,
+            BigInteger.class,
+            BigDecimal.class,
+            UUID.class
+    );
+
+    private static final ClassValue<Boolean> IMMUTABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return IMMUTABLE_TYPES.contains(type) ||
+                    type.isEnum() ||
+                    Enum.class.isAssignableFrom(type) ||
+                    type.getName().startsWith("java.time.");
+        }
+    };
+
+    private static final Predicate<Class<?>> NO_OTHER_IMMUTABLE = type -> false;
+
+    /**
+     * The test of the elements of a {@link PersistentList}. Being a record, the tests built on the same
+     * {@code immutable} predicate are equal, so the list resumes the check from the elements already visited.
+     */
+    private record ShareableElement( Predicate<Class<?>> immutable ) implements Predicate<Object> {
+        @Override
+        public boolean test( Object value ) {
+            return isShareableValue( value, immutable );
+        }
+    }
+
+    private PersistentState() {}
+
+    /**
+     * Returns the persistent representation of the given state data.
+     * If data is already persistent, it is returned as is.
+     *
+     * @param data the state data
+     * @return the persistent state data
+     */
+    public static PersistentMap<String,Object> of( Map<String,Object> data ) {
+        Objects.requireNonNull(data, "data cannot be null");
+        if( data instanceof PersistentMap<String,Object> persistentData ) {
+            return persistentData;
+        }
+        PersistentMap<String,Object> result = PersistentMap.empty();
+        for( Map.Entry<String,Object> e : data.entrySet() ) {
+            result = result.with( e.getKey(), freeze(e.getValue()) );
+        }
+        return result;
+    }
+
+    /**
+     * Checks if all the values of the given state can be shared by reference between steps
+     *
+     * @param data the state data
+     * @return true if no value requires a deep copy
+     * @see #isShareable(Map, Predicate)
+     */
+    public static boolean isShareable( Map<String,Object> data ) {
+        return isShareable( data, NO_OTHER_IMMUTABLE );
+    }
+
+    /**
+     * Checks if all the values of the given state can be shared by reference between steps.
+     * A collection or a map is shareable when all its elements, keys and values are. The {@link PersistentList}s
+     * (ie. the values of a {@link PersistentAppenderChannel} or a {@link KeyedAppenderChannel}) remember the elements
+     * already checked, so passing always the same {@code immutable} predicate only the elements appended since
+     * the previous check are visited, the other values are visited in full.
+     *
+     * @param data the state data
+     * @param immutable tells the other immutable types (ie. the ones registered in a
+     *                  {@link org.bsc.langgraph4j.serializer.CopierMapper}), besides the built-in ones
+     * @return true if no value requires a deep copy
+     */
+    public static boolean isShareable( Map<String,Object> data, Predicate<Class<?>> immutable ) {
+        Objects.requireNonNull(immutable, "immutable cannot be null");
+        for( Object value : data.values() ) {
+            if( !isShareableValue( value, immutable ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isShareableValue( Object value, Predicate<Class<?>> immutable ) {
+        if( value == null || IMMUTABLE.get(value.getClass()) ) {
+            return true;
+        }
+        if( value instanceof PersistentList<?> list ) {
+            return list.allMatch( new ShareableElement( immutable ) );
+        }
+        if( value instanceof KeyedList<?,?> list ) {
+            // the tombstones are null slots
+            return list.slots().allMatch( new ShareableElement( immutable ) );
+        }
+        if( value instanceof Collection<?> collection ) {
+            for( Object element : collection ) {
+                if( !isShareableValue( element, immutable ) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if( value instanceof Map<?,?> map ) {
+            for( Map.Entry<?,?> e : map.entrySet() ) {
+                if( !isShareableValue( e.getKey(), immutable ) || !isShareableValue( e.getValue(), immutable ) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return immutable.test( value.getClass() );
+    }
+
+    /**
+     * Updates a persistent state with the provided partial state.
+     * Only the keys present in the partial state are touched, all the others are shared with the given state.
+     *
+     * @param state the current state
+     * @param partialState the partial state to update from
+     * @param channels the channels used to update the partial state if necessary
+     * @return the updated persistent state
+     * @throws NullPointerException if state is null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static PersistentMap<String,Object> updateState( Map<String,Object> state, Map<String,Object> partialState, Map<String, Channel<?>> channels ) {
+        Objects.requireNonNull(state, "state cannot be null");
+
+        PersistentMap<String,Object> result = of(state);
+
+        if (partialState == null || partialState.isEmpty()) {
+            return result;
+        }
+
+        for( Map.Entry<String,Object> entry : partialState.entrySet() ) {
+            final String key = entry.getKey();
+            final Object oldValue = result.get(key);
+            Object newValue = entry.getValue();
+
+            final Channel<?> channel = ( channels != null ) ? channels.get(key) : null;
+            if( channel != null ) {
+                final Object writableValue = writableCopy( channel, oldValue );
+                newValue = channel.update( key, writableValue, newValue );
+                for( Map.Entry<String,Object> derived : channel.derivedUpdates( key, writableValue, newValue, result ).entrySet() ) {
+                    result = result.with( derived.getKey(), freeze(derived.getValue()) );
+                }
+            }
+            else if( oldValue instanceof AppendableValueRW<?> appendable ) {
+                // don't append on the shared instance
+                var copy = new AppendableValueRW( appendable.values() );
+                copy.append( newValue );
+                newValue = copy;
+            }
+            result = result.with( key, freeze(newValue) );
+        }
+        return result;
+    }
+
+    /**
+     * Returns a private modifiable copy of a shared value to be passed to a channel's reducer.
+     * {@link AppenderChannel}, {@link PersistentAppenderChannel}, {@link WindowChannel}, {@link KeyedAppenderChannel}
+     * and the {@link CommutativeChannel}s never update the old value in place, so in that case the copy is skipped.
+     */
+    private static Object writableCopy( Channel<?> channel, Object value ) {
+        if( channel instanceof AppenderChannel<?> ||
+                channel instanceof PersistentAppenderChannel<?> ||
+                channel instanceof WindowChannel<?> ||
+                channel instanceof KeyedAppenderChannel<?,?> ||
+                channel instanceof CommutativeChannel<?> ) {
+            return value;
+        }
+        if( value instanceof List<?> list ) {
+            return new ArrayList<>(list);
+        }
+        if( value instanceof Set<?> set ) {
+            return new LinkedHashSet<>(set);
+        }
+        if( value instanceof Map<?,?> map ) {
+            return new LinkedHashMap<>(map);
+        }
+        if( value instanceof Collection<?> collection ) {
+            return new ArrayList<>(collection);
+        }
+        return value;
+    }
+
+    /**
+     * Wraps the collection values in a read-only view, so they can be safely shared.
+     */
+    static Object freeze( Object value ) {
+        if( value instanceof PersistentList<?> || value instanceof WindowList<?> || value instanceof KeyedList<?,?> ) {
+            return value;
+        }
+        if( value instanceof List<?> list ) {
+            return Collections.unmodifiableList(list);
+        }
+        if( value instanceof Set<?> set ) {
+            return Collections.unmodifiableSet(set);
+        }
+        if( value instanceof Map<?,?> map ) {
+            return Collections.unmodifiableMap(map);
+        }
+        if( value instanceof Collection<?> collection ) {
+            return Collections.unmodifiableCollection(collection);
+        }
+        return value;
+    }
+
+}
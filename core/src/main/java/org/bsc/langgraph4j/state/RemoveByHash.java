@@ -13,11 +13,11 @@ public record RemoveByHash<T>(T value ) implements AppenderChannel.RemoveIdentif
      * 
      * @param element the element to compare with
      * @param atIndex the index of the element in the context (ignored in comparison)
-     * @return the difference between the hash codes of this object and the given element
+     * @return the comparison of the hash codes of this object and the given element
      */
     @Override
     public int compareTo(T element, int atIndex) {
-        return Objects.hashCode(value) - Objects.hashCode(element);
+        return Integer.compare(Objects.hashCode(value), Objects.hashCode(element));
     }
 
     /**
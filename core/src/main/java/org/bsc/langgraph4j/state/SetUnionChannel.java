@@ -0,0 +1,101 @@
+package org.bsc.langgraph4j.state;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * SetUnionChannel is a {@link CommutativeChannel} that accumulates the union of the values it is updated with.
+ * <p>
+ * The value of the channel is an immutable {@code Set}. The updates of the branches of a parallel node are
+ * added to a concurrent set.
+ *
+ * @param <T> the type of the elements
+ */
+public class SetUnionChannel<T> implements CommutativeChannel<Set<T>> {
+
+    /**
+     * Creates an instance of `SetUnionChannel` whose default value is the empty set.
+     *
+     * @param <T> the type of the elements
+     * @return a new instance of `SetUnionChannel`
+     */
+    public static <T> SetUnionChannel<T> of() {
+        return new SetUnionChannel<>();
+    }
+
+    private SetUnionChannel() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> valuesOf( Object value ) {
+        if( value instanceof Collection<?> collection ) {
+            return (Collection<Object>) collection;
+        }
+        if( value.getClass().isArray() ) {
+            return Arrays.asList( (Object[]) value );
+        }
+        return Collections.singletonList( value );
+    }
+
+    /**
+     * The values are added by {@link #update(String, Object, Object)}, no reducer is needed
+     *
+     * @return an empty {@code Optional}
+     */
+    @Override
+    public Optional<Reducer<Set<T>>> getReducer() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return an {@code Optional} containing the provider of the empty set
+     */
+    @Override
+    public Optional<Supplier<Set<T>>> getDefault() {
+        return Optional.of( Set::of );
+    }
+
+    /**
+     * Adds the new values to the old set
+     *
+     * @param key the key of the state property to be updated
+     * @param oldValue the current set
+     * @param newValue a value, a {@code Collection} or an array of values. If null, or empty, the old value is returned.
+     * @return the new set
+     */
+    @Override
+    public Object update( String key, Object oldValue, Object newValue ) {
+        if( newValue == null ) {
+            return oldValue;
+        }
+        final Collection<Object> values = valuesOf( newValue );
+        if( values.isEmpty() ) {
+            return oldValue;
+        }
+        final Set<Object> result = ( oldValue instanceof Collection<?> old ) ? new LinkedHashSet<>( old ) : new LinkedHashSet<>();
+        if( !result.addAll( values ) && oldValue != null ) {
+            return oldValue;
+        }
+        return Collections.unmodifiableSet( result );
+    }
+
+    @Override
+    public Accumulator newAccumulator( int branches ) {
+        return new Accumulator() {
+            final Set<Object> union = ConcurrentHashMap.newKeySet();
+
+            @Override
+            public void accumulate( int branch, Object value ) {
+                if( value != null ) {
+                    union.addAll( valuesOf( value ) );
+                }
+            }
+
+            @Override
+            public Object result() {
+                return union.isEmpty() ? null : union;
+            }
+        };
+    }
+}
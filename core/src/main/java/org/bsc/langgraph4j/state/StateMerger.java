@@ -0,0 +1,281 @@
+package org.bsc.langgraph4j.state;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Merges the partial states returned by the nodes into the graph state, touching only the updated keys.
+ * <p>
+ * Each channel key of the schema is assigned a slot when the merger is created. The states created by
+ * {@link #newState(Map)} hold the values of the schema keys in an array indexed by slot, and the other keys in
+ * an overflow map, so {@link #merge(Map, Map)} updates them in place with O(|partialState|) work and no allocation.
+ * A state not created by this merger is copied into a new one, once.
+ * <p>
+ * Since the merge is in place, the caller must own the state it passes: a state that is shared
+ * (ie. given to the nodes or stored in a checkpoint) must be copied before.
+ */
+public final class StateMerger {
+
+    private static final Object ABSENT = new Object();
+
+    private final Map<String,Integer> slots;
+    private final String[] keys;
+    private final Channel<?>[] channels;
+
+    /**
+     * @param channels the channels of the graph schema
+     */
+    public StateMerger( Map<String, Channel<?>> channels ) {
+        final int size = ( channels != null ) ? channels.size() : 0;
+        this.slots = new HashMap<>( (int)(size / 0.75f) + 1 );
+        this.keys = new String[ size ];
+        this.channels = new Channel<?>[ size ];
+        if( channels != null ) {
+            int slot = 0;
+            for( Map.Entry<String, Channel<?>> e : channels.entrySet() ) {
+                slots.put( e.getKey(), slot );
+                keys[slot] = e.getKey();
+                this.channels[slot] = e.getValue();
+                ++slot;
+            }
+        }
+    }
+
+    /**
+     * Creates a modifiable state owned by this merger, holding a copy of the given data
+     *
+     * @param data the state data
+     * @return the new state
+     */
+    public Map<String,Object> newState( @NonNull Map<String,Object> data ) {
+        final IndexedState result = new IndexedState( this );
+        for( Map.Entry<String,Object> e : data.entrySet() ) {
+            result.put( e.getKey(), e.getValue() );
+        }
+        return result;
+    }
+
+    /**
+     * Updates the state with the provided partial state, through the channels of the updated keys.
+     * The keys without a channel are replaced, as {@link AgentState#updateState(Map, Map, Map)} does.
+     *
+     * @param state the current state, updated in place if it has been created by this merger
+     * @param partialState the partial state to update from
+     * @return the updated state, created by this merger
+     * @throws NullPointerException if state is null
+     */
+    @SuppressWarnings("deprecation")
+    public Map<String,Object> merge( @NonNull Map<String,Object> state, Map<String,Object> partialState ) {
+        final IndexedState result = ( state instanceof IndexedState indexed && indexed.merger == this ) ?
+                                        indexed :
+                                        (IndexedState) newState( state );
+        if( partialState == null || partialState.isEmpty() ) {
+            return result;
+        }
+        for( Map.Entry<String,Object> e : partialState.entrySet() ) {
+            final String key = e.getKey();
+            final Integer slot = slots.get( key );
+            if( slot != null ) {
+                final Object oldValue = ( result.values[slot] == ABSENT ) ? null : result.values[slot];
+                final Object newValue = channels[slot].update( key, oldValue, e.getValue() );
+                result.set( slot, newValue );
+                result.putAll( channels[slot].derivedUpdates( key, oldValue, newValue, result ) );
+                continue;
+            }
+            final Object oldValue = result.get( key );
+            if( oldValue instanceof AppendableValueRW<?> appendable ) {
+                appendable.append( e.getValue() );
+                continue;
+            }
+            result.put( key, e.getValue() );
+        }
+        return result;
+    }
+
+    /**
+     * State map with a slot for each key of the schema, and an overflow map for the others
+     */
+    private static final class IndexedState extends AbstractMap<String,Object> {
+        final StateMerger merger;
+        final Object[] values;
+        Map<String,Object> overflow;
+        int slotCount;
+
+        IndexedState( StateMerger merger ) {
+            this.merger = merger;
+            this.values = new Object[ merger.keys.length ];
+            Arrays.fill( values, ABSENT );
+        }
+
+        private Object set( int slot, Object value ) {
+            final Object oldValue = values[slot];
+            values[slot] = value;
+            if( oldValue == ABSENT ) {
+                ++slotCount;
+                return null;
+            }
+            return oldValue;
+        }
+
+        private Object clear( int slot ) {
+            final Object oldValue = values[slot];
+            if( oldValue == ABSENT ) {
+                return null;
+            }
+            values[slot] = ABSENT;
+            --slotCount;
+            return oldValue;
+        }
+
+        @Override
+        public Object get( Object key ) {
+            final Integer slot = merger.slots.get( key );
+            if( slot != null ) {
+                final Object value = values[slot];
+                return ( value == ABSENT ) ? null : value;
+            }
+            return ( overflow != null ) ? overflow.get( key ) : null;
+        }
+
+        @Override
+        public boolean containsKey( Object key ) {
+            final Integer slot = merger.slots.get( key );
+            if( slot != null ) {
+                return values[slot] != ABSENT;
+            }
+            return overflow != null && overflow.containsKey( key );
+        }
+
+        @Override
+        public Object put( String key, Object value ) {
+            final Integer slot = merger.slots.get( key );
+            if( slot != null ) {
+                return set( slot, value );
+            }
+            if( overflow == null ) {
+                overflow = new HashMap<>();
+            }
+            return overflow.put( key, value );
+        }
+
+        @Override
+        public Object remove( Object key ) {
+            final Integer slot = merger.slots.get( key );
+            if( slot != null ) {
+                return clear( slot );
+            }
+            return ( overflow != null ) ? overflow.remove( key ) : null;
+        }
+
+        @Override
+        public int size() {
+            return slotCount + ( ( overflow != null ) ? overflow.size() : 0 );
+        }
+
+        @Override
+        public Set<Entry<String,Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String,Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return IndexedState.this.size();
+                }
+            };
+        }
+
+        private final class EntryIterator implements Iterator<Entry<String,Object>> {
+            final Iterator<Entry<String,Object>> overflowIterator = ( overflow != null ) ? overflow.entrySet().iterator() : null;
+            int next = advance( 0 );
+            int last = -1;
+            boolean lastInOverflow;
+
+            private int advance( int from ) {
+                int slot = from;
+                while( slot < values.length && values[slot] == ABSENT ) {
+                    ++slot;
+                }
+                return slot;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < values.length || ( overflowIterator != null && overflowIterator.hasNext() );
+            }
+
+            @Override
+            public Entry<String,Object> next() {
+                if( next < values.length ) {
+                    final int slot = next;
+                    last = slot;
+                    lastInOverflow = false;
+                    next = advance( slot + 1 );
+                    return new SlotEntry( slot );
+                }
+                if( overflowIterator == null ) {
+                    throw new NoSuchElementException();
+                }
+                lastInOverflow = true;
+                return overflowIterator.next();
+            }
+
+            @Override
+            public void remove() {
+                if( lastInOverflow ) {
+                    overflowIterator.remove();
+                    return;
+                }
+                if( last < 0 ) {
+                    throw new IllegalStateException();
+                }
+                clear( last );
+                last = -1;
+            }
+        }
+
+        private final class SlotEntry implements Entry<String,Object> {
+            final int slot;
+
+            SlotEntry( int slot ) {
+                this.slot = slot;
+            }
+
+            @Override
+            public String getKey() {
+                return merger.keys[slot];
+            }
+
+            @Override
+            public Object getValue() {
+                final Object value = values[slot];
+                return ( value == ABSENT ) ? null : value;
+            }
+
+            @Override
+            public Object setValue( Object value ) {
+                return set( slot, value );
+            }
+
+            @Override
+            public boolean equals( Object o ) {
+                return o instanceof Entry<?,?> e &&
+                        Objects.equals( getKey(), e.getKey() ) &&
+                        Objects.equals( getValue(), e.getValue() );
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hashCode( getKey() ) ^ Objects.hashCode( getValue() );
+            }
+
+            @Override
+            public String toString() {
+                return getKey() + "=" + getValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.bsc.langgraph4j.state;
+
+import lombok.NonNull;
+import org.bsc.langgraph4j.NodeOutput;
+
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Node output emitted in {@link org.bsc.langgraph4j.CompiledGraph.StreamMode#UPDATES} mode.
+ * <p>
+ * It carries only the state keys written by the node, with their values after the channel reducers have been applied.
+ * So {@link #state()} contains the update (ie. the patch) and not the whole graph state.
+ *
+ * @param <State> the type of the state associated with the node output
+ */
+public final class StateUpdate<State extends AgentState> extends NodeOutput<State> {
+
+    private final Set<String> changedKeys;
+
+    /**
+     * Returns the values written by the node, after the reducers have been applied.
+     *
+     * @return an unmodifiable map with the updated keys
+     */
+    public Map<String,Object> update() {
+        return state().data();
+    }
+
+    /**
+     * Returns the subset of the updated keys whose value actually differs from the previous state
+     *
+     * @return an unmodifiable set of keys
+     */
+    public Set<String> changedKeys() {
+        return changedKeys;
+    }
+
+    private StateUpdate(@NonNull String node, @NonNull State update, @NonNull Set<String> changedKeys) {
+        super( node, update );
+        this.changedKeys = Set.copyOf(changedKeys);
+    }
+
+    @Override
+    public String toString() {
+        return format("StateUpdate{node=%s, update=%s, changedKeys=%s}", node(), state(), changedKeys());
+    }
+
+    public static <State extends AgentState> StateUpdate<State> of(String node, State update, Set<String> changedKeys) {
+        return new StateUpdate<>( node, update, changedKeys );
+    }
+
+}
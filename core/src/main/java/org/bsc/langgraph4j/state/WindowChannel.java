@@ -0,0 +1,262 @@
+package org.bsc.langgraph4j.state;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * WindowChannel is a {@link Channel} that accumulates a list of values, as the {@link AppenderChannel},
+ * keeping only the most recent ones in a {@link WindowList}.
+ * <p>
+ * The window is bounded by the number of values and/or by their total estimated size in bytes: the oldest values
+ * are evicted after each update, but the last one is always kept. The evicted values can be folded into
+ * a summary stored in another key of the state, so a long running session keeps a constant memory:
+ * <pre>{@code
+ * var messages = WindowChannel.<ChatMessage>builder()
+ *                  .maxSize( 50 )
+ *                  .summarize( "summary", ( String summary, List<ChatMessage> evicted ) -> summarize( summary, evicted ) )
+ *                  .build();
+ * var graph = new MessagesStateGraph<ChatMessage>( messages, stateSerializer );
+ * }</pre>
+ * The {@link AppenderChannel.RemoveIdentifier}s are supported as in {@link AppenderChannel}.
+ *
+ * @param <T> the type of the values being accumulated
+ * @see AppenderChannel
+ */
+public class WindowChannel<T> implements Channel<List<T>> {
+
+    private final int maxSize;
+    private final long maxBytes;
+    private final ToLongFunction<T> sizeEstimator;
+    private final String summaryKey;
+    private final BiFunction<Object, List<T>, Object> summarizer;
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public static class Builder<T> {
+        private int maxSize = Integer.MAX_VALUE;
+        private long maxBytes = Long.MAX_VALUE;
+        private ToLongFunction<T> sizeEstimator = value -> 0L;
+        private String summaryKey;
+        private BiFunction<Object, List<T>, Object> summarizer;
+
+        /**
+         * Sets the max number of values kept
+         *
+         * @param maxSize the max number of values, greater than 0
+         * @return this builder
+         */
+        public Builder<T> maxSize( int maxSize ) {
+            if( maxSize < 1 ) {
+                throw new IllegalArgumentException( "maxSize must be greater than 0" );
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets the max estimated size in bytes of the values kept
+         *
+         * @param maxBytes the max size in bytes, greater than 0
+         * @param sizeEstimator the function that estimates the size of a value
+         * @return this builder
+         */
+        public Builder<T> maxBytes( long maxBytes, ToLongFunction<T> sizeEstimator ) {
+            if( maxBytes < 1 ) {
+                throw new IllegalArgumentException( "maxBytes must be greater than 0" );
+            }
+            this.maxBytes = maxBytes;
+            this.sizeEstimator = Objects.requireNonNull( sizeEstimator, "sizeEstimator cannot be null" );
+            return this;
+        }
+
+        /**
+         * Sets the function that folds the evicted values into the summary stored in the given key
+         *
+         * @param summaryKey the key of the summary in the state
+         * @param summarizer the function that returns the new summary from the current one, null at first, and the evicted values
+         * @param <S> the type of the summary
+         * @return this builder
+         */
+        @SuppressWarnings("unchecked")
+        public <S> Builder<T> summarize( String summaryKey, BiFunction<S, List<T>, S> summarizer ) {
+            this.summaryKey = Objects.requireNonNull( summaryKey, "summaryKey cannot be null" );
+            this.summarizer = (BiFunction<Object, List<T>, Object>) Objects.requireNonNull( summarizer, "summarizer cannot be null" );
+            return this;
+        }
+
+        /**
+         * @return a new channel with the current settings, later changes of this builder don't affect it
+         */
+        public WindowChannel<T> build() {
+            if( maxSize == Integer.MAX_VALUE && maxBytes == Long.MAX_VALUE ) {
+                throw new IllegalStateException( "the window must be bounded by maxSize and/or maxBytes" );
+            }
+            return new WindowChannel<>( this );
+        }
+    }
+
+    private WindowChannel( Builder<T> builder ) {
+        this.maxSize = builder.maxSize;
+        this.maxBytes = builder.maxBytes;
+        this.sizeEstimator = builder.sizeEstimator;
+        this.summaryKey = builder.summaryKey;
+        this.summarizer = builder.summarizer;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public OptionalLong maxBytes() {
+        return ( maxBytes < Long.MAX_VALUE ) ? OptionalLong.of( maxBytes ) : OptionalLong.empty();
+    }
+
+    public Optional<String> summaryKey() {
+        return Optional.ofNullable( summaryKey );
+    }
+
+    /**
+     * The values are appended by {@link #update(String, Object, Object)}, no reducer is needed
+     *
+     * @return an empty {@code Optional}
+     */
+    @Override
+    public Optional<Reducer<List<T>>> getReducer() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return an {@code Optional} containing the provider of the empty window
+     */
+    @Override
+    public Optional<Supplier<List<T>>> getDefault() {
+        return Optional.of( WindowList::empty );
+    }
+
+    private WindowList<T> append( WindowList<T> window, Collection<? extends T> values ) {
+        WindowList<T> result = window;
+        for( T value : values ) {
+            result = result.with( value, sizeEstimator.applyAsLong( value ) );
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private WindowList<T> windowOf( Object value ) {
+        if( value == null ) {
+            return WindowList.empty();
+        }
+        if( value instanceof WindowList<?> window ) {
+            return (WindowList<T>) window;
+        }
+        if( value instanceof Collection<?> collection ) {
+            return append( WindowList.empty(), (Collection<T>) collection );
+        }
+        throw new IllegalArgumentException( "Unsupported channel value type: " + value.getClass() );
+    }
+
+    private WindowList<T> remove( WindowList<T> window, List<AppenderChannel.RemoveIdentifier<T>> removeIdentifiers ) {
+        final List<T> values = new ArrayList<>( window );
+        for( var removeIdentifier : removeIdentifiers ) {
+            for( int i = 0; i < values.size(); i++ ) {
+                if( removeIdentifier.compareTo( values.get(i), i ) == 0 ) {
+                    values.remove(i);
+                    break;
+                }
+            }
+        }
+        return append( WindowList.empty(), values );
+    }
+
+    /**
+     * Evicts the oldest values exceeding the bounds, always keeping the last one
+     */
+    private WindowList<T> evict( WindowList<T> window ) {
+        int count = 0;
+        long bytes = 0;
+        while( window.size() - count > 1 &&
+                ( window.size() - count > maxSize || window.weight() - bytes > maxBytes ) ) {
+            bytes += sizeEstimator.applyAsLong( window.get( count ) );
+            ++count;
+        }
+        if( count == 0 ) {
+            return window;
+        }
+        final List<T> evicted = ( summarizer != null ) ? new ArrayList<>( window.subList( 0, count ) ) : List.of();
+        return window.dropFirst( count, bytes, evicted );
+    }
+
+    /**
+     * Appends the new values to the window, after removing the values matched by the
+     * {@link AppenderChannel.RemoveIdentifier}s among the new values, then evicts the oldest values exceeding the bounds.
+     *
+     * @param key the key of the state property to be updated
+     * @param oldValue the current window
+     * @param newValue a value, a {@code List} or an array of values. If null, or empty, the old value is returned.
+     * @return the new window
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object update( String key, Object oldValue, Object newValue ) {
+        if( newValue == null ) {
+            return oldValue;
+        }
+        final Collection<Object> values;
+        if( newValue instanceof List<?> list ) {
+            values = (Collection<Object>) list;
+        }
+        else if( newValue.getClass().isArray() ) {
+            values = Arrays.asList( (Object[]) newValue );
+        }
+        else {
+            values = Collections.singletonList( newValue );
+        }
+        if( values.isEmpty() ) {
+            return oldValue;
+        }
+
+        WindowList<T> result = windowOf( oldValue );
+        List<AppenderChannel.RemoveIdentifier<T>> removeIdentifiers = null;
+        for( Object value : values ) {
+            if( value instanceof AppenderChannel.RemoveIdentifier<?> removeIdentifier ) {
+                if( removeIdentifiers == null ) {
+                    removeIdentifiers = new ArrayList<>();
+                }
+                removeIdentifiers.add( (AppenderChannel.RemoveIdentifier<T>) removeIdentifier );
+            }
+        }
+        if( removeIdentifiers != null ) {
+            result = remove( result, removeIdentifiers );
+        }
+        for( Object value : values ) {
+            if( !( value instanceof AppenderChannel.RemoveIdentifier<?> ) ) {
+                result = result.with( (T) value, sizeEstimator.applyAsLong( (T) value ) );
+            }
+        }
+        return evict( result );
+    }
+
+    /**
+     * Folds the values evicted by the last update into the summary, if any
+     *
+     * @param key the key of the window
+     * @param oldValue the window passed to {@link #update(String, Object, Object)}
+     * @param newValue the window returned by {@link #update(String, Object, Object)}
+     * @param state the state being updated
+     * @return the new summary, if values have been evicted
+     */
+    @Override
+    public Map<String,Object> derivedUpdates( String key, Object oldValue, Object newValue, Map<String,Object> state ) {
+        if( summarizer == null || newValue == oldValue ||
+                !( newValue instanceof WindowList<?> window ) || window.evicted().isEmpty() ) {
+            return Map.of();
+        }
+        @SuppressWarnings("unchecked")
+        final List<T> evicted = (List<T>) window.evicted();
+        return Collections.singletonMap( summaryKey, summarizer.apply( state.get( summaryKey ), evicted ) );
+    }
+}
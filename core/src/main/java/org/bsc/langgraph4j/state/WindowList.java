@@ -0,0 +1,160 @@
+package org.bsc.langgraph4j.state;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The immutable value of a {@link WindowChannel}: the most recent elements, with their total estimated weight.
+ * <p>
+ * The elements are held in chunks of 32 shared by all the lists derived from them. The last chunk is shared too:
+ * the first list that appends after a given element claims the next slot, the other ones copy the chunk.
+ * Dropping the oldest elements moves the start of the window and releases the chunks left behind, so
+ * a window of {@code n} elements holds at most {@code n + 31} slots and an update costs {@code O(n/32)}.
+ * <p>
+ * All the {@link List} mutators throw {@link UnsupportedOperationException}.
+ *
+ * @param <E> the type of elements
+ */
+public final class WindowList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * {@code claimed} is the number of slots already written, a slot is never written twice.
+     */
+    private static final class Chunk {
+        final Object[] elements = new Object[WIDTH];
+        final AtomicInteger claimed;
+
+        Chunk( int claimed ) {
+            this.claimed = new AtomicInteger( claimed );
+        }
+    }
+
+    private static final Chunk[] NO_CHUNKS = new Chunk[0];
+
+    private static final WindowList<?> EMPTY = new WindowList<>( NO_CHUNKS, 0, 0, 0L, List.of() );
+
+    private final Chunk[] chunks;
+    private final int head; // position of the first element in the first chunk
+    private final int size;
+    private final long weight;
+    private final List<E> evicted;
+
+    private WindowList( Chunk[] chunks, int head, int size, long weight, List<E> evicted ) {
+        this.chunks = chunks;
+        this.head = head;
+        this.size = size;
+        this.weight = weight;
+        this.evicted = evicted;
+    }
+
+    /**
+     * Returns the empty window.
+     *
+     * @param <E> the type of elements
+     * @return the empty window
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> WindowList<E> empty() {
+        return (WindowList<E>) EMPTY;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get( int index ) {
+        Objects.checkIndex( index, size );
+        final int position = head + index;
+        return (E) chunks[ position >>> BITS ].elements[ position & MASK ];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the total estimated weight of the elements
+     */
+    public long weight() {
+        return weight;
+    }
+
+    /**
+     * @return the elements dropped by the update that created this window
+     */
+    List<E> evicted() {
+        return evicted;
+    }
+
+    /**
+     * Returns a window holding the given elements (ie. copies of these ones) with the same weight
+     *
+     * @param elements the elements, as many as the ones of this window
+     * @param <R> the type of elements
+     * @return the new window
+     */
+    public <R> WindowList<R> withElements( List<R> elements ) {
+        if( elements.size() != size ) {
+            throw new IllegalArgumentException( "elements must be as many as the ones of the window" );
+        }
+        WindowList<R> result = empty();
+        for( R element : elements ) {
+            result = result.with( element, 0L );
+        }
+        return new WindowList<>( result.chunks, result.head, result.size, weight, List.of() );
+    }
+
+    /**
+     * Returns a new window with the given element appended
+     *
+     * @param element the element to append
+     * @param elementWeight the estimated weight of the element
+     * @return the new window
+     */
+    WindowList<E> with( E element, long elementWeight ) {
+        final int end = head + size;
+        final int lastIndex = chunks.length - 1;
+        final int used = end - lastIndex * WIDTH;
+        if( lastIndex >= 0 && used < WIDTH ) {
+            final Chunk last = chunks[lastIndex];
+            if( last.claimed.compareAndSet( used, used + 1 ) ) {
+                last.elements[used] = element;
+                return new WindowList<>( chunks, head, size + 1, weight + elementWeight, List.of() );
+            }
+            // a window derived from this one already appended: branch with a copy of the last chunk
+            final Chunk copy = new Chunk( used + 1 );
+            System.arraycopy( last.elements, 0, copy.elements, 0, used );
+            copy.elements[used] = element;
+            final Chunk[] newChunks = chunks.clone();
+            newChunks[lastIndex] = copy;
+            return new WindowList<>( newChunks, head, size + 1, weight + elementWeight, List.of() );
+        }
+        final Chunk chunk = new Chunk( 1 );
+        chunk.elements[0] = element;
+        final Chunk[] newChunks = Arrays.copyOf( chunks, chunks.length + 1 );
+        newChunks[chunks.length] = chunk;
+        return new WindowList<>( newChunks, head, size + 1, weight + elementWeight, List.of() );
+    }
+
+    /**
+     * Returns a new window without the oldest elements
+     *
+     * @param count the number of elements to drop
+     * @param droppedWeight the estimated weight of the dropped elements
+     * @param evicted the dropped elements, to be folded in a summary
+     * @return the new window
+     */
+    WindowList<E> dropFirst( int count, long droppedWeight, List<E> evicted ) {
+        if( count == 0 ) {
+            return this;
+        }
+        final int newHead = head + count;
+        final int released = newHead >>> BITS;
+        final Chunk[] newChunks = ( released > 0 ) ? Arrays.copyOfRange( chunks, released, chunks.length ) : chunks;
+        return new WindowList<>( newChunks, newHead - released * WIDTH, size - count, weight - droppedWeight, evicted );
+    }
+
+}
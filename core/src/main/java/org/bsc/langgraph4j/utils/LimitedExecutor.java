@@ -0,0 +1,134 @@
+package org.bsc.langgraph4j.utils;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link Executor} that submits the tasks to a delegate executor allowing at most
+ * {@code maxParallelism} of them to run at the same time. The exceeding tasks are queued
+ * and submitted, in order, as soon as a running one completes.
+ * <p>
+ * A task submitted through {@link #execute(Runnable)} completes when it returns, while an asynchronous
+ * task submitted through {@link #supplyAsync(Supplier)} completes with the future it returns.
+ */
+public final class LimitedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final int maxParallelism;
+    /**
+     * the pending tasks, each one accepts the callback that releases its slot once it completes
+     */
+    private final Queue<Consumer<Runnable>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Creates a new limited executor.
+     *
+     * @param delegate the executor that actually runs the tasks
+     * @param maxParallelism the maximum number of tasks running at the same time
+     * @throws IllegalArgumentException if maxParallelism is less than 1
+     */
+    public LimitedExecutor(Executor delegate, int maxParallelism) {
+        this.delegate = requireNonNull(delegate, "delegate cannot be null");
+        if( maxParallelism < 1 ) {
+            throw new IllegalArgumentException("maxParallelism must be greater than 0");
+        }
+        this.maxParallelism = maxParallelism;
+    }
+
+    /**
+     * @return the maximum number of tasks running at the same time
+     */
+    public int maxParallelism() {
+        return maxParallelism;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        requireNonNull(command, "command cannot be null");
+        pending.add( release -> {
+            try {
+                command.run();
+            } finally {
+                release.run();
+            }
+        });
+        drain();
+    }
+
+    /**
+     * Submits an asynchronous task. The task holds its slot until the future it returns completes,
+     * so that the tasks whose work continues asynchronously are bounded as well.
+     *
+     * @param task the task that starts the asynchronous work
+     * @param <T> the type of the result
+     * @return the future completed with the result of the future returned by the task
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<? extends CompletionStage<T>> task) {
+        requireNonNull(task, "task cannot be null");
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        pending.add( release -> {
+            final CompletionStage<T> stage;
+            try {
+                stage = requireNonNull(task.get(), "task cannot return a null future");
+            }
+            catch( Throwable ex ) {
+                release.run();
+                result.completeExceptionally(ex);
+                return;
+            }
+            stage.whenComplete( (value, ex) -> {
+                release.run();
+                if( ex != null ) {
+                    result.completeExceptionally(ex);
+                }
+                else {
+                    result.complete(value);
+                }
+            });
+        });
+        drain();
+        return result;
+    }
+
+    private void drain() {
+        while( !pending.isEmpty() ) {
+            int current = running.get();
+            if( current >= maxParallelism ) {
+                return;
+            }
+            if( !running.compareAndSet(current, current + 1) ) {
+                continue;
+            }
+            final Consumer<Runnable> task = pending.poll();
+            if( task == null ) {
+                running.decrementAndGet();
+                continue;
+            }
+            final AtomicBoolean released = new AtomicBoolean();
+            final Runnable release = () -> {
+                if( released.compareAndSet(false, true) ) {
+                    running.decrementAndGet();
+                    drain();
+                }
+            };
+            try {
+                delegate.execute(() -> task.accept(release));
+            }
+            catch( RejectedExecutionException ex ) {
+                running.decrementAndGet();
+                throw ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package org.bsc.langgraph4j.utils;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, persistent list made of chunks of 32 elements.
+ * <p>
+ * The full chunks are held in a trie and shared by all the lists derived from them. The last chunk (ie. tail)
+ * is shared too: the first list that appends after a given element claims the next slot of the tail, the other ones
+ * (ie. a branch from an older version) copy it. So {@link #with(Object)} costs {@code O(1)} amortized
+ * and the previous versions stay valid and unchanged. {@link #with(int, Object)} copies the path to a single chunk.
+ * <p>
+ * {@link #without(int)} doesn't move the elements: it records a tombstone, and the tombstones are compacted
+ * once they exceed a chunk. All the {@link List} mutators throw {@link UnsupportedOperationException}.
+ * <p>
+ * {@link #allMatch(Predicate)} remembers how many elements passed the last test, and the lists derived from
+ * this one resume from there: checking a list that only grows costs {@code O(1)} amortized per new element.
+ *
+ * @param <E> the type of elements
+ */
+public final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final int[] NO_TOMBSTONES = new int[0];
+
+    /**
+     * The last chunk, shared by the lists that have the same elements before it.
+     * {@code claimed} is the number of slots already written, a slot is never written twice.
+     */
+    private static final class Tail {
+        final Object[] elements = new Object[WIDTH];
+        final AtomicInteger claimed;
+
+        Tail( int claimed ) {
+            this.claimed = new AtomicInteger( claimed );
+        }
+    }
+
+    /**
+     * The elements stored before {@code position} passed {@code test}.
+     */
+    private record Checked( Object test, int position ) {}
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>( 0, BITS, new Object[WIDTH], null, NO_TOMBSTONES, null );
+
+    private final int count; // elements stored, tombstones included
+    private final int shift;
+    private final Object[] root;
+    private final Tail tail;
+    private final int[] tombstones; // sorted positions of the removed elements
+    private volatile Checked checked; // progress of the last allMatch, inherited by the derived lists
+
+    private PersistentList( int count, int shift, Object[] root, Tail tail, int[] tombstones, Checked checked ) {
+        this.count = count;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+        this.tombstones = tombstones;
+        this.checked = checked;
+    }
+
+    /**
+     * Returns the empty persistent list.
+     *
+     * @param <E> the type of elements
+     * @return the empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent list containing the elements of the given collection.
+     * If the given collection is already a {@code PersistentList} it is returned as is.
+     *
+     * @param collection the collection to copy
+     * @param <E> the type of elements
+     * @return a persistent list with the same elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> copyOf( Collection<? extends E> collection ) {
+        requireNonNull( collection, "collection cannot be null" );
+        if( collection instanceof PersistentList<?> ) {
+            return (PersistentList<E>) collection;
+        }
+        return PersistentList.<E>empty().withAll( collection );
+    }
+
+    private int tailOffset() {
+        return ( count < WIDTH ) ? 0 : ( (count - 1) >>> BITS ) << BITS;
+    }
+
+    /**
+     * @return the chunk holding the element at the given position
+     */
+    private Object[] chunkFor( int position ) {
+        if( position >= tailOffset() ) {
+            return tail.elements;
+        }
+        Object[] node = root;
+        for( int level = shift; level > 0; level -= BITS ) {
+            node = (Object[]) node[ (position >>> level) & MASK ];
+        }
+        return node;
+    }
+
+    /**
+     * @return the position of the element at the given index, skipping the tombstones
+     */
+    private int positionOf( int index ) {
+        int result = index;
+        for( int tombstone : tombstones ) {
+            if( tombstone > result ) {
+                break;
+            }
+            ++result;
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get( int index ) {
+        Objects.checkIndex( index, size() );
+        final int position = positionOf( index );
+        return (E) chunkFor( position )[ position & MASK ];
+    }
+
+    @Override
+    public int size() {
+        return count - tombstones.length;
+    }
+
+    /**
+     * Returns a new list with the given element appended.
+     *
+     * @param element the element to append
+     * @return the new list
+     */
+    public PersistentList<E> with( E element ) {
+        final int tailSize = count - tailOffset();
+        if( count == 0 ) {
+            final Tail newTail = new Tail( 1 );
+            newTail.elements[0] = element;
+            return new PersistentList<>( 1, shift, root, newTail, tombstones, null );
+        }
+        if( tailSize < WIDTH ) {
+            if( tail.claimed.compareAndSet( tailSize, tailSize + 1 ) ) {
+                tail.elements[tailSize] = element;
+                return new PersistentList<>( count + 1, shift, root, tail, tombstones, checked );
+            }
+            // a list derived from this one already appended: branch with a copy of the tail
+            final Tail newTail = new Tail( tailSize + 1 );
+            System.arraycopy( tail.elements, 0, newTail.elements, 0, tailSize );
+            newTail.elements[tailSize] = element;
+            return new PersistentList<>( count + 1, shift, root, newTail, tombstones, checked );
+        }
+        // the tail is full, so it's never written again and can be moved in the trie
+        final Object[] newRoot;
+        int newShift = shift;
+        if( (count >>> BITS) > (1 << shift) ) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath( shift, tail.elements );
+            newShift += BITS;
+        }
+        else {
+            newRoot = pushTail( shift, root, tail.elements );
+        }
+        final Tail newTail = new Tail( 1 );
+        newTail.elements[0] = element;
+        return new PersistentList<>( count + 1, newShift, newRoot, newTail, tombstones, checked );
+    }
+
+    private Object[] pushTail( int level, Object[] parent, Object[] chunk ) {
+        final int index = ( (count - 1) >>> level ) & MASK;
+        final Object[] result = parent.clone();
+        if( level == BITS ) {
+            result[index] = chunk;
+        }
+        else {
+            final Object[] child = (Object[]) parent[index];
+            result[index] = ( child != null ) ? pushTail( level - BITS, child, chunk ) : newPath( level - BITS, chunk );
+        }
+        return result;
+    }
+
+    private static Object[] newPath( int level, Object[] chunk ) {
+        if( level == 0 ) {
+            return chunk;
+        }
+        final Object[] result = new Object[WIDTH];
+        result[0] = newPath( level - BITS, chunk );
+        return result;
+    }
+
+    /**
+     * Returns a new list with the given elements appended.
+     *
+     * @param elements the elements to append
+     * @return the new list
+     */
+    public PersistentList<E> withAll( Collection<? extends E> elements ) {
+        PersistentList<E> result = this;
+        for( E element : elements ) {
+            result = result.with( element );
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new list with the element at the given index replaced by the given one.
+     * Only the chunk holding the element, and its path in the trie, are copied.
+     *
+     * @param index the index of the element to replace
+     * @param element the new element
+     * @return the new list
+     */
+    public PersistentList<E> with( int index, E element ) {
+        Objects.checkIndex( index, size() );
+        final int position = positionOf( index );
+        final int tailOffset = tailOffset();
+        if( position >= tailOffset ) {
+            final int tailSize = count - tailOffset;
+            final Tail newTail = new Tail( tailSize );
+            System.arraycopy( tail.elements, 0, newTail.elements, 0, tailSize );
+            newTail.elements[ position & MASK ] = element;
+            return new PersistentList<>( count, shift, root, newTail, tombstones, checkedBefore( position ) );
+        }
+        return new PersistentList<>( count, shift, replace( shift, root, position, element ), tail, tombstones, checkedBefore( position ) );
+    }
+
+    private static Object[] replace( int level, Object[] node, int position, Object element ) {
+        final Object[] result = node.clone();
+        if( level == 0 ) {
+            result[ position & MASK ] = element;
+        }
+        else {
+            final int index = ( position >>> level ) & MASK;
+            result[index] = replace( level - BITS, (Object[]) node[index], position, element );
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new list without the element at the given index.
+     * The element is marked as removed, the removed elements are dropped once they exceed a chunk.
+     *
+     * @param index the index of the element to remove
+     * @return the new list
+     */
+    public PersistentList<E> without( int index ) {
+        Objects.checkIndex( index, size() );
+        final int position = positionOf( index );
+        final int[] newTombstones = new int[ tombstones.length + 1 ];
+        int i = 0;
+        for( ; i < tombstones.length && tombstones[i] < position; ++i ) {
+            newTombstones[i] = tombstones[i];
+        }
+        newTombstones[i] = position;
+        System.arraycopy( tombstones, i, newTombstones, i + 1, tombstones.length - i );
+
+        final PersistentList<E> result = new PersistentList<>( count, shift, root, tail, newTombstones, checked );
+        return ( newTombstones.length > WIDTH ) ? PersistentList.<E>empty().withAll( result ) : result;
+    }
+
+    /**
+     * @return the progress of the last check, limited to the elements stored before the given position
+     */
+    private Checked checkedBefore( int position ) {
+        final Checked last = checked;
+        return ( last == null || last.position() <= position ) ? last : new Checked( last.test(), position );
+    }
+
+    /**
+     * Checks if all the elements match the given test.
+     * The check starts after the elements that already passed an equal test on this list, or on the list
+     * it has been derived from, so the test must give always the same result for the same element.
+     *
+     * @param test the test to apply to the elements
+     * @return true if all the elements match the test
+     */
+    @SuppressWarnings("unchecked")
+    public boolean allMatch( Predicate<? super E> test ) {
+        requireNonNull( test, "test cannot be null" );
+        final Checked last = checked;
+        int position = ( last != null && last.test().equals( test ) ) ? last.position() : 0;
+        int tombstone = 0;
+        while( tombstone < tombstones.length && tombstones[tombstone] < position ) {
+            ++tombstone;
+        }
+        boolean result = true;
+        for( ; position < count; ++position ) {
+            if( tombstone < tombstones.length && tombstones[tombstone] == position ) {
+                ++tombstone;
+                continue;
+            }
+            if( !test.test( (E) chunkFor( position )[ position & MASK ] ) ) {
+                result = false;
+                break;
+            }
+        }
+        if( position > 0 ) {
+            checked = new Checked( test, position );
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            int position = 0;
+            int tombstone = 0;
+            Object[] chunk = null;
+            int chunkOffset = -1;
+
+            private void skipTombstones() {
+                while( tombstone < tombstones.length && tombstones[tombstone] == position ) {
+                    ++tombstone;
+                    ++position;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                skipTombstones();
+                return position < count;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                final int offset = position & ~MASK;
+                if( offset != chunkOffset ) {
+                    chunk = chunkFor( position );
+                    chunkOffset = offset;
+                }
+                return (E) chunk[ position++ & MASK ];
+            }
+        };
+    }
+
+}
@@ -0,0 +1,398 @@
+package org.bsc.langgraph4j.utils;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, persistent hash map (Hash Array Mapped Trie).
+ * <p>
+ * Every update operation ({@link #with(Object, Object)}, {@link #without(Object)}, ...) returns a new map
+ * that shares all the untouched branches of the trie with the original one, so that
+ * an update costs {@code O(log32 n)} instead of a full copy.
+ * <p>
+ * Keys cannot be {@code null}, values can. All the {@link Map} mutators throw {@link UnsupportedOperationException}.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class PersistentMap<K,V> extends AbstractMap<K,V> {
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final PersistentMap<?,?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+    private transient Set<Entry<K,V>> entrySet;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty persistent map.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K,V> PersistentMap<K,V> empty() {
+        return (PersistentMap<K,V>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent map containing the entries of the given map.
+     * If the given map is already a {@code PersistentMap} it is returned as is.
+     *
+     * @param map the map to copy
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return a persistent map with the same entries
+     */
+    @SuppressWarnings("unchecked")
+    public static <K,V> PersistentMap<K,V> copyOf(Map<? extends K, ? extends V> map) {
+        requireNonNull(map, "map cannot be null");
+        if( map instanceof PersistentMap<?,?> ) {
+            return (PersistentMap<K,V>) map;
+        }
+        return PersistentMap.<K,V>empty().withAll(map);
+    }
+
+    /**
+     * Returns a new map with the given key associated to the given value.
+     *
+     * @param key the key, cannot be null
+     * @param value the value
+     * @return the updated map, or this map if the key is already associated to the same value instance
+     */
+    public PersistentMap<K,V> with(K key, V value) {
+        requireNonNull(key, "key cannot be null");
+        final boolean[] addedLeaf = { false };
+        final Node start = (root == null) ? BitmapNode.EMPTY : root;
+        final Node newRoot = start.assoc(0, hash(key), key, value, addedLeaf);
+        if( newRoot == root ) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, addedLeaf[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a new map containing all the entries of this map updated with the entries of the given one.
+     *
+     * @param entries the entries to add or replace
+     * @return the updated map
+     */
+    public PersistentMap<K,V> withAll(Map<? extends K, ? extends V> entries) {
+        PersistentMap<K,V> result = this;
+        for( Entry<? extends K, ? extends V> e : entries.entrySet() ) {
+            result = result.with(e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new map without the given key.
+     *
+     * @param key the key to remove
+     * @return the updated map, or this map if the key is not present
+     */
+    public PersistentMap<K,V> without(Object key) {
+        if( key == null || root == null || root.find(0, hash(key), key) == NOT_FOUND ) {
+            return this;
+        }
+        final Node newRoot = root.without(0, hash(key), key);
+        return new PersistentMap<>(newRoot, size - 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && root != null && root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if( key == null || root == null ) {
+            return null;
+        }
+        final Object result = root.find(0, hash(key), key);
+        return ( result == NOT_FOUND ) ? null : (V) result;
+    }
+
+    @Override
+    public Set<Entry<K,V>> entrySet() {
+        if( entrySet == null ) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K,V>> iterator() {
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private static int hash(Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int mask(int hash, int shift) {
+        return (hash >>> shift) & 0x1f;
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << mask(hash, shift);
+    }
+
+    /**
+     * A trie node. Both node kinds store their content as a flat array of pairs:
+     * a {@code (key, value)} pair is a leaf, a {@code (null, Node)} pair is a sub-trie.
+     */
+    private static abstract class Node {
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node assoc(int shift, int hash, Object key, Object value, boolean[] addedLeaf);
+
+        abstract Node without(int shift, int hash, Object key);
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            final int bit = bitpos(hash, shift);
+            if( (bitmap & bit) == 0 ) {
+                return NOT_FOUND;
+            }
+            final int idx = index(bit);
+            final Object k = array[2 * idx];
+            final Object v = array[2 * idx + 1];
+            if( k == null ) {
+                return ((Node) v).find(shift + 5, hash, key);
+            }
+            return key.equals(k) ? v : NOT_FOUND;
+        }
+
+        @Override
+        Node assoc(int shift, int hash, Object key, Object value, boolean[] addedLeaf) {
+            final int bit = bitpos(hash, shift);
+            final int idx = index(bit);
+
+            if( (bitmap & bit) != 0 ) {
+                final Object k = array[2 * idx];
+                final Object v = array[2 * idx + 1];
+                if( k == null ) {
+                    final Node n = ((Node) v).assoc(shift + 5, hash, key, value, addedLeaf);
+                    return ( n == v ) ? this : new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, n));
+                }
+                if( key.equals(k) ) {
+                    return ( v == value ) ? this : new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, value));
+                }
+                addedLeaf[0] = true;
+                final Object[] newArray = cloneAndSet(array, 2 * idx + 1, createNode(shift + 5, k, v, hash, key, value));
+                newArray[2 * idx] = null;
+                return new BitmapNode(bitmap, newArray);
+            }
+
+            final int n = Integer.bitCount(bitmap);
+            final Object[] newArray = new Object[2 * (n + 1)];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            newArray[2 * idx] = key;
+            newArray[2 * idx + 1] = value;
+            System.arraycopy(array, 2 * idx, newArray, 2 * (idx + 1), 2 * (n - idx));
+            addedLeaf[0] = true;
+            return new BitmapNode(bitmap | bit, newArray);
+        }
+
+        @Override
+        Node without(int shift, int hash, Object key) {
+            final int bit = bitpos(hash, shift);
+            if( (bitmap & bit) == 0 ) {
+                return this;
+            }
+            final int idx = index(bit);
+            final Object k = array[2 * idx];
+            final Object v = array[2 * idx + 1];
+            if( k == null ) {
+                final Node n = ((Node) v).without(shift + 5, hash, key);
+                if( n == v ) {
+                    return this;
+                }
+                if( n != null ) {
+                    return new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, n));
+                }
+                return ( bitmap == bit ) ? null : new BitmapNode(bitmap ^ bit, removePair(array, idx));
+            }
+            if( key.equals(k) ) {
+                return ( bitmap == bit ) ? null : new BitmapNode(bitmap ^ bit, removePair(array, idx));
+            }
+            return this;
+        }
+
+        private static Node createNode(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            final int hash1 = hash(key1);
+            if( hash1 == hash2 ) {
+                return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+            }
+            final boolean[] addedLeaf = { false };
+            return BitmapNode.EMPTY
+                    .assoc(shift, hash1, key1, value1, addedLeaf)
+                    .assoc(shift, hash2, key2, value2, addedLeaf);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(Object key) {
+            for( int i = 0; i < array.length; i += 2 ) {
+                if( key.equals(array[i]) ) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            final int idx = indexOf(key);
+            return ( idx < 0 ) ? NOT_FOUND : array[idx + 1];
+        }
+
+        @Override
+        Node assoc(int shift, int hash, Object key, Object value, boolean[] addedLeaf) {
+            if( hash == this.hash ) {
+                final int idx = indexOf(key);
+                if( idx >= 0 ) {
+                    return ( array[idx + 1] == value ) ? this : new CollisionNode(hash, cloneAndSet(array, idx + 1, value));
+                }
+                final Object[] newArray = Arrays.copyOf(array, array.length + 2);
+                newArray[array.length] = key;
+                newArray[array.length + 1] = value;
+                addedLeaf[0] = true;
+                return new CollisionNode(hash, newArray);
+            }
+            // nest this node in a bitmap node and retry
+            return new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this })
+                        .assoc(shift, hash, key, value, addedLeaf);
+        }
+
+        @Override
+        Node without(int shift, int hash, Object key) {
+            final int idx = indexOf(key);
+            if( idx < 0 ) {
+                return this;
+            }
+            if( array.length == 2 ) {
+                return null;
+            }
+            return new CollisionNode(this.hash, removePair(array, idx / 2));
+        }
+    }
+
+    private static Object[] cloneAndSet(Object[] array, int i, Object value) {
+        final Object[] clone = array.clone();
+        clone[i] = value;
+        return clone;
+    }
+
+    private static Object[] removePair(Object[] array, int pairIndex) {
+        final Object[] newArray = new Object[array.length - 2];
+        System.arraycopy(array, 0, newArray, 0, 2 * pairIndex);
+        System.arraycopy(array, 2 * (pairIndex + 1), newArray, 2 * pairIndex, newArray.length - 2 * pairIndex);
+        return newArray;
+    }
+
+    /**
+     * Depth first iterator over the trie leaves
+     */
+    private static final class EntryIterator<K,V> implements Iterator<Entry<K,V>> {
+        private final Deque<Object[]> arrays = new ArrayDeque<>();
+        private final Deque<int[]> cursors = new ArrayDeque<>();
+        private Entry<K,V> nextEntry;
+
+        EntryIterator(Node root) {
+            if( root != null ) {
+                arrays.push(root.array);
+                cursors.push(new int[] { 0 });
+            }
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            nextEntry = null;
+            while( !arrays.isEmpty() ) {
+                final Object[] array = arrays.peek();
+                final int[] cursor = cursors.peek();
+                if( cursor[0] >= array.length ) {
+                    arrays.pop();
+                    cursors.pop();
+                    continue;
+                }
+                final Object k = array[cursor[0]];
+                final Object v = array[cursor[0] + 1];
+                cursor[0] += 2;
+                if( k == null ) {
+                    arrays.push(((Node) v).array);
+                    cursors.push(new int[] { 0 });
+                    continue;
+                }
+                nextEntry = new SimpleImmutableEntry<>((K) k, (V) v);
+                return;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        @Override
+        public Entry<K,V> next() {
+            if( nextEntry == null ) {
+                throw new NoSuchElementException();
+            }
+            final Entry<K,V> result = nextEntry;
+            advance();
+            return result;
+        }
+    }
+}
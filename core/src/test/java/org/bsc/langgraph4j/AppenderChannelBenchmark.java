@@ -0,0 +1,65 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.AppenderChannel;
+import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.PersistentAppenderChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the cost of appending one message to a history of growing size through the {@link AppenderChannel},
+ * that copies the history, and through the {@link PersistentAppenderChannel}, that shares it.
+ * <p>
+ * usage: {@code AppenderChannelBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppenderChannelBenchmark {
+
+    @Param({ "appender", "persistent" })
+    public String channel;
+
+    @Param({ "100", "1000", "10000" })
+    public int messages;
+
+    private Channel<List<String>> messagesChannel;
+    private Object history;
+    private final List<String> message = List.of( "message" );
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messagesChannel = "persistent".equals(channel) ?
+                PersistentAppenderChannel.of() :
+                AppenderChannel.of( ArrayList::new );
+        history = null;
+        for( int i = 0; i < messages; ++i ) {
+            history = messagesChannel.update( "messages", history, List.of( format( "message %d", i ) ) );
+        }
+    }
+
+    @Benchmark
+    public Object append() {
+        return messagesChannel.update( "messages", history, message );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( AppenderChannelBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
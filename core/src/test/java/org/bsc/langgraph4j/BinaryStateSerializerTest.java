@@ -0,0 +1,215 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.checkpoint.FileSystemSaver;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.binary.BinaryStateSerializer;
+import org.bsc.langgraph4j.serializer.std.NullableObjectSerializer;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class BinaryStateSerializerTest {
+
+    record Message( String role, String text, Map<String,Object> metadata ) {}
+
+    static class MessageSerializer implements NullableObjectSerializer<Message> {
+
+        @Override
+        public void write(Message object, ObjectOutput out) throws IOException {
+            out.writeUTF( object.role() );
+            writeNullableUTF( object.text(), out );
+            out.writeObject( object.metadata() );
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Message read(ObjectInput in) throws IOException, ClassNotFoundException {
+            return new Message( in.readUTF(), readNullableUTF(in).orElse(null), (Map<String,Object>)in.readObject() );
+        }
+    }
+
+    static class SerializableValue implements Serializable {
+        final String name;
+
+        SerializableValue(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SerializableValue v && Objects.equals( v.name, name );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode( name );
+        }
+    }
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+
+        int steps() {
+            return this.<Integer>value("steps").orElse(0);
+        }
+    }
+
+    private static List<Message> messages( int count ) {
+        var result = new ArrayList<Message>();
+        for( int i = 0; i < count; ++i ) {
+            result.add( new Message( (i % 2 == 0) ? "user" : "assistant",
+                    format( "message %d", i ),
+                    Map.of( "index", i, "model", "model-1" ) ) );
+        }
+        return result;
+    }
+
+    @Test
+    public void roundTripTest() throws Exception {
+        var serializer = new BinaryStateSerializer<AgentState>( AgentState::new )
+                .register( 1, Message.class, new MessageSerializer() );
+
+        var data = new HashMap<String,Object>();
+        data.put( "int", -42 );
+        data.put( "maxInt", Integer.MAX_VALUE );
+        data.put( "long", Long.MIN_VALUE );
+        data.put( "double", 3.14 );
+        data.put( "float", 1.5f );
+        data.put( "short", (short)7 );
+        data.put( "byte", (byte)-1 );
+        data.put( "char", 'x' );
+        data.put( "bool", true );
+        data.put( "null", null );
+        data.put( "string", "héllo wörld 😀" );
+        data.put( "empty", "" );
+        data.put( "list", Arrays.asList( "a", 1, null, "a", List.of( 2L, "b" ) ) );
+        data.put( "set", new LinkedHashSet<>( List.of( "x", "y" ) ) );
+        data.put( "map", Map.of( "k", "v", "nested", Map.of( 1, "one" ) ) );
+        data.put( "message", new Message( "user", null, Map.of() ) );
+        data.put( "messages", messages( 3 ) );
+        data.put( "serializable", new SerializableValue( "value" ) );
+
+        var state = new AgentState( data );
+        var bytes = serializer.writeObject( state );
+        var result = serializer.readObject( bytes );
+
+        var expected = new HashMap<>( data );
+        var actual = new HashMap<>( result.data() );
+        assertEquals( expected, actual );
+        assertInstanceOf( Set.class, actual.get("set") );
+
+        // through an ObjectOutputStream, as checkpoint savers do
+        try( var stream = new ByteArrayOutputStream() ) {
+            var oas = new ObjectOutputStream( stream );
+            oas.writeUTF( "before" );
+            serializer.write( state, oas );
+            oas.writeUTF( "after" );
+            oas.flush();
+
+            var ois = new ObjectInputStream( new ByteArrayInputStream( stream.toByteArray() ) );
+            assertEquals( "before", ois.readUTF() );
+            assertEquals( expected, new HashMap<>( serializer.read( ois ).data() ) );
+            assertEquals( "after", ois.readUTF() );
+        }
+
+        var bytesValue = new AgentState( Map.of( "bytes", new byte[] { 1, 2, 3 } ) );
+        assertArrayEquals( new byte[] { 1, 2, 3 }, (byte[])serializer.cloneObject( bytesValue ).data().get("bytes") );
+    }
+
+    @Test
+    public void registrationTest() throws Exception {
+        var serializer = new BinaryStateSerializer<AgentState>( AgentState::new )
+                .register( 1, Message.class, new MessageSerializer() );
+
+        var valueSerializer = new Serializer<SerializableValue>() {
+            @Override
+            public void write(SerializableValue object, ObjectOutput out) throws IOException {
+                out.writeUTF( object.name );
+            }
+            @Override
+            public SerializableValue read(ObjectInput in) throws IOException {
+                return new SerializableValue( in.readUTF() );
+            }
+        };
+        assertThrows( IllegalArgumentException.class, () -> serializer.register( 1, SerializableValue.class, valueSerializer ) );
+        assertThrows( IllegalArgumentException.class, () -> serializer.register( -1, SerializableValue.class, valueSerializer ) );
+        serializer.register( 2, SerializableValue.class, valueSerializer );
+
+        var bytes = serializer.writeObject( new AgentState( Map.of( "message", new Message( "user", "hi", Map.of() ) ) ) );
+        var value = new SerializableValue( "value" );
+        assertEquals( value, serializer.cloneObject( new AgentState( Map.of( "value", value ) ) ).data().get("value") );
+
+        var reader = new BinaryStateSerializer<AgentState>( AgentState::new );
+        assertThrows( StreamCorruptedException.class, () -> reader.readObject( bytes ) );
+
+        reader.register( 1, Message.class, new MessageSerializer() );
+        assertEquals( new Message( "user", "hi", Map.of() ), reader.readObject( bytes ).data().get("message") );
+    }
+
+    @Test
+    public void sizeTest() throws Exception {
+        var binary = new BinaryStateSerializer<AgentState>( AgentState::new )
+                .register( 1, Message.class, new MessageSerializer() );
+        var objectStream = new ObjectStreamStateSerializer<AgentState>( AgentState::new );
+        objectStream.mapper().register( Message.class, new MessageSerializer() );
+
+        var state = new AgentState( Map.of( "messages", messages( 50 ), "steps", 50 ) );
+
+        var binarySize = binary.writeObject( state ).length;
+        var objectStreamSize = objectStream.writeObject( state ).length;
+
+        log.info( "state size object stream: {} binary: {} ratio: {}", objectStreamSize, binarySize, (double)objectStreamSize / binarySize );
+        assertTrue( objectStreamSize > binarySize * 2, format( "object stream: %d binary: %d", objectStreamSize, binarySize ) );
+
+        assertEquals( state.data(), binary.cloneObject( state ).data() );
+    }
+
+    @Test
+    public void checkpointTest() throws Exception {
+        final int expectedSteps = 5;
+        final var serializer = new BinaryStateSerializer<State>( State::new );
+
+        var workflow = new StateGraph<>( State.SCHEMA, serializer )
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async( state -> {
+                    int steps = state.steps() + 1;
+                    return Map.of("steps", steps, "messages", format( "agent_1:step %d", steps ));
+                }))
+                .addConditionalEdges( "agent_1",
+                        edge_async( state -> ( state.steps() >= expectedSteps ) ? "exit" : "next" ),
+                        Map.of( "next", "agent_1", "exit", END) );
+
+        var config = RunnableConfig.builder().threadId("thread_1").build();
+        var saver = new FileSystemSaver( Paths.get( "target", "checkpoint-binary" ), serializer );
+        saver.clear( config );
+
+        var app = workflow.compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+        var state = app.invoke( Map.of(), config );
+        assertEquals( expectedSteps, state.orElseThrow().steps() );
+
+        // reload the checkpoints from the file
+        var reloaded = new FileSystemSaver( Paths.get( "target", "checkpoint-binary" ), serializer );
+        var checkpoint = reloaded.get( config ).orElseThrow();
+        assertEquals( expectedSteps, checkpoint.getState().get("steps") );
+        assertEquals( expectedSteps, ((List<?>)checkpoint.getState().get("messages")).size() );
+
+        saver.clear( config );
+    }
+}
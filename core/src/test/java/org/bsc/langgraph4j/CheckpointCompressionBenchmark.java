@@ -0,0 +1,83 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.CheckpointCompression;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the throughput of the {@link CheckpointCompression} codecs against their compression ratio,
+ * on the serialized states of a growing conversation. The ratio of each configuration is printed at setup.
+ * <p>
+ * usage: {@code CheckpointCompressionBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckpointCompressionBenchmark {
+
+    @Param({ "none", "deflate-1", "deflate-6", "deflate-9", "dictionary-6" })
+    public String codec;
+
+    @Param({ "5", "50" })
+    public int step;
+
+    private CheckpointCompression compression;
+    private byte[] payload;
+    private byte[] compressed;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        var serializer = new ObjectStreamStateSerializer<AgentState>( AgentState::new );
+        payload = serializer.writeObject( serializer.stateOf( CheckpointCompressionTest.sampleState( step ) ) );
+
+        if( codec.startsWith( "dictionary" ) ) {
+            List<byte[]> samples = new ArrayList<>();
+            for( int i = 0; i < 4; ++i ) {
+                samples.add( serializer.writeObject( serializer.stateOf( CheckpointCompressionTest.sampleState( i ) ) ) );
+            }
+            compression = CheckpointCompression.deflate( 6, CheckpointCompression.trainDictionary( samples, 4096 ) );
+        }
+        else if( codec.startsWith( "deflate" ) ) {
+            compression = CheckpointCompression.deflate( Integer.parseInt( codec.substring( "deflate-".length() ) ) );
+        }
+        else {
+            compression = CheckpointCompression.none();
+        }
+        compressed = compress();
+        System.out.println( format( "%n%s, step %d: %d -> %d bytes (ratio %.2f)",
+                codec, step, payload.length, compressed.length, (double) payload.length / compressed.length ) );
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return ( compression.codec() == CheckpointCompression.Codec.NONE ) ? payload : compression.compress( payload );
+    }
+
+    @Benchmark
+    public byte[] decompress() throws Exception {
+        return ( compression.codec() == CheckpointCompression.Codec.NONE ) ? compressed :
+                compression.decompress( compression.codec(), compression.dictionaryId(), compressed, payload.length );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( CheckpointCompressionBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -0,0 +1,112 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.BaseCheckpointSaver;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.CheckpointCompression;
+import org.bsc.langgraph4j.checkpoint.FileSystemSaver;
+import org.bsc.langgraph4j.checkpoint.LogStructuredSaver;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointCompressionTest {
+
+    private final ObjectStreamStateSerializer<AgentState> stateSerializer = new ObjectStreamStateSerializer<>( AgentState::new );
+    private final RunnableConfig config = RunnableConfig.builder().threadId( "thread_1" ).build();
+
+    static Map<String,Object> sampleState( int step ) {
+        var messages = new ArrayList<String>();
+        for( int i = 0; i <= step; ++i ) {
+            messages.add( format( "The user asked about the weather in city %d and the assistant answered that it is sunny.", i ) );
+        }
+        return Map.of( "messages", messages, "step", step );
+    }
+
+    private static Checkpoint checkpoint( int step ) {
+        return Checkpoint.builder()
+                .nodeId( format( "node_%d", step ) )
+                .nextNodeId( format( "node_%d", step + 1 ) )
+                .state( sampleState( step ) )
+                .build();
+    }
+
+    private static long sizeOf( Path folder ) {
+        File[] files = folder.toFile().listFiles();
+        long result = 0;
+        for( File file : files ) {
+            result += file.length();
+        }
+        return result;
+    }
+
+    private void putAll( BaseCheckpointSaver saver, int from, int to ) throws Exception {
+        for( int i = from; i < to; ++i ) {
+            saver.put( config, checkpoint( i ) );
+        }
+    }
+
+    @Test
+    public void fileSystemSaverTest() throws Exception {
+        Path plainFolder = Paths.get( "target", "checkpoint", "compression", "plain" );
+        Path compressedFolder = Paths.get( "target", "checkpoint", "compression", "deflate" );
+
+        var plain = new FileSystemSaver( plainFolder, stateSerializer );
+        var compressed = new FileSystemSaver( compressedFolder, stateSerializer, CheckpointCompression.deflate( 6 ) );
+        plain.clear( config );
+        compressed.clear( config );
+        putAll( plain, 0, 20 );
+        putAll( compressed, 0, 20 );
+
+        assertTrue( sizeOf( compressedFolder ) * 3 < sizeOf( plainFolder ),
+                format( "compressed: %d plain: %d", sizeOf( compressedFolder ), sizeOf( plainFolder ) ) );
+
+        var reloaded = new FileSystemSaver( compressedFolder, stateSerializer, CheckpointCompression.deflate( 6 ) );
+        var checkpoints = List.copyOf( reloaded.list( config ) );
+        assertEquals( 20, checkpoints.size() );
+        assertEquals( "node_19", checkpoints.get(0).getNodeId() );
+        assertEquals( sampleState( 19 ), checkpoints.get(0).getState() );
+
+        plain.clear( config );
+        compressed.clear( config );
+    }
+
+    @Test
+    public void mixedRecordsTest() throws Exception {
+        Path folder = Paths.get( "target", "checkpoint", "compression", "mixed" );
+        var plain = new LogStructuredSaver( folder, stateSerializer );
+        plain.clear( config );
+        putAll( plain, 0, 2 );
+
+        var samples = List.of( stateSerializer.writeObject( stateSerializer.stateOf( sampleState( 0 ) ) ),
+                                stateSerializer.writeObject( stateSerializer.stateOf( sampleState( 1 ) ) ) );
+        byte[] dictionary = CheckpointCompression.trainDictionary( samples, 4096 );
+        assertTrue( dictionary.length > 0 && dictionary.length <= 4096 );
+
+        // old and new records coexist in the same segment
+        var compressed = new LogStructuredSaver( folder, stateSerializer, CheckpointCompression.deflate( 9, dictionary ) );
+        putAll( compressed, 2, 4 );
+        var checkpoints = List.copyOf( compressed.list( config ) );
+        assertEquals( 4, checkpoints.size() );
+        for( var checkpoint : checkpoints ) {
+            int step = (Integer)checkpoint.getState().get( "step" );
+            assertEquals( format( "node_%d", step ), checkpoint.getNodeId() );
+            assertEquals( sampleState( step ), checkpoint.getState() );
+        }
+
+        // records compressed with a dictionary need the same dictionary
+        var other = new LogStructuredSaver( folder, stateSerializer, CheckpointCompression.deflate( 6 ) );
+        assertThrows( Exception.class, () -> other.list( config ).forEach( Checkpoint::getState ) );
+
+        compressed.clear( config );
+    }
+}
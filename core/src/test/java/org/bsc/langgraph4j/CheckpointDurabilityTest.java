@@ -0,0 +1,220 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.action.NodeAction;
+import org.bsc.langgraph4j.checkpoint.AsyncCheckpointSaver;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.CheckpointDurability;
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class CheckpointDurabilityTest {
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+
+        int steps() {
+            return this.<Integer>value("steps").orElse(0);
+        }
+    }
+
+    /**
+     * MemorySaver with a slow write
+     */
+    static class SlowSaver extends MemorySaver {
+        final long delay;
+        final AtomicInteger writes = new AtomicInteger();
+
+        SlowSaver(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+            Thread.sleep( delay );
+            writes.incrementAndGet();
+            return super.put(config, checkpoint);
+        }
+    }
+
+    private StateGraph<State> workflow( int expectedSteps, NodeAction<State> onStep ) throws Exception {
+        return new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async( state -> {
+                    onStep.apply(state);
+                    int steps = state.steps() + 1;
+                    return Map.of("steps", steps, "messages", format( "agent_1:step %d", steps ));
+                }))
+                .addConditionalEdges( "agent_1",
+                        edge_async( state -> ( state.steps() >= expectedSteps ) ? "exit" : "next" ),
+                        Map.of( "next", "agent_1", "exit", END) );
+    }
+
+    @Test
+    public void asyncDurabilityTest() throws Exception {
+        final int expectedSteps = 5;
+        final var saver = new SlowSaver( 20 );
+
+        var app = workflow( expectedSteps, state -> Map.of() )
+                .compile( CompileConfig.builder()
+                        .checkpointSaver( saver )
+                        .checkpointDurability( CheckpointDurability.ASYNC )
+                        .build() );
+
+        assertInstanceOf( AsyncCheckpointSaver.class, app.compileConfig.checkpointSaver().orElseThrow() );
+
+        var config = RunnableConfig.builder().threadId("thread_1").build();
+
+        var result = app.invoke( Map.of(), config );
+        assertTrue( result.isPresent() );
+        assertEquals( expectedSteps, result.get().steps() );
+
+        // reads wait for the pending writes
+        var history = new ArrayList<>( app.getStateHistory( config ) );
+        assertEquals( expectedSteps + 1, history.size() );
+        assertEquals( expectedSteps + 1, saver.writes.get() );
+        // order is preserved (last first)
+        assertEquals( expectedSteps, history.get(0).state().steps() );
+        assertEquals( 0, history.get( history.size() - 1 ).state().steps() );
+
+        // resume from the last checkpoint
+        var state = app.getState( config );
+        assertEquals( expectedSteps, state.state().steps() );
+    }
+
+    @Test
+    public void asyncDurabilityBackpressureTest() throws Exception {
+        final int expectedSteps = 10;
+        final var saver = new SlowSaver( 5 );
+
+        var app = workflow( expectedSteps, state -> Map.of() )
+                .compile( CompileConfig.builder()
+                        .checkpointSaver( saver )
+                        .checkpointDurability( CheckpointDurability.ASYNC )
+                        .checkpointQueueCapacity( 1 )
+                        .build() );
+
+        var configs = List.of( RunnableConfig.builder().threadId("thread_1").build(),
+                                RunnableConfig.builder().threadId("thread_2").build() );
+
+        for( var config : configs ) {
+            var result = app.invoke( Map.of(), config );
+            assertTrue( result.isPresent() );
+        }
+        app.flushCheckpoints().join();
+
+        assertEquals( (expectedSteps + 1) * configs.size(), saver.writes.get() );
+        for( var config : configs ) {
+            assertEquals( expectedSteps + 1, saver.list( config ).size() );
+            assertEquals( expectedSteps, app.getState( config ).state().steps() );
+        }
+    }
+
+    @Test
+    public void asyncDurabilityPutAsyncTest() throws Exception {
+        final int expectedSteps = 10;
+        final var saver = new SlowSaver( 5 );
+
+        var app = workflow( expectedSteps, state -> Map.of() )
+                .compile( CompileConfig.builder()
+                        .checkpointSaver( saver )
+                        .checkpointDurability( CheckpointDurability.ASYNC )
+                        .checkpointQueueCapacity( 1 )
+                        .build() );
+
+        var config = RunnableConfig.builder().threadId("thread_1").build();
+
+        // the queue is full: invokeAsync waits for a free slot without blocking the caller
+        var result = app.invokeAsync( Map.of(), config ).get( 10, TimeUnit.SECONDS );
+        assertTrue( result.isPresent() );
+        app.flushCheckpoints().join();
+
+        assertEquals( expectedSteps + 1, saver.writes.get() );
+        assertEquals( expectedSteps + 1, saver.list( config ).size() );
+        assertEquals( expectedSteps, app.getState( config ).state().steps() );
+
+        // the pending putAsync completes once the running write releases its slot
+        var asyncSaver = new AsyncCheckpointSaver( new SlowSaver( 200 ), CheckpointDurability.ASYNC, 1 );
+        var first = asyncSaver.putAsync( config, Checkpoint.builder().nodeId( "a" ).state( Map.of() ).nextNodeId( "b" ).build() );
+        assertTrue( first.isDone() );
+        var second = asyncSaver.putAsync( config, Checkpoint.builder().nodeId( "b" ).state( Map.of() ).nextNodeId( "c" ).build() );
+        assertFalse( second.isDone() );
+        second.get( 10, TimeUnit.SECONDS );
+        asyncSaver.flush( config ).join();
+        assertEquals( 2, asyncSaver.list( config ).size() );
+    }
+
+    @Test
+    public void exitDurabilityTest() throws Exception {
+        final int expectedSteps = 3;
+        final var saver = new SlowSaver( 0 );
+        final var writesDuringExecution = new ArrayList<Integer>();
+
+        var app = workflow( expectedSteps, state -> {
+                    writesDuringExecution.add( saver.writes.get() );
+                    return Map.of();
+                })
+                .compile( CompileConfig.builder()
+                        .checkpointSaver( saver )
+                        .checkpointDurability( CheckpointDurability.EXIT )
+                        .interruptBefore( "agent_1" )
+                        .build() );
+
+        var config = RunnableConfig.builder().threadId("thread_1").build();
+
+        // interrupted before agent_1: only the START checkpoint
+        app.invoke( Map.of(), config );
+        assertEquals( 1, saver.writes.get() );
+
+        // resume until the exit
+        for( int i = 0; i < expectedSteps; ++i ) {
+            app.invoke( null, config );
+        }
+        assertEquals( expectedSteps, app.getState( config ).state().steps() );
+        // nothing has been written during the node executions
+        assertEquals( List.of( 1, 2, 3 ), writesDuringExecution );
+        assertEquals( expectedSteps + 1, saver.writes.get() );
+    }
+
+    @Test
+    public void asyncDurabilityFailureTest() throws Exception {
+        final var saver = new MemorySaver();
+        var asyncSaver = new AsyncCheckpointSaver( saver, CheckpointDurability.ASYNC, 4 );
+
+        var config = RunnableConfig.builder().threadId("thread_1").checkPointId("not exists").build();
+
+        var checkpoint = Checkpoint.builder()
+                            .nodeId( "agent_1" )
+                            .nextNodeId( END )
+                            .state( Map.of() )
+                            .build();
+
+        // replace a not existent checkpoint: the error is reported by the flush
+        assertEquals( config, asyncSaver.put( config, checkpoint ) );
+
+        var exception = assertThrows( CompletionException.class, () -> asyncSaver.flush( config ).join() );
+        assertInstanceOf( java.util.NoSuchElementException.class, exception.getCause() );
+
+        // the failure is reported once
+        asyncSaver.flush( config ).join();
+    }
+}
@@ -0,0 +1,103 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.BaseCheckpointSaver;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.ConcurrentMemorySaver;
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares {@link MemorySaver} and {@link ConcurrentMemorySaver} under contention: many benchmark threads
+ * work on different graph threads, each one adding a checkpoint and reading it back by id, as a resumed
+ * execution does.
+ * <p>
+ * usage: {@code CheckpointSaverBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class CheckpointSaverBenchmark {
+
+    @Param({ "memory", "concurrent" })
+    public String saverType;
+
+    @Param({ "1000" })
+    public int threads;
+
+    @Param({ "10", "200" })
+    public int historyLength;
+
+    private BaseCheckpointSaver saver;
+    private RunnableConfig[] configs;
+    private RunnableConfig[] pastConfigs;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int next = ThreadLocalRandom.current().nextInt( Integer.MAX_VALUE );
+    }
+
+    private static Checkpoint checkpoint( int step ) {
+        return Checkpoint.builder()
+                .nodeId( "agent_1" )
+                .nextNodeId( "agent_1" )
+                .state( Map.of( "steps", step ) )
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        saver = switch (saverType) {
+            case "memory" -> new MemorySaver();
+            case "concurrent" -> new ConcurrentMemorySaver();
+            default -> throw new IllegalArgumentException( format("unknown saver type '%s'", saverType) );
+        };
+        configs = new RunnableConfig[threads];
+        pastConfigs = new RunnableConfig[threads];
+        for( int i = 0; i < threads; ++i ) {
+            configs[i] = RunnableConfig.builder().threadId( "thread_" + i ).build();
+            for( int step = 0; step < historyLength; ++step ) {
+                var newConfig = saver.put( configs[i], checkpoint(step) );
+                if( step == historyLength / 2 ) {
+                    pastConfigs[i] = newConfig;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Checkpoint putAndGetById( ThreadState state ) throws Exception {
+        final int index = (state.next++ & Integer.MAX_VALUE) % threads;
+        // put a new checkpoint and read back a past one by id (ie. resume or update from a past checkpoint)
+        saver.put( configs[index], checkpoint( state.next ) );
+        return saver.get( pastConfigs[index] ).orElseThrow();
+    }
+
+    @Benchmark
+    public Checkpoint putAndGetLast( ThreadState state ) throws Exception {
+        final RunnableConfig config = configs[ (state.next++ & Integer.MAX_VALUE) % threads ];
+        saver.put( config, checkpoint( state.next ) );
+        return saver.get( config ).orElseThrow();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( CheckpointSaverBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
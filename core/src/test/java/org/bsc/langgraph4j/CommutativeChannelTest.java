@@ -0,0 +1,114 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommutativeChannelTest {
+
+    static final Map<String, Channel<?>> SCHEMA = Map.of(
+            "count", CounterChannel.of(),
+            "min", MinMaxChannel.minLong(),
+            "longest", MinMaxChannel.<String>max( Comparator.comparingInt( String::length ) ),
+            "tags", SetUnionChannel.of(),
+            "messages", ConcurrentAppenderChannel.of() );
+
+    @Test
+    public void updateTest() {
+        Map<String,Object> state = Map.of();
+        state = AgentState.updateState( state, Map.of( "count", 2, "min", 5, "longest", "ab", "tags", "x", "messages", "a" ), SCHEMA );
+        state = AgentState.updateState( state, Map.of( "count", 3L, "min", 7, "longest", "abc", "tags", List.of( "x", "y" ), "messages", List.of( "b", "c" ) ), SCHEMA );
+
+        assertEquals( 5L, state.get( "count" ) );
+        assertEquals( 5L, state.get( "min" ) );
+        assertEquals( "abc", state.get( "longest" ) );
+        assertEquals( Set.of( "x", "y" ), state.get( "tags" ) );
+        assertEquals( List.of( "a", "b", "c" ), state.get( "messages" ) );
+
+        assertThrows( IllegalArgumentException.class, () -> CounterChannel.of().update( "count", 0L, "one" ) );
+        assertThrows( IllegalArgumentException.class, () -> ConcurrentAppenderChannel.of().update( "messages", List.of(), RemoveByHash.of( "a" ) ) );
+    }
+
+    @Test
+    public void concurrentAccumulatorTest() throws Exception {
+        final int branches = 8;
+        final int updates = 10_000;
+        var count = CounterChannel.of().newAccumulator( branches );
+        var max = MinMaxChannel.maxLong().newAccumulator( branches );
+        var tags = SetUnionChannel.of().newAccumulator( branches );
+        var messages = ConcurrentAppenderChannel.of().newAccumulator( branches );
+
+        var executor = Executors.newFixedThreadPool( branches );
+        try {
+            CompletableFuture.allOf( IntStream.range( 0, branches )
+                    .mapToObj( branch -> CompletableFuture.runAsync( () -> {
+                        for( int i = 0; i < updates; ++i ) {
+                            count.accumulate( branch, 1 );
+                            max.accumulate( branch, branch * updates + i );
+                            tags.accumulate( branch, i % 100 );
+                        }
+                        messages.accumulate( branches - 1 - branch, List.of( branches - 1 - branch ) );
+                    }, executor ) )
+                    .toArray( CompletableFuture[]::new ) ).join();
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        assertEquals( (long) branches * updates, count.result() );
+        assertEquals( (long) branches * updates - 1, max.result() );
+        assertEquals( 100, ((Set<?>) tags.result()).size() );
+        // in branch order
+        assertEquals( IntStream.range( 0, branches ).boxed().toList(), messages.result() );
+        // no update
+        assertNull( CounterChannel.of().newAccumulator( 1 ).result() );
+        assertNull( ConcurrentAppenderChannel.of().newAccumulator( 2 ).result() );
+    }
+
+    static class State extends AgentState {
+        State( Map<String,Object> initData ) {
+            super( initData );
+        }
+    }
+
+    @Test
+    public void parallelBranchesTest() throws Exception {
+        var workflow = new StateGraph<>( SCHEMA, State::new )
+                .addNode( "A", node_async( state -> Map.of( "count", 1, "messages", "A" ) ) )
+                .addNode( "B", node_async( state -> Map.of( "count", 1, "messages", "B", "min", 10, "tags", "b" ) ) );
+        var branches = List.of( "A1", "A2", "A3" );
+        for( int i = 0; i < branches.size(); ++i ) {
+            final String id = branches.get( i );
+            // the first branch is the slowest one, the append order must not change
+            final long delay = ( i == 0 ) ? 200 : 10;
+            final long value = i + 1;
+            workflow.addNode( id, node_async( state -> {
+                Thread.sleep( delay );
+                return Map.of( "count", 1, "messages", id, "min", value, "tags", List.of( id, "shared" ), "longest", id + "-".repeat( (int) value ) );
+            }));
+            workflow.addEdge( "A", id );
+            workflow.addEdge( id, "B" );
+        }
+        workflow.addEdge( START, "A" );
+        workflow.addEdge( "B", END );
+
+        var result = workflow.compile().invoke( Map.of() );
+
+        assertTrue( result.isPresent() );
+        var data = result.get().data();
+        assertEquals( 5L, data.get( "count" ) );
+        assertEquals( List.of( "A", "A1", "A2", "A3", "B" ), data.get( "messages" ) );
+        assertEquals( 1L, data.get( "min" ) );
+        assertEquals( "A3---", data.get( "longest" ) );
+        assertEquals( Set.of( "A1", "A2", "A3", "shared", "b" ), data.get( "tags" ) );
+    }
+}
@@ -0,0 +1,133 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.ConcurrentMemorySaver;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class ConcurrentMemorySaverTest {
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+
+        int steps() {
+            return this.<Integer>value("steps").orElse(0);
+        }
+    }
+
+    @Test
+    public void putGetReplaceTest() throws Exception {
+        var saver = new ConcurrentMemorySaver();
+        var config = RunnableConfig.builder().threadId("thread_1").build();
+
+        assertTrue( saver.get( config ).isEmpty() );
+        assertTrue( saver.list( config ).isEmpty() );
+
+        var ids = new ArrayList<String>();
+        for( int i = 0; i < 3; ++i ) {
+            var checkpoint = Checkpoint.builder()
+                    .nodeId( "agent_1" )
+                    .nextNodeId( "agent_1" )
+                    .state( Map.of( "steps", i ) )
+                    .build();
+            var newConfig = saver.put( config, checkpoint );
+            assertEquals( checkpoint.getId(), newConfig.checkPointId().orElseThrow() );
+            ids.add( 0, checkpoint.getId() );
+        }
+
+        assertEquals( ids, saver.list( config ).stream().map( Checkpoint::getId ).toList() );
+        assertEquals( ids.get(0), saver.get( config ).orElseThrow().getId() );
+
+        var pastConfig = RunnableConfig.builder(config).checkPointId( ids.get(1) ).build();
+        assertEquals( 1, saver.get( pastConfig ).orElseThrow().getState().get("steps") );
+
+        // replace
+        var updated = saver.get( pastConfig ).orElseThrow().updateState( Map.of( "steps", 10 ), State.SCHEMA );
+        assertEquals( pastConfig, saver.put( pastConfig, updated ) );
+        assertEquals( 10, saver.get( pastConfig ).orElseThrow().getState().get("steps") );
+        assertEquals( ids, saver.list( config ).stream().map( Checkpoint::getId ).toList() );
+
+        var missingConfig = RunnableConfig.builder(config).checkPointId( "not exists" ).build();
+        assertThrows( NoSuchElementException.class, () -> saver.put( missingConfig, updated ) );
+
+        // remove the oldest, the last and the middle one
+        for( int i = 3; i < 6; ++i ) {
+            var checkpoint = Checkpoint.builder()
+                    .nodeId( "agent_1" )
+                    .nextNodeId( "agent_1" )
+                    .state( Map.of( "steps", i ) )
+                    .build();
+            saver.put( config, checkpoint );
+            ids.add( 0, checkpoint.getId() );
+        }
+        for( String id : List.of( ids.get( ids.size() - 1 ), ids.get(0), ids.get(2) ) ) {
+            assertTrue( saver.remove( RunnableConfig.builder(config).checkPointId( id ).build() ) );
+            assertFalse( saver.remove( RunnableConfig.builder(config).checkPointId( id ).build() ) );
+            ids.remove( id );
+        }
+        assertEquals( ids, saver.list( config ).stream().map( Checkpoint::getId ).toList() );
+        assertEquals( ids.get(0), saver.get( config ).orElseThrow().getId() );
+        assertEquals( 10, saver.get( pastConfig ).orElseThrow().getState().get("steps") );
+
+        // threads are isolated
+        assertTrue( saver.list( RunnableConfig.builder().threadId("thread_2").build() ).isEmpty() );
+        assertTrue( saver.clear( config ) );
+        assertTrue( saver.list( config ).isEmpty() );
+    }
+
+    @Test
+    public void concurrentRunsTest() throws Exception {
+        final int expectedSteps = 5;
+        final int runs = 32;
+
+        var saver = new ConcurrentMemorySaver();
+        var app = new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async( state -> {
+                    int steps = state.steps() + 1;
+                    return Map.of("steps", steps, "messages", format( "agent_1:step %d", steps ));
+                }))
+                .addConditionalEdges( "agent_1",
+                        edge_async( state -> ( state.steps() >= expectedSteps ) ? "exit" : "next" ),
+                        Map.of( "next", "agent_1", "exit", END) )
+                .compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+
+        var executor = Executors.newFixedThreadPool( 8 );
+        try {
+            final List<CompletableFuture<?>> futures = new ArrayList<>();
+            for( int i = 0; i < runs; ++i ) {
+                var config = RunnableConfig.builder().threadId( "thread_" + i ).build();
+                futures.add( CompletableFuture.runAsync( () -> app.invoke( Map.of(), config ), executor ) );
+            }
+            CompletableFuture.allOf( futures.toArray( CompletableFuture[]::new ) ).join();
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        for( int i = 0; i < runs; ++i ) {
+            var config = RunnableConfig.builder().threadId( "thread_" + i ).build();
+            assertEquals( expectedSteps + 1, saver.list( config ).size() );
+            assertEquals( expectedSteps, app.getState( config ).state().steps() );
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.*;
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentAddressedCheckpointSaverTest {
+
+    private final ObjectStreamStateSerializer<AgentState> stateSerializer = new ObjectStreamStateSerializer<>( AgentState::new );
+    private final RunnableConfig config = RunnableConfig.builder().threadId( "thread_1" ).build();
+
+    private static List<String> documents( String prefix ) {
+        var result = new ArrayList<String>();
+        for( int i = 0; i < 100; ++i ) {
+            result.add( format( "%s document %d retrieved for the question", prefix, i ) );
+        }
+        return result;
+    }
+
+    private static Checkpoint checkpoint( int step, List<String> documents, byte[] image ) {
+        return Checkpoint.builder()
+                .nodeId( format( "node_%d", step ) )
+                .nextNodeId( format( "node_%d", step + 1 ) )
+                .state( Map.of( "documents", documents, "image", image, "step", step ) )
+                .build();
+    }
+
+    private void sharedValuesTest( BaseCheckpointSaver delegate, ValueStore valueStore ) throws Exception {
+        var saver = new ContentAddressedCheckpointSaver( delegate, valueStore, stateSerializer );
+        saver.clear( config );
+
+        var documents = documents( "first" );
+        var image = new byte[ 64 * 1024 ];
+        image[0] = 1;
+        for( int i = 0; i < 5; ++i ) {
+            saver.put( config, checkpoint( i, documents, image ) );
+        }
+        var changed = documents( "second" );
+        saver.put( config, checkpoint( 5, changed, image ) );
+
+        assertEquals( 3, valueStore.digests().size() );
+
+        var stored = List.copyOf( delegate.list( config ) );
+        assertEquals( 6, stored.size() );
+        for( var checkpoint : stored ) {
+            assertFalse( checkpoint.getState().containsKey( "documents" ) );
+            assertTrue( checkpoint.getState().containsKey( ContentAddressedCheckpointSaver.REFERENCE_KEY_PREFIX + "documents" ) );
+            assertEquals( checkpoint.getState().get( ContentAddressedCheckpointSaver.REFERENCE_KEY_PREFIX + "image" ),
+                          stored.get(0).getState().get( ContentAddressedCheckpointSaver.REFERENCE_KEY_PREFIX + "image" ) );
+        }
+        String imageDigest = String.valueOf( stored.get(0).getState().get( ContentAddressedCheckpointSaver.REFERENCE_KEY_PREFIX + "image" ) );
+        assertEquals( 6, valueStore.references( imageDigest ) );
+
+        var checkpoints = List.copyOf( saver.list( config ) );
+        assertEquals( 6, checkpoints.size() );
+        assertEquals( changed, checkpoints.get(0).getState().get( "documents" ) );
+        assertEquals( documents, checkpoints.get(5).getState().get( "documents" ) );
+        assertArrayEquals( image, (byte[]) checkpoints.get(3).getState().get( "image" ) );
+        assertEquals( 2, checkpoints.get(3).getState().get( "step" ) );
+
+        var last = saver.get( config ).orElseThrow();
+        assertEquals( "node_5", last.getNodeId() );
+        assertEquals( changed, last.getState().get( "documents" ) );
+
+        // replacing the last checkpoint releases the values that only it referenced
+        saver.put( RunnableConfig.builder( config ).checkPointId( last.getId() ).build(), checkpoint( 5, documents, image ) );
+        assertEquals( 2, valueStore.digests().size() );
+        assertEquals( 6, valueStore.references( imageDigest ) );
+
+        saver.clear( config );
+        assertTrue( valueStore.digests().isEmpty() );
+    }
+
+    @Test
+    public void memorySaverTest() throws Exception {
+        sharedValuesTest( new MemorySaver(), new MemoryValueStore() );
+    }
+
+    @Test
+    public void fileSystemSaverTest() throws Exception {
+        Path folder = Paths.get( "target", "checkpoint", "cas" );
+        sharedValuesTest( new FileSystemSaver( folder.resolve( "checkpoints" ), stateSerializer ),
+                          new FileSystemValueStore( folder.resolve( "values" ) ) );
+    }
+
+    @Test
+    public void retentionTest() throws Exception {
+        var valueStore = new MemoryValueStore();
+        var saver = new RetentionCheckpointSaver(
+                new ContentAddressedCheckpointSaver( new MemorySaver(), valueStore, stateSerializer ),
+                RetentionPolicy.builder().maxCheckpointsPerThread( 2 ).build() );
+
+        var image = new byte[ 4096 ];
+        for( int i = 0; i < 10; ++i ) {
+            saver.put( config, checkpoint( i, documents( format( "step %d", i ) ), image ) );
+        }
+        assertEquals( 2, saver.list( config ).size() );
+        // the documents of the evicted checkpoints are no longer stored
+        assertEquals( 3, valueStore.digests().size() );
+    }
+
+    @Test
+    public void valueSerializerTest() throws Exception {
+        // a state serializer that requires a specific state shape cannot serialize single values
+        var shapedSerializer = new ObjectStreamStateSerializer<AgentState>( data -> {
+            if( !data.containsKey( "input" ) ) {
+                throw new IllegalArgumentException( "input is required" );
+            }
+            return new AgentState( data );
+        });
+        assertThrows( IllegalArgumentException.class,
+                () -> new ContentAddressedCheckpointSaver( new MemorySaver(), new MemoryValueStore(), shapedSerializer ) );
+
+        Serializer<Object> valueSerializer = new Serializer<>() {
+            @Override
+            public void write( Object object, ObjectOutput out ) throws IOException {
+                out.writeObject( object );
+            }
+
+            @Override
+            public Object read( ObjectInput in ) throws IOException, ClassNotFoundException {
+                return in.readObject();
+            }
+        };
+        var valueStore = new MemoryValueStore();
+        var saver = new ContentAddressedCheckpointSaver( new MemorySaver(), valueStore, valueSerializer,
+                                                         ContentAddressedCheckpointSaver.DEFAULT_THRESHOLD );
+        var documents = documents( "first" );
+        saver.put( config, checkpoint( 0, documents, new byte[ 4096 ] ) );
+        saver.put( config, checkpoint( 1, documents, new byte[ 4096 ] ) );
+
+        assertEquals( 2, valueStore.digests().size() );
+        assertEquals( documents, saver.get( config ).orElseThrow().getState().get( "documents" ) );
+    }
+}
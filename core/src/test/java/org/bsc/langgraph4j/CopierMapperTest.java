@@ -0,0 +1,152 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.serializer.Copier;
+import org.bsc.langgraph4j.serializer.CopierMapper;
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CopierMapperTest {
+
+    record Message( String text, int index ) {}
+
+    record Holder( List<String> values ) {}
+
+    record Tree( String name, Tree parent ) {}
+
+    enum Kind { A, B }
+
+    static class Counter implements Serializable {
+        int value;
+
+        Counter( int value ) {
+            this.value = value;
+        }
+    }
+
+    @Test
+    public void resolutionTest() {
+        CopierMapper copiers = new CopierMapper();
+
+        assertTrue( copiers.isImmutable( String.class ) );
+        assertTrue( copiers.isImmutable( LocalDate.class ) );
+        assertTrue( copiers.isImmutable( Kind.class ) );
+        assertTrue( copiers.isImmutable( Message.class ) );
+        assertTrue( copiers.isImmutable( Tree.class ) );
+        assertFalse( copiers.isImmutable( Holder.class ) );
+        assertFalse( copiers.getCopier( Holder.class ).isPresent() );
+        assertFalse( copiers.getCopier( Counter.class ).isPresent() );
+
+        // collection copiers don't apply to subclasses
+        assertTrue( copiers.getCopier( ArrayList.class ).isPresent() );
+        assertFalse( copiers.getCopier( new ArrayList<String>() {}.getClass() ).isPresent() );
+
+        // the cache is invalidated by a new registration
+        copiers.register( Counter.class, ( value, context ) -> new Counter( value.value ) );
+        copiers.immutable( CharSequence.class );
+        assertTrue( copiers.getCopier( Counter.class ).isPresent() );
+        assertTrue( copiers.isImmutable( StringBuilder.class ) );
+
+        assertTrue( copiers.unregister( CharSequence.class ) );
+        assertFalse( copiers.isImmutable( StringBuilder.class ) );
+    }
+
+    @Test
+    public void copyStateTest() throws Exception {
+        AtomicInteger serialized = new AtomicInteger();
+        AtomicInteger cloned = new AtomicInteger();
+        var serializer = new ObjectStreamStateSerializer<AgentState>( AgentState::new ) {
+            @Override
+            public AgentState cloneObject( AgentState object ) throws IOException, ClassNotFoundException {
+                cloned.incrementAndGet();
+                return super.cloneObject( object );
+            }
+        };
+        serializer.mapper().register( Counter.class, new Serializer<Counter>() {
+            @Override
+            public void write(Counter object, ObjectOutput out) throws IOException {
+                serialized.incrementAndGet();
+                out.writeInt( object.value );
+            }
+
+            @Override
+            public Counter read(ObjectInput in) throws IOException {
+                return new Counter( in.readInt() );
+            }
+        });
+
+        var message = new Message( "hello", 1 );
+        var messages = new ArrayList<>( List.of( message, new Message( "world", 2 ) ) );
+        var immutable = List.of( "a", "b" );
+        Map<String,Object> data = new HashMap<>();
+        data.put( "message", message );
+        data.put( "messages", messages );
+        data.put( "immutable", immutable );
+        data.put( "view", Collections.unmodifiableList( messages ) );
+        data.put( "none", null );
+
+        var copy = serializer.copyState( data ).data();
+
+        assertEquals( data.keySet(), copy.keySet() );
+        assertSame( message, copy.get("message") );
+        assertSame( immutable, copy.get("immutable") );
+        assertNull( copy.get("none") );
+        assertEquals( 0, cloned.get() );
+
+        // mutable containers are copied, immutable elements shared
+        assertNotSame( messages, copy.get("messages") );
+        assertEquals( messages, copy.get("messages") );
+        assertSame( message, ((List<?>)copy.get("messages")).get(0) );
+        assertNotSame( data.get("view"), copy.get("view") );
+        assertThrows( UnsupportedOperationException.class, () -> ((List<?>)copy.get("view")).clear() );
+
+        // with unknown types, top level or nested, the whole state is cloned once
+        data.keySet().retainAll( Set.of( "immutable", "none" ) );
+        data.put( "counter", new Counter( 1 ) );
+        data.put( "counters", new ArrayList<>( List.of( new Counter( 2 ) ) ) );
+        data.put( "countersByName", new HashMap<>( Map.of( "three", new Counter( 3 ) ) ) );
+        var cloneCopy = serializer.copyState( data ).data();
+        assertEquals( 3, serialized.get() );
+        assertEquals( 1, cloned.get() );
+        assertNotSame( data.get("counter"), cloneCopy.get("counter") );
+        assertEquals( 1, ((Counter)cloneCopy.get("counter")).value );
+        assertEquals( 2, ((Counter)((List<?>)cloneCopy.get("counters")).get(0)).value );
+        assertNotSame( ((List<?>)data.get("counters")).get(0), ((List<?>)cloneCopy.get("counters")).get(0) );
+        assertEquals( 3, ((Counter)((Map<?,?>)cloneCopy.get("countersByName")).get("three")).value );
+        assertEquals( immutable, cloneCopy.get("immutable") );
+
+        // a registered copier replaces the serialization
+        serializer.copiers().register( Counter.class, ( value, context ) -> new Counter( value.value ) );
+        var copy2 = serializer.copyState( data ).data();
+        assertEquals( 3, serialized.get() );
+        assertEquals( 1, cloned.get() );
+        assertEquals( 1, ((Counter)copy2.get("counter")).value );
+        assertNotSame( data.get("counter"), copy2.get("counter") );
+        assertSame( immutable, copy2.get("immutable") );
+    }
+
+    @Test
+    public void nestedContextTest() throws Exception {
+        var serializer = new ObjectStreamStateSerializer<>( AgentState::new );
+        @SuppressWarnings("unchecked")
+        Copier<Holder> holderCopier = ( value, context ) -> new Holder( (List<String>) context.copy( value.values() ) );
+        serializer.copiers().register( Holder.class, holderCopier );
+
+        var holder = new Holder( new ArrayList<>( List.of( "a" ) ) );
+        var copy = (Holder)serializer.copyState( Map.of( "holder", holder ) ).data().get( "holder" );
+
+        assertEquals( holder, copy );
+        assertNotSame( holder.values(), copy.values() );
+    }
+}
@@ -0,0 +1,67 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the per step state copy made by {@link CompiledGraph}: the serialization based
+ * {@code cloneObject} against the copier based {@code copyState}, that shares the immutable values.
+ * <p>
+ * usage: {@code CopyStateBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyStateBenchmark {
+
+    public record Message( String role, String text ) implements Serializable {}
+
+    @Param({ "10", "100" })
+    public int messages;
+
+    private ObjectStreamStateSerializer<AgentState> serializer;
+    private Map<String,Object> data;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        serializer = new ObjectStreamStateSerializer<>( AgentState::new );
+        var list = new ArrayList<Message>();
+        for( int i = 0; i < messages; ++i ) {
+            list.add( new Message( ( i % 2 == 0 ) ? "user" : "ai", format( "message %d", i ) ) );
+        }
+        data = Map.of( "messages", list, "steps", messages, "next", "agent_1" );
+    }
+
+    @Benchmark
+    public AgentState cloneObject() throws Exception {
+        return serializer.cloneObject( data );
+    }
+
+    @Benchmark
+    public AgentState copyState() throws Exception {
+        return serializer.copyState( data );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( CopyStateBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -0,0 +1,200 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.checkpoint.*;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class DeltaCheckpointSaverTest {
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+
+        int steps() {
+            return this.<Integer>value("steps").orElse(0);
+        }
+    }
+
+    /**
+     * chat-style graph: every step appends a message and updates a counter
+     */
+    private StateGraph<State> workflow( int expectedSteps ) throws Exception {
+        return new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async( state -> {
+                    int steps = state.steps() + 1;
+                    return Map.of("steps", steps,
+                            "messages", format( "agent_1:step %d - Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor", steps ));
+                }))
+                .addConditionalEdges( "agent_1",
+                        edge_async( state -> ( state.steps() >= expectedSteps ) ? "exit" : "next" ),
+                        Map.of( "next", "agent_1", "exit", END) );
+    }
+
+    private static List<Map<String,Object>> statesOf( BaseCheckpointSaver saver, RunnableConfig config ) {
+        return saver.list( config ).stream().map( Checkpoint::getState ).toList();
+    }
+
+    @Test
+    public void diffAndApplyTest() {
+        var base = Map.<String,Object>of( "a", 1, "b", "x", "messages", List.of( "m1", "m2" ) );
+        var state = Map.<String,Object>of( "a", 2, "messages", List.of( "m1", "m2", "m3" ), "c", true );
+
+        var delta = DeltaCheckpointSaver.diff( "base", base, state );
+        assertEquals( "base", delta.get( DeltaCheckpointSaver.BASE_KEY ) );
+        assertEquals( 2, delta.get( "a" ) );
+        assertEquals( true, delta.get( "c" ) );
+        assertFalse( delta.containsKey( "messages" ) );
+        assertEquals( List.of( "m3" ), delta.get( DeltaCheckpointSaver.APPEND_KEY_PREFIX + "messages" ) );
+        assertEquals( List.of( "b" ), delta.get( DeltaCheckpointSaver.REMOVED_KEY ) );
+
+        assertEquals( state, DeltaCheckpointSaver.apply( base, delta ) );
+
+        // not a prefix: the whole list is stored
+        var replaced = Map.<String,Object>of( "a", 1, "b", "x", "messages", List.of( "m2" ) );
+        delta = DeltaCheckpointSaver.diff( "base", base, replaced );
+        assertEquals( List.of( "m2" ), delta.get( "messages" ) );
+        assertEquals( replaced, DeltaCheckpointSaver.apply( base, delta ) );
+    }
+
+    @Test
+    public void historyTest() throws Exception {
+        final int expectedSteps = 12;
+        final var workflow = workflow( expectedSteps );
+        final var config = RunnableConfig.builder().threadId("thread_1").build();
+
+        var memorySaver = new MemorySaver();
+        var deltaSaver = new DeltaCheckpointSaver( new MemorySaver(), 5 );
+
+        for( var saver : List.<BaseCheckpointSaver>of( memorySaver, deltaSaver ) ) {
+            var app = workflow.compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+            app.invoke( Map.of(), config );
+            // resubmit from the last checkpoint
+            var state = app.invoke( Map.of(), config );
+            assertEquals( expectedSteps + 1, state.orElseThrow().steps() );
+        }
+
+        var expected = statesOf( memorySaver, config );
+        assertEquals( expected, statesOf( deltaSaver, config ) );
+
+        // keyframes every 5 checkpoints, the others are deltas
+        var stored = new ArrayList<>( deltaSaver.delegate().list( config ) );
+        assertEquals( expected.size(), stored.size() );
+        for( int i = 0; i < stored.size(); ++i ) {
+            assertEquals( i % 5 != 0, DeltaCheckpointSaver.isDelta( stored.get( stored.size() - 1 - i ) ), "checkpoint " + i );
+        }
+
+        // get by id rebuilds the state from the nearest keyframe
+        var ids = deltaSaver.list( config ).stream().map( Checkpoint::getId ).toList();
+        for( int i = 0; i < ids.size(); ++i ) {
+            var checkpoint = deltaSaver.get( RunnableConfig.builder(config).checkPointId( ids.get(i) ).build() );
+            assertEquals( expected.get(i), checkpoint.orElseThrow().getState() );
+        }
+    }
+
+    @Test
+    public void replaceAndRemoveTest() throws Exception {
+        final var workflow = workflow( 8 );
+        final var config = RunnableConfig.builder().threadId("thread_1").build();
+        final var listCalls = new java.util.concurrent.atomic.AtomicInteger();
+        final var deltaSaver = new DeltaCheckpointSaver( new ConcurrentMemorySaver() {
+            @Override
+            public Collection<Checkpoint> list( RunnableConfig config ) {
+                listCalls.incrementAndGet();
+                return super.list( config );
+            }
+        }, 10 );
+
+        var app = workflow.compile( CompileConfig.builder().checkpointSaver( deltaSaver ).build() );
+        app.invoke( Map.of(), config );
+
+        var history = new ArrayList<>( deltaSaver.list( config ) );
+        var expected = new ArrayList<>( history.stream().map( Checkpoint::getState ).toList() );
+
+        // update a checkpoint in the middle: the following ones must not change
+        var updatedConfig = app.updateState( RunnableConfig.builder(config).checkPointId( history.get(4).getId() ).build(),
+                                                Map.of( "steps", 100 ) );
+        assertEquals( 100, deltaSaver.get( updatedConfig ).orElseThrow().getState().get( "steps" ) );
+        var states = statesOf( deltaSaver, config );
+        for( int i = 0; i < expected.size(); ++i ) {
+            if( i != 4 ) {
+                assertEquals( expected.get(i), states.get(i), "checkpoint " + i );
+            }
+        }
+
+        // remove a checkpoint in the middle, the successor is found without listing the stored checkpoints
+        final int listed = listCalls.get();
+        assertTrue( deltaSaver.remove( RunnableConfig.builder(config).checkPointId( history.get(6).getId() ).build() ) );
+        assertEquals( listed, listCalls.get() );
+        expected.remove( 6 );
+        expected.set( 4, states.get(4) );
+        assertEquals( expected, statesOf( deltaSaver, config ) );
+
+        // remove the oldest ones
+        for( int i = 0; i < 2; ++i ) {
+            var oldest = history.get( history.size() - 1 - i ).getId();
+            assertTrue( deltaSaver.remove( RunnableConfig.builder(config).checkPointId( oldest ).build() ) );
+            expected.remove( expected.size() - 1 );
+        }
+        assertEquals( expected, statesOf( deltaSaver, config ) );
+
+        // resume
+        var state = app.invoke( Map.of(), config );
+        assertEquals( 9, state.orElseThrow().steps() );
+    }
+
+    @Test
+    public void bytesWrittenTest() throws Exception {
+        final int expectedSteps = 100;
+        final var workflow = workflow( expectedSteps );
+        final var config = RunnableConfig.builder().threadId("thread_1").build();
+        final var folder = Paths.get( "target", "checkpoint-delta" );
+
+        long fullSize, deltaSize;
+        List<Map<String,Object>> expected;
+        try( var saver = new LogStructuredSaver( folder.resolve( "full" ), workflow.getStateSerializer() ) ) {
+            saver.clear( config );
+            var app = workflow.compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+            app.setMaxIterations( expectedSteps * 2 );
+            app.invoke( Map.of(), config );
+            fullSize = saver.segmentSize( config );
+            expected = statesOf( saver, config );
+        }
+
+        try( var saver = new LogStructuredSaver( folder.resolve( "delta" ), workflow.getStateSerializer() ) ) {
+            saver.clear( config );
+            var app = workflow.compile( CompileConfig.builder().checkpointSaver( new DeltaCheckpointSaver( saver, 50 ) ).build() );
+            app.setMaxIterations( expectedSteps * 2 );
+            app.invoke( Map.of(), config );
+            deltaSize = saver.segmentSize( config );
+        }
+
+        log.info( "bytes written full: {} delta: {} ratio: {}", fullSize, deltaSize, (double)fullSize / deltaSize );
+        assertTrue( fullSize > deltaSize * 5, format( "full: %d delta: %d", fullSize, deltaSize ) );
+
+        // reopen: the states are rebuilt from the stored deltas
+        try( var saver = new LogStructuredSaver( folder.resolve( "delta" ), workflow.getStateSerializer() ) ) {
+            var deltaSaver = new DeltaCheckpointSaver( saver, 50 );
+            assertEquals( expectedSteps + 1, expected.size() );
+            assertEquals( expected, statesOf( deltaSaver, config ) );
+            assertEquals( expected.get(0), deltaSaver.get( config ).orElseThrow().getState() );
+        }
+    }
+}
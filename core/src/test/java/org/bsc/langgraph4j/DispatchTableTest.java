@@ -0,0 +1,72 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DispatchTableTest {
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+    }
+
+    @Test
+    public void dispatchTableTest() throws Exception {
+
+        var app = new StateGraph<>(State.SCHEMA, State::new)
+                .addNode("agent_1", node_async( state -> Map.of("messages", "agent_1" ) ))
+                .addNode("agent_2", node_async( state -> Map.of("messages", "agent_2" ) ))
+                .addEdge(START, "agent_1")
+                .addConditionalEdges( "agent_1",
+                        edge_async( state -> "next" ),
+                        Map.of( "next", "agent_2", "exit", END) )
+                .addEdge("agent_2", END)
+                .compile( CompileConfig.builder()
+                        .interruptBefore( "agent_2" )
+                        .build() );
+
+        var table = app.dispatchTable;
+
+        int agent1 = table.indexOf( "agent_1" );
+        int agent2 = table.indexOf( "agent_2" );
+
+        assertEquals( DispatchTable.START_INDEX, table.indexOf( START ) );
+        assertEquals( DispatchTable.END_INDEX, table.indexOf( END ) );
+        assertEquals( DispatchTable.NONE, table.indexOf( "not exists" ) );
+        assertEquals( DispatchTable.NONE, table.indexOf( null ) );
+        assertEquals( "agent_1", table.id( agent1 ) );
+        assertNull( table.id( DispatchTable.NONE ) );
+
+        assertNotNull( table.action( agent1 ) );
+        assertNull( table.action( DispatchTable.END_INDEX ) );
+
+        // fixed edges
+        assertEquals( agent1, table.successor( DispatchTable.START_INDEX ) );
+        assertEquals( DispatchTable.END_INDEX, table.successor( agent2 ) );
+        assertNull( table.condition( agent2 ) );
+
+        // conditional edge
+        assertEquals( DispatchTable.NONE, table.successor( agent1 ) );
+        var condition = table.condition( agent1 );
+        assertNotNull( condition );
+        assertEquals( agent2, condition.target( "next" ) );
+        assertEquals( DispatchTable.END_INDEX, condition.target( "exit" ) );
+        assertEquals( DispatchTable.NONE, condition.target( "unknown" ) );
+
+        // interruptions
+        assertTrue( table.isInterruptBefore( agent2 ) );
+        assertFalse( table.isInterruptBefore( agent1 ) );
+        assertFalse( table.isInterruptAfter( agent2 ) );
+        assertFalse( table.isInterruptBefore( DispatchTable.NONE ) );
+    }
+}
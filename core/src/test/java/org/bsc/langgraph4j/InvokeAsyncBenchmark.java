@@ -0,0 +1,78 @@
+package org.bsc.langgraph4j;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+
+/**
+ * Runs many concurrent graph executions on a small thread pool, comparing the non-blocking {@link CompiledGraph#invokeAsync(Map)}
+ * with the blocking {@link CompiledGraph#invoke(Map)} submitted on the same pool.
+ * <p>
+ * The stub nodes "sleep" asynchronously, so with the non-blocking execution the total time should be close to the latency of a
+ * single run, while the blocking execution is bound by the pool size.
+ * <p>
+ * usage: {@code InvokeAsyncBenchmark [runs] [poolSize] [nodeLatencyMillis]}
+ */
+public class InvokeAsyncBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final int runs = ( args.length > 0 ) ? Integer.parseInt(args[0]) : 10_000;
+        final int poolSize = ( args.length > 1 ) ? Integer.parseInt(args[1]) : 4;
+        final long latency = ( args.length > 2 ) ? Long.parseLong(args[2]) : 50;
+        final int steps = 4;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            var app = new StateGraph<>(InvokeAsyncTest.State.SCHEMA, InvokeAsyncTest.State::new)
+                    .addEdge(StateGraph.START, "agent_1")
+                    .addNode("agent_1", InvokeAsyncTest.delayedNode( "agent_1", latency, executor ))
+                    .addNode("agent_2", InvokeAsyncTest.delayedNode( "agent_2", latency, executor ))
+                    .addEdge("agent_1", "agent_2")
+                    .addConditionalEdges( "agent_2",
+                            // synchronous condition: the blocking invoke would wait for it on the pool threads
+                            edge_async( state -> ( state.steps() >= steps ) ? "exit" : "next" ),
+                            Map.of( "next", "agent_1", "exit", StateGraph.END) )
+                    .compile();
+
+            // warm up
+            app.invokeAsync( Map.of() ).get();
+
+            System.out.printf( "%d concurrent runs, %d steps each, %d ms per node, pool of %d threads%n", runs, steps, latency, poolSize );
+
+            var start = System.nanoTime();
+            var futures = new ArrayList<CompletableFuture<Optional<InvokeAsyncTest.State>>>( runs );
+            for( int i = 0 ; i < runs ; ++i ) {
+                futures.add( app.invokeAsync( Map.of() ) );
+            }
+            CompletableFuture.allOf( futures.toArray( new CompletableFuture[0] ) ).get();
+            var elapsed = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+            System.out.printf( "invokeAsync: %d ms (%.1f runs/s)%n", elapsed, runs * 1000.0 / elapsed );
+
+            // the blocking execution parks a thread for each run, so with a pool of the same size it is limited to a fraction of the runs
+            final int blockingRuns = Math.min( runs, poolSize * 25 );
+            final ExecutorService blockingExecutor = Executors.newFixedThreadPool(poolSize);
+            try {
+                start = System.nanoTime();
+                futures.clear();
+                for( int i = 0 ; i < blockingRuns ; ++i ) {
+                    futures.add( CompletableFuture.supplyAsync( () -> app.invoke( Map.of() ), blockingExecutor ) );
+                }
+                CompletableFuture.allOf( futures.toArray( new CompletableFuture[0] ) ).get();
+                elapsed = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+                System.out.printf( "invoke: %d runs in %d ms (%.1f runs/s)%n", blockingRuns, elapsed, blockingRuns * 1000.0 / elapsed );
+            }
+            finally {
+                blockingExecutor.shutdown();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
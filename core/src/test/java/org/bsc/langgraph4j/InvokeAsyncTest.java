@@ -0,0 +1,203 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.action.AsyncEdgeAction;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class InvokeAsyncTest {
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+
+        int steps() {
+            return this.<Integer>value("steps").orElse(0);
+        }
+    }
+
+    /**
+     * node that completes on the given executor after a delay, without keeping any thread busy while waiting
+     */
+    static AsyncNodeAction<State> delayedNode( String id, long delayMillis, Executor executor ) {
+        return state -> CompletableFuture.supplyAsync( () -> {
+                    int steps = state.steps() + 1;
+                    return Map.of( "steps", steps, "messages", format( "%s:step %d", id, steps ) );
+                },
+                CompletableFuture.delayedExecutor( delayMillis, TimeUnit.MILLISECONDS, executor ) );
+    }
+
+    static AsyncEdgeAction<State> delayedCondition( int expectedSteps, Executor executor ) {
+        return state -> CompletableFuture.supplyAsync( () ->
+                ( state.steps() >= expectedSteps ) ? "exit" : "next",
+                CompletableFuture.delayedExecutor( 1, TimeUnit.MILLISECONDS, executor ) );
+    }
+
+    static StateGraph<State> workflow( int expectedSteps, Executor executor ) throws Exception {
+        return new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", delayedNode( "agent_1", 10, executor ))
+                .addNode("agent_2", delayedNode( "agent_2", 10, executor ))
+                .addEdge("agent_1", "agent_2")
+                .addConditionalEdges( "agent_2",
+                        delayedCondition( expectedSteps, executor ),
+                        Map.of( "next", "agent_1", "exit", END) );
+    }
+
+    @Test
+    public void invokeAsyncTest() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            var app = workflow( 6, executor ).compile();
+
+            // a single thread drives the node actions, the edge conditions and the graph stepping
+            var result = app.invokeAsync( Map.of() ).get( 10, TimeUnit.SECONDS );
+
+            assertTrue( result.isPresent() );
+            assertEquals( 6, result.get().steps() );
+            assertIterableEquals( List.of( "agent_1:step 1", "agent_2:step 2",
+                                            "agent_1:step 3", "agent_2:step 4",
+                                            "agent_1:step 5", "agent_2:step 6" ), result.get().messages() );
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void invokeAsyncWithCheckpointTest() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            var saver = new MemorySaver();
+            var app = workflow( 4, executor ).compile( CompileConfig.builder()
+                                                .checkpointSaver( saver )
+                                                .interruptBefore( "agent_2" )
+                                                .build() );
+
+            var config = RunnableConfig.builder().threadId( "thread_1" ).build();
+
+            var result = app.invokeAsync( Map.of(), config ).get( 10, TimeUnit.SECONDS );
+            assertTrue( result.isPresent() );
+            assertEquals( 1, result.get().steps() );
+            assertEquals( "agent_2", app.getState( config ).next() );
+
+            // resume: agent_2, agent_1 and interrupt again before agent_2
+            result = app.invokeAsync( null, config ).get( 10, TimeUnit.SECONDS );
+            assertTrue( result.isPresent() );
+            assertEquals( 3, result.get().steps() );
+            assertEquals( "agent_2", app.getState( config ).next() );
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void invokeAsyncWithAsyncCheckpointWriteTest() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CompletableFuture<Void> writesAllowed = new CompletableFuture<>();
+        try {
+            // the checkpoints are written only through putAsync, that completes once the writes are allowed
+            var saver = new MemorySaver() {
+                @Override
+                public RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception {
+                    throw new UnsupportedOperationException( "blocking put" );
+                }
+
+                @Override
+                public CompletableFuture<RunnableConfig> putAsync( RunnableConfig config, Checkpoint checkpoint ) {
+                    return writesAllowed.thenApplyAsync( v -> {
+                        try {
+                            return super.put( config, checkpoint );
+                        }
+                        catch( Exception ex ) {
+                            throw new CompletionException( ex );
+                        }
+                    }, executor );
+                }
+            };
+            var app = workflow( 4, executor ).compile( CompileConfig.builder()
+                                                .checkpointSaver( saver )
+                                                .build() );
+
+            var config = RunnableConfig.builder().threadId( "thread_1" ).build();
+
+            var result = app.invokeAsync( Map.of(), config );
+            Thread.sleep( 100 );
+            assertFalse( result.isDone() );
+            assertTrue( saver.list( config ).isEmpty() );
+
+            writesAllowed.complete( null );
+            assertEquals( 4, result.get( 10, TimeUnit.SECONDS ).orElseThrow().steps() );
+            // START and one checkpoint per node
+            assertEquals( 5, saver.list( config ).size() );
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void invokeAsyncErrorTest() throws Exception {
+
+        var app = new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async( state -> Map.of("messages", "agent_1" ) ))
+                .addConditionalEdges( "agent_1",
+                        state -> CompletableFuture.completedFuture( "unknown" ),
+                        Map.of( "exit", END) )
+                .compile();
+
+        var exception = assertThrows( CompletionException.class, () -> app.invokeAsync( Map.of() ).join() );
+        assertInstanceOf( GraphRunnerException.class, exception.getCause() );
+    }
+
+    @Test
+    public void invokeAsyncConcurrentRunsTest() throws Exception {
+        final int runs = 1_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            var app = workflow( 4, executor ).compile();
+
+            var futures = new ArrayList<CompletableFuture<Optional<State>>>( runs );
+            for( int i = 0 ; i < runs ; ++i ) {
+                futures.add( app.invokeAsync( Map.of() ) );
+            }
+            CompletableFuture.allOf( futures.toArray( new CompletableFuture[0] ) ).get( 30, TimeUnit.SECONDS );
+
+            for( var future : futures ) {
+                var state = future.join();
+                assertTrue( state.isPresent() );
+                assertEquals( 4, state.get().steps() );
+                assertEquals( List.of( "agent_1:step 1", "agent_2:step 2", "agent_1:step 3", "agent_2:step 4" ),
+                        state.get().messages() );
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.AppenderChannel;
+import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.KeyedAppenderChannel;
+import org.bsc.langgraph4j.state.RemoveByHash;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the cost of removing a batch of messages from a history of growing size through the {@link AppenderChannel},
+ * with {@link RemoveByHash} identifiers, and through the {@link KeyedAppenderChannel}, with key identifiers.
+ * <p>
+ * usage: {@code KeyedAppenderChannelBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyedAppenderChannelBenchmark {
+
+    static final int REMOVALS = 10;
+
+    @Param({ "appender", "keyed" })
+    public String channel;
+
+    @Param({ "100", "1000", "10000" })
+    public int messages;
+
+    private Channel<List<String>> messagesChannel;
+    private Object history;
+    private List<Object> removals;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final KeyedAppenderChannel<String,String> keyed = KeyedAppenderChannel.of( message -> message );
+        messagesChannel = "keyed".equals(channel) ? keyed : AppenderChannel.of( ArrayList::new );
+        history = null;
+        for( int i = 0; i < messages; ++i ) {
+            history = messagesChannel.update( "messages", history, List.of( format( "message %d", i ) ) );
+        }
+        // the most recent messages, as the tool calls to discard
+        removals = new ArrayList<>();
+        for( int i = messages - REMOVALS; i < messages; ++i ) {
+            final String message = format( "message %d", i );
+            removals.add( "keyed".equals(channel) ? keyed.removeByKey( message ) : RemoveByHash.of( message ) );
+        }
+    }
+
+    @Benchmark
+    public Object remove() {
+        return messagesChannel.update( "messages", history, removals );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( KeyedAppenderChannelBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -0,0 +1,118 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyedAppenderChannelTest {
+
+    record Message( String id, String text ) {}
+
+    private final KeyedAppenderChannel<String,Message> channel = KeyedAppenderChannel.of( Message::id );
+
+    @Test
+    public void replaceAndRemoveTest() {
+        Object messages = channel.update( "messages", null, List.of(
+                new Message( "1", "a" ), new Message( "2", "b" ), new Message( "3", "c" ), new Message( null, "d" ) ) );
+        var old = messages;
+
+        // a value with an existing key replaces the old one in place
+        messages = channel.update( "messages", messages, new Message( "2", "B" ) );
+        assertEquals( List.of( new Message( "1", "a" ), new Message( "2", "B" ), new Message( "3", "c" ), new Message( null, "d" ) ), messages );
+
+        // the removals are applied to the old values, before the new ones are appended
+        messages = channel.update( "messages", messages, List.of(
+                channel.removeByKey( "1" ),
+                new Message( "1", "A" ),
+                RemoveByHash.of( new Message( null, "d" ) ),
+                channel.removeByKey( "missing" ),
+                new Message( "4", "e" ) ) );
+        assertEquals( List.of( new Message( "2", "B" ), new Message( "3", "c" ), new Message( "1", "A" ), new Message( "4", "e" ) ), messages );
+
+        var keyed = (KeyedList<String,Message>) messages;
+        assertEquals( 0, keyed.indexOfKey( "2" ) );
+        assertEquals( 2, keyed.indexOfKey( "1" ) );
+        assertEquals( -1, keyed.indexOfKey( "missing" ) );
+        assertEquals( Optional.of( new Message( "4", "e" ) ), keyed.getByKey( "4" ) );
+
+        // the previous versions are unchanged
+        assertEquals( 4, ((List<?>) old).size() );
+        assertEquals( new Message( "2", "b" ), ((List<?>) old).get( 1 ) );
+        assertThrows( UnsupportedOperationException.class, () -> keyed.add( new Message( "5", "f" ) ) );
+    }
+
+    @Test
+    public void compactionTest() {
+        var random = new Random( 42 );
+        var expected = new ArrayList<Message>();
+        Object messages = null;
+        var versions = new IdentityHashMap<Object,List<Message>>();
+        int next = 0;
+        for( int step = 0; step < 200; ++step ) {
+            var update = new ArrayList<Object>();
+            // a batch of removals, then a few appends and a replacement
+            for( int i = 0; i < 3 && !expected.isEmpty(); ++i ) {
+                var removed = expected.remove( random.nextInt( expected.size() ) );
+                update.add( channel.removeByKey( removed.id() ) );
+            }
+            for( int i = 0; i < 4; ++i ) {
+                var message = new Message( String.valueOf( next++ ), "text" );
+                expected.add( message );
+                update.add( message );
+            }
+            var replaced = expected.get( random.nextInt( expected.size() ) );
+            var replacement = new Message( replaced.id(), "replaced " + step );
+            expected.set( expected.indexOf( replaced ), replacement );
+            update.add( replacement );
+
+            messages = channel.update( "messages", messages, update );
+            assertEquals( expected, messages );
+            if( step % 50 == 0 ) {
+                versions.put( messages, List.copyOf( expected ) );
+            }
+        }
+        var keyed = (KeyedList<String,Message>) messages;
+        for( int i = 0; i < expected.size(); ++i ) {
+            assertEquals( i, keyed.indexOfKey( expected.get( i ).id() ) );
+        }
+        // the previous versions are unchanged, also when updated again
+        versions.forEach( ( version, values ) -> {
+            assertEquals( values, version );
+            channel.update( "messages", version, List.of( new Message( "branch", "text" ), channel.removeByKey( values.get( 0 ).id() ) ) );
+            assertEquals( values, version );
+        });
+    }
+
+    @Test
+    public void indexFromListTest() {
+        // a list read from a checkpoint is indexed on its first update
+        var restored = new ArrayList<>( List.of( new Message( "1", "a" ), new Message( "2", "b" ), new Message( "3", "c" ) ) );
+        var messages = (KeyedList<String,Message>) channel.update( "messages", restored,
+                List.of( channel.removeByKey( "2" ), new Message( "3", "C" ) ) );
+
+        assertEquals( List.of( new Message( "1", "a" ), new Message( "3", "C" ) ), messages );
+        assertEquals( 1, messages.indexOfKey( "3" ) );
+        assertEquals( 3, restored.size() );
+
+        // the remove identifier also works with the other channels
+        var appender = AppenderChannel.<Message>of( ArrayList::new );
+        assertEquals( List.of( new Message( "1", "a" ), new Message( "3", "c" ) ),
+                appender.update( "messages", restored, channel.removeByKey( "2" ) ) );
+    }
+
+    @Test
+    public void stateTest() {
+        final Map<String, Channel<?>> channels = Map.of( "messages", channel );
+        Map<String,Object> state = PersistentState.of( Map.of() );
+        state = PersistentState.updateState( state, Map.of( "messages", List.of( new Message( "1", "a" ), new Message( "2", "b" ) ) ), channels );
+        var first = state.get( "messages" );
+        state = PersistentState.updateState( state, Map.of( "messages", channel.removeByKey( "1" ) ), channels );
+
+        assertInstanceOf( KeyedList.class, state.get( "messages" ) );
+        assertEquals( List.of( new Message( "2", "b" ) ), state.get( "messages" ) );
+        assertEquals( 2, ((List<?>) first).size() );
+    }
+}
@@ -0,0 +1,145 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.BaseCheckpointSaver;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.FileSystemSaver;
+import org.bsc.langgraph4j.checkpoint.LogStructuredSaver;
+import org.bsc.langgraph4j.serializer.LazyStateSerializer;
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.LazyStateMap;
+import org.bsc.langgraph4j.state.StateSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.utils.CollectionsUtils.listOf;
+import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyStateSerializerTest {
+
+    record Payload( String value ) {}
+
+    private final AtomicInteger decoded = new AtomicInteger();
+
+    private LazyStateSerializer<AgentState> newSerializer() {
+        var serializer = new ObjectStreamStateSerializer<>( AgentState::new );
+        serializer.mapper().register( Payload.class, new Serializer<Payload>() {
+            @Override
+            public void write(Payload object, ObjectOutput out) throws IOException {
+                out.writeUTF( object.value() );
+            }
+
+            @Override
+            public Payload read(ObjectInput in) throws IOException {
+                decoded.incrementAndGet();
+                return new Payload( in.readUTF() );
+            }
+        });
+        return new LazyStateSerializer<>( serializer );
+    }
+
+    @Test
+    public void lazyStateTest() throws Exception {
+        var serializer = newSerializer();
+        var state = serializer.stateOf( mapOf( "a", new Payload("a"), "b", new Payload("b"), "c", null, "d", listOf(1, 2) ) );
+
+        var result = serializer.readObject( serializer.writeObject( state ) );
+
+        assertInstanceOf( LazyStateMap.class, result.data() );
+        assertEquals( 4, result.data().size() );
+        assertTrue( result.data().containsKey( "c" ) );
+        assertEquals( state.data().keySet(), result.data().keySet() );
+        assertEquals( 0, decoded.get() );
+
+        assertEquals( new Payload("a"), result.value("a").orElse(null) );
+        assertEquals( new Payload("a"), result.value("a").orElse(null) );
+        assertEquals( 1, decoded.get() );
+        assertFalse( ((LazyStateMap)result.data()).isDecoded( "b" ) );
+
+        // writing again reuses the encoded values
+        var copy = serializer.readObject( serializer.writeObject( result ) );
+        assertEquals( 1, decoded.get() );
+
+        assertEquals( state.data(), copy.data() );
+        assertEquals( 3, decoded.get() );
+
+        // the deprecated appendableValue replaces the lazy map with a modifiable copy
+        @SuppressWarnings("deprecation")
+        var appendable = copy.appendableValue( "a" );
+        assertEquals( List.of( new Payload("a") ), appendable.values() );
+        assertSame( appendable, copy.value( "a" ).orElse(null) );
+        assertEquals( new Payload("b"), copy.value( "b" ).orElse(null) );
+    }
+
+    @Test
+    public void shapedSerializerTest() {
+        // a serializer that requires a specific state shape cannot encode single values
+        var shapedSerializer = new ObjectStreamStateSerializer<AgentState>( data -> {
+            if( !data.containsKey( "input" ) ) {
+                throw new IllegalArgumentException( "input is required" );
+            }
+            return new AgentState( data );
+        });
+        assertThrows( IllegalArgumentException.class, () -> new LazyStateSerializer<>( shapedSerializer ) );
+    }
+
+    private void browseHistory( Function<Path,BaseCheckpointSaver> saverFactory, Path folder ) throws Exception {
+        final var config = RunnableConfig.builder().threadId( "thread_1" ).build();
+
+        var writer = saverFactory.apply( folder );
+        writer.clear( config );
+        for( int i = 0; i < 10; ++i ) {
+            writer.put( config, Checkpoint.builder()
+                                .nodeId( format( "node_%d", i ) )
+                                .nextNodeId( format( "node_%d", i + 1 ) )
+                                .state( mapOf( "step", i, "payload", new Payload( format( "payload %d", i ) ) ) )
+                                .build() );
+        }
+        decoded.set( 0 );
+
+        var reader = saverFactory.apply( folder );
+        List<StateSnapshot<AgentState>> history = reader.list( config ).stream()
+                .map( checkpoint -> StateSnapshot.of( checkpoint, RunnableConfig.builder().build(), AgentState::new ) )
+                .toList();
+
+        assertEquals( 10, history.size() );
+        for( var snapshot : history ) {
+            assertNotNull( snapshot.node() );
+            assertNotNull( snapshot.next() );
+            assertTrue( snapshot.state().value( "step" ).isPresent() );
+        }
+        assertEquals( 0, decoded.get() );
+
+        var last = reader.get( config ).orElseThrow();
+        assertEquals( new Payload( "payload 9" ), last.getState().get( "payload" ) );
+        assertEquals( 1, decoded.get() );
+
+        reader.clear( config );
+    }
+
+    @Test
+    public void fileSystemSaverTest() throws Exception {
+        var serializer = newSerializer();
+        browseHistory( folder -> new FileSystemSaver( folder, serializer ),
+                        Paths.get( "target", "checkpoint", "lazyFileSystemSaver" ) );
+    }
+
+    @Test
+    public void logStructuredSaverTest() throws Exception {
+        var serializer = newSerializer();
+        browseHistory( folder -> new LogStructuredSaver( folder, serializer ),
+                        Paths.get( "target", "checkpoint", "lazyLogStructuredSaver" ) );
+    }
+
+}
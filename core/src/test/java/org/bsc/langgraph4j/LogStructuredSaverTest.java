@@ -0,0 +1,285 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.LogStructuredSaver;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class LogStructuredSaverTest {
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+
+        int steps() {
+            return this.<Integer>value("steps").orElse(0);
+        }
+    }
+
+    final Path rootPath = Paths.get( "target", "checkpoint-log" );
+
+    private StateGraph<State> workflow( int expectedSteps ) throws Exception {
+        return new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async( state -> {
+                    int steps = state.steps() + 1;
+                    return Map.of("steps", steps, "messages", format( "agent_1:step %d", steps ));
+                }))
+                .addConditionalEdges( "agent_1",
+                        edge_async( state -> ( state.steps() >= expectedSteps ) ? "exit" : "next" ),
+                        Map.of( "next", "agent_1", "exit", END) );
+    }
+
+    private static List<String> idsOf( LogStructuredSaver saver, RunnableConfig config ) {
+        return saver.list( config ).stream().map( Checkpoint::getId ).toList();
+    }
+
+    @Test
+    public void testCheckpointSaverResubmit() throws Exception {
+        final int expectedSteps = 5;
+        final var workflow = workflow( expectedSteps );
+        final var folder = rootPath.resolve( "testCheckpointSaverResubmit" );
+        final var config = RunnableConfig.builder().threadId("thread_1").build();
+
+        List<String> ids;
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            saver.clear( config );
+
+            var app = workflow.compile( CompileConfig.builder().checkpointSaver(saver).build() );
+
+            var state = app.invoke( Map.of(), config );
+            assertTrue( state.isPresent() );
+            assertEquals( expectedSteps, state.get().steps() );
+
+            // resubmit from the last checkpoint
+            state = app.invoke( Map.of(), config );
+            assertTrue( state.isPresent() );
+            assertEquals( expectedSteps + 1, state.get().steps() );
+
+            ids = idsOf( saver, config );
+            assertEquals( expectedSteps + 3, ids.size() );
+
+            var last = saver.get( config ).orElseThrow();
+            assertEquals( ids.get(0), last.getId() );
+            assertEquals( "agent_1", last.getNodeId() );
+            assertEquals( END, last.getNextNodeId() );
+        }
+
+        // reopen: the index is rebuilt from the segment
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            assertEquals( ids, idsOf( saver, config ) );
+
+            var app = workflow.compile( CompileConfig.builder().checkpointSaver(saver).build() );
+            var snapshot = app.getState( config );
+            assertEquals( expectedSteps + 1, snapshot.state().steps() );
+
+            var checkpoint = saver.get( RunnableConfig.builder(config).checkPointId( ids.get(2) ).build() );
+            assertTrue( checkpoint.isPresent() );
+            assertEquals( ids.get(2), checkpoint.get().getId() );
+
+            assertTrue( saver.clear( config ) );
+            assertTrue( saver.list( config ).isEmpty() );
+        }
+    }
+
+    @Test
+    public void testReplaceAndCompaction() throws Exception {
+        final var workflow = workflow( 1 );
+        final var folder = rootPath.resolve( "testReplaceAndCompaction" );
+        final var config = RunnableConfig.builder().threadId("thread_1").build();
+
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer(), 0.3, Runnable::run ) ) {
+            saver.clear( config );
+
+            final var ids = new ArrayList<String>();
+            for( int i = 0; i < 4; ++i ) {
+                var checkpoint = Checkpoint.builder()
+                                    .nodeId( "agent_1" )
+                                    .nextNodeId( "agent_1" )
+                                    .state( Map.of( "steps", i ) )
+                                    .build();
+                saver.put( config, checkpoint );
+                ids.add( 0, checkpoint.getId() );
+            }
+            final long initialSize = saver.segmentSize( config );
+
+            // replace the same checkpoint until the compaction is triggered
+            final var replaceConfig = RunnableConfig.builder(config).checkPointId( ids.get(1) ).build();
+            for( int i = 0; i < 4; ++i ) {
+                var checkpoint = saver.get( replaceConfig ).orElseThrow()
+                        .updateState( Map.of( "steps", 100 + i ), State.SCHEMA );
+                assertEquals( replaceConfig, saver.put( replaceConfig, checkpoint ) );
+            }
+
+            assertEquals( ids, idsOf( saver, config ) );
+            assertEquals( 103, saver.get( replaceConfig ).orElseThrow().getState().get("steps") );
+            assertTrue( saver.segmentSize( config ) < initialSize * 2,
+                    format( "segment size %d has not been compacted", saver.segmentSize( config ) ) );
+
+            saver.compact( config ).join();
+            assertTrue( saver.segmentSize( config ) < initialSize * 1.1 );
+            assertEquals( ids, idsOf( saver, config ) );
+        }
+
+        // reopen the compacted segment
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            var replaceConfig = RunnableConfig.builder(config).checkPointId( "not exists" ).build();
+            assertThrows( java.util.NoSuchElementException.class, () ->
+                    saver.put( replaceConfig, saver.get( config ).orElseThrow() ) );
+
+            var history = new ArrayList<>( saver.list( config ) );
+            assertEquals( 4, history.size() );
+            assertEquals( 103, history.get(1).getState().get("steps") );
+            assertEquals( 3, history.get(0).getState().get("steps") );
+            saver.clear( config );
+        }
+    }
+
+    private static Checkpoint checkpointOf( int step, String payload ) {
+        return Checkpoint.builder()
+                .nodeId( "agent_1" )
+                .nextNodeId( "agent_1" )
+                .state( Map.of( "steps", step, "payload", payload ) )
+                .build();
+    }
+
+    private static List<Object> stepsOf( LogStructuredSaver saver, RunnableConfig config ) {
+        return saver.list( config ).stream().map( cp -> cp.getState().get("steps") ).toList();
+    }
+
+    @Test
+    public void testChangesDuringCompaction() throws Exception {
+        final var workflow = workflow( 1 );
+        final var folder = rootPath.resolve( "testChangesDuringCompaction" );
+        final var config = RunnableConfig.builder().threadId("thread_1").build();
+        final var payload = "x".repeat( 4 * 1024 );
+        final var executor = java.util.concurrent.Executors.newSingleThreadExecutor();
+
+        List<String> ids;
+        List<Object> steps;
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer(), 1.0, executor ) ) {
+            saver.clear( config );
+
+            int step = 0;
+            for( ; step < 200; ++step ) {
+                saver.put( config, checkpointOf( step, payload ) );
+            }
+            for( int round = 0; round < 20; ++round ) {
+                var compaction = saver.compact( config );
+                // oldest first
+                var current = new ArrayList<>( idsOf( saver, config ) );
+                java.util.Collections.reverse( current );
+                // remove the oldest checkpoints, replace some of the others and add new ones while the segment is copied
+                for( int i = 0; i < 3; ++i ) {
+                    saver.remove( RunnableConfig.builder(config).checkPointId( current.get(i) ).build() );
+                }
+                for( int i = 10; i < 100; i += 30 ) {
+                    var replaceConfig = RunnableConfig.builder(config).checkPointId( current.get(i) ).build();
+                    saver.put( replaceConfig, checkpointOf( step++, payload ) );
+                }
+                for( int i = 0; i < 3; ++i ) {
+                    saver.put( config, checkpointOf( step++, payload ) );
+                }
+                compaction.join();
+            }
+            ids = idsOf( saver, config );
+            steps = stepsOf( saver, config );
+            assertEquals( 200, ids.size() );
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        // reopen: neither the removed nor the replaced checkpoints are resurrected and the order is preserved
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            assertEquals( ids, idsOf( saver, config ) );
+            assertEquals( steps, stepsOf( saver, config ) );
+            assertEquals( steps.get(0), saver.get( config ).orElseThrow().getState().get("steps") );
+            saver.clear( config );
+        }
+    }
+
+    @Test
+    public void testUnresolvableRecord() throws Exception {
+        final var workflow = workflow( 1 );
+        final var folder = rootPath.resolve( "testUnresolvableRecord" );
+        final var config1 = RunnableConfig.builder().threadId("thread_1").build();
+        final var config2 = RunnableConfig.builder().threadId("thread_2").build();
+
+        String id1, id2;
+        long putLength;
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            saver.clear( config1 );
+            saver.clear( config2 );
+            // thread_1: [PUT c1][REPLACE c1 -> c1']
+            var replaceConfig = saver.put( config1, checkpointOf( 1, "c1" ) );
+            id1 = replaceConfig.checkPointId().orElseThrow();
+            putLength = saver.segmentSize( config1 );
+            saver.put( replaceConfig, checkpointOf( 2, "c1'" ) );
+            // thread_2: [PUT d1]
+            id2 = saver.put( config2, checkpointOf( 3, "d1" ) ).checkPointId().orElseThrow();
+        }
+
+        // thread_2: [PUT d1][REPLACE c1 -> c1'][PUT c1], the replaced checkpoint doesn't exist in the segment
+        final byte[] segment1 = Files.readAllBytes( folder.resolve( "thread-thread_1.log" ) );
+        final var segment2 = folder.resolve( "thread-thread_2.log" );
+        Files.write( segment2, java.util.Arrays.copyOfRange( segment1, (int)putLength, segment1.length ), StandardOpenOption.APPEND );
+        Files.write( segment2, java.util.Arrays.copyOfRange( segment1, 0, (int)putLength ), StandardOpenOption.APPEND );
+        final long size = Files.size( segment2 );
+
+        // the unresolvable record is skipped, the following ones are kept
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            assertEquals( List.of( id1, id2 ), idsOf( saver, config2 ) );
+            assertEquals( List.of( 1, 3 ), stepsOf( saver, config2 ) );
+            assertEquals( size, Files.size( segment2 ) );
+            saver.clear( config1 );
+            saver.clear( config2 );
+        }
+    }
+
+    @Test
+    public void testTruncatedTail() throws Exception {
+        final var workflow = workflow( 3 );
+        final var folder = rootPath.resolve( "testTruncatedTail" );
+        final var config = RunnableConfig.builder().build();
+
+        List<String> ids;
+        long size;
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            saver.clear( config );
+            var app = workflow.compile( CompileConfig.builder().checkpointSaver(saver).build() );
+            app.invoke( Map.of(), config );
+            ids = idsOf( saver, config );
+            size = saver.segmentSize( config );
+        }
+
+        // simulate a crash during a write
+        Files.write( folder.resolve( "thread-$default.log" ), new byte[] { 0, 0, 1, 0, 1, 2, 3 }, StandardOpenOption.APPEND );
+
+        try( var saver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            assertEquals( ids, idsOf( saver, config ) );
+            assertEquals( size, saver.segmentSize( config ) );
+            assertEquals( size, Files.size( folder.resolve( "thread-$default.log" ) ) );
+            saver.clear( config );
+        }
+    }
+}
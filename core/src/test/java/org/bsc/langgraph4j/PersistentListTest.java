@@ -0,0 +1,161 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.AppenderChannel;
+import org.bsc.langgraph4j.state.PersistentAppenderChannel;
+import org.bsc.langgraph4j.state.RemoveByHash;
+import org.bsc.langgraph4j.utils.PersistentList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentListTest {
+
+    @Test
+    public void appendTest() {
+        PersistentList<Integer> list = PersistentList.empty();
+        var expected = new ArrayList<Integer>();
+        var versions = new ArrayList<PersistentList<Integer>>();
+
+        for( int i = 0; i < 40_000; ++i ) {
+            list = list.with( i );
+            expected.add( i );
+            if( i % 997 == 0 ) {
+                versions.add( list );
+            }
+        }
+        assertEquals( expected, list );
+        assertEquals( expected.hashCode(), list.hashCode() );
+        for( int i = 0; i < expected.size(); i += 31 ) {
+            assertEquals( i, list.get(i) );
+        }
+        // the previous versions are unchanged
+        for( var version : versions ) {
+            assertEquals( expected.subList( 0, version.size() ), version );
+        }
+        assertThrows( UnsupportedOperationException.class, () -> PersistentList.<Integer>empty().add( 1 ) );
+    }
+
+    @Test
+    public void branchTest() {
+        var base = PersistentList.<String>empty().with( "a" ).with( "b" );
+        var left = base.with( "c" );
+        var right = base.with( "d" ).with( "e" );
+        var next = left.with( "f" );
+
+        assertEquals( List.of( "a", "b" ), base );
+        assertEquals( List.of( "a", "b", "c" ), left );
+        assertEquals( List.of( "a", "b", "d", "e" ), right );
+        assertEquals( List.of( "a", "b", "c", "f" ), next );
+    }
+
+    @Test
+    public void removeTest() {
+        PersistentList<Integer> list = PersistentList.copyOf( List.of( 0, 1, 2, 3, 4, 5 ) );
+        var removed = list.without( 2 ).without( 0 );
+
+        assertEquals( List.of( 0, 1, 2, 3, 4, 5 ), list );
+        assertEquals( List.of( 1, 3, 4, 5 ), removed );
+        assertEquals( 3, removed.get(1) );
+        assertEquals( List.of( 1, 3, 4, 5, 6 ), removed.with( 6 ) );
+
+        // the tombstones are compacted
+        var expected = new ArrayList<Integer>();
+        PersistentList<Integer> result = PersistentList.empty();
+        for( int i = 0; i < 200; ++i ) {
+            result = result.with( i );
+            expected.add( i );
+        }
+        for( int i = 0; i < 100; ++i ) {
+            result = result.without( i );
+            expected.remove( i );
+        }
+        assertEquals( expected, result );
+    }
+
+    @Test
+    public void replaceTest() {
+        PersistentList<Integer> list = PersistentList.empty();
+        var expected = new ArrayList<Integer>();
+        for( int i = 0; i < 2_000; ++i ) {
+            list = list.with( i );
+            expected.add( i );
+        }
+        var original = list;
+        // in the trie and in the tail
+        for( int i : List.of( 0, 31, 32, 1_000, 1_983, 1_999 ) ) {
+            list = list.with( i, -i );
+            expected.set( i, -i );
+        }
+        assertEquals( expected, list );
+        assertEquals( 1_000, original.get( 1_000 ) );
+        assertEquals( 1_999, original.get( 1_999 ) );
+
+        // the replaced tail is not shared with the original one
+        assertEquals( List.of( 0, 1, 2 ), original.subList( 0, 3 ) );
+        assertEquals( 2_000, list.with( 2_000 ).get( 2_000 ) );
+        assertEquals( 7, original.with( 7 ).get( 2_000 ) );
+        assertEquals( -1_999, list.get( 1_999 ) );
+
+        assertEquals( List.of( 0, -2, 3 ), PersistentList.copyOf( List.of( 0, 1, 2, 3 ) ).without( 1 ).with( 1, -2 ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> PersistentList.empty().with( 0, 1 ) );
+    }
+
+    @Test
+    public void allMatchTest() {
+        var tested = new ArrayList<Integer>();
+        Predicate<Integer> positive = element -> {
+            tested.add( element );
+            return element >= 0;
+        };
+        PersistentList<Integer> list = PersistentList.empty();
+        for( int i = 0; i < 100; ++i ) {
+            list = list.with( i );
+        }
+        assertTrue( list.allMatch( positive ) );
+        assertEquals( 100, tested.size() );
+
+        // the derived lists resume from the elements already checked
+        tested.clear();
+        var appended = list.with( 100 ).with( 101 );
+        assertTrue( appended.allMatch( positive ) );
+        assertEquals( List.of( 100, 101 ), tested );
+
+        tested.clear();
+        assertFalse( appended.with( -1 ).without( 0 ).allMatch( positive ) );
+        assertEquals( List.of( -1 ), tested );
+
+        // a replaced element is checked again, with the ones after it
+        tested.clear();
+        assertFalse( appended.with( 99, -99 ).allMatch( positive ) );
+        assertEquals( List.of( -99 ), tested );
+        tested.clear();
+        assertTrue( appended.with( 99, 99 ).allMatch( positive ) );
+        assertEquals( List.of( 99, 100, 101 ), tested );
+
+        // another test checks all the elements
+        assertFalse( appended.allMatch( element -> element > 0 ) );
+        assertTrue( PersistentList.<Integer>empty().allMatch( positive ) );
+    }
+
+    @Test
+    public void channelTest() {
+        var appender = AppenderChannel.<String>of( ArrayList::new );
+        var persistent = PersistentAppenderChannel.<String>of();
+
+        var updates = List.<Object>of( "a", List.of( "b", "c" ), new String[] { "d" }, List.of(),
+                                        List.of( RemoveByHash.of( "b" ), "e" ), RemoveByHash.of( "a" ) );
+        Object expected = null;
+        Object actual = persistent.getDefault().orElseThrow().get();
+        for( var update : updates ) {
+            expected = appender.update( "messages", expected, update );
+            actual = persistent.update( "messages", actual, update );
+            assertEquals( expected, actual );
+        }
+        assertEquals( List.of( "c", "d", "e" ), actual );
+        assertInstanceOf( PersistentList.class, persistent.update( "messages", new ArrayList<>( List.of( "x" ) ), "y" ) );
+    }
+}
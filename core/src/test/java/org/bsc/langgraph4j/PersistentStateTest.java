@@ -0,0 +1,234 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.action.EdgeAction;
+import org.bsc.langgraph4j.action.NodeAction;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.PersistentAppenderChannel;
+import org.bsc.langgraph4j.state.PersistentState;
+import org.bsc.langgraph4j.utils.PersistentMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class PersistentStateTest {
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+
+        int steps() {
+            return this.<Integer>value("steps").orElse(0);
+        }
+    }
+
+    record Colliding( String value ) {
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+
+    @Test
+    public void persistentMapTest() {
+
+        PersistentMap<Object,Integer> map = PersistentMap.empty();
+        var expected = new HashMap<Object,Integer>();
+
+        for( int i = 0 ; i < 2000 ; ++i ) {
+            map = map.with( "key" + i, i );
+            expected.put( "key" + i, i );
+        }
+        for( int i = 0 ; i < 10 ; ++i ) {
+            map = map.with( new Colliding( "c" + i ), i );
+            expected.put( new Colliding( "c" + i ), i );
+        }
+        assertEquals( expected.size(), map.size() );
+        assertEquals( expected, map );
+        assertEquals( expected.hashCode(), map.hashCode() );
+
+        var previous = map;
+        for( int i = 0 ; i < 2000 ; i += 2 ) {
+            map = map.without( "key" + i );
+            expected.remove( "key" + i );
+        }
+        map = map.without( new Colliding( "c3" ) );
+        expected.remove( new Colliding( "c3" ) );
+
+        assertEquals( expected, map );
+        assertEquals( 2010, previous.size() );
+        assertEquals( 0, previous.get("key0") );
+        assertNull( map.get("key0") );
+        assertFalse( map.containsKey("key0") );
+        assertSame( map, map.without("not exists") );
+
+        var withNull = map.with( "nullable", null );
+        assertTrue( withNull.containsKey("nullable") );
+        assertEquals( map.size() + 1, withNull.size() );
+
+        assertThrows( UnsupportedOperationException.class, () -> withNull.put("a", 1 ) );
+    }
+
+    @Test
+    public void updateStateSharesUntouchedValuesTest() {
+        var messages = List.of( "m1", "m2" );
+        var state = PersistentState.of( Map.of( "messages", new ArrayList<>(messages), "steps", 1 ) );
+
+        var newState = PersistentState.updateState( state, Map.of( "steps", 2 ), State.SCHEMA );
+
+        assertSame( state.get("messages"), newState.get("messages") );
+        assertEquals( 1, state.get("steps") );
+        assertEquals( 2, newState.get("steps") );
+
+        @SuppressWarnings("unchecked")
+        var sharedMessages = (List<String>)newState.get("messages");
+        assertThrows( UnsupportedOperationException.class, () -> sharedMessages.add( "m3" ) );
+
+        var appendedState = PersistentState.updateState( newState, Map.of( "messages", "m3" ), State.SCHEMA );
+
+        assertIterableEquals( List.of( "m1", "m2" ), (List<?>)newState.get("messages") );
+        assertIterableEquals( List.of( "m1", "m2", "m3" ), (List<?>)appendedState.get("messages") );
+
+        assertTrue( PersistentState.isShareable( appendedState ) );
+        assertFalse( PersistentState.isShareable( Map.of( "mutable", new StringBuilder() ) ) );
+        // the elements of the collections are checked as well
+        assertTrue( PersistentState.isShareable( Map.of( "nested", List.of( Map.of( "k", List.of( 1, 2 ) ) ) ) ) );
+        assertFalse( PersistentState.isShareable( Map.of( "nested", List.of( new ArrayList<>( List.of( new StringBuilder() ) ) ) ) ) );
+        assertFalse( PersistentState.isShareable( Map.of( "bytes", List.of( new byte[] { 1 } ) ) ) );
+        assertFalse( PersistentState.isShareable( Map.of( "values", Map.of( "k", new StringBuilder() ) ) ) );
+        assertTrue( PersistentState.isShareable( Map.of( "values", Map.of( "k", new StringBuilder() ) ), StringBuilder.class::equals ) );
+    }
+
+    @Test
+    public void shareableCheckIsIncrementalTest() {
+        final class Token {}
+        var checked = new int[1];
+        Predicate<Class<?>> immutable = type -> {
+            ++checked[0];
+            return type == Token.class;
+        };
+        Map<String, Channel<?>> channels = Map.of( "tokens", PersistentAppenderChannel.<Object>of() );
+
+        var tokens = new ArrayList<Object>();
+        for( int i = 0; i < 1_000; ++i ) {
+            tokens.add( new Token() );
+        }
+        var state = PersistentState.updateState( Map.of(), Map.of( "tokens", tokens ), channels );
+        assertTrue( PersistentState.isShareable( state, immutable ) );
+        assertEquals( 1_000, checked[0] );
+
+        // only the appended elements are checked again
+        state = PersistentState.updateState( state, Map.of( "tokens", new Token() ), channels );
+        assertTrue( PersistentState.isShareable( state, immutable ) );
+        assertTrue( PersistentState.isShareable( state, immutable ) );
+        assertEquals( 1_001, checked[0] );
+
+        var mutableState = PersistentState.updateState( state, Map.of( "tokens", new StringBuilder() ), channels );
+        assertFalse( PersistentState.isShareable( mutableState, immutable ) );
+        assertFalse( PersistentState.isShareable( mutableState, immutable ) );
+        assertEquals( 1_003, checked[0] );
+
+        // a different predicate checks all the elements
+        assertFalse( PersistentState.isShareable( state, type -> false ) );
+    }
+
+    @Test
+    public void persistentStateGraphTest() throws Exception {
+        int expectedSteps = 5;
+
+        NodeAction<State> agent_1 = state -> {
+            int steps = state.steps() + 1;
+            return Map.of("steps", steps, "messages", format( "agent_1:step %d", steps ));
+        };
+
+        EdgeAction<State> shouldContinue = state ->
+            ( state.steps() >= expectedSteps ) ? "exit" : "next";
+
+        var workflow = new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async(agent_1))
+                .addConditionalEdges( "agent_1",
+                        edge_async( shouldContinue),
+                        Map.of( "next", "agent_1", "exit", END) );
+
+        var saver = new MemorySaver();
+
+        var app = workflow.compile( CompileConfig.builder()
+                                    .checkpointSaver(saver)
+                                    .persistentState(true)
+                                    .build() );
+
+        var runnableConfig = RunnableConfig.builder()
+                .threadId("thread_1")
+                .build();
+
+        var outputs = app.stream( Map.of( "steps", 0 ), runnableConfig ).stream().toList();
+
+        var state = outputs.get( outputs.size() - 1 ).state();
+        assertEquals( expectedSteps, state.steps() );
+        assertEquals( expectedSteps, state.messages().size() );
+
+        // previous outputs are not affected by the next steps
+        assertEquals( 1, outputs.get(1).state().steps() );
+        assertEquals( 1, outputs.get(1).state().messages().size() );
+
+        var checkpoints = new ArrayList<>(saver.list(runnableConfig));
+        assertEquals( expectedSteps + 1, checkpoints.size() );
+        assertTrue( checkpoints.stream().map(Checkpoint::getState).allMatch( s -> s instanceof PersistentMap ) );
+
+        // resume from the persistent checkpoint
+        var history = app.getStateHistory( runnableConfig );
+        assertEquals( expectedSteps + 1, history.size() );
+        assertEquals( expectedSteps, app.getState(runnableConfig).state().steps() );
+
+        // same result of the default (cloning) implementation
+        var defaultApp = workflow.compile();
+        var defaultState = defaultApp.invoke( Map.of( "steps", 0 ) );
+        assertTrue( defaultState.isPresent() );
+        assertIterableEquals( defaultState.get().messages(), state.messages() );
+    }
+
+    @Test
+    public void persistentStateFallbackToCloneTest() throws Exception {
+
+        var workflow = new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async( state -> Map.of("messages", "agent_1" ) ))
+                .addEdge("agent_1", END);
+
+        var app = workflow.compile( CompileConfig.builder()
+                .persistentState(true)
+                .build() );
+
+        var builder = new StringBuilder("mutable");
+        var state = app.cloneState( Map.of( "builder", builder ) );
+
+        // non-shareable value: cloned through the serializer
+        assertNotSame( builder, state.value("builder").orElseThrow() );
+
+        // a mutable element of a list is not shared either
+        var elements = new ArrayList<Object>( List.of( new StringBuilder("element") ) );
+        var listState = app.cloneState( Map.of( "elements", elements ) );
+        List<?> copiedElements = listState.<List<?>>value("elements").orElseThrow();
+        assertNotSame( elements.get(0), copiedElements.get(0) );
+        assertEquals( "element", copiedElements.get(0).toString() );
+
+        var result = app.invoke( Map.of( "messages", "start" ) );
+        assertTrue( result.isPresent() );
+        assertIterableEquals( List.of( "start", "agent_1"), result.get().messages() );
+    }
+}
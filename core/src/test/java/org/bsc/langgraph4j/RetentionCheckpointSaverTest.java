@@ -0,0 +1,264 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.checkpoint.*;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class RetentionCheckpointSaverTest {
+
+    static class State extends MessagesState<String> {
+
+        public State(Map<String, Object> initData) {
+            super( initData  );
+        }
+
+        int steps() {
+            return this.<Integer>value("steps").orElse(0);
+        }
+    }
+
+    static class MutableClock extends Clock {
+        Instant instant = Instant.EPOCH;
+
+        void advance( Duration duration ) {
+            instant = instant.plus( duration );
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    private StateGraph<State> workflow( int expectedSteps ) throws Exception {
+        return new StateGraph<>(State.SCHEMA, State::new)
+                .addEdge(START, "agent_1")
+                .addNode("agent_1", node_async( state -> {
+                    int steps = state.steps() + 1;
+                    return Map.of("steps", steps, "messages", format( "agent_1:step %d", steps ));
+                }))
+                .addConditionalEdges( "agent_1",
+                        edge_async( state -> ( state.steps() >= expectedSteps ) ? "exit" : "next" ),
+                        Map.of( "next", "agent_1", "exit", END) );
+    }
+
+    private static RunnableConfig put( BaseCheckpointSaver saver, String threadId, int step ) throws Exception {
+        return saver.put( RunnableConfig.builder().threadId(threadId).build(),
+                Checkpoint.builder()
+                    .nodeId( "agent_1" )
+                    .nextNodeId( "agent_1" )
+                    .state( Map.of( "steps", step ) )
+                    .build() );
+    }
+
+    private static List<Object> stepsOf( BaseCheckpointSaver saver, String threadId ) {
+        return saver.list( RunnableConfig.builder().threadId(threadId).build() ).stream()
+                .map( checkpoint -> checkpoint.getState().get("steps") )
+                .toList();
+    }
+
+    @Test
+    public void maxCheckpointsPerThreadTest() throws Exception {
+        var saver = new RetentionCheckpointSaver( new ConcurrentMemorySaver(),
+                                RetentionPolicy.builder().maxCheckpointsPerThread( 3 ).build() );
+
+        var tagged = put( saver, "thread_1", 0 );
+        assertTrue( saver.tag( tagged ) );
+        for( int step = 1; step < 6; ++step ) {
+            put( saver, "thread_1", step );
+        }
+
+        // latest 3 plus the tagged one
+        assertEquals( List.of( 5, 4, 3, 0 ), stepsOf( saver, "thread_1" ) );
+        var stats = saver.stats();
+        assertEquals( 1, stats.threads() );
+        assertEquals( 4, stats.checkpoints() );
+        assertEquals( 1, stats.taggedCheckpoints() );
+        assertEquals( 2, stats.evictedCheckpoints() );
+
+        assertTrue( saver.untag( tagged ) );
+        put( saver, "thread_1", 6 );
+        assertEquals( List.of( 6, 5, 4 ), stepsOf( saver, "thread_1" ) );
+        assertEquals( 4, saver.stats().evictedCheckpoints() );
+    }
+
+    @Test
+    public void threadEvictionTest() throws Exception {
+        var clock = new MutableClock();
+        var saver = new RetentionCheckpointSaver( new MemorySaver(),
+                                RetentionPolicy.builder()
+                                        .maxThreads( 2 )
+                                        .threadTtl( Duration.ofMinutes(10) )
+                                        .clock( clock )
+                                        .build() );
+
+        put( saver, "thread_1", 1 );
+        clock.advance( Duration.ofMinutes(1) );
+        put( saver, "thread_2", 1 );
+        clock.advance( Duration.ofMinutes(1) );
+        // access thread_1, so thread_2 becomes the least recently used
+        saver.get( RunnableConfig.builder().threadId("thread_1").build() );
+        put( saver, "thread_3", 1 );
+
+        assertEquals( List.of( 1 ), stepsOf( saver, "thread_1" ) );
+        assertTrue( stepsOf( saver, "thread_2" ).isEmpty() );
+        assertEquals( List.of( 1 ), stepsOf( saver, "thread_3" ) );
+        assertEquals( 1, saver.stats().evictedThreads() );
+
+        clock.advance( Duration.ofMinutes(10) );
+        assertEquals( 2, saver.evictExpired() );
+        assertTrue( stepsOf( saver, "thread_1" ).isEmpty() );
+        assertTrue( stepsOf( saver, "thread_3" ).isEmpty() );
+
+        var stats = saver.stats();
+        assertEquals( 0, stats.threads() );
+        assertEquals( 0, stats.checkpoints() );
+        assertEquals( 2, stats.expiredThreads() );
+    }
+
+    @Test
+    public void maxBytesTest() throws Exception {
+        var saver = new RetentionCheckpointSaver( new ConcurrentMemorySaver(),
+                                RetentionPolicy.builder()
+                                        .maxBytes( 500, checkpoint -> 100 )
+                                        .build() );
+
+        for( int step = 0; step < 3; ++step ) {
+            put( saver, "thread_1", step );
+        }
+        assertEquals( 300, saver.stats().bytes() );
+
+        // exceeding the size evicts the least recently used thread first
+        for( int step = 0; step < 3; ++step ) {
+            put( saver, "thread_2", step );
+        }
+        assertTrue( stepsOf( saver, "thread_1" ).isEmpty() );
+        assertEquals( List.of( 2, 1, 0 ), stepsOf( saver, "thread_2" ) );
+
+        // then the oldest checkpoints of the current thread
+        for( int step = 3; step < 6; ++step ) {
+            put( saver, "thread_2", step );
+        }
+        assertEquals( List.of( 5, 4, 3, 2, 1 ), stepsOf( saver, "thread_2" ) );
+
+        var stats = saver.stats();
+        assertEquals( 500, stats.bytes() );
+        assertEquals( 1, stats.memoryEvictedThreads() );
+        assertEquals( 1, stats.memoryEvictedCheckpoints() );
+    }
+
+    @Test
+    public void policyTest() throws Exception {
+        var builder = RetentionPolicy.builder().maxCheckpointsPerThread( 3 );
+        var policy = builder.build();
+        builder.maxCheckpointsPerThread( 5 ).maxThreads( 2 );
+        // the built policy doesn't change with the builder
+        assertEquals( 3, policy.maxCheckpointsPerThread().orElseThrow() );
+        assertTrue( policy.maxThreads().isEmpty() );
+        assertEquals( 5, builder.build().maxCheckpointsPerThread().orElseThrow() );
+
+        var sizeOf = RetentionPolicy.serializedSize( workflow( 1 ).getStateSerializer() );
+        var checkpoint = Checkpoint.builder()
+                .nodeId( "agent_1" )
+                .nextNodeId( "agent_1" )
+                .state( Map.of( "messages", List.of( "m1" ) ) )
+                .build();
+        long size = sizeOf.applyAsLong( checkpoint );
+        assertEquals( size, sizeOf.applyAsLong( checkpoint ) );
+        // replaced with the same id: measured again
+        var replaced = checkpoint.updateState( Map.of( "messages", "m2".repeat( 100 ) ), State.SCHEMA );
+        assertEquals( checkpoint.getId(), replaced.getId() );
+        assertTrue( sizeOf.applyAsLong( replaced ) > size );
+    }
+
+    @Test
+    public void persistentSaverTest() throws Exception {
+        final int expectedSteps = 6;
+        final var workflow = workflow( expectedSteps );
+        final var config = RunnableConfig.builder().threadId("thread_1").build();
+        final var policy = RetentionPolicy.builder()
+                .maxCheckpointsPerThread( 3 )
+                .maxBytes( 1024 * 1024, RetentionPolicy.serializedSize( workflow.getStateSerializer() ) )
+                .build();
+        final var folder = Paths.get( "target", "checkpoint-retention" );
+
+        try( var logSaver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            logSaver.clear( config );
+
+            var saver = new RetentionCheckpointSaver( logSaver, policy );
+            var app = workflow.compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+
+            var state = app.invoke( Map.of(), config );
+            assertTrue( state.isPresent() );
+            assertEquals( expectedSteps, state.get().steps() );
+            assertEquals( List.of( 6, 5, 4 ), stepsOf( saver, "thread_1" ) );
+            assertTrue( saver.stats().bytes() > 0 );
+        }
+
+        // reopen: the stored checkpoints are loaded by the first access
+        try( var logSaver = new LogStructuredSaver( folder, workflow.getStateSerializer() ) ) {
+            var saver = new RetentionCheckpointSaver( logSaver, policy );
+            var app = workflow.compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+
+            var state = app.invoke( Map.of(), config );
+            assertTrue( state.isPresent() );
+            assertEquals( expectedSteps + 1, state.get().steps() );
+            assertEquals( List.of( 7, 6, 6 ), stepsOf( saver, "thread_1" ) );
+            assertEquals( 3, saver.stats().checkpoints() );
+
+            assertTrue( saver.clear( config ) );
+        }
+    }
+
+    @Test
+    public void removeTest() throws Exception {
+        final var workflow = workflow( 1 );
+        final var fileSaver = new FileSystemSaver( Paths.get( "target", "checkpoint", "removeTest" ), workflow.getStateSerializer() );
+        final List<BaseCheckpointSaver> savers = List.of( new MemorySaver(), new ConcurrentMemorySaver(), fileSaver );
+
+        for( var saver : savers ) {
+            var config = RunnableConfig.builder().threadId("thread_1").build();
+            saver.clear( config );
+
+            put( saver, "thread_1", 0 );
+            var removed = put( saver, "thread_1", 1 );
+            put( saver, "thread_1", 2 );
+
+            assertTrue( saver.remove( removed ), saver.getClass().getName() );
+            assertFalse( saver.remove( removed ), saver.getClass().getName() );
+            assertEquals( List.of( 2, 0 ), stepsOf( saver, "thread_1" ), saver.getClass().getName() );
+            assertThrows( IllegalArgumentException.class, () -> saver.remove( config ) );
+
+            assertTrue( saver.clear( config ) );
+            assertTrue( stepsOf( saver, "thread_1" ).isEmpty(), saver.getClass().getName() );
+        }
+    }
+}
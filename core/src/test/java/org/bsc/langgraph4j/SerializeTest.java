@@ -4,16 +4,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import lombok.ToString;
+import org.bsc.langgraph4j.serializer.ByteBufferOutput;
+import org.bsc.langgraph4j.serializer.ByteBufferSerializer;
 import org.bsc.langgraph4j.serializer.Serializer;
 import org.bsc.langgraph4j.serializer.plain_text.gson.GsonStateSerializer;
 import org.bsc.langgraph4j.serializer.plain_text.jackson.JacksonStateSerializer;
 import org.bsc.langgraph4j.serializer.std.NullableObjectSerializer;
 import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.serializer.std.SerializerMapper;
 import org.bsc.langgraph4j.state.AgentState;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.Function;
 
 import static org.bsc.langgraph4j.utils.CollectionsUtils.listOf;
 import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
@@ -157,6 +162,129 @@ public class SerializeTest {
         System.out.println( deserializedData );
     }
 
+    static class NamedSerializer implements Serializer<Object> {
+        final String name;
+
+        NamedSerializer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void write(Object object, ObjectOutput out) {
+        }
+
+        @Override
+        public Object read(ObjectInput in) {
+            return null;
+        }
+    }
+
+    @Test
+    public void serializerResolutionTest() {
+        SerializerMapper mapper = new SerializerMapper()
+                .register( Object.class, new NamedSerializer("object") )
+                .register( Collection.class, new NamedSerializer("collection") )
+                .register( List.class, new NamedSerializer("list") )
+                .register( AbstractList.class, new NamedSerializer("abstractList") );
+
+        Function<Class<?>,String> nameOf = type -> mapper.getSerializer( type )
+                .map( s -> ((NamedSerializer)s).name )
+                .orElse( null );
+
+        // most specific type wins, whatever the registration order
+        assertEquals( "abstractList", nameOf.apply( ArrayList.class ) );
+        assertEquals( "list", nameOf.apply( List.of(1).getClass() ) );
+        assertEquals( "collection", nameOf.apply( HashSet.class ) );
+        assertEquals( "object", nameOf.apply( String.class ) );
+        assertEquals( "list", nameOf.apply( List.class ) );
+
+        // the cache is invalidated by a new registration
+        mapper.register( ArrayList.class, new NamedSerializer("arrayList") );
+        mapper.register( Set.class, new NamedSerializer("set") );
+        assertEquals( "arrayList", nameOf.apply( ArrayList.class ) );
+        assertEquals( "set", nameOf.apply( HashSet.class ) );
+
+        // absence is resolved as well
+        SerializerMapper empty = new SerializerMapper().register( Map.class, new NamedSerializer("map") );
+        assertFalse( empty.getSerializer( String.class ).isPresent() );
+        assertTrue( empty.getSerializer( HashMap.class ).isPresent() );
+    }
+
+    @Test
+    public void pooledStreamsTest() throws Exception {
+        AgentState state = stateSerializer.stateOf(mapOf( "a", "b", "list", listOf("aa", "bb"), "c", 100 ));
+
+        // the reused stream produces the same bytes as a new one
+        byte[] expected = serializeState( state );
+        assertArrayEquals( expected, stateSerializer.writeObject( state ) );
+        assertArrayEquals( expected, stateSerializer.writeObject( state ) );
+
+        // a failed write doesn't affect the following ones
+        AgentState invalid = stateSerializer.stateOf(mapOf( "f", new NonSerializableElement("I'M NOT SERIALIZABLE") ));
+        assertThrows( NotSerializableException.class, () -> stateSerializer.writeObject( invalid ) );
+        assertArrayEquals( expected, stateSerializer.writeObject( state ) );
+        assertEquals( state.data(), stateSerializer.cloneObject( state ).data() );
+
+        // nested use on the same thread
+        Serializer<AgentState> nested = new Serializer<>() {
+            @Override
+            public void write(AgentState object, ObjectOutput out) throws IOException {
+                byte[] bytes = stateSerializer.writeObject( object );
+                out.writeInt( bytes.length );
+                out.write( bytes );
+            }
+
+            @Override
+            public AgentState read(ObjectInput in) throws IOException, ClassNotFoundException {
+                byte[] bytes = new byte[ in.readInt() ];
+                in.readFully( bytes );
+                return stateSerializer.readObject( bytes );
+            }
+        };
+        assertEquals( state.data(), nested.cloneObject( state ).data() );
+        assertEquals( state.data(), nested.readObject( nested.writeObject( state ) ).data() );
+
+        // the pooled streams are shared by short lived threads
+        var executor = java.util.concurrent.Executors.newCachedThreadPool();
+        try {
+            var futures = new ArrayList<java.util.concurrent.Future<byte[]>>();
+            for( int i = 0; i < 32; ++i ) {
+                futures.add( executor.submit( () -> stateSerializer.writeObject( state ) ) );
+            }
+            for( var future : futures ) {
+                assertArrayEquals( expected, future.get() );
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void byteBufferSerializerTest() throws Exception {
+        AgentState state = stateSerializer.stateOf(mapOf( "a", "b", "list", listOf("aa", "bb"), "c", 100 ));
+        ByteBufferSerializer<AgentState> serializer = ByteBufferSerializer.of( stateSerializer );
+
+        for( ByteBufferOutput out : listOf( ByteBufferOutput.allocate( 4 ), ByteBufferOutput.allocateDirect( 4 ) ) ) {
+            out.write( 42 );
+            serializer.write( state, out );
+            assertTrue( out.capacity() >= out.size() );
+
+            // same bytes of writeObject
+            ByteBuffer content = out.content();
+            assertEquals( 42, content.get() );
+            byte[] bytes = new byte[ content.remaining() ];
+            content.duplicate().get( bytes );
+            assertArrayEquals( stateSerializer.writeObject( state ), bytes );
+
+            // read from a slice
+            assertEquals( state.data(), serializer.read( content.slice() ).data() );
+
+            out.clear();
+            assertEquals( 0, out.size() );
+        }
+    }
+
     static class JacksonSerializer extends JacksonStateSerializer<AgentState> {
 
         public JacksonSerializer() {
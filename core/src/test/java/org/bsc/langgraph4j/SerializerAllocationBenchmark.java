@@ -0,0 +1,102 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the allocations of the {@link Serializer} default methods, which reuse an {@link ObjectOutputStream}
+ * and buffer taken from a bounded pool shared by all the threads, against newly allocated streams for each call
+ * (the "unpooled" mode).
+ * <p>
+ * Run it with the gc profiler to get the allocated bytes per operation ({@code gc.alloc.rate.norm}):
+ * <p>
+ * usage: {@code SerializerAllocationBenchmark -prof gc [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerAllocationBenchmark {
+
+    @Param({ "pooled", "unpooled" })
+    public String mode;
+
+    @Param({ "10" })
+    public int messages;
+
+    private ObjectStreamStateSerializer<AgentState> serializer;
+    private AgentState state;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        serializer = new ObjectStreamStateSerializer<>( AgentState::new );
+        var list = new ArrayList<String>();
+        for( int i = 0; i < messages; ++i ) {
+            list.add( format( "message %d", i ) );
+        }
+        state = new AgentState( Map.of( "messages", list, "steps", messages, "next", "agent_1" ) );
+        bytes = serializer.writeObject( state );
+    }
+
+    private byte[] unpooledWriteObject( AgentState object ) throws IOException {
+        try( ByteArrayOutputStream stream = new ByteArrayOutputStream() ) {
+            ObjectOutputStream oas = new ObjectOutputStream(stream);
+            serializer.write(object, oas);
+            oas.flush();
+            return stream.toByteArray();
+        }
+    }
+
+    private AgentState unpooledReadObject( byte[] bytes ) throws IOException, ClassNotFoundException {
+        try( ByteArrayInputStream stream = new ByteArrayInputStream( bytes ) ) {
+            ObjectInputStream ois = new ObjectInputStream(stream);
+            return serializer.read(ois);
+        }
+    }
+
+    @Benchmark
+    public AgentState cloneState() throws Exception {
+        return "pooled".equals(mode) ?
+                serializer.cloneObject( state ) :
+                unpooledReadObject( unpooledWriteObject( state ) );
+    }
+
+    @Benchmark
+    public byte[] writeObject() throws Exception {
+        return "pooled".equals(mode) ?
+                serializer.writeObject( state ) :
+                unpooledWriteObject( state );
+    }
+
+    @Benchmark
+    public AgentState readObject() throws Exception {
+        return "pooled".equals(mode) ?
+                serializer.readObject( bytes ) :
+                unpooledReadObject( bytes );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( SerializerAllocationBenchmark.class.getSimpleName() )
+                .addProfiler( "gc" )
+                .build() ).run();
+    }
+}
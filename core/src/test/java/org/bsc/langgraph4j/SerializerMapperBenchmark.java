@@ -0,0 +1,93 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.serializer.Serializer;
+import org.bsc.langgraph4j.serializer.std.SerializerMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per value cost of {@link SerializerMapper#getSerializer(Class)} for mappers with
+ * an increasing number of registered types: a value matching a registered supertype,
+ * a value matching a registered type exactly and a value without any serializer.
+ * <p>
+ * usage: {@code SerializerMapperBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerMapperBenchmark {
+
+    private static final List<Class<?>> TYPES = List.of(
+            Collection.class, java.time.LocalDate.class, java.time.LocalTime.class, java.time.LocalDateTime.class,
+            java.time.Instant.class, java.time.Duration.class, java.time.Period.class, java.time.ZonedDateTime.class,
+            java.time.OffsetDateTime.class, java.time.OffsetTime.class, java.time.Year.class, java.time.YearMonth.class,
+            java.time.MonthDay.class, java.time.ZoneOffset.class, java.math.BigDecimal.class, java.math.BigInteger.class,
+            java.net.URI.class, java.net.URL.class, java.util.UUID.class, java.util.Locale.class,
+            java.util.Currency.class, java.util.BitSet.class, java.util.Date.class, java.util.Calendar.class,
+            java.util.TimeZone.class, java.util.Optional.class, java.util.OptionalInt.class, java.util.OptionalLong.class,
+            java.util.OptionalDouble.class, java.util.Properties.class, java.util.Random.class, java.util.Scanner.class,
+            java.util.StringJoiner.class, java.util.Timer.class, java.util.regex.Pattern.class, java.io.File.class,
+            java.nio.file.Path.class, java.nio.ByteBuffer.class, java.nio.CharBuffer.class, java.nio.charset.Charset.class,
+            java.text.DecimalFormat.class, java.text.SimpleDateFormat.class, java.util.concurrent.atomic.AtomicInteger.class,
+            java.util.concurrent.atomic.AtomicLong.class, java.util.concurrent.atomic.AtomicBoolean.class,
+            java.util.concurrent.atomic.AtomicReference.class, java.util.concurrent.atomic.LongAdder.class,
+            java.util.concurrent.atomic.DoubleAdder.class, java.lang.StringBuilder.class, java.lang.Thread.class );
+
+    private static final Serializer<Object> SERIALIZER = new Serializer<>() {
+        @Override
+        public void write(Object object, ObjectOutput out) {
+        }
+
+        @Override
+        public Object read(ObjectInput in) {
+            return null;
+        }
+    };
+
+    @Param({ "1", "10", "50" })
+    public int registeredTypes;
+
+    private SerializerMapper mapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mapper = new SerializerMapper();
+        for( int i = 0; i < registeredTypes; ++i ) {
+            mapper.register( TYPES.get(i), SERIALIZER );
+        }
+    }
+
+    @Benchmark
+    public Optional<Serializer<Object>> supertype() {
+        return mapper.getSerializer( ArrayList.class );
+    }
+
+    @Benchmark
+    public Optional<Serializer<Object>> exact() {
+        return mapper.getSerializer( Collection.class );
+    }
+
+    @Benchmark
+    public Optional<Serializer<Object>> missing() {
+        return mapper.getSerializer( String.class );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( SerializerMapperBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -265,6 +265,57 @@ public class StateGraphTest {
 
     }
 
+    @Test
+    void testStreamUpdates() throws Exception {
+
+        var workflow = new StateGraph<>(State.SCHEMA, State::new)
+                .addNode("agent_1", node_async( state -> Map.of( "steps", state.steps() + 1, "messages", "agent_1" ) ))
+                // same steps value, so only messages is changed
+                .addNode("agent_2", node_async( state -> Map.of( "steps", state.steps(), "messages", "agent_2" ) ))
+                .addEdge(START, "agent_1")
+                .addEdge("agent_1", "agent_2")
+                .addEdge("agent_2", END);
+
+        var app = workflow.compile();
+
+        var config = RunnableConfig.builder()
+                        .streamMode(CompiledGraph.StreamMode.UPDATES)
+                        .build();
+
+        var outputs = app.stream( Map.of( "messages", "start" ), config ).stream().toList();
+
+        assertEquals( 4, outputs.size() );
+        assertTrue( outputs.stream().allMatch( output -> output instanceof StateUpdate<State> ) );
+
+        var start = (StateUpdate<State>)outputs.get(0);
+        assertEquals( START, start.node() );
+        assertEquals( Set.of("messages"), start.update().keySet() );
+
+        var agent1 = (StateUpdate<State>)outputs.get(1);
+        assertEquals( "agent_1", agent1.node() );
+        assertEquals( Set.of("steps", "messages"), agent1.update().keySet() );
+        assertEquals( Set.of("steps", "messages"), agent1.changedKeys() );
+        assertEquals( 1, agent1.state().steps() );
+        assertIterableEquals( List.of("start", "agent_1"), agent1.state().messages() );
+
+        var agent2 = (StateUpdate<State>)outputs.get(2);
+        assertEquals( "agent_2", agent2.node() );
+        assertEquals( Set.of("steps", "messages"), agent2.update().keySet() );
+        assertEquals( Set.of("messages"), agent2.changedKeys() );
+        assertIterableEquals( List.of("start", "agent_1", "agent_2"), agent2.state().messages() );
+
+        var end = (StateUpdate<State>)outputs.get(3);
+        assertEquals( END, end.node() );
+        assertTrue( end.update().isEmpty() );
+        assertTrue( end.changedKeys().isEmpty() );
+
+        // invoke always returns the whole state
+        var result = app.invoke( Map.of( "messages", "start" ), config );
+        assertTrue( result.isPresent() );
+        assertEquals( 1, result.get().steps() );
+        assertIterableEquals( List.of("start", "agent_1", "agent_2"), result.get().messages() );
+    }
+
     private  AsyncNodeAction<State> makeNode(String id ) {
         return node_async(state -> {
             log.info("call node {}", id);
@@ -331,6 +382,104 @@ public class StateGraphTest {
 
     }
 
+    private  AsyncNodeAction<State> makeSlowNode(String id, long delayMillis ) {
+        return node_async(state -> {
+            log.info("call slow node {} on thread {}", id, Thread.currentThread().getName());
+            Thread.sleep(delayMillis);
+            return Map.of("messages", id);
+        });
+    }
+
+    @Test
+    void testWithConcurrentParallelBranch() throws Exception {
+        final long delay = 300;
+
+        var workflow = new StateGraph<State>(State.SCHEMA, State::new)
+                .addNode("A", makeNode("A"))
+                // the first branch is the slowest one, the merge order must not change
+                .addNode("A1", makeSlowNode("A1", delay + 100))
+                .addNode("A2", makeSlowNode("A2", delay))
+                .addNode("A3", makeSlowNode("A3", delay))
+                .addNode("B", makeNode("B"))
+                .addEdge("A", "A1")
+                .addEdge("A", "A2")
+                .addEdge("A", "A3")
+                .addEdge("A1", "B")
+                .addEdge("A2", "B")
+                .addEdge("A3", "B")
+                .addEdge(START, "A")
+                .addEdge("B", END);
+
+        var app = workflow.compile();
+
+        var start = System.currentTimeMillis();
+        var result = app.invoke(Map.of());
+        var elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(result.isPresent());
+        assertIterableEquals(List.of("A", "A1", "A2", "A3", "B"), result.get().messages());
+        assertTrue( elapsed < delay * 3, "branches have not been executed concurrently: " + elapsed + "ms");
+
+        // max parallelism
+        var executor = java.util.concurrent.Executors.newFixedThreadPool(4);
+        app = workflow.compile( CompileConfig.builder()
+                                    .parallelExecutor( executor )
+                                    .maxParallelism(1)
+                                    .build());
+
+        start = System.currentTimeMillis();
+        result = app.invoke(Map.of());
+        elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(result.isPresent());
+        assertIterableEquals(List.of("A", "A1", "A2", "A3", "B"), result.get().messages());
+        assertTrue( elapsed >= delay * 3, "branches have not been executed sequentially: " + elapsed + "ms");
+
+        executor.shutdown();
+    }
+
+    private AsyncNodeAction<State> makeAsyncSlowNode(String id, long delayMillis, java.util.concurrent.atomic.AtomicInteger running, java.util.concurrent.atomic.AtomicInteger maxRunning ) {
+        return state -> {
+            maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+            // the work continues asynchronously, after the action has returned
+            return java.util.concurrent.CompletableFuture.supplyAsync( () -> {
+                running.decrementAndGet();
+                return Map.<String,Object>of("messages", id);
+            }, java.util.concurrent.CompletableFuture.delayedExecutor( delayMillis, java.util.concurrent.TimeUnit.MILLISECONDS ) );
+        };
+    }
+
+    @Test
+    void testMaxParallelismWithAsyncBranches() throws Exception {
+        final var running = new java.util.concurrent.atomic.AtomicInteger();
+        final var maxRunning = new java.util.concurrent.atomic.AtomicInteger();
+
+        var workflow = new StateGraph<State>(State.SCHEMA, State::new)
+                .addNode("A", makeNode("A"))
+                .addNode("A1", makeAsyncSlowNode("A1", 100, running, maxRunning))
+                .addNode("A2", makeAsyncSlowNode("A2", 100, running, maxRunning))
+                .addNode("A3", makeAsyncSlowNode("A3", 100, running, maxRunning))
+                .addNode("B", makeNode("B"))
+                .addEdge("A", "A1")
+                .addEdge("A", "A2")
+                .addEdge("A", "A3")
+                .addEdge("A1", "B")
+                .addEdge("A2", "B")
+                .addEdge("A3", "B")
+                .addEdge(START, "A")
+                .addEdge("B", END);
+
+        var app = workflow.compile( CompileConfig.builder()
+                                    .maxParallelism(1)
+                                    .build());
+
+        var result = app.invoke(Map.of());
+
+        assertTrue(result.isPresent());
+        assertIterableEquals(List.of("A", "A1", "A2", "A3", "B"), result.get().messages());
+        assertEquals( 1, maxRunning.get(), "asynchronous branches have exceeded the max parallelism" );
+    }
+
     @Test
     void testWithParallelBranchWithErrors() throws Exception {
 
@@ -0,0 +1,82 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.PersistentState;
+import org.bsc.langgraph4j.state.StateMerger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the merge of a node result touching two keys into a state with a growing number of channels:
+ * the copying {@link AgentState#updateState(Map, Map, Map)}, the structurally shared
+ * {@link PersistentState#updateState(Map, Map, Map)} and the in place {@link StateMerger#merge(Map, Map)}.
+ * <p>
+ * usage: {@code StateMergeBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateMergeBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int keys;
+
+    private Map<String, Channel<?>> channels;
+    private Map<String,Object> partialState;
+    private Map<String,Object> agentState;
+    private Map<String,Object> persistentState;
+    private Map<String,Object> mergerState;
+    private StateMerger merger;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        channels = new HashMap<>();
+        var data = new HashMap<String,Object>();
+        for( int i = 0; i < keys; ++i ) {
+            channels.put( format( "key_%d", i ), Channel.of( () -> 0 ) );
+            data.put( format( "key_%d", i ), i );
+        }
+        partialState = Map.of( "key_0", 1, "key_1", 2 );
+
+        merger = new StateMerger( channels );
+        agentState = data;
+        persistentState = PersistentState.of( data );
+        mergerState = merger.newState( data );
+    }
+
+    @Benchmark
+    public Map<String,Object> agentStateUpdate() {
+        return AgentState.updateState( agentState, partialState, channels );
+    }
+
+    @Benchmark
+    public Map<String,Object> persistentStateUpdate() {
+        return PersistentState.updateState( persistentState, partialState, channels );
+    }
+
+    @Benchmark
+    public Map<String,Object> stateMergerMerge() {
+        return merger.merge( mergerState, partialState );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( StateMergeBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -0,0 +1,66 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.AppenderChannel;
+import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.StateMerger;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateMergerTest {
+
+    private final Map<String, Channel<?>> channels = Map.of(
+            "messages", AppenderChannel.<String>of( ArrayList::new ),
+            "count", Channel.<Integer>of( ( a, b ) -> a + b, () -> 0 ),
+            "last", Channel.of( () -> "" ) );
+
+    @Test
+    public void sameResultAsUpdateStateTest() {
+        var merger = new StateMerger( channels );
+
+        Map<String,Object> expected = Map.of( "other", 1 );
+        Map<String,Object> state = merger.newState( expected );
+        var updates = List.<Map<String,Object>>of(
+                Map.of( "messages", "a", "count", 1 ),
+                Map.of( "messages", List.of( "b", "c" ), "last", "c", "extra", true ),
+                Map.of( "count", 2, "other", 2 ),
+                Map.of() );
+
+        for( var update : updates ) {
+            expected = AgentState.updateState( expected, update, channels );
+            state = merger.merge( state, update );
+            assertEquals( expected, state );
+            assertEquals( expected.hashCode(), state.hashCode() );
+        }
+        assertEquals( List.of( "a", "b", "c" ), state.get( "messages" ) );
+        assertEquals( 3, state.get( "count" ) );
+        assertEquals( Set.of( "messages", "count", "last", "other", "extra" ), state.keySet() );
+    }
+
+    @Test
+    public void inPlaceTest() {
+        var merger = new StateMerger( channels );
+
+        var initial = new HashMap<String,Object>( Map.of( "count", 1 ) );
+        var state = merger.merge( initial, Map.of( "count", 1 ) );
+        // a state not created by the merger is copied
+        assertNotSame( initial, state );
+        assertEquals( 1, initial.get( "count" ) );
+        assertEquals( 2, state.get( "count" ) );
+
+        // its own state is updated in place
+        assertSame( state, merger.merge( state, Map.of( "last", "x" ) ) );
+        assertEquals( Map.of( "count", 2, "last", "x" ), state );
+
+        // a state created by another merger is copied
+        assertNotSame( state, new StateMerger( channels ).merge( state, Map.of() ) );
+
+        state.remove( "count" );
+        state.entrySet().removeIf( e -> e.getKey().equals( "last" ) );
+        assertTrue( state.isEmpty() );
+        assertNull( state.get( "count" ) );
+    }
+}
@@ -0,0 +1,91 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.bsc.langgraph4j.serializer.binary.BinaryStateSerializer;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares {@link ObjectStreamStateSerializer} and {@link BinaryStateSerializer} on a message-heavy state:
+ * the clone performed at every step and the serialization performed at every checkpoint.
+ * The serialized sizes are printed by the setup.
+ * <p>
+ * usage: {@code StateSerializerBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateSerializerBenchmark {
+
+    @Param({ "objectStream", "binary" })
+    public String serializerType;
+
+    @Param({ "10", "100" })
+    public int messages;
+
+    private StateSerializer<AgentState> serializer;
+    private AgentState state;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        serializer = switch (serializerType) {
+            case "objectStream" -> {
+                var result = new ObjectStreamStateSerializer<AgentState>( AgentState::new );
+                result.mapper().register( BinaryStateSerializerTest.Message.class, new BinaryStateSerializerTest.MessageSerializer() );
+                yield result;
+            }
+            case "binary" -> new BinaryStateSerializer<AgentState>( AgentState::new )
+                    .register( 1, BinaryStateSerializerTest.Message.class, new BinaryStateSerializerTest.MessageSerializer() );
+            default -> throw new IllegalArgumentException( format("unknown serializer type '%s'", serializerType) );
+        };
+
+        var list = new ArrayList<BinaryStateSerializerTest.Message>();
+        for( int i = 0; i < messages; ++i ) {
+            list.add( new BinaryStateSerializerTest.Message( (i % 2 == 0) ? "user" : "assistant",
+                    format( "message %d", i ),
+                    Map.of( "index", i, "model", "model-1" ) ) );
+        }
+        state = new AgentState( Map.of( "messages", list, "steps", messages, "next", "agent_1" ) );
+        bytes = serializer.writeObject( state );
+
+        System.out.printf( "%n%s serialized size with %d messages: %d bytes%n", serializerType, messages, bytes.length );
+    }
+
+    @Benchmark
+    public AgentState cloneState() throws Exception {
+        return serializer.cloneObject( state );
+    }
+
+    @Benchmark
+    public byte[] write() throws Exception {
+        return serializer.writeObject( state );
+    }
+
+    @Benchmark
+    public AgentState read() throws Exception {
+        return serializer.readObject( bytes );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( StateSerializerBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
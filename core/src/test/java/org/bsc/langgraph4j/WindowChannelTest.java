@@ -0,0 +1,107 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.prebuilt.MessagesStateGraph;
+import org.bsc.langgraph4j.state.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WindowChannelTest {
+
+    private static WindowChannel<String> summarizingWindow( int maxSize ) {
+        return WindowChannel.<String>builder()
+                .maxSize( maxSize )
+                .summarize( "summary", ( String summary, List<String> evicted ) ->
+                        ( summary == null ) ? String.join( ",", evicted ) : summary + "," + String.join( ",", evicted ) )
+                .build();
+    }
+
+    @Test
+    public void boundsTest() {
+        var bySize = WindowChannel.<String>builder().maxSize( 3 ).build();
+        Object window = null;
+        var versions = new ArrayList<List<?>>();
+        for( int i = 0; i < 100; ++i ) {
+            window = bySize.update( "messages", window, String.valueOf( i ) );
+            versions.add( (List<?>) window );
+        }
+        assertEquals( List.of( "97", "98", "99" ), window );
+        // the previous versions are unchanged
+        assertEquals( List.of( "0" ), versions.get( 0 ) );
+        assertEquals( List.of( "47", "48", "49" ), versions.get( 49 ) );
+
+        var byBytes = WindowChannel.<String>builder().maxBytes( 10, String::length ).build();
+        window = byBytes.update( "messages", null, List.of( "aaaa", "bbbb" ) );
+        window = byBytes.update( "messages", window, "cccc" );
+        assertEquals( List.of( "bbbb", "cccc" ), window );
+        assertEquals( 8, ((WindowList<?>) window).weight() );
+        // the last value is always kept
+        window = byBytes.update( "messages", window, "dddddddddddd" );
+        assertEquals( List.of( "dddddddddddd" ), window );
+
+        // a list read from a checkpoint is converted, RemoveIdentifiers are supported
+        window = bySize.update( "messages", new ArrayList<>( List.of( "a", "b", "c" ) ),
+                                List.of( RemoveByHash.of( "b" ), "d" ) );
+        assertInstanceOf( WindowList.class, window );
+        assertEquals( List.of( "a", "c", "d" ), window );
+
+        // the builder doesn't change a channel already built
+        var builder = WindowChannel.<String>builder().maxSize( 3 );
+        var built = builder.build();
+        builder.maxSize( 1 );
+        assertEquals( 3, built.maxSize() );
+        assertEquals( 1, builder.build().maxSize() );
+
+        assertThrows( IllegalStateException.class, () -> WindowChannel.builder().build() );
+        assertThrows( IllegalArgumentException.class, () -> WindowChannel.builder().maxSize( 0 ) );
+    }
+
+    @Test
+    public void summaryTest() {
+        final Map<String, Channel<?>> channels = Map.of( "messages", summarizingWindow( 2 ) );
+        var merger = new StateMerger( channels );
+
+        Map<String,Object> expected = Map.of();
+        Map<String,Object> state = merger.newState( expected );
+        Map<String,Object> persistent = PersistentState.of( expected );
+        var updates = List.<Map<String,Object>>of(
+                Map.of( "messages", List.of( "a", "b" ) ),
+                Map.of( "messages", "c" ),
+                Map.of( "messages", List.of( "d", "e" ) ),
+                Map.of( "other", 1 ) );
+
+        for( var update : updates ) {
+            expected = AgentState.updateState( expected, update, channels );
+            state = merger.merge( state, update );
+            persistent = PersistentState.updateState( persistent, update, channels );
+            assertEquals( expected, state );
+            assertEquals( expected, persistent );
+        }
+        assertEquals( List.of( "d", "e" ), expected.get( "messages" ) );
+        assertEquals( "a,b,c", expected.get( "summary" ) );
+    }
+
+    @Test
+    public void messagesStateGraphTest() throws Exception {
+        var workflow = new MessagesStateGraph<String>( summarizingWindow( 2 ) );
+        var nodes = List.of( "A", "B", "C", "D" );
+        var previous = START;
+        for( var node : nodes ) {
+            workflow.addNode( node, node_async( state -> Map.of( "messages", node ) ) );
+            workflow.addEdge( previous, node );
+            previous = node;
+        }
+        workflow.addEdge( previous, END );
+
+        var result = workflow.compile().invoke( Map.of() );
+
+        assertTrue( result.isPresent() );
+        assertEquals( List.of( "C", "D" ), result.get().messages() );
+        assertEquals( Optional.of( "A,B" ), result.get().value( "summary" ) );
+    }
+}
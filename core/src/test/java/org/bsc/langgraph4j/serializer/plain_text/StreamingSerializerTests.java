@@ -0,0 +1,88 @@
+package org.bsc.langgraph4j.serializer.plain_text;
+
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Assertions shared by the tests of the streaming {@link PlainTextStateSerializer}s
+ */
+public final class StreamingSerializerTests {
+
+    private StreamingSerializerTests() {}
+
+    /**
+     * @return state data whose JSON exceeds the 64KB limit of {@link DataOutput#writeUTF(String)}
+     */
+    public static Map<String,Object> largeStateData() {
+        var messages = new ArrayList<String>();
+        for( int i = 0; i < 20_000; ++i ) {
+            messages.add( "message " + i + " - Lorem ipsum dolor sit amet, consectetur adipiscing elit àèìòù" );
+        }
+        return mapOf( "messages", messages, "prop1", "value1" );
+    }
+
+    /**
+     * Checks that the streaming serializer writes and reads back a large state, that the non streaming one cannot write
+     */
+    public static <State extends AgentState> void assertStreamingLargeState( PlainTextStateSerializer<State> serializer,
+                                                                            PlainTextStateSerializer<State> streamingSerializer,
+                                                                            Function<Map<String,Object>,State> stateFactory ) throws Exception {
+        State state = stateFactory.apply( largeStateData() );
+
+        assertThrows( UTFDataFormatException.class, () -> serializer.writeObject(state) );
+
+        byte[] bytes = streamingSerializer.writeObject(state);
+        assertTrue( bytes.length > 1024 * 1024 );
+        assertEquals( state.data(), streamingSerializer.readObject(bytes).data() );
+
+        // the stream is left positioned after the state
+        var stream = new ByteArrayOutputStream();
+        try( var out = new ObjectOutputStream( stream ) ) {
+            streamingSerializer.write( state, out );
+            out.writeUTF( "after" );
+        }
+        try( var in = new ObjectInputStream( new ByteArrayInputStream( stream.toByteArray() ) ) ) {
+            assertEquals( state.data(), streamingSerializer.read( in ).data() );
+            assertEquals( "after", in.readUTF() );
+        }
+
+        String json = "{\"data\":{\"prop1\":\"value1\"}}";
+        assertEquals( "value1", streamingSerializer.read( json ).data().get("prop1") );
+        assertEquals( "value1", streamingSerializer.read( new StringReader( json ) ).data().get("prop1") );
+    }
+
+    /**
+     * Checks that a chunked stream without the terminating empty chunk, or with a truncated chunk, fails to be read
+     */
+    public static <State extends AgentState> void assertTruncatedStreamFails( PlainTextStateSerializer<State> streamingSerializer ) throws Exception {
+        final byte[] json = "{\"data\":{\"prop1\":\"value1\"}}".getBytes( StandardCharsets.UTF_8 );
+
+        // missing 0 terminator
+        var stream = new ByteArrayOutputStream();
+        try( var out = new ObjectOutputStream( stream ) ) {
+            out.writeInt( json.length );
+            out.write( json );
+        }
+        try( var in = new ObjectInputStream( new ByteArrayInputStream( stream.toByteArray() ) ) ) {
+            assertThrows( IOException.class, () -> streamingSerializer.read( in ) );
+        }
+
+        // truncated chunk
+        stream = new ByteArrayOutputStream();
+        try( var out = new ObjectOutputStream( stream ) ) {
+            out.writeInt( json.length );
+            out.write( json, 0, json.length / 2 );
+        }
+        try( var in = new ObjectInputStream( new ByteArrayInputStream( stream.toByteArray() ) ) ) {
+            assertThrows( IOException.class, () -> streamingSerializer.read( in ) );
+        }
+    }
+}
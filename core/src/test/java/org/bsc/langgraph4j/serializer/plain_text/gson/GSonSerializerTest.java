@@ -3,9 +3,11 @@ package org.bsc.langgraph4j.serializer.plain_text.gson;
 import org.bsc.langgraph4j.state.AgentState;
 import org.junit.jupiter.api.Test;
 
-import java.io.IOException;
+import java.io.*;
 import java.util.Map;
 
+import static org.bsc.langgraph4j.serializer.plain_text.StreamingSerializerTests.assertStreamingLargeState;
+import static org.bsc.langgraph4j.serializer.plain_text.StreamingSerializerTests.assertTruncatedStreamFails;
 import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -45,4 +47,17 @@ public class GSonSerializerTest {
         assertEquals( 1, deserializedState.data().size() );
         assertEquals( "value1", deserializedState.data().get("prop1") );
     }
+
+    @Test
+    public void streamingLargeStateTest() throws Exception {
+        assertStreamingLargeState( new GsonStateSerializer<State>(State::new) {},
+                                    new GsonStreamingStateSerializer<State>(State::new) {},
+                                    State::new );
+    }
+
+    @Test
+    public void truncatedStreamTest() throws Exception {
+        assertTruncatedStreamFails( new GsonStreamingStateSerializer<State>(State::new) {} );
+    }
+
 }
@@ -5,9 +5,11 @@ import org.bsc.langgraph4j.serializer.plain_text.gson.GsonStateSerializer;
 import org.bsc.langgraph4j.state.AgentState;
 import org.junit.jupiter.api.Test;
 
-import java.io.IOException;
+import java.io.*;
 import java.util.Map;
 
+import static org.bsc.langgraph4j.serializer.plain_text.StreamingSerializerTests.assertStreamingLargeState;
+import static org.bsc.langgraph4j.serializer.plain_text.StreamingSerializerTests.assertTruncatedStreamFails;
 import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -56,4 +58,16 @@ public class JacksonSerializerTest {
         assertEquals( "value1", deserializedState.data().get("prop1") );
     }
 
+    @Test
+    public void streamingLargeStateTest() throws Exception {
+        assertStreamingLargeState( new JacksonStateSerializer<State>(State::new) {},
+                                    new JacksonStreamingStateSerializer<State>(State::new) {},
+                                    State::new );
+    }
+
+    @Test
+    public void truncatedStreamTest() throws Exception {
+        assertTruncatedStreamFails( new JacksonStreamingStateSerializer<State>(State::new) {} );
+    }
+
 }
@@ -0,0 +1,326 @@
+package org.bsc.langgraph4j.langchain4j.serializer.std;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.*;
+import org.bsc.langgraph4j.serializer.std.NullableObjectSerializer;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The ChatMessageListSerializer class serializes a collection of ChatMessage objects as a single compact record.
+ * <p>
+ * Within the record the message types are written as a byte, while the tool names, the ids and the user names
+ * are interned in a dictionary local to the record: each of them is written once and then referenced by index.
+ * Texts and tool arguments are written as length prefixed UTF-8, so they are not limited to 64KB as {@code writeUTF}.
+ * Collections that contain other elements, or messages that the record doesn't support (ie. multi content user messages),
+ * are written element by element as the default collection serializer does. In both cases they are read back as a list.
+ * <p>
+ * It is meant to replace the default collection serializer of the {@code ObjectStreamStateSerializer}:
+ * <pre>{@code
+ * mapper().register( Collection.class, new ChatMessageListSerializer() );
+ * }</pre>
+ */
+public class ChatMessageListSerializer implements NullableObjectSerializer<Collection<Object>> {
+
+    static final int ELEMENTS = 0;
+    static final int MESSAGES = 1;
+
+    static final int SYSTEM = 0;
+    static final int USER = 1;
+    static final int AI = 2;
+    static final int TOOL_EXECUTION_RESULT = 3;
+
+    static final int AI_TEXT = 1;
+    static final int AI_TOOL_EXECUTION_REQUESTS = 2;
+
+    /**
+     * Checks if the given collection can be written as a single record
+     *
+     * @param collection the collection to check
+     * @return true if all the elements are supported messages
+     */
+    static boolean isMessageList( Collection<?> collection ) {
+        for( Object element : collection ) {
+            if( element instanceof UserMessage ) {
+                if( !((UserMessage) element).hasSingleText() ) {
+                    return false;
+                }
+            }
+            else if( !( element instanceof SystemMessage ||
+                        element instanceof AiMessage ||
+                        element instanceof ToolExecutionResultMessage ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Serializes the given collection to the specified ObjectOutput.
+     *
+     * @param object the collection to serialize
+     * @param out the ObjectOutput to write the serialized data to
+     * @throws IOException if an I/O error occurs during serialization
+     */
+    @Override
+    public void write(Collection<Object> object, ObjectOutput out) throws IOException {
+        if( !isMessageList( object ) ) {
+            out.writeByte( ELEMENTS );
+            out.writeInt( object.size() );
+            for( Object element : object ) {
+                writeNullableObject( element, out );
+            }
+            return;
+        }
+        RecordWriter record = new RecordWriter();
+        record.writeVarInt( object.size() );
+        for( Object element : object ) {
+            record.writeMessage( (ChatMessage) element );
+        }
+        out.writeByte( MESSAGES );
+        out.writeInt( record.size );
+        out.write( record.buffer, 0, record.size );
+    }
+
+    /**
+     * Deserializes a list from the specified ObjectInput.
+     *
+     * @param in the ObjectInput to read the serialized data from
+     * @return the deserialized list
+     * @throws IOException if an I/O error occurs during deserialization
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
+     */
+    @Override
+    public Collection<Object> read(ObjectInput in) throws IOException, ClassNotFoundException {
+        int tag = in.readByte();
+        if( tag == ELEMENTS ) {
+            int size = in.readInt();
+            List<Object> result = new ArrayList<>( size );
+            for( int i = 0; i < size; ++i ) {
+                result.add( readNullableObject( in ).orElse( null ) );
+            }
+            return result;
+        }
+        if( tag != MESSAGES ) {
+            throw new StreamCorruptedException( "Unsupported chat message list tag: " + tag );
+        }
+        byte[] bytes = new byte[ in.readInt() ];
+        in.readFully( bytes );
+        RecordReader record = new RecordReader( bytes );
+        int size = record.readVarInt();
+        List<Object> result = new ArrayList<>( size );
+        for( int i = 0; i < size; ++i ) {
+            result.add( record.readMessage() );
+        }
+        return result;
+    }
+
+    /**
+     * growable buffer holding a record and its string dictionary
+     */
+    static class RecordWriter {
+        final Map<String,Integer> dictionary = new HashMap<>();
+        byte[] buffer = new byte[256];
+        int size;
+
+        private void ensureCapacity( int extra ) {
+            if( size + extra > buffer.length ) {
+                buffer = Arrays.copyOf( buffer, Math.max( size + extra, buffer.length << 1 ) );
+            }
+        }
+
+        void writeByte( int value ) {
+            ensureCapacity( 1 );
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarInt( int value ) {
+            ensureCapacity( 5 );
+            while( (value & ~0x7F) != 0 ) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        /**
+         * writes a nullable string as {@code [varint length + 1][UTF-8 bytes]}, 0 being null
+         */
+        void writeText( String value ) {
+            if( value == null ) {
+                writeVarInt( 0 );
+                return;
+            }
+            byte[] bytes = value.getBytes( UTF_8 );
+            writeVarInt( bytes.length + 1 );
+            ensureCapacity( bytes.length );
+            System.arraycopy( bytes, 0, buffer, size, bytes.length );
+            size += bytes.length;
+        }
+
+        /**
+         * writes a nullable string through the dictionary: 0 is null, 1 a new entry followed by its text,
+         * otherwise the index of a previous entry plus 2
+         */
+        void writeSymbol( String value ) {
+            if( value == null ) {
+                writeVarInt( 0 );
+                return;
+            }
+            Integer index = dictionary.get( value );
+            if( index != null ) {
+                writeVarInt( index + 2 );
+                return;
+            }
+            dictionary.put( value, dictionary.size() );
+            writeVarInt( 1 );
+            writeText( value );
+        }
+
+        void writeMessage( ChatMessage message ) {
+            switch( message.type() ) {
+                case SYSTEM:
+                    writeByte( SYSTEM );
+                    writeText( ((SystemMessage) message).text() );
+                    break;
+                case USER:
+                    UserMessage user = (UserMessage) message;
+                    writeByte( USER );
+                    writeText( user.singleText() );
+                    writeSymbol( user.name() );
+                    break;
+                case AI:
+                    AiMessage ai = (AiMessage) message;
+                    writeByte( AI );
+                    writeByte( ( ai.text() != null ? AI_TEXT : 0 ) |
+                                ( ai.hasToolExecutionRequests() ? AI_TOOL_EXECUTION_REQUESTS : 0 ) );
+                    if( ai.text() != null ) {
+                        writeText( ai.text() );
+                    }
+                    if( ai.hasToolExecutionRequests() ) {
+                        writeVarInt( ai.toolExecutionRequests().size() );
+                        for( ToolExecutionRequest request : ai.toolExecutionRequests() ) {
+                            writeSymbol( request.id() );
+                            writeSymbol( request.name() );
+                            writeText( request.arguments() );
+                        }
+                    }
+                    break;
+                case TOOL_EXECUTION_RESULT:
+                    ToolExecutionResultMessage result = (ToolExecutionResultMessage) message;
+                    writeByte( TOOL_EXECUTION_RESULT );
+                    writeSymbol( result.id() );
+                    writeSymbol( result.toolName() );
+                    writeText( result.text() );
+                    break;
+                default:
+                    throw new IllegalArgumentException( "Unsupported chat message type: " + message.type() );
+            }
+        }
+    }
+
+    /**
+     * reader of a record, rebuilding its string dictionary
+     */
+    static class RecordReader {
+        final List<String> dictionary = new ArrayList<>();
+        final byte[] buffer;
+        int position;
+
+        RecordReader( byte[] buffer ) {
+            this.buffer = buffer;
+        }
+
+        int readByte() throws IOException {
+            if( position >= buffer.length ) {
+                throw new StreamCorruptedException( "chat message record is truncated" );
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        int readVarInt() throws IOException {
+            int result = 0;
+            for( int shift = 0; shift < 32; shift += 7 ) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if( (b & 0x80) == 0 ) {
+                    return result;
+                }
+            }
+            throw new StreamCorruptedException( "malformed varint in chat message record" );
+        }
+
+        String readText() throws IOException {
+            int length = readVarInt();
+            if( length == 0 ) {
+                return null;
+            }
+            length -= 1;
+            if( length > buffer.length - position ) {
+                throw new StreamCorruptedException( "chat message record is truncated" );
+            }
+            String result = new String( buffer, position, length, UTF_8 );
+            position += length;
+            return result;
+        }
+
+        String readSymbol() throws IOException {
+            int code = readVarInt();
+            if( code == 0 ) {
+                return null;
+            }
+            if( code == 1 ) {
+                String value = readText();
+                dictionary.add( value );
+                return value;
+            }
+            if( code - 2 >= dictionary.size() ) {
+                throw new StreamCorruptedException( "invalid dictionary reference in chat message record" );
+            }
+            return dictionary.get( code - 2 );
+        }
+
+        ChatMessage readMessage() throws IOException {
+            int type = readByte();
+            switch( type ) {
+                case SYSTEM:
+                    return SystemMessage.from( readText() );
+                case USER: {
+                    String text = readText();
+                    String name = readSymbol();
+                    return ( name != null ) ? UserMessage.from( name, text ) : UserMessage.from( text );
+                }
+                case AI: {
+                    int flags = readByte();
+                    String text = ( (flags & AI_TEXT) != 0 ) ? readText() : null;
+                    if( (flags & AI_TOOL_EXECUTION_REQUESTS) == 0 ) {
+                        return AiMessage.from( text );
+                    }
+                    int size = readVarInt();
+                    List<ToolExecutionRequest> requests = new ArrayList<>( size );
+                    for( int i = 0; i < size; ++i ) {
+                        requests.add( ToolExecutionRequest.builder()
+                                .id( readSymbol() )
+                                .name( readSymbol() )
+                                .arguments( readText() )
+                                .build() );
+                    }
+                    return ( text != null ) ? AiMessage.from( text, requests ) : AiMessage.from( requests );
+                }
+                case TOOL_EXECUTION_RESULT: {
+                    String id = readSymbol();
+                    String toolName = readSymbol();
+                    return ToolExecutionResultMessage.from( id, toolName, readText() );
+                }
+                default:
+                    throw new StreamCorruptedException( "Unsupported chat message type: " + type );
+            }
+        }
+    }
+}
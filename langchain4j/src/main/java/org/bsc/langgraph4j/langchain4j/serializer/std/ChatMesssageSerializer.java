@@ -1,7 +1,9 @@
 package org.bsc.langgraph4j.langchain4j.serializer.std;
 
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.data.message.*;
 
+import org.bsc.langgraph4j.serializer.CopierMapper;
 import org.bsc.langgraph4j.serializer.Serializer;
 
 import java.io.IOException;
@@ -18,6 +20,18 @@ public class ChatMesssageSerializer implements Serializer<ChatMessage> {
     final SystemMessageSerializer system = new SystemMessageSerializer();
     final ToolExecutionResultMessageSerializer toolExecutionResult = new ToolExecutionResultMessageSerializer();
 
+    /**
+     * Declares the chat messages, and the tool execution requests they hold, immutable in the given registry,
+     * so that the copies of a state share them instead of cloning them through their serialization.
+     *
+     * @param copiers the copier registry of a state serializer (ie. {@code copiers()})
+     * @return the given registry
+     */
+    public static CopierMapper immutableMessages(CopierMapper copiers) {
+        return copiers.immutable(UserMessage.class, AiMessage.class, SystemMessage.class,
+                ToolExecutionResultMessage.class, ToolExecutionRequest.class);
+    }
+
     /**
      * Serializes the given ChatMessage object to the specified output stream.
      *
@@ -0,0 +1,75 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.langchain4j.serializer.std.ChatMessageListSerializer;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the {@link ChatMessageListSerializer} compact record ("compact" mode) against the default collection
+ * serializer with the per message serializers ("standard" mode), on conversations with a growing number of tool calls.
+ * The serialized size of each configuration is printed at setup.
+ * <p>
+ * usage: {@code ChatMessageListSerializerBenchmark [jmh options]} or run it through the JMH runner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatMessageListSerializerBenchmark {
+
+    @Param({ "standard", "compact" })
+    public String mode;
+
+    @Param({ "10", "100" })
+    public int toolCalls;
+
+    private ObjectStreamStateSerializer<AgentState> serializer;
+    private AgentState state;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        serializer = ChatMessageListSerializerTest.newSerializer( "compact".equals(mode) );
+        Map<String,Object> data = new HashMap<>();
+        data.put( "messages", ChatMessageListSerializerTest.conversation( toolCalls ) );
+        state = new AgentState( data );
+        bytes = serializer.writeObject( state );
+        System.out.println( format( "%n%s, %d tool calls: %d bytes", mode, toolCalls, bytes.length ) );
+    }
+
+    @Benchmark
+    public byte[] writeObject() throws Exception {
+        return serializer.writeObject( state );
+    }
+
+    @Benchmark
+    public AgentState readObject() throws Exception {
+        return serializer.readObject( bytes );
+    }
+
+    @Benchmark
+    public AgentState cloneObject() throws Exception {
+        return serializer.cloneObject( state );
+    }
+
+    public static void main(String[] args) throws Exception {
+        if( args.length > 0 ) {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        new Runner( new OptionsBuilder()
+                .include( ChatMessageListSerializerBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -0,0 +1,112 @@
+package org.bsc.langgraph4j;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.*;
+import org.bsc.langgraph4j.langchain4j.serializer.std.ChatMessageListSerializer;
+import org.bsc.langgraph4j.langchain4j.serializer.std.ChatMesssageSerializer;
+import org.bsc.langgraph4j.langchain4j.serializer.std.ToolExecutionRequestSerializer;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.state.AgentState;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChatMessageListSerializerTest {
+
+    static ObjectStreamStateSerializer<AgentState> newSerializer( boolean compact ) {
+        ObjectStreamStateSerializer<AgentState> serializer = new ObjectStreamStateSerializer<>( AgentState::new );
+        serializer.mapper().register( ChatMessage.class, new ChatMesssageSerializer() );
+        serializer.mapper().register( ToolExecutionRequest.class, new ToolExecutionRequestSerializer() );
+        if( compact ) {
+            serializer.mapper().register( Collection.class, new ChatMessageListSerializer() );
+        }
+        ChatMesssageSerializer.immutableMessages( serializer.copiers() );
+        return serializer;
+    }
+
+    static List<ChatMessage> conversation( int toolCalls ) {
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add( SystemMessage.from( "you are a helpful assistant" ) );
+        messages.add( UserMessage.from( "bartolo", "what's the weather like?" ) );
+        for( int i = 0; i < toolCalls; ++i ) {
+            String id = format( "call_%d", i );
+            String tool = ( i % 2 == 0 ) ? "getWeather" : "getLocation";
+            messages.add( AiMessage.from( ToolExecutionRequest.builder()
+                    .id( id )
+                    .name( tool )
+                    .arguments( format( "{\"city\":\"city %d\"}", i % 5 ) )
+                    .build() ) );
+            messages.add( ToolExecutionResultMessage.from( id, tool, format( "result %d", i ) ) );
+        }
+        messages.add( AiMessage.from( "it's sunny" ) );
+        return messages;
+    }
+
+    @Test
+    public void roundTripTest() throws Exception {
+        ObjectStreamStateSerializer<AgentState> serializer = newSerializer( true );
+
+        List<ChatMessage> messages = conversation( 3 );
+        messages.add( AiMessage.from( "let me check", Collections.singletonList( ToolExecutionRequest.builder()
+                .id( "call_x" ).name( "getWeather" ).arguments( "{}" ).build() ) ) );
+        StringBuilder longText = new StringBuilder();
+        for( int i = 0; i < 10_000; ++i ) {
+            longText.append( "long text " );
+        }
+        messages.add( UserMessage.from( longText.toString() ) );
+
+        Map<String,Object> data = new HashMap<>();
+        data.put( "messages", messages );
+        AgentState result = serializer.readObject( serializer.writeObject( serializer.stateOf( data ) ) );
+
+        assertEquals( messages, result.data().get( "messages" ) );
+        assertInstanceOf( ArrayList.class, result.data().get( "messages" ) );
+    }
+
+    @Test
+    public void copyStateTest() throws Exception {
+        ObjectStreamStateSerializer<AgentState> serializer = newSerializer( true );
+
+        List<ChatMessage> messages = conversation( 2 );
+        Map<String,Object> data = new HashMap<>();
+        data.put( "messages", messages );
+        data.put( "last", messages.get( messages.size() - 1 ) );
+
+        Map<String,Object> copy = serializer.copyState( data ).data();
+
+        // the list is copied, the messages are shared
+        List<?> copied = (List<?>) copy.get( "messages" );
+        assertNotSame( messages, copied );
+        assertEquals( messages.size(), copied.size() );
+        for( int i = 0; i < messages.size(); ++i ) {
+            assertSame( messages.get( i ), copied.get( i ) );
+        }
+        assertSame( data.get( "last" ), copy.get( "last" ) );
+    }
+
+    @Test
+    public void elementsFallbackTest() throws Exception {
+        ObjectStreamStateSerializer<AgentState> serializer = newSerializer( true );
+
+        List<Object> values = new ArrayList<>( Arrays.asList( "a", null, 1, UserMessage.from( "hello" ) ) );
+        Map<String,Object> data = new HashMap<>();
+        data.put( "values", values );
+        AgentState result = serializer.readObject( serializer.writeObject( serializer.stateOf( data ) ) );
+
+        assertEquals( values, result.data().get( "values" ) );
+    }
+
+    @Test
+    public void sizeTest() throws Exception {
+        Map<String,Object> data = new HashMap<>();
+        data.put( "messages", conversation( 100 ) );
+
+        int standard = newSerializer( false ).writeObject( new AgentState( data ) ).length;
+        int compact = newSerializer( true ).writeObject( new AgentState( data ) ).length;
+
+        assertTrue( compact * 2 < standard, format( "compact: %d standard: %d", compact, standard ) );
+    }
+}